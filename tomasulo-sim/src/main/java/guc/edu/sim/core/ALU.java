@@ -5,6 +5,27 @@ package guc.edu.sim.core;
  */
 public class ALU {
     
+    /** True for the three-source FMA / FMS opcodes. */
+    public static boolean isFused(String opcode) {
+        if (opcode == null) return false;
+        String op = opcode.toUpperCase();
+        return op.startsWith("FMA") || op.startsWith("FMS");
+    }
+
+    /**
+     * Three-operand form. FMA computes vj * vk + vl and FMS computes vj * vk - vl,
+     * each with a single rounding; any other opcode ignores vl.
+     */
+    public static double compute(String opcode, double vj, double vk, double vl) {
+        if (!isFused(opcode)) {
+            return compute(opcode, vj, vk);
+        }
+        boolean subtract = opcode.toUpperCase().startsWith("FMS");
+        double result = Math.fma(vj, vk, subtract ? -vl : vl);
+        if (SimLog.isEnabled()) SimLog.println("[ALU] " + vj + " * " + vk + (subtract ? " - " : " + ") + vl + " = " + result);
+        return result;
+    }
+
     public static double compute(String opcode, double vj, double vk) {
         String op = opcode.toUpperCase();
 
@@ -18,32 +39,32 @@ public class ALU {
             case "DADD":
             case "DADDI":
             case "ADDI":
-                System.out.println("[ALU] " + vj + " + " + vk + " = " + (vj + vk));
+                if (SimLog.isEnabled()) SimLog.println("[ALU] " + vj + " + " + vk + " = " + (vj + vk));
                 return vj + vk;
 
             case "SUB":
             case "DSUB":
             case "SUBI":
             case "DSUBI":
-                System.out.println("[ALU] " + vj + " - " + vk + " = " + (vj - vk));
+                if (SimLog.isEnabled()) SimLog.println("[ALU] " + vj + " - " + vk + " = " + (vj - vk));
                 return vj - vk;
 
             case "MUL":
             case "DMUL":
-                System.out.println("[ALU] " + vj + " * " + vk + " = " + (vj * vk));
+                if (SimLog.isEnabled()) SimLog.println("[ALU] " + vj + " * " + vk + " = " + (vj * vk));
                 return vj * vk;
 
             case "DIV":
             case "DDIV":
                 if (vk == 0) {
-                    System.out.println("[ALU] Division by zero!");
+                    SimLog.println("[ALU] Division by zero!");
                     return Double.NaN;
                 }
-                System.out.println("[ALU] " + vj + " / " + vk + " = " + (vj / vk));
+                if (SimLog.isEnabled()) SimLog.println("[ALU] " + vj + " / " + vk + " = " + (vj / vk));
                 return vj / vk;
 
             default:
-                System.out.println("[ALU] Unknown operation: " + opcode);
+                if (SimLog.isEnabled()) SimLog.println("[ALU] Unknown operation: " + opcode);
                 return 0.0;
         }
     }
@@ -1,9 +1,12 @@
 package guc.edu.sim.core;
 
+import java.io.Serializable;
+
 /**
  * Branch unit for handling BEQ/BNE instructions without prediction.
  */
-public class BranchUnit implements BranchUnitInterface {
+public class BranchUnit implements BranchUnitInterface, Serializable {
+    private static final long serialVersionUID = 1L;
     private final RegisterFile regFile;
     private final Program program;
     private boolean busy = false;
@@ -68,7 +71,7 @@ public class BranchUnit implements BranchUnitInterface {
             src2Ready = true;
         }
         
-        System.out.println("[Branch] Accepted " + instr.getOpcode() + " waiting for operands");
+        SimLog.println("[Branch] Accepted " + instr.getOpcode() + " waiting for operands");
     }
 
     public void tryResolve() {
@@ -88,7 +91,7 @@ public class BranchUnit implements BranchUnitInterface {
             executionStartCycle = currentCycle;
             // FIXED: For latency-1 branches, set remainingCycles to 0 so they complete in the same cycle
             remainingCycles = Math.max(0, latency - 1);
-            System.out.println("[Branch] Execution started at cycle " + currentCycle + " (remainingCycles=" + remainingCycles + ")");
+            SimLog.println("[Branch] Execution started at cycle " + currentCycle + " (remainingCycles=" + remainingCycles + ")");
         }
         
         if (remainingCycles > 0) {
@@ -112,7 +115,7 @@ public class BranchUnit implements BranchUnitInterface {
         }
         
         resolved = true;
-        System.out.println("[Branch] Resolved: " + opcode + " condition=" + condition + " target=" + targetPc);
+        SimLog.println("[Branch] Resolved: " + opcode + " condition=" + condition + " target=" + targetPc);
     }
 
     public void broadcastResult(String tag, double result) {
@@ -0,0 +1,190 @@
+package guc.edu.sim.core;
+
+import java.util.Locale;
+
+/**
+ * A condition that stops a run. Create one with the factory methods or {@link #parse} and
+ * add it with {@link SimulatorState#addBreakpoint}, which compiles it against the simulator
+ * once; checking it each cycle then only reads a few counters and fields.
+ *
+ * Level conditions (PC and register values) fire on the cycle they become true, so a run
+ * resumed from a breakpoint does not stop again at once. Event conditions (write-back of a
+ * tag, a store to a watched address, a cache miss) fire on every cycle the event happens.
+ *
+ * Text form, as accepted by {@link #parse} and produced by {@link #toString}:
+ * <pre>
+ *   cycle 500            the clock reaches cycle 500
+ *   pc 0x10              a thread is about to issue the instruction at PC 0x10 (4 bytes each)
+ *   tag ADD1             the instruction holding tag ADD1 writes back
+ *   F2 &gt; 3.5            a register compares true (==, !=, &lt;, &lt;=, &gt;, &gt;=)
+ *   write 0x100 8        a store touches any of the 8 bytes from address 0x100
+ *   miss                 the cache misses
+ *   stall structural 20  issue has been blocked for the same reason for 20 cycles
+ * </pre>
+ */
+public final class Breakpoint {
+
+    public enum Kind { CYCLE, PC, TAG, REGISTER, MEMORY_WRITE, CACHE_MISS, STALL }
+
+    public enum Comparison {
+        EQ("=="), NE("!="), LT("<"), LE("<="), GT(">"), GE(">=");
+
+        public final String symbol;
+
+        Comparison(String symbol) {
+            this.symbol = symbol;
+        }
+
+        boolean test(double left, double right) {
+            switch (this) {
+                case EQ: return left == right;
+                case NE: return left != right;
+                case LT: return left < right;
+                case LE: return left <= right;
+                case GT: return left > right;
+                default: return left >= right;
+            }
+        }
+
+        static Comparison of(String symbol) {
+            for (Comparison c : values()) {
+                if (c.symbol.equals(symbol)) return c;
+            }
+            if (symbol.equals("=")) return EQ;
+            throw new IllegalArgumentException("Unknown comparison '" + symbol + "'");
+        }
+    }
+
+    public final Kind kind;
+    /** Cycle, PC, first watched address or stall length, depending on the kind. */
+    public final int value;
+    /** Bytes watched by a memory watchpoint. */
+    public final int length;
+    /** Tag or register name. */
+    public final String name;
+    public final Comparison comparison;
+    public final double operand;
+    public final SimulatorState.IssueStall stall;
+
+    private Breakpoint(Kind kind, int value, int length, String name, Comparison comparison, double operand,
+                       SimulatorState.IssueStall stall) {
+        this.kind = kind;
+        this.value = value;
+        this.length = length;
+        this.name = name;
+        this.comparison = comparison;
+        this.operand = operand;
+        this.stall = stall;
+    }
+
+    public static Breakpoint atCycle(int cycle) {
+        if (cycle < 0) throw new IllegalArgumentException("Cycle must not be negative");
+        return new Breakpoint(Kind.CYCLE, cycle, 0, null, null, 0, null);
+    }
+
+    /** @param pc byte address as shown in the instruction table (4 bytes per instruction) */
+    public static Breakpoint atPc(int pc) {
+        if (pc < 0 || pc % 4 != 0) throw new IllegalArgumentException("PC must be a non-negative multiple of 4");
+        return new Breakpoint(Kind.PC, pc, 0, null, null, 0, null);
+    }
+
+    public static Breakpoint onWriteBack(String tag) {
+        if (tag == null || tag.isEmpty()) throw new IllegalArgumentException("Tag must not be empty");
+        return new Breakpoint(Kind.TAG, 0, 0, tag, null, 0, null);
+    }
+
+    public static Breakpoint onRegister(String register, Comparison comparison, double operand) {
+        if (register == null || !register.matches("[RF]\\d+(\\.T\\d+)?")) {
+            throw new IllegalArgumentException("Not a register: " + register);
+        }
+        return new Breakpoint(Kind.REGISTER, 0, 0, register, comparison, operand, null);
+    }
+
+    public static Breakpoint onMemoryWrite(int address, int bytes) {
+        if (bytes <= 0) throw new IllegalArgumentException("Watched length must be positive");
+        return new Breakpoint(Kind.MEMORY_WRITE, address, bytes, null, null, 0, null);
+    }
+
+    public static Breakpoint onCacheMiss() {
+        return new Breakpoint(Kind.CACHE_MISS, 0, 0, null, null, 0, null);
+    }
+
+    public static Breakpoint onStall(SimulatorState.IssueStall stall, int cycles) {
+        if (stall == null) throw new IllegalArgumentException("Stall reason must not be null");
+        if (cycles <= 0) throw new IllegalArgumentException("Stall length must be positive");
+        return new Breakpoint(Kind.STALL, cycles, 0, null, null, 0, stall);
+    }
+
+    /** Parse the text form described in the class comment. */
+    public static Breakpoint parse(String text) {
+        String[] words = text.trim().split("\\s+");
+        String keyword = words[0].toLowerCase(Locale.ROOT);
+        try {
+            switch (keyword) {
+                case "cycle":
+                    expectWords(words, 2, text);
+                    return atCycle(parseInt(words[1]));
+                case "pc":
+                    expectWords(words, 2, text);
+                    return atPc(parseInt(words[1]));
+                case "tag":
+                    expectWords(words, 2, text);
+                    return onWriteBack(words[1].toUpperCase(Locale.ROOT));
+                case "write":
+                    if (words.length != 2 && words.length != 3) throw syntax(text);
+                    return onMemoryWrite(parseInt(words[1]), words.length == 3 ? parseInt(words[2]) : 8);
+                case "miss":
+                    expectWords(words, 1, text);
+                    return onCacheMiss();
+                case "stall":
+                    expectWords(words, 3, text);
+                    return onStall(parseStall(words[1]), parseInt(words[2]));
+                default:
+                    // "F2 > 3.5", also written without spaces
+                    String compact = text.replaceAll("\\s+", "");
+                    java.util.regex.Matcher m = java.util.regex.Pattern
+                            .compile("([A-Za-z]\\d+(?:\\.[Tt]\\d+)?)(==|!=|<=|>=|=|<|>)(.+)").matcher(compact);
+                    if (!m.matches()) throw syntax(text);
+                    return onRegister(m.group(1).toUpperCase(Locale.ROOT), Comparison.of(m.group(2)),
+                                      Double.parseDouble(m.group(3)));
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad number in breakpoint '" + text + "'", e);
+        }
+    }
+
+    private static SimulatorState.IssueStall parseStall(String word) {
+        String name = word.toUpperCase(Locale.ROOT).replace('-', '_');
+        for (SimulatorState.IssueStall stall : SimulatorState.IssueStall.values()) {
+            if (stall.name().equals(name)) return stall;
+        }
+        throw new IllegalArgumentException("Unknown stall reason '" + word + "', expected one of " +
+                                           java.util.Arrays.toString(SimulatorState.IssueStall.values()));
+    }
+
+    private static void expectWords(String[] words, int count, String text) {
+        if (words.length != count) throw syntax(text);
+    }
+
+    private static IllegalArgumentException syntax(String text) {
+        return new IllegalArgumentException("Cannot parse breakpoint '" + text + "'");
+    }
+
+    private static int parseInt(String word) {
+        return word.startsWith("0x") || word.startsWith("0X")
+               ? Integer.parseUnsignedInt(word.substring(2), 16) : Integer.parseInt(word);
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case CYCLE: return "cycle " + value;
+            case PC: return String.format("pc 0x%04X", value);
+            case TAG: return "tag " + name;
+            case REGISTER: return name + " " + comparison.symbol + " " + operand;
+            case MEMORY_WRITE: return "write " + value + " " + length;
+            case CACHE_MISS: return "miss";
+            default: return "stall " + stall.name().toLowerCase(Locale.ROOT) + " " + value;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package guc.edu.sim.core;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Breakpoints compiled against one simulator configuration. Each breakpoint becomes a
+ * predicate that reads fields and counters captured at compile time - register names,
+ * issue units, the cache and memory - so the per-cycle check does no parsing or searching.
+ * Stores and write-backs latch their events into bit masks as they happen.
+ *
+ * Compiled state refers to the simulator's current components, so the simulator recompiles
+ * whenever it rebuilds or restores them.
+ */
+class BreakpointSet {
+    private final Breakpoint[] breakpoints;
+    private final BooleanSupplier[] conditions;
+    private final Memory memory;
+    private final String[] watchedTags;
+
+    private long tagsWrittenBack;   // bit i: watchedTags[i] wrote back this cycle
+    private long watchedWrites;     // bit i: watch range i was stored to this cycle
+
+    BreakpointSet(List<Breakpoint> list, SimulatorState sim) {
+        if (list.size() > Long.SIZE) {
+            throw new IllegalArgumentException("At most " + Long.SIZE + " breakpoints are supported");
+        }
+        breakpoints = list.toArray(new Breakpoint[0]);
+        conditions = new BooleanSupplier[breakpoints.length];
+        memory = sim.getMemory();
+
+        int tagCount = 0;
+        int watchCount = 0;
+        for (Breakpoint bp : breakpoints) {
+            if (bp.kind == Breakpoint.Kind.TAG) tagCount++;
+            if (bp.kind == Breakpoint.Kind.MEMORY_WRITE) watchCount++;
+        }
+        watchedTags = new String[tagCount];
+        int[] watchLows = new int[watchCount];
+        int[] watchHighs = new int[watchCount];
+        tagCount = 0;
+        watchCount = 0;
+
+        for (int i = 0; i < breakpoints.length; i++) {
+            Breakpoint bp = breakpoints[i];
+            switch (bp.kind) {
+                case CYCLE: {
+                    int cycle = bp.value;
+                    conditions[i] = () -> sim.getCycle() == cycle;
+                    break;
+                }
+                case PC: {
+                    int index = bp.value / 4;
+                    IssueUnit[] units = sim.getThreads().stream().map(t -> t.issueUnit).toArray(IssueUnit[]::new);
+                    conditions[i] = rising(() -> {
+                        for (IssueUnit unit : units) {
+                            if (unit.getPc() == index && unit.hasNext()) return true;
+                        }
+                        return false;
+                    });
+                    break;
+                }
+                case TAG: {
+                    long bit = 1L << tagCount;
+                    watchedTags[tagCount++] = bp.name;
+                    conditions[i] = () -> (tagsWrittenBack & bit) != 0;
+                    break;
+                }
+                case REGISTER: {
+                    RegisterFile regs = sim.getRegFile();
+                    String register = bp.name;
+                    Breakpoint.Comparison comparison = bp.comparison;
+                    double operand = bp.operand;
+                    conditions[i] = rising(() -> comparison.test(regs.getValue(register), operand));
+                    break;
+                }
+                case MEMORY_WRITE: {
+                    long bit = 1L << watchCount;
+                    watchLows[watchCount] = bp.value;
+                    watchHighs[watchCount++] = bp.value + bp.length;
+                    conditions[i] = () -> (watchedWrites & bit) != 0;
+                    break;
+                }
+                case CACHE_MISS: {
+                    Cache cache = sim.getCache();
+                    int[] lastMisses = {cache.getMisses()};
+                    conditions[i] = () -> {
+                        int misses = cache.getMisses();
+                        boolean missed = misses > lastMisses[0];
+                        lastMisses[0] = misses;
+                        return missed;
+                    };
+                    break;
+                }
+                case STALL: {
+                    SimulatorState.IssueStall stall = bp.stall;
+                    int cycles = bp.value;
+                    conditions[i] = () -> sim.getIssueStall() == stall && sim.getIssueStallCycles() == cycles;
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("Unsupported breakpoint " + bp);
+            }
+        }
+        memory.watchWrites(watchLows, watchHighs);
+    }
+
+    /** True on the cycles where {@code level} changes from false to true. */
+    private static BooleanSupplier rising(BooleanSupplier level) {
+        boolean[] was = {level.getAsBoolean()};
+        return () -> {
+            boolean now = level.getAsBoolean();
+            boolean rose = now && !was[0];
+            was[0] = now;
+            return rose;
+        };
+    }
+
+    void onWriteBack(String tag) {
+        for (int i = 0; i < watchedTags.length; i++) {
+            if (watchedTags[i].equals(tag)) tagsWrittenBack |= 1L << i;
+        }
+    }
+
+    /**
+     * Evaluate every breakpoint at the end of a cycle.
+     * @return the first one that fired, or null
+     */
+    Breakpoint check() {
+        watchedWrites = memory.takeWatchedWrites();
+        Breakpoint hit = null;
+        // Every condition runs so that edge-triggered ones see each cycle
+        for (int i = 0; i < conditions.length; i++) {
+            if (conditions[i].getAsBoolean() && hit == null) hit = breakpoints[i];
+        }
+        tagsWrittenBack = 0;
+        return hit;
+    }
+
+    /** Stop watching the memory this set was compiled against. */
+    void detach() {
+        memory.watchWrites(new int[0], new int[0]);
+    }
+}
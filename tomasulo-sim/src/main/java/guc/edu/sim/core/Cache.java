@@ -1,5 +1,8 @@
 package guc.edu.sim.core;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -7,7 +10,8 @@ import java.util.Map;
  * Direct-mapped cache implementation with proper miss handling.
  * The cache state is only updated AFTER the miss penalty completes.
  */
-public class Cache {
+public class Cache implements Serializable {
+    private static final long serialVersionUID = 1L;
     private final int cacheSize;      // Total cache size in bytes
     private final int blockSize;      // Block size in bytes
     private final int numBlocks;      // Number of cache lines
@@ -17,6 +21,14 @@ public class Cache {
     private final CacheLine[] lines;
     private int hits = 0;
     private int misses = 0;
+    private int fills = 0;
+    private int writeThroughs = 0;
+    private transient ChangeTracker changes = new ChangeTracker();  // UI feed, not part of a checkpoint
+    private CoherenceBus coherence;   // null on a single core
+    private int coreId;
+    private MemoryChannel channel;    // null: every miss costs a flat missPenalty
+    private DramController dram;      // when set, misses are timed by DRAM instead
+    private static final int WRITE_THROUGH_BYTES = 8;  // one double per store
     
     // Track pending cache fills (block address -> cycle when fill completes)
     private final Map<Integer, Integer> pendingFills = new HashMap<>();
@@ -33,7 +45,55 @@ public class Cache {
             lines[i] = new CacheLine(blockSize);
         }
         
-        System.out.println("[Cache] Initialized: " + numBlocks + " lines, " + blockSize + " bytes/block");
+        SimLog.println("[Cache] Initialized: " + numBlocks + " lines, " + blockSize + " bytes/block");
+    }
+
+    public void setChangeTracker(ChangeTracker changes) {
+        this.changes = changes;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        changes = new ChangeTracker();  // the simulator hands its own tracker in again
+    }
+
+    /**
+     * Keep this cache coherent with the other cores' caches through {@code bus}.
+     */
+    public void setCoherence(CoherenceBus bus, int coreId) {
+        this.coherence = bus;
+        this.coreId = coreId;
+        bus.reset(coreId);
+    }
+
+    /**
+     * Send misses and write-throughs over a finite-bandwidth channel instead of charging
+     * a flat miss penalty (null restores the flat penalty).
+     */
+    public void setMemoryChannel(MemoryChannel channel) {
+        this.channel = channel;
+    }
+
+    public MemoryChannel getMemoryChannel() { return channel; }
+
+    /**
+     * Time misses and write-throughs with a DRAM model instead of the flat miss penalty
+     * (and instead of the memory channel). A miss then returns a pending
+     * {@link CacheAccessResult#memoryRequest} whose latency the caller adds once known.
+     */
+    public void setDram(DramController dram) {
+        this.dram = dram;
+    }
+
+    public DramController getDram() { return dram; }
+
+    private CacheAccessResult miss(int blockAddress, Memory memory) {
+        byte[] block = memory.loadBlock(blockAddress, blockSize);
+        if (dram != null) {
+            return new CacheAccessResult(false, 0, block, blockAddress, dram.submit(blockAddress, false));
+        }
+        int latency = channel != null ? channel.read(blockSize) : missPenalty;
+        return new CacheAccessResult(false, latency, block, blockAddress);
     }
 
     /**
@@ -43,38 +103,63 @@ public class Cache {
  // In Cache.java, access() method - change the miss case:
 
     public CacheAccessResult access(int address, Memory memory) {
+        return access(address, memory, false);
+    }
+
+    /**
+     * Access the cache for a read or a write. With coherence enabled the latency also
+     * includes the bus transaction needed to get the block in a readable or writable state.
+     */
+    public CacheAccessResult access(int address, Memory memory, boolean write) {
+        CacheAccessResult result = lookup(address, memory);
+        if (coherence == null) return result;
+
+        int busLatency = write ? coherence.write(coreId, result.blockAddress)
+                               : coherence.read(coreId, result.blockAddress);
+        if (busLatency == 0) return result;
+        return new CacheAccessResult(result.hit, result.latency + busLatency, result.data, result.blockAddress,
+                                     result.memoryRequest);
+    }
+
+    private CacheAccessResult lookup(int address, Memory memory) {
         int blockAddress = (address / blockSize) * blockSize;
         int index = (address / blockSize) % numBlocks;
         int tag = address / cacheSize;
         
         CacheLine line = lines[index];
         
+        // Another core's write invalidated our copy
+        if (coherence != null && line.isValid() && line.getTag() == tag && !coherence.holds(coreId, blockAddress)) {
+            line.setValid(false);
+            changes.markCacheLine(index);
+            SimLog.println("[Cache] Line " + index + " (block " + blockAddress + ") was invalidated by another core");
+        }
+        
         // Check if this line is currently being filled
         if (pendingFills.containsKey(blockAddress)) {
             // Still loading from a previous miss - treat as miss
             misses++;
-            System.out.println("[Cache] MISS at address " + address + " (block " + blockAddress + " still loading from previous miss)");
+            if (SimLog.isEnabled()) {
+                SimLog.println("[Cache] MISS at address " + address + " (block " + blockAddress + " still loading from previous miss)");
+            }
             
             // Load block from memory (we need the data reference)
-            byte[] block = memory.loadBlock(blockAddress, blockSize);
-            return new CacheAccessResult(false, missPenalty, block, blockAddress);
+            return miss(blockAddress, memory);
         }
         
         if (line.isValid() && line.getTag() == tag) {
             // Cache hit
             hits++;
-            System.out.println("[Cache] HIT at address " + address + " (index=" + index + ", tag=" + tag + ")");
+            if (SimLog.isEnabled()) SimLog.println("[Cache] HIT at address " + address + " (index=" + index + ", tag=" + tag + ")");
             return new CacheAccessResult(true, hitLatency, line.getData(), blockAddress);
         } else {
             // Cache miss - DON'T update cache line yet
             misses++;
-            System.out.println("[Cache] MISS at address " + address + " (index=" + index + ", tag=" + tag + ")");
+            if (SimLog.isEnabled()) SimLog.println("[Cache] MISS at address " + address + " (index=" + index + ", tag=" + tag + ")");
             
             // Load block from memory
-            byte[] block = memory.loadBlock(blockAddress, blockSize);
-            
             // FIXED: Return missPenalty only, not hitLatency + missPenalty
-            return new CacheAccessResult(false, missPenalty, block, blockAddress);
+            return miss(blockAddress, memory);
         }
     }
     
@@ -90,20 +175,26 @@ public class Cache {
         CacheLine line = lines[index];
         byte[] block = memory.loadBlock(blockAddress, blockSize);
         
-        System.out.println("[Cache] completeFill called for address " + address);
-        System.out.println("[Cache]   blockAddress=" + blockAddress + ", index=" + index + ", tag=" + tag);
-        System.out.println("[Cache]   Block data from memory: " + java.util.Arrays.toString(block));
+        if (SimLog.isEnabled()) {
+            SimLog.println("[Cache] completeFill called for address " + address);
+            SimLog.println("[Cache]   blockAddress=" + blockAddress + ", index=" + index + ", tag=" + tag);
+            SimLog.println("[Cache]   Block data from memory: " + java.util.Arrays.toString(block));
+        }
         
-       
+        evictIfReplaced(index, line, tag);
         line.setValid(true);
         line.setTag(tag);
         line.setData(block);
+        changes.markCacheLine(index);
+        fills++;
         
         // Remove from pending
         pendingFills.remove(blockAddress);
         
-        System.out.println("[Cache] Completed fill for address " + address + " (index=" + index + ", tag=" + tag + ")");
-        debugPrintCacheLine(index, line);
+        if (SimLog.isEnabled()) {
+            SimLog.println("[Cache] Completed fill for address " + address + " (index=" + index + ", tag=" + tag + ")");
+            debugPrintCacheLine(index, line);
+        }
     }
     
     /**
@@ -112,7 +203,9 @@ public class Cache {
     public void markPendingFill(int address, int completionCycle) {
         int blockAddress = (address / blockSize) * blockSize;
         pendingFills.put(blockAddress, completionCycle);
-        System.out.println("[Cache] Marked block " + blockAddress + " as pending (completes cycle " + completionCycle + ")");
+        if (SimLog.isEnabled()) {
+            SimLog.println("[Cache] Marked block " + blockAddress + " as pending (completes cycle " + completionCycle + ")");
+        }
     }
     
     /**
@@ -134,11 +227,19 @@ public class Cache {
 
         CacheLine line = lines[index];
         byte[] block = memory.loadBlock(blockAddress, blockSize);
+        evictIfReplaced(index, line, tag);
         line.setValid(true);
         line.setTag(tag);
         line.setData(block);
+        changes.markCacheLine(index);
+        writeThroughs++;
+        if (dram != null) {
+            dram.submit(blockAddress, true);
+        } else if (channel != null) {
+            channel.write(WRITE_THROUGH_BYTES);
+        }
         
-        System.out.println("[Cache] Write-through at address " + address + " (index=" + index + ", tag=" + tag + ")");
+        SimLog.println("[Cache] Write-through at address " + address + " (index=" + index + ", tag=" + tag + ")");
     }
     
     /**
@@ -150,7 +251,7 @@ public class Cache {
             return;
         }
         
-        System.out.println("[Cache] Warming cache with initial memory values...");
+        SimLog.println("[Cache] Warming cache with initial memory values...");
         for (Integer address : initialData.keySet()) {
             int blockAddress = (address / blockSize) * blockSize;
             int index = (address / blockSize) % numBlocks;
@@ -161,12 +262,82 @@ public class Cache {
             line.setValid(true);
             line.setTag(tag);
             line.setData(block);
+            changes.markCacheLine(index);
             
-            System.out.println("[Cache] Pre-loaded address " + address + " into cache (index=" + index + ", tag=" + tag + ")");
+            SimLog.println("[Cache] Pre-loaded address " + address + " into cache (index=" + index + ", tag=" + tag + ")");
             debugPrintCacheLine(index, line);
         }
     }
     
+    /**
+     * Functional warming: install the block holding {@code address} without timing,
+     * statistics or data. Returns true if it was already present.
+     */
+    public boolean touch(int address) {
+        int index = (address / blockSize) % numBlocks;
+        int tag = address / cacheSize;
+        CacheLine line = lines[index];
+        if (line.isValid() && line.getTag() == tag) return true;
+        line.setValid(true);
+        line.setTag(tag);
+        return false;
+    }
+
+    /**
+     * Install the block holding {@code address} with its data from {@code memory}, without
+     * timing or statistics. Used to warm a cache of any geometry from a saved block list.
+     */
+    public void install(int address, Memory memory) {
+        int index = (address / blockSize) % numBlocks;
+        CacheLine line = lines[index];
+        line.setValid(true);
+        line.setTag(address / cacheSize);
+        line.setData(memory.loadBlock(address / blockSize * blockSize, blockSize));
+        changes.markCacheLine(index);
+    }
+
+    /** Start addresses of the blocks this cache holds, by line. */
+    public int[] getResidentBlocks() {
+        int count = 0;
+        for (CacheLine line : lines) {
+            if (line.isValid()) count++;
+        }
+        int[] blocks = new int[count];
+        count = 0;
+        for (int i = 0; i < numBlocks; i++) {
+            if (lines[i].isValid()) blocks[count++] = lines[i].getTag() * cacheSize + i * blockSize;
+        }
+        return blocks;
+    }
+
+    /**
+     * Take over which blocks {@code warmed} holds (same geometry), reading their data from {@code memory}.
+     */
+    public void copyStateFrom(Cache warmed, Memory memory) {
+        if (warmed.numBlocks != numBlocks || warmed.blockSize != blockSize) {
+            throw new IllegalArgumentException("Cache geometry differs: " + warmed.numBlocks + "x" + warmed.blockSize +
+                                               " vs " + numBlocks + "x" + blockSize);
+        }
+        for (int i = 0; i < numBlocks; i++) {
+            CacheLine source = warmed.lines[i];
+            lines[i].setValid(source.isValid());
+            lines[i].setTag(source.getTag());
+            if (source.isValid()) {
+                lines[i].setData(memory.loadBlock(source.getTag() * cacheSize + i * blockSize, blockSize));
+            }
+            changes.markCacheLine(i);
+        }
+    }
+
+    /**
+     * Tell the coherence bus when a fill replaces a different block in a line.
+     */
+    private void evictIfReplaced(int index, CacheLine line, int newTag) {
+        if (coherence != null && line.isValid() && line.getTag() != newTag) {
+            coherence.evict(coreId, line.getTag() * cacheSize + index * blockSize);
+        }
+    }
+
     /**
      * Debug helper to print cache line contents
      */
@@ -179,7 +350,7 @@ public class Cache {
         for (int i = 0; i < data.length; i++) {
             sb.append(String.format("%02X ", data[i] & 0xFF));
         }
-        System.out.println(sb.toString());
+        SimLog.println(sb.toString());
         
         // Also print as doubles
         for (int offset = 0; offset + 7 < data.length; offset += 8) {
@@ -189,12 +360,14 @@ public class Cache {
                 bits |= (b << (8 * j));
             }
             double value = Double.longBitsToDouble(bits);
-            System.out.println("[Cache]   Offset " + offset + " as double: " + value);
+            SimLog.println("[Cache]   Offset " + offset + " as double: " + value);
         }
     }
 
     public int getHits() { return hits; }
     public int getMisses() { return misses; }
+    public int getFills() { return fills; }
+    public int getWriteThroughs() { return writeThroughs; }
     public int getNumBlocks() { return numBlocks; }
     public CacheLine[] getLines() { return lines; }
     public int getBlockSize() { return blockSize; }
@@ -202,14 +375,18 @@ public class Cache {
     public void clear() {
         hits = 0;
         misses = 0;
+        fills = 0;
+        writeThroughs = 0;
         pendingFills.clear();
-        for (CacheLine line : lines) {
-            line.setValid(false);
-            line.setTag(0);
+        for (int i = 0; i < lines.length; i++) {
+            lines[i].setValid(false);
+            lines[i].setTag(0);
+            changes.markCacheLine(i);
         }
     }
 
-    public static class CacheLine {
+    public static class CacheLine implements Serializable {
+        private static final long serialVersionUID = 1L;
         private boolean valid;
         private int tag;
         private byte[] data;
@@ -250,12 +427,19 @@ public class Cache {
         public final int latency;
         public final byte[] data;
         public final int blockAddress;
+        public final DramController.Request memoryRequest;  // DRAM read still to be timed, or null
 
         public CacheAccessResult(boolean hit, int latency, byte[] data, int blockAddress) {
+            this(hit, latency, data, blockAddress, null);
+        }
+
+        public CacheAccessResult(boolean hit, int latency, byte[] data, int blockAddress,
+                                 DramController.Request memoryRequest) {
             this.hit = hit;
             this.latency = latency;
             this.data = data;
             this.blockAddress = blockAddress;
+            this.memoryRequest = memoryRequest;
         }
     }
 }
\ No newline at end of file
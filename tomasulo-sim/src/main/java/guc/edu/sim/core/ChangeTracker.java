@@ -0,0 +1,83 @@
+package guc.edu.sim.core;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Records which parts of the simulator state changed since the last drain.
+ * Components mark the keys they touch (station/buffer tags, register names,
+ * cache line indices, instruction status rows) and the UI patches only those rows.
+ */
+public class ChangeTracker {
+    private boolean fullRefresh = true;
+    private Set<String> stations = new LinkedHashSet<>();
+    private Set<String> loadEntries = new LinkedHashSet<>();
+    private Set<String> storeEntries = new LinkedHashSet<>();
+    private Set<String> registers = new LinkedHashSet<>();
+    private Set<Integer> cacheLines = new LinkedHashSet<>();
+    private Set<Integer> statusRows = new LinkedHashSet<>();
+
+    public void markFullRefresh() { fullRefresh = true; }
+    public void markStation(String tag) { if (tag != null) stations.add(tag); }
+    public void markLoadEntry(String tag) { if (tag != null) loadEntries.add(tag); }
+    public void markStoreEntry(String tag) { if (tag != null) storeEntries.add(tag); }
+    public void markRegister(String reg) { if (reg != null) registers.add(reg); }
+    public void markCacheLine(int index) { cacheLines.add(index); }
+    public void markStatusRow(int index) { if (index >= 0) statusRows.add(index); }
+
+    /**
+     * Hand out everything recorded so far and start a fresh recording.
+     */
+    public Changes drain() {
+        Changes changes = new Changes(fullRefresh, stations, loadEntries, storeEntries,
+                                      registers, cacheLines, statusRows);
+        fullRefresh = false;
+        stations = new LinkedHashSet<>();
+        loadEntries = new LinkedHashSet<>();
+        storeEntries = new LinkedHashSet<>();
+        registers = new LinkedHashSet<>();
+        cacheLines = new LinkedHashSet<>();
+        statusRows = new LinkedHashSet<>();
+        return changes;
+    }
+
+    /**
+     * Immutable set of changes between two drains. When {@link #isFullRefresh()} is true
+     * the simulator was rebuilt and every view must be re-rendered.
+     */
+    public static class Changes {
+        private final boolean fullRefresh;
+        private final Set<String> stations;
+        private final Set<String> loadEntries;
+        private final Set<String> storeEntries;
+        private final Set<String> registers;
+        private final Set<Integer> cacheLines;
+        private final Set<Integer> statusRows;
+
+        Changes(boolean fullRefresh, Set<String> stations, Set<String> loadEntries,
+                Set<String> storeEntries, Set<String> registers,
+                Set<Integer> cacheLines, Set<Integer> statusRows) {
+            this.fullRefresh = fullRefresh;
+            this.stations = Collections.unmodifiableSet(stations);
+            this.loadEntries = Collections.unmodifiableSet(loadEntries);
+            this.storeEntries = Collections.unmodifiableSet(storeEntries);
+            this.registers = Collections.unmodifiableSet(registers);
+            this.cacheLines = Collections.unmodifiableSet(cacheLines);
+            this.statusRows = Collections.unmodifiableSet(statusRows);
+        }
+
+        public boolean isFullRefresh() { return fullRefresh; }
+        public Set<String> getStations() { return stations; }
+        public Set<String> getLoadEntries() { return loadEntries; }
+        public Set<String> getStoreEntries() { return storeEntries; }
+        public Set<String> getRegisters() { return registers; }
+        public Set<Integer> getCacheLines() { return cacheLines; }
+        public Set<Integer> getStatusRows() { return statusRows; }
+
+        public boolean isEmpty() {
+            return !fullRefresh && stations.isEmpty() && loadEntries.isEmpty() && storeEntries.isEmpty()
+                    && registers.isEmpty() && cacheLines.isEmpty() && statusRows.isEmpty();
+        }
+    }
+}
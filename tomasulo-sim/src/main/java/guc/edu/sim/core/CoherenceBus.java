@@ -0,0 +1,248 @@
+package guc.edu.sim.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snooping MESI coherence for the private caches of a multicore.
+ *
+ * The bus keeps the MESI state of every block in every core's cache. Data values
+ * always live in the shared {@link Memory} (the caches are write-through), so the
+ * protocol models timing and traffic: each bus transaction costs {@code busLatency}
+ * cycles and a block supplied by a peer holding it MODIFIED costs another
+ * {@code cacheToCacheLatency}.
+ *
+ * Cores run a quantum at a time, possibly on different host threads. Within a quantum a
+ * core sees the states as of the last {@link #synchronize()} plus its own transactions,
+ * which are queued. At the synchronization point the queued transactions are applied
+ * core by core, in the order each core made them; that is when other copies are
+ * invalidated and the traffic is counted. The outcome does not depend on how the host
+ * threads interleave, and a core only touches its own queue during a quantum.
+ */
+public class CoherenceBus {
+    public enum State { MODIFIED, EXCLUSIVE, SHARED, INVALID }
+
+    private static final int READ = 0;
+    private static final int WRITE = 1;
+    private static final int EVICT = 2;
+
+    private final int cores;
+    private final int busLatency;
+    private final int cacheToCacheLatency;
+    private final Map<Integer, State[]> states = new HashMap<>();
+    // Per core: its own states changed this quantum, and its transactions as (kind, block) pairs
+    private final List<Map<Integer, State>> pendingStates = new ArrayList<>();
+    private final List<List<int[]>> pending = new ArrayList<>();
+
+    private int busReads = 0;
+    private int busReadExclusives = 0;
+    private int busUpgrades = 0;
+    private int cacheToCacheTransfers = 0;
+    private int writeBacks = 0;
+    private int invalidations = 0;
+    private final int[] invalidationsReceived;
+
+    public CoherenceBus(int cores, int busLatency, int cacheToCacheLatency) {
+        this.cores = cores;
+        this.busLatency = busLatency;
+        this.cacheToCacheLatency = cacheToCacheLatency;
+        this.invalidationsReceived = new int[cores];
+        for (int c = 0; c < cores; c++) {
+            pendingStates.add(new HashMap<>());
+            pending.add(new ArrayList<>());
+        }
+    }
+
+    /** Forget everything {@code core} holds, e.g. when its cache is rebuilt. */
+    public synchronized void reset(int core) {
+        for (State[] blockStates : states.values()) {
+            blockStates[core] = State.INVALID;
+        }
+        pendingStates.get(core).clear();
+        pending.get(core).clear();
+    }
+
+    /** State of the block in {@code core}'s cache as that core sees it, including its queued transactions. */
+    public State getState(int core, int blockAddress) {
+        State own = pendingStates.get(core).get(blockAddress);
+        return own != null ? own : committedState(core, blockAddress);
+    }
+
+    private State committedState(int core, int blockAddress) {
+        State[] blockStates = states.get(blockAddress);
+        return blockStates != null ? blockStates[core] : State.INVALID;
+    }
+
+    /** True if {@code core} holds a valid copy of the block. */
+    public boolean holds(int core, int blockAddress) {
+        return getState(core, blockAddress) != State.INVALID;
+    }
+
+    /**
+     * {@code core} reads the block. Returns the cycles the coherence transaction adds
+     * to the access (0 when the core already holds the block).
+     */
+    public int read(int core, int blockAddress) {
+        if (getState(core, blockAddress) != State.INVALID) return 0;
+        int latency = busLatency;
+        boolean shared = false;
+        State[] blockStates = states.get(blockAddress);
+        for (int other = 0; blockStates != null && other < cores; other++) {
+            if (other == core || blockStates[other] == State.INVALID) continue;
+            if (blockStates[other] == State.MODIFIED) latency += cacheToCacheLatency;
+            shared = true;
+        }
+        pendingStates.get(core).put(blockAddress, shared ? State.SHARED : State.EXCLUSIVE);
+        pending.get(core).add(new int[] {READ, blockAddress});
+        return latency;
+    }
+
+    /**
+     * {@code core} writes the block, invalidating every other copy. Returns the cycles the
+     * coherence transaction adds to the access (0 when the core already owns the block).
+     */
+    public int write(int core, int blockAddress) {
+        State current = getState(core, blockAddress);
+        if (current == State.MODIFIED) return 0;
+        int latency = 0;
+        if (current != State.EXCLUSIVE) {
+            latency = busLatency;
+            State[] blockStates = states.get(blockAddress);
+            for (int other = 0; blockStates != null && other < cores; other++) {
+                if (other != core && blockStates[other] == State.MODIFIED) latency += cacheToCacheLatency;
+            }
+        }
+        pendingStates.get(core).put(blockAddress, State.MODIFIED);
+        pending.get(core).add(new int[] {WRITE, blockAddress});
+        return latency;
+    }
+
+    /** {@code core}'s cache replaced the block. */
+    public void evict(int core, int blockAddress) {
+        if (getState(core, blockAddress) == State.INVALID) return;
+        pendingStates.get(core).put(blockAddress, State.INVALID);
+        pending.get(core).add(new int[] {EVICT, blockAddress});
+    }
+
+    /**
+     * Apply the transactions queued since the last call, core 0's first. Call only while no
+     * core is stepping.
+     */
+    public synchronized void synchronize() {
+        for (int core = 0; core < cores; core++) {
+            for (int[] transaction : pending.get(core)) {
+                switch (transaction[0]) {
+                    case READ:
+                        applyRead(core, transaction[1]);
+                        break;
+                    case WRITE:
+                        applyWrite(core, transaction[1]);
+                        break;
+                    default:
+                        applyEvict(core, transaction[1]);
+                        break;
+                }
+            }
+            pending.get(core).clear();
+            pendingStates.get(core).clear();
+        }
+    }
+
+    private void applyRead(int core, int blockAddress) {
+        State[] blockStates = statesOf(blockAddress);
+        if (blockStates[core] != State.INVALID) return;
+
+        busReads++;
+        int latency = busLatency;
+        boolean shared = false;
+        for (int other = 0; other < cores; other++) {
+            if (other == core || blockStates[other] == State.INVALID) continue;
+            if (blockStates[other] == State.MODIFIED) {
+                // The owner flushes the dirty block and supplies it
+                writeBacks++;
+                cacheToCacheTransfers++;
+                latency += cacheToCacheLatency;
+            }
+            blockStates[other] = State.SHARED;
+            shared = true;
+        }
+        blockStates[core] = shared ? State.SHARED : State.EXCLUSIVE;
+        SimLog.println("[Coherence] Core " + core + " BusRd block " + blockAddress + " -> " + blockStates[core] +
+                       " (+" + latency + " cycles)");
+    }
+
+    private void applyWrite(int core, int blockAddress) {
+        State[] blockStates = statesOf(blockAddress);
+        State current = blockStates[core];
+        if (current == State.MODIFIED) return;
+        if (current == State.EXCLUSIVE) {
+            blockStates[core] = State.MODIFIED;
+            return;
+        }
+
+        int latency = busLatency;
+        if (current == State.SHARED) {
+            busUpgrades++;
+        } else {
+            busReadExclusives++;
+        }
+        int invalidated = 0;
+        for (int other = 0; other < cores; other++) {
+            if (other == core || blockStates[other] == State.INVALID) continue;
+            if (blockStates[other] == State.MODIFIED) {
+                writeBacks++;
+                cacheToCacheTransfers++;
+                latency += cacheToCacheLatency;
+            }
+            blockStates[other] = State.INVALID;
+            invalidationsReceived[other]++;
+            invalidated++;
+        }
+        invalidations += invalidated;
+        blockStates[core] = State.MODIFIED;
+        SimLog.println("[Coherence] Core " + core + (current == State.SHARED ? " BusUpgr" : " BusRdX") +
+                       " block " + blockAddress + ", invalidated " + invalidated + " cop" +
+                       (invalidated == 1 ? "y" : "ies") + " (+" + latency + " cycles)");
+    }
+
+    private void applyEvict(int core, int blockAddress) {
+        State[] blockStates = states.get(blockAddress);
+        if (blockStates == null || blockStates[core] == State.INVALID) return;
+        if (blockStates[core] == State.MODIFIED) {
+            writeBacks++;
+        }
+        blockStates[core] = State.INVALID;
+    }
+
+    private State[] statesOf(int blockAddress) {
+        return states.computeIfAbsent(blockAddress, block -> {
+            State[] blockStates = new State[cores];
+            Arrays.fill(blockStates, State.INVALID);
+            return blockStates;
+        });
+    }
+
+    public int getCoreCount() { return cores; }
+    public synchronized int getBusReads() { return busReads; }
+    public synchronized int getBusReadExclusives() { return busReadExclusives; }
+    public synchronized int getBusUpgrades() { return busUpgrades; }
+    public synchronized int getCacheToCacheTransfers() { return cacheToCacheTransfers; }
+    public synchronized int getWriteBacks() { return writeBacks; }
+    public synchronized int getInvalidations() { return invalidations; }
+    public synchronized int getInvalidationsReceived(int core) { return invalidationsReceived[core]; }
+
+    /** All bus transactions: reads, read-exclusives and upgrades. */
+    public synchronized int getTransactions() {
+        return busReads + busReadExclusives + busUpgrades;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "BusRd=" + busReads + ", BusRdX=" + busReadExclusives + ", BusUpgr=" + busUpgrades +
+               ", invalidations=" + invalidations + ", cache-to-cache=" + cacheToCacheTransfers +
+               ", write-backs=" + writeBacks;
+    }
+}
@@ -14,7 +14,7 @@ public class CommonDataBus {
     }
 
     public void broadcast(String tag, double result) {
-        System.out.println("[CDB] Broadcasting " + tag + " = " + result);
+        SimLog.println("[CDB] Broadcasting " + tag + " = " + result);
         for (BroadcastListener listener : listeners) {
             listener.onBroadcast(tag, result);
         }
@@ -0,0 +1,220 @@
+package guc.edu.sim.core;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lock-step co-simulation against an in-order architectural reference.
+ *
+ * Issue is in program order, so the n-th instruction the timing model issues must be the
+ * n-th one the reference executes. The checker steps a {@link FunctionalInterpreter} once
+ * per issue, checks the PC, and records the value the instruction must produce. When the
+ * result later appears on the CDB (or a store writes memory) it is compared with that
+ * value. The first mismatch is kept as a {@link Divergence} and checking stops.
+ *
+ * The reference keeps its registers across steps, and only the operand values are saved
+ * per instruction; they are formatted when a divergence is reported. Vector register
+ * results are compared element by element when the vector unit writes them back. Vector
+ * stores are not compared; a wrong stored element shows up in the next load that reads it.
+ */
+public class CosimChecker implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** The first point where the timing model disagreed with the reference. */
+    public static class Divergence {
+        public final int cycle;
+        public final String tag;
+        public final int pc;
+        public final String instruction;
+        public final String detail;
+
+        Divergence(int cycle, String tag, int pc, String instruction, String detail) {
+            this.cycle = cycle;
+            this.tag = tag;
+            this.pc = pc;
+            this.instruction = instruction;
+            this.detail = detail;
+        }
+
+        @Override
+        public String toString() {
+            return "Cycle " + cycle + ", PC " + pc + " " + instruction + (tag != null ? " [" + tag + "]" : "") +
+                   ": " + detail;
+        }
+    }
+
+    /** What the reference says an in-flight instruction must produce. */
+    private static class Expected implements Serializable {
+        private static final long serialVersionUID = 1L;
+        final int pc;
+        final double value;
+        final double[] vector;  // vector register results only
+        final int address;      // stores only
+        // Reference source values, for the report
+        final double src1;
+        final double src2;
+        final double src3;
+        final double base;
+
+        Expected(int pc, double value, double[] vector, int address, double src1, double src2, double src3,
+                 double base) {
+            this.pc = pc;
+            this.value = value;
+            this.vector = vector;
+            this.address = address;
+            this.src1 = src1;
+            this.src2 = src2;
+            this.src3 = src3;
+            this.base = base;
+        }
+    }
+
+    private final Program program;
+    private final FunctionalInterpreter reference;
+    private final VectorRegisterFile refVectors;
+    private final Map<String, Expected> inFlight = new HashMap<>();
+    private Divergence divergence;
+    private long checked = 0;
+
+    /**
+     * @param registers  initial architectural register values
+     * @param memory     initial memory; the reference works on its own snapshot
+     * @param vectorRegs initial vector registers, copied
+     * @param startPc    first instruction the timing model will issue
+     */
+    public CosimChecker(Program program, Map<String, Double> registers, Memory memory,
+                        VectorRegisterFile vectorRegs, int startPc) {
+        this.program = program;
+        RegisterFile refRegs = new RegisterFile();
+        refRegs.loadInitialValues(registers);
+        this.refVectors = new VectorRegisterFile(vectorRegs.getVectorLength());
+        for (int v = 0; v < VectorRegisterFile.NUM_REGISTERS; v++) {
+            refVectors.setValue("V" + v, vectorRegs.getValue("V" + v));
+        }
+        this.reference = new FunctionalInterpreter(program, refRegs, memory.snapshot());
+        reference.setVectorRegisterFile(refVectors);
+        reference.setPc(startPc);
+    }
+
+    /** The timing model issued the instruction at {@code pc} under {@code tag}. */
+    public void onIssue(String tag, int pc, int cycle) {
+        if (divergence != null) return;
+        if (reference.getPc() != pc) {
+            diverge(cycle, tag, pc, "issued out of program order; the reference is at PC " + reference.getPc() +
+                    (reference.isFinished() ? " (finished)" : " " + program.get(reference.getPc())));
+            return;
+        }
+
+        Instruction instr = program.get(pc);
+        double src1 = value(instr.getSrc1());
+        double src2 = value(instr.getSrc2());
+        double src3 = value(instr.getSrc3());
+        double base = value(instr.getBase());
+        switch (instr.getType()) {
+            case STORE:
+                inFlight.put(tag, new Expected(pc, src1, null, (int) base + offset(instr), src1, src2, src3, base));
+                reference.step();
+                break;
+            case ALU_FP:
+            case ALU_INT:
+            case LOAD:
+                reference.step();
+                inFlight.put(tag, new Expected(pc, reference.getValue(instr.getDest()), null, 0,
+                                               src1, src2, src3, base));
+                break;
+            case VECTOR_ALU:
+            case VECTOR_LOAD:
+                reference.step();
+                inFlight.put(tag, new Expected(pc, 0, refVectors.getValue(instr.getDest()), 0,
+                                               src1, src2, src3, base));
+                break;
+            default:
+                // Branches are checked through the PC of the next issue
+                reference.step();
+                break;
+        }
+    }
+
+    /** A register result was broadcast on the CDB. */
+    public void onResult(String tag, double value, int cycle) {
+        Expected expected = inFlight.remove(tag);
+        if (divergence != null || expected == null) return;
+        checked++;
+        if (!same(expected.value, value)) {
+            Instruction instr = program.get(expected.pc);
+            diverge(cycle, tag, expected.pc, instr.getDest() + " = " + value + ", expected " + expected.value +
+                    " (reference operands " + operands(instr, expected) + ")");
+        }
+    }
+
+    /** The vector unit wrote back a vector register result. */
+    public void onVectorResult(String tag, double[] value, int cycle) {
+        Expected expected = inFlight.remove(tag);
+        if (divergence != null || expected == null) return;
+        checked++;
+        for (int i = 0; i < expected.vector.length; i++) {
+            double actual = i < value.length ? value[i] : 0.0;
+            if (!same(expected.vector[i], actual)) {
+                Instruction instr = program.get(expected.pc);
+                diverge(cycle, tag, expected.pc, instr.getDest() + "[" + i + "] = " + actual + ", expected " +
+                        expected.vector[i] + " (reference operands " + operands(instr, expected) + ")");
+                return;
+            }
+        }
+    }
+
+    /** A store wrote {@code value} to {@code address}. */
+    public void onStore(String tag, int address, double value, int cycle) {
+        Expected expected = inFlight.remove(tag);
+        if (divergence != null || expected == null) return;
+        checked++;
+        if (address != expected.address) {
+            diverge(cycle, tag, expected.pc, "stored to address " + address + ", expected " + expected.address +
+                    " (reference " + operands(program.get(expected.pc), expected) + ")");
+        } else if (!same(expected.value, value)) {
+            diverge(cycle, tag, expected.pc, "stored " + value + " to " + address + ", expected " + expected.value);
+        }
+    }
+
+    private void diverge(int cycle, String tag, int pc, String detail) {
+        divergence = new Divergence(cycle, tag, pc, pc < program.size() ? program.get(pc).toString() : "?", detail);
+        SimLog.println("[Cosim] DIVERGENCE at " + divergence);
+    }
+
+    private static boolean same(double a, double b) {
+        return a == b || (Double.isNaN(a) && Double.isNaN(b));
+    }
+
+    /** Reference value of a register operand; 0 for immediates and missing operands. */
+    private double value(String operand) {
+        return isRegister(operand) ? reference.getValue(operand) : 0.0;
+    }
+
+    private static boolean isRegister(String operand) {
+        if (operand == null || operand.isEmpty()) return false;
+        char first = operand.charAt(0);
+        return first != '-' && !Character.isDigit(first);
+    }
+
+    private static String operands(Instruction instr, Expected expected) {
+        StringBuilder sb = new StringBuilder();
+        String[] names = {instr.getSrc1(), instr.getSrc2(), instr.getSrc3(), instr.getBase()};
+        double[] values = {expected.src1, expected.src2, expected.src3, expected.base};
+        for (int i = 0; i < names.length; i++) {
+            if (!isRegister(names[i])) continue;
+            if (sb.length() > 0) sb.append(", ");
+            sb.append(names[i]).append('=').append(values[i]);
+        }
+        return sb.toString();
+    }
+
+    private static int offset(Instruction instr) {
+        return instr.getOffset() != null ? instr.getOffset() : 0;
+    }
+
+    public boolean hasDiverged() { return divergence != null; }
+    public Divergence getDivergence() { return divergence; }
+    /** Results compared so far. */
+    public long getCheckedCount() { return checked; }
+}
@@ -0,0 +1,381 @@
+package guc.edu.sim.core;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Post-run critical-path analysis over the dynamic dependency graph.
+ *
+ * While the run is traced, the simulator reports each issued instruction with the
+ * producers it waited on (register status tags at issue), whether issue was held by a
+ * full station or buffer, and the address each load or store used. Each dynamic
+ * instruction has four events (issue, execution start, execution end, write-back) taken
+ * from {@link SimulatorState.InstructionStatus}, joined by edges:
+ *
+ * <ul>
+ *   <li>issue: previous issue in the thread (in-order issue), the preceding branch's
+ *       write-back, for a structural stall the write-back that freed a slot of the same
+ *       unit, and for an address conflict at issue the older access's write-back;</li>
+ *   <li>execution start: own issue, the producers' write-backs (register RAW) and the
+ *       end of the older load or store to the same address (memory ordering);</li>
+ *   <li>execution end: execution start;</li>
+ *   <li>write-back: execution end, or the broadcast that held the CDB the cycle before.</li>
+ * </ul>
+ *
+ * The critical path is found by walking back from the last write-back, at each event
+ * following the incoming edge that arrived last. Its cycles are charged to edge types
+ * and to the static instructions whose events they lead into.
+ */
+public class CriticalPathAnalyzer implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public enum EdgeType {
+        START,          // cycles before the first issue
+        ISSUE_ORDER,    // in-order issue behind the previous instruction
+        BRANCH,         // issue waiting for the preceding branch to resolve
+        STRUCTURAL,     // issue waiting for a free station or buffer
+        DISPATCH,       // issue to execution start with no data wait
+        REGISTER_RAW,   // waiting for a producer's result on the CDB
+        MEMORY_ORDER,   // waiting for an older load or store to the same address
+        EXECUTE,        // functional unit, cache and memory latency
+        WRITE_BACK,     // execution end to write-back
+        CDB_DEFERRAL    // write-back delayed because another result held the CDB
+    }
+
+    private static final int ISSUE = 0, START = 1, END = 2, WRITE = 3;
+
+    /** What the simulator reported about one issued instruction. */
+    private static class Record implements Serializable {
+        private static final long serialVersionUID = 1L;
+        final int statusIndex;
+        final int thread;
+        final String unit;
+        final InstructionType type;
+        final int[] producers;  // status indices
+        final boolean structuralStall;
+        final boolean memoryStall;
+        Integer address;
+
+        Record(int statusIndex, int thread, String unit, InstructionType type, int[] producers,
+               boolean structuralStall, boolean memoryStall) {
+            this.statusIndex = statusIndex;
+            this.thread = thread;
+            this.unit = unit;
+            this.type = type;
+            this.producers = producers;
+            this.structuralStall = structuralStall;
+            this.memoryStall = memoryStall;
+        }
+    }
+
+    private final List<Record> records = new ArrayList<>();
+    private final Map<Integer, Record> byStatus = new HashMap<>();
+    private final Map<Integer, Boolean> structuralStallPending = new HashMap<>();
+    private final Map<Integer, Boolean> memoryStallPending = new HashMap<>();
+
+    /** Issue of the next instruction of {@code thread} was refused for lack of a station or buffer. */
+    public void onStructuralStall(int thread) {
+        structuralStallPending.put(thread, true);
+    }
+
+    /** Issue of the next instruction of {@code thread} was held by an address conflict with an older access. */
+    public void onMemoryStall(int thread) {
+        memoryStallPending.put(thread, true);
+    }
+
+    /**
+     * An instruction issued.
+     *
+     * @param tag       tag it was given; its letters name the unit it occupies
+     * @param producers status indices of the in-flight producers of its sources
+     */
+    public void onIssue(int statusIndex, int thread, String tag, Instruction instr, int[] producers) {
+        boolean structural = structuralStallPending.remove(thread) != null;
+        boolean memory = memoryStallPending.remove(thread) != null;
+        Record record = new Record(statusIndex, thread, tag.replaceAll("\\d+$", ""), instr.getType(), producers,
+                                   structural, memory);
+        records.add(record);
+        byStatus.put(statusIndex, record);
+    }
+
+    /** A load or store computed its address. */
+    public void onMemoryAddress(int statusIndex, int address) {
+        Record record = byStatus.get(statusIndex);
+        if (record != null) record.address = address;
+    }
+
+    /** One step of the critical path, from the latest event backwards. */
+    public static class Step {
+        public final int statusIndex;
+        public final int pc;
+        public final String instruction;
+        public final EdgeType edge;
+        public final int fromCycle;
+        public final int toCycle;
+
+        Step(int statusIndex, int pc, String instruction, EdgeType edge, int fromCycle, int toCycle) {
+            this.statusIndex = statusIndex;
+            this.pc = pc;
+            this.instruction = instruction;
+            this.edge = edge;
+            this.fromCycle = fromCycle;
+            this.toCycle = toCycle;
+        }
+
+        public int getCycles() { return toCycle - fromCycle; }
+
+        @Override
+        public String toString() {
+            return String.format("%5d -> %5d  %-13s PC %d %s", fromCycle, toCycle, edge, pc, instruction);
+        }
+    }
+
+    /** Critical path of a traced run. */
+    public static class Report {
+        public final int length;
+        public final List<Step> path;                   // latest first
+        public final Map<EdgeType, Integer> cyclesByEdge;
+        public final Map<Integer, Integer> cyclesByPc;  // static instruction -> cycles, most first
+        private final Program program;
+
+        Report(int length, List<Step> path, Map<EdgeType, Integer> cyclesByEdge,
+               Map<Integer, Integer> cyclesByPc, Program program) {
+            this.length = length;
+            this.path = Collections.unmodifiableList(path);
+            this.cyclesByEdge = Collections.unmodifiableMap(cyclesByEdge);
+            this.cyclesByPc = Collections.unmodifiableMap(cyclesByPc);
+            this.program = program;
+        }
+
+        public double getShare(EdgeType edge) {
+            return length > 0 ? (double) cyclesByEdge.getOrDefault(edge, 0) / length : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("Critical path: " + length + " cycles, " + path.size() + " edges");
+            cyclesByEdge.entrySet().stream()
+                    .sorted(Map.Entry.<EdgeType, Integer>comparingByValue().reversed())
+                    .filter(e -> e.getValue() > 0)
+                    .forEach(e -> sb.append(String.format("%n  %-13s %6d cycles (%5.1f%%)",
+                            e.getKey(), e.getValue(), 100.0 * getShare(e.getKey()))));
+            sb.append(String.format("%nInstructions on the path:"));
+            int shown = 0;
+            for (Map.Entry<Integer, Integer> entry : cyclesByPc.entrySet()) {
+                if (shown++ == 10) break;
+                sb.append(String.format("%n  PC %-4d %-24s %6d cycles (%5.1f%%)", entry.getKey(),
+                        program.get(entry.getKey()), entry.getValue(), 100.0 * entry.getValue() / Math.max(1, length)));
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Build the graph from the final status rows and walk the critical path.
+     * Instructions that never wrote back are left out.
+     */
+    public Report analyze(List<SimulatorState.InstructionStatus> statuses, Program program) {
+        List<Record> complete = new ArrayList<>();
+        for (Record record : records) {
+            if (record.statusIndex < statuses.size() && isComplete(statuses.get(record.statusIndex))) {
+                complete.add(record);
+            }
+        }
+        Map<EdgeType, Integer> byEdge = new EnumMap<>(EdgeType.class);
+        for (EdgeType edge : EdgeType.values()) byEdge.put(edge, 0);
+        if (complete.isEmpty()) {
+            return new Report(0, new ArrayList<>(), byEdge, new LinkedHashMap<>(), program);
+        }
+
+        Graph graph = new Graph(complete, statuses);
+        List<Step> path = new ArrayList<>();
+        Map<Integer, Integer> byPc = new HashMap<>();
+
+        // Start from the last write-back
+        int current = 0;
+        for (int i = 1; i < complete.size(); i++) {
+            if (graph.time(i, WRITE) > graph.time(current, WRITE)) current = i;
+        }
+        int event = WRITE;
+        int length = graph.time(current, WRITE);
+
+        // Every edge goes to an earlier event or an older instruction; the bound only guards against ties
+        for (int steps = 0; steps <= 4 * complete.size(); steps++) {
+            int[] pred = graph.latestPredecessor(current, event);
+            int toCycle = graph.time(current, event);
+            SimulatorState.InstructionStatus status = statuses.get(complete.get(current).statusIndex);
+            EdgeType edge;
+            int fromCycle;
+            if (pred == null) {
+                edge = EdgeType.START;
+                fromCycle = 0;
+            } else {
+                edge = EdgeType.values()[pred[2]];
+                fromCycle = graph.time(pred[0], pred[1]);
+            }
+            path.add(new Step(complete.get(current).statusIndex, status.programIndex,
+                              program.get(status.programIndex).toString(), edge, fromCycle, toCycle));
+            byEdge.merge(edge, toCycle - fromCycle, Integer::sum);
+            byPc.merge(status.programIndex, toCycle - fromCycle, Integer::sum);
+            if (pred == null) break;
+            current = pred[0];
+            event = pred[1];
+        }
+
+        Map<Integer, Integer> sortedByPc = new LinkedHashMap<>();
+        byPc.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed())
+                .forEach(e -> sortedByPc.put(e.getKey(), e.getValue()));
+        Report report = new Report(length, path, byEdge, sortedByPc, program);
+        SimLog.println("[CriticalPath] " + report);
+        return report;
+    }
+
+    private static boolean isComplete(SimulatorState.InstructionStatus status) {
+        return status.issueCycle >= 0 && status.execStartCycle >= 0 && status.execEndCycle >= 0
+               && status.writeBackCycle >= 0;
+    }
+
+    /** Event times and the incoming edges of every event, over complete records in issue order. */
+    private static class Graph {
+        private final List<Record> records;
+        private final int[][] times;
+        private final int[] previousInThread;   // -1 if first
+        private final int[] memoryPredecessor;  // -1 if none
+        private final int[] slotFreer;          // -1 if none or no structural stall
+        private final int[] cdbHolder;          // -1 if the write-back was not deferred
+        private final int[][] producers;
+
+        Graph(List<Record> records, List<SimulatorState.InstructionStatus> statuses) {
+            this.records = records;
+            int n = records.size();
+            times = new int[n][4];
+            previousInThread = new int[n];
+            memoryPredecessor = new int[n];
+            slotFreer = new int[n];
+            cdbHolder = new int[n];
+            producers = new int[n][];
+
+            Map<Integer, Integer> positionOfStatus = new HashMap<>();
+            Map<Integer, Integer> lastInThread = new HashMap<>();
+            Map<Integer, Integer> broadcastAt = new HashMap<>();  // write-back cycle -> broadcasting record
+            for (int i = 0; i < n; i++) {
+                Record record = records.get(i);
+                SimulatorState.InstructionStatus status = statuses.get(record.statusIndex);
+                times[i][ISSUE] = status.issueCycle;
+                times[i][START] = status.execStartCycle;
+                times[i][END] = status.execEndCycle;
+                times[i][WRITE] = status.writeBackCycle;
+                positionOfStatus.put(record.statusIndex, i);
+                previousInThread[i] = lastInThread.getOrDefault(record.thread, -1);
+                lastInThread.put(record.thread, i);
+                if (broadcasts(record.type)) broadcastAt.put(status.writeBackCycle, i);
+            }
+
+            for (int i = 0; i < n; i++) {
+                Record record = records.get(i);
+                List<Integer> found = new ArrayList<>();
+                for (int producer : record.producers) {
+                    Integer position = positionOfStatus.get(producer);
+                    if (position != null) found.add(position);
+                }
+                producers[i] = found.stream().mapToInt(Integer::intValue).toArray();
+
+                memoryPredecessor[i] = -1;
+                if (record.address != null) {
+                    for (int j = i - 1; j >= 0; j--) {
+                        Record older = records.get(j);
+                        if (older.address == null || Math.abs(older.address - record.address) >= 8) continue;
+                        // Loads order after stores; stores after loads and stores
+                        if (record.type == InstructionType.LOAD && older.type != InstructionType.STORE) continue;
+                        memoryPredecessor[i] = j;
+                        break;
+                    }
+                }
+
+                slotFreer[i] = -1;
+                if (record.structuralStall) {
+                    int best = -1;
+                    for (int j = i - 1; j >= 0; j--) {
+                        if (!records.get(j).unit.equals(record.unit) || times[j][WRITE] >= times[i][ISSUE]) continue;
+                        if (best < 0 || times[j][WRITE] > times[best][WRITE]) best = j;
+                    }
+                    slotFreer[i] = best;
+                }
+
+                cdbHolder[i] = -1;
+                if (broadcasts(record.type) && times[i][WRITE] > times[i][END] + 1) {
+                    Integer holder = broadcastAt.get(times[i][WRITE] - 1);
+                    if (holder != null) cdbHolder[i] = holder;
+                }
+            }
+        }
+
+        private static boolean broadcasts(InstructionType type) {
+            return type == InstructionType.ALU_FP || type == InstructionType.ALU_INT || type == InstructionType.LOAD;
+        }
+
+        int time(int record, int event) {
+            return times[record][event];
+        }
+
+        /**
+         * The incoming edge of ({@code record}, {@code event}) whose source happened last, as
+         * {record, event, edge ordinal}, or null for the first issue. Data edges win ties.
+         */
+        int[] latestPredecessor(int record, int event) {
+            int[] best = null;
+            int bestTime = Integer.MIN_VALUE;
+            int limit = times[record][event];
+            List<int[]> candidates = new ArrayList<>();
+            switch (event) {
+                case WRITE:
+                    if (cdbHolder[record] >= 0) candidates.add(new int[] {cdbHolder[record], WRITE, EdgeType.CDB_DEFERRAL.ordinal()});
+                    candidates.add(new int[] {record, END, EdgeType.WRITE_BACK.ordinal()});
+                    break;
+                case END:
+                    candidates.add(new int[] {record, START, EdgeType.EXECUTE.ordinal()});
+                    break;
+                case START:
+                    for (int producer : producers[record]) {
+                        candidates.add(new int[] {producer, WRITE, EdgeType.REGISTER_RAW.ordinal()});
+                    }
+                    if (memoryPredecessor[record] >= 0) {
+                        candidates.add(new int[] {memoryPredecessor[record], END, EdgeType.MEMORY_ORDER.ordinal()});
+                    }
+                    candidates.add(new int[] {record, ISSUE, EdgeType.DISPATCH.ordinal()});
+                    break;
+                default:
+                    if (records.get(record).memoryStall && memoryPredecessor[record] >= 0) {
+                        candidates.add(new int[] {memoryPredecessor[record], WRITE, EdgeType.MEMORY_ORDER.ordinal()});
+                    }
+                    if (slotFreer[record] >= 0) {
+                        candidates.add(new int[] {slotFreer[record], WRITE, EdgeType.STRUCTURAL.ordinal()});
+                    }
+                    int previous = previousInThread[record];
+                    if (previous >= 0) {
+                        if (records.get(previous).type == InstructionType.BRANCH) {
+                            candidates.add(new int[] {previous, WRITE, EdgeType.BRANCH.ordinal()});
+                        }
+                        candidates.add(new int[] {previous, ISSUE, EdgeType.ISSUE_ORDER.ordinal()});
+                    }
+                    break;
+            }
+            for (int[] candidate : candidates) {
+                int t = times[candidate[0]][candidate[1]];
+                if (t > limit) continue;  // not a real constraint (e.g. a forwarded load)
+                if (t > bestTime) {
+                    best = candidate;
+                    bestTime = t;
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package guc.edu.sim.core;
 
+import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,7 +14,8 @@ import java.util.Optional;
  * Important: This dispatcher is intentionally lightweight.  Integrate it with your existing
  * ReservationStation class/list so the entries here are the same objects used by the rest of the simulator.
  */
-public class Dispatcher {
+public class Dispatcher implements Serializable {
+    private static final long serialVersionUID = 1L;
     private final LatencyConfig latencyConfig;
     private final List<ExecutionUnit> units = new ArrayList<>();
     private final List<ReservationStationEntry> entries = new ArrayList<>();
@@ -27,12 +28,17 @@ public class Dispatcher {
         units.add(new ExecutionUnit(type, latencyConfig));
     }
 
+    public void addExecutionUnit(ExecutionUnit unit) {
+        units.add(unit);
+    }
+
     public void addExecutionUnit(StationType type, int count) {
         for (int i = 0; i < count; i++) addExecutionUnit(type);
     }
 
+    /** Ready stations are offered every cycle until they start; each is kept once. */
     public void addEntry(ReservationStationEntry entry) {
-        entries.add(entry);
+        if (!entries.contains(entry)) entries.add(entry);
     }
 
     /**
@@ -61,13 +67,7 @@ public class Dispatcher {
             res.ifPresent(entry -> {
                 finished.add(entry);
                 // remove from dispatch entries if present
-                Iterator<ReservationStationEntry> it = entries.iterator();
-                while (it.hasNext()) {
-                    if (it.next().getId(). equals(entry.getId())) {
-                        it.remove();
-                        break;
-                    }
-                }
+                entries.removeIf(e -> e.getId().equals(entry.getId()));
             });
         }
         return finished;
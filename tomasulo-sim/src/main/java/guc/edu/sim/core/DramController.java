@@ -0,0 +1,235 @@
+package guc.edu.sim.core;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DRAM timing behind the cache: channels, ranks and banks, each bank with a row buffer,
+ * and a FR-FCFS controller per channel.
+ *
+ * Every cycle each channel issues at most one request: the oldest request that hits an
+ * open row in a ready bank, or failing that the oldest request to a ready bank. A row hit
+ * costs tCAS, an access to a precharged bank tRCD + tCAS, and a row conflict
+ * tRP + tRCD + tCAS; the data then takes {@code burstCycles} on the channel's data bus.
+ * With the closed-page policy every access precharges its bank afterwards.
+ *
+ * Requests are submitted during a cycle and scheduled by {@link #tick(int)} at the end of
+ * it, so a caller learns its latency one cycle later through {@link Request#isScheduled()}.
+ */
+public class DramController implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public enum PagePolicy { OPEN, CLOSED }
+
+    /** Organization and timing, in core cycles. */
+    public static class Config implements Serializable {
+        private static final long serialVersionUID = 1L;
+        public int channels = 1;
+        public int ranks = 1;
+        public int banksPerRank = 8;
+        public int rowBytes = 2048;
+        public PagePolicy pagePolicy = PagePolicy.OPEN;
+        public int tRCD = 14;        // activate to column command
+        public int tCAS = 14;        // column command to data
+        public int tRP = 14;         // precharge
+        public int burstCycles = 4;  // data bus time per block
+    }
+
+    /** One block read or write. */
+    public static final class Request implements Serializable {
+        private static final long serialVersionUID = 1L;
+        public final int address;
+        public final boolean write;
+        public final int arrivalCycle;
+        final int channel;
+        final int bank;   // index over all ranks of the channel
+        final int row;
+        private int completionCycle = -1;
+        private boolean rowHit;
+
+        Request(int address, boolean write, int arrivalCycle, int channel, int bank, int row) {
+            this.address = address;
+            this.write = write;
+            this.arrivalCycle = arrivalCycle;
+            this.channel = channel;
+            this.bank = bank;
+            this.row = row;
+        }
+
+        /** True once the controller has issued the request and its completion is known. */
+        public boolean isScheduled() { return completionCycle >= 0; }
+        public int getCompletionCycle() { return completionCycle; }
+        /** Cycles from submission to data, valid once scheduled. */
+        public int getLatency() { return completionCycle - arrivalCycle; }
+        public boolean isRowHit() { return rowHit; }
+    }
+
+    private static final int NO_ROW = -1;
+
+    private final Config config;
+    private final int banksPerChannel;
+    private final List<List<Request>> queues = new ArrayList<>();   // per channel, oldest first
+    private final int[][] openRow;      // [channel][bank]
+    private final int[][] bankReadyAt;  // [channel][bank] first cycle a new command may go to the bank
+    private final int[] dataBusFreeAt;  // [channel]
+    private int cycle = 0;
+
+    private long reads = 0;
+    private long writes = 0;
+    private long rowHits = 0;
+    private long rowEmpty = 0;
+    private long rowConflicts = 0;
+    private long totalReadLatency = 0;
+    private long totalQueueDelay = 0;
+    private int maxQueueLength = 0;
+
+    public DramController(Config config) {
+        if (config.channels < 1 || config.ranks < 1 || config.banksPerRank < 1 || config.rowBytes < 1) {
+            throw new IllegalArgumentException("DRAM needs at least one channel, rank, bank and row byte");
+        }
+        this.config = config;
+        this.banksPerChannel = config.ranks * config.banksPerRank;
+        this.openRow = new int[config.channels][banksPerChannel];
+        this.bankReadyAt = new int[config.channels][banksPerChannel];
+        this.dataBusFreeAt = new int[config.channels];
+        for (int c = 0; c < config.channels; c++) {
+            queues.add(new ArrayList<>());
+            java.util.Arrays.fill(openRow[c], NO_ROW);
+        }
+    }
+
+    /**
+     * Queue an access to the block at {@code address} in the current cycle. Addresses are
+     * interleaved row : rank : bank : channel : column, so consecutive blocks share a row
+     * and consecutive rows spread over channels and banks.
+     */
+    public synchronized Request submit(int address, boolean write) {
+        int rowIndex = Integer.divideUnsigned(address, config.rowBytes);
+        int channel = rowIndex % config.channels;
+        rowIndex /= config.channels;
+        int bank = rowIndex % config.banksPerRank;
+        rowIndex /= config.banksPerRank;
+        int rank = rowIndex % config.ranks;
+        int row = rowIndex / config.ranks;
+
+        Request request = new Request(address, write, cycle, channel, rank * config.banksPerRank + bank, row);
+        List<Request> queue = queues.get(channel);
+        queue.add(request);
+        maxQueueLength = Math.max(maxQueueLength, queue.size());
+        return request;
+    }
+
+    /** Move to {@code cycle}; requests submitted from now on arrive in it. */
+    public synchronized void advanceTo(int cycle) {
+        this.cycle = cycle;
+    }
+
+    /** Issue this cycle's commands: at most one request per channel, chosen FR-FCFS. */
+    public synchronized void tick(int cycle) {
+        this.cycle = cycle;
+        for (int c = 0; c < config.channels; c++) {
+            Request chosen = pick(c);
+            if (chosen != null) {
+                queues.get(c).remove(chosen);
+                issue(chosen);
+            }
+        }
+    }
+
+    private Request pick(int channel) {
+        Request oldestReady = null;
+        for (Request request : queues.get(channel)) {
+            if (bankReadyAt[channel][request.bank] > cycle) continue;
+            if (openRow[channel][request.bank] == request.row) {
+                return request;  // first ready row hit, oldest first
+            }
+            if (oldestReady == null) oldestReady = request;
+        }
+        return oldestReady;
+    }
+
+    private void issue(Request request) {
+        int c = request.channel;
+        int current = openRow[c][request.bank];
+        int activate;
+        if (current == request.row) {
+            rowHits++;
+            request.rowHit = true;
+            activate = 0;
+        } else if (current == NO_ROW) {
+            rowEmpty++;
+            activate = config.tRCD;
+        } else {
+            rowConflicts++;
+            activate = config.tRP + config.tRCD;
+        }
+
+        int columnAt = cycle + activate;
+        int dataStart = Math.max(columnAt + config.tCAS, dataBusFreeAt[c]);
+        int done = dataStart + config.burstCycles;
+        dataBusFreeAt[c] = done;
+
+        if (config.pagePolicy == PagePolicy.OPEN) {
+            openRow[c][request.bank] = request.row;
+            bankReadyAt[c][request.bank] = columnAt + config.burstCycles;
+        } else {
+            openRow[c][request.bank] = NO_ROW;
+            bankReadyAt[c][request.bank] = done + config.tRP;
+        }
+
+        request.completionCycle = done;
+        totalQueueDelay += cycle - request.arrivalCycle;
+        if (request.write) {
+            writes++;
+        } else {
+            reads++;
+            totalReadLatency += request.getLatency();
+        }
+        if (SimLog.isEnabled()) {
+            SimLog.println("[DRAM] Cycle " + cycle + ": " + (request.write ? "write " : "read ") + request.address +
+                           " ch" + c + " bank" + request.bank + " row" + request.row +
+                           (request.rowHit ? " ROW HIT" : current == NO_ROW ? " activate" : " ROW CONFLICT") +
+                           ", done at " + done);
+        }
+    }
+
+    /** Requests waiting for the controller. */
+    public synchronized int getQueuedCount() {
+        int queued = 0;
+        for (List<Request> queue : queues) queued += queue.size();
+        return queued;
+    }
+
+    public Config getConfig() { return config; }
+    public long getReads() { return reads; }
+    public long getWrites() { return writes; }
+    public long getRowHits() { return rowHits; }
+    public long getRowConflicts() { return rowConflicts; }
+    /** Accesses that found their bank precharged. */
+    public long getRowEmptyAccesses() { return rowEmpty; }
+    public int getMaxQueueLength() { return maxQueueLength; }
+
+    public double getRowHitRate() {
+        long accesses = rowHits + rowEmpty + rowConflicts;
+        return accesses > 0 ? (double) rowHits / accesses : 0.0;
+    }
+
+    /** Mean cycles from submission to data for reads. */
+    public double getAverageReadLatency() {
+        return reads > 0 ? (double) totalReadLatency / reads : 0.0;
+    }
+
+    /** Mean cycles a request waited in the controller queue. */
+    public double getAverageQueueDelay() {
+        long issued = reads + writes;
+        return issued > 0 ? (double) totalQueueDelay / issued : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d reads, %d writes, row hits %.1f%% (%d conflicts), avg read latency %.1f cycles, " +
+                             "avg queue delay %.2f",
+                reads, writes, 100 * getRowHitRate(), rowConflicts, getAverageReadLatency(), getAverageQueueDelay());
+    }
+}
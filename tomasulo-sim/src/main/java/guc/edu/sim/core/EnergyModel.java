@@ -0,0 +1,188 @@
+package guc.edu.sim.core;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Event-based energy estimate. The simulator counts microarchitectural events (station
+ * writes, wake-up searches, CDB broadcasts, cache and memory accesses, functional unit
+ * operations by class, register file reads and writes) and each event is charged a
+ * configurable cost in picojoules. Static power is charged per cycle.
+ *
+ * The default costs are order-of-magnitude figures for a 45 nm class core; calibrate them
+ * with {@link #setCost} before comparing designs in absolute terms.
+ */
+public class EnergyModel {
+
+    /** Where an event's energy is booked. */
+    public enum Component {
+        RESERVATION_STATIONS,
+        CDB,
+        CACHE,
+        MEMORY,
+        FUNCTIONAL_UNITS,
+        REGISTER_FILE,
+        STATIC
+    }
+
+    public enum Event {
+        RS_WRITE(Component.RESERVATION_STATIONS, 1.0),   // allocate a station or buffer entry
+        RS_WAKEUP(Component.RESERVATION_STATIONS, 0.2),  // tag compare in one busy entry per broadcast
+        CDB_BROADCAST(Component.CDB, 3.0),
+        CACHE_HIT(Component.CACHE, 10.0),
+        CACHE_MISS(Component.CACHE, 10.0),               // tag lookup that missed
+        CACHE_FILL(Component.CACHE, 20.0),               // block written into the cache
+        MEMORY_ACCESS(Component.MEMORY, 1300.0),         // block read or write-through to memory
+        INT_ALU(Component.FUNCTIONAL_UNITS, 0.3),        // also address generation for loads and stores
+        INT_MUL(Component.FUNCTIONAL_UNITS, 3.0),
+        INT_DIV(Component.FUNCTIONAL_UNITS, 15.0),
+        FP_ADD(Component.FUNCTIONAL_UNITS, 1.8),
+        FP_MUL(Component.FUNCTIONAL_UNITS, 7.4),
+        FP_DIV(Component.FUNCTIONAL_UNITS, 30.0),
+        FMA(Component.FUNCTIONAL_UNITS, 9.0),
+        BRANCH(Component.FUNCTIONAL_UNITS, 0.3),
+        VECTOR_ELEMENT(Component.FUNCTIONAL_UNITS, 5.0), // one element of a vector operation
+        REG_READ(Component.REGISTER_FILE, 0.6),
+        REG_WRITE(Component.REGISTER_FILE, 0.9),
+        LEAKAGE(Component.STATIC, 10.0);                 // per cycle
+
+        public final Component component;
+        public final double defaultCost;
+
+        Event(Component component, double defaultCost) {
+            this.component = component;
+            this.defaultCost = defaultCost;
+        }
+    }
+
+    private final double[] costs = new double[Event.values().length];
+    private final long[] counts = new long[Event.values().length];
+    private double clockGhz = 1.0;
+
+    public EnergyModel() {
+        for (Event event : Event.values()) {
+            costs[event.ordinal()] = event.defaultCost;
+        }
+    }
+
+    /** Cost of one {@code event}, in picojoules. */
+    public void setCost(Event event, double picojoules) {
+        if (picojoules < 0) {
+            throw new IllegalArgumentException("Energy cost must not be negative: " + event + " = " + picojoules);
+        }
+        costs[event.ordinal()] = picojoules;
+    }
+
+    public double getCost(Event event) {
+        return costs[event.ordinal()];
+    }
+
+    /** Clock frequency used to turn cycles into time for power and energy-delay. */
+    public void setClockGhz(double clockGhz) {
+        if (clockGhz <= 0) {
+            throw new IllegalArgumentException("Clock frequency must be positive");
+        }
+        this.clockGhz = clockGhz;
+    }
+
+    public double getClockGhz() { return clockGhz; }
+
+    public void count(Event event) {
+        counts[event.ordinal()]++;
+    }
+
+    public void count(Event event, long times) {
+        counts[event.ordinal()] += times;
+    }
+
+    /** Overwrite a count kept elsewhere (e.g. by the cache). */
+    public void setCount(Event event, long value) {
+        counts[event.ordinal()] = value;
+    }
+
+    public long getCount(Event event) {
+        return counts[event.ordinal()];
+    }
+
+    /** Clear the event counts; costs and clock are kept. */
+    public void reset() {
+        java.util.Arrays.fill(counts, 0);
+    }
+
+    /** Copy of the event counts, for a checkpoint; costs and clock are configuration and not included. */
+    long[] snapshotCounts() {
+        return counts.clone();
+    }
+
+    /** Put back counts taken by {@link #snapshotCounts()}. */
+    void restoreCounts(long[] saved) {
+        System.arraycopy(saved, 0, counts, 0, counts.length);
+    }
+
+    /** Energy for the events counted so far over a run of {@code cycles} cycles. */
+    public Report report(int cycles) {
+        Map<Event, Double> byEvent = new EnumMap<>(Event.class);
+        Map<Component, Double> byComponent = new EnumMap<>(Component.class);
+        for (Component component : Component.values()) {
+            byComponent.put(component, 0.0);
+        }
+        for (Event event : Event.values()) {
+            double energy = counts[event.ordinal()] * costs[event.ordinal()];
+            byEvent.put(event, energy);
+            byComponent.merge(event.component, energy, Double::sum);
+        }
+        return new Report(byEvent, byComponent, cycles, clockGhz);
+    }
+
+    /** Energy totals for one run. Energies are in picojoules, time in nanoseconds. */
+    public static class Report {
+        public final Map<Event, Double> energyByEvent;
+        public final Map<Component, Double> energyByComponent;
+        public final int cycles;
+        public final double clockGhz;
+        public final double totalEnergy;
+
+        Report(Map<Event, Double> energyByEvent, Map<Component, Double> energyByComponent,
+               int cycles, double clockGhz) {
+            this.energyByEvent = java.util.Collections.unmodifiableMap(energyByEvent);
+            this.energyByComponent = java.util.Collections.unmodifiableMap(energyByComponent);
+            this.cycles = cycles;
+            this.clockGhz = clockGhz;
+            double total = 0.0;
+            for (double energy : energyByComponent.values()) total += energy;
+            this.totalEnergy = total;
+        }
+
+        public double getEnergy(Component component) {
+            return energyByComponent.get(component);
+        }
+
+        /** Execution time in nanoseconds. */
+        public double getTimeNanos() {
+            return cycles / clockGhz;
+        }
+
+        /** Average power in milliwatts (pJ / ns = mW). */
+        public double getAveragePowerMilliwatts() {
+            double time = getTimeNanos();
+            return time > 0 ? totalEnergy / time : 0.0;
+        }
+
+        /** Energy-delay product in pJ x ns. */
+        public double getEnergyDelayProduct() {
+            return totalEnergy * getTimeNanos();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(String.format(
+                    "Energy %.1f pJ over %d cycles (%.1f ns): %.2f mW, EDP %.4g pJ*ns",
+                    totalEnergy, cycles, getTimeNanos(), getAveragePowerMilliwatts(), getEnergyDelayProduct()));
+            for (Map.Entry<Component, Double> entry : energyByComponent.entrySet()) {
+                double share = totalEnergy > 0 ? 100.0 * entry.getValue() / totalEnergy : 0.0;
+                sb.append(String.format("%n  %-21s %12.1f pJ (%5.1f%%)", entry.getKey(), entry.getValue(), share));
+            }
+            return sb.toString();
+        }
+    }
+}
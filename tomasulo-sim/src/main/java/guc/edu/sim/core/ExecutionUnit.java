@@ -1,5 +1,6 @@
 package guc.edu.sim.core;
 
+import java.io.Serializable;
 import java.util.Optional;
 
 /**
@@ -10,7 +11,8 @@ import java.util.Optional;
  * - Latency 1 = starts in cycle N, completes in cycle N+1
  * - Latency 2 = starts in cycle N, completes in cycle N+2
  */
-public class ExecutionUnit {
+public class ExecutionUnit implements Serializable {
+    private static final long serialVersionUID = 1L;
     private final StationType unitType;
     private final LatencyConfig latencyConfig;
     private ReservationStationEntry current;
@@ -56,7 +58,7 @@ public class ExecutionUnit {
         remainingCycles = Math.max(0, latency - 1);
         
         entry.markExecuting();
-        System.out.println("[ExecutionUnit-" + unitType + "] Started " + entry.getId() + 
+        SimLog.println("[ExecutionUnit-" + unitType + "] Started " + entry.getId() + 
                          " with latency " + latency + " cycles (remainingCycles=" + remainingCycles + ")");
         return true;
     }
@@ -69,7 +71,7 @@ public class ExecutionUnit {
     public Optional<ReservationStationEntry> tick() {
         if (current == null) return Optional.empty();
         
-        System.out.println("[ExecutionUnit-" + unitType + "] " + current.getId() + 
+        SimLog.println("[ExecutionUnit-" + unitType + "] " + current.getId() + 
                          " executing... " + remainingCycles + " cycles remaining");
         
         // Decrement cycles
@@ -81,14 +83,14 @@ public class ExecutionUnit {
         // This ensures consistent behavior whether the instruction goes through tickUnits()
         // or is handled by the latency-1 fast path in SimulatorState.
         if (remainingCycles <= 0) {
-            System.out.println("[ExecutionUnit-" + unitType + "] " + current.getId() + 
+            SimLog.println("[ExecutionUnit-" + unitType + "] " + current.getId() + 
                              " completing execution");
             // Complete execution in this cycle
             Object res = computeResult(current);
             current.setResult(res);
             ReservationStationEntry finished = current;
             current = null;
-            System.out.println("[ExecutionUnit-" + unitType + "] " + finished.getId() + " COMPLETED");
+            SimLog.println("[ExecutionUnit-" + unitType + "] " + finished.getId() + " COMPLETED");
             return Optional.of(finished);
         }
         
@@ -96,9 +98,13 @@ public class ExecutionUnit {
         return Optional.empty();
     }
 
-    private Object computeResult(ReservationStationEntry entry) {
+    protected Object computeResult(ReservationStationEntry entry) {
         double vj = entry.getVj() instanceof Number ? ((Number) entry.getVj()).doubleValue() : 0.0;
         double vk = entry.getVk() instanceof Number ? ((Number) entry.getVk()).doubleValue() : 0.0;
+        if (ALU.isFused(entry.getOpcode())) {
+            double vl = entry.getVl() instanceof Number ? ((Number) entry.getVl()).doubleValue() : 0.0;
+            return ALU.compute(entry.getOpcode(), vj, vk, vl);
+        }
         return ALU.compute(entry.getOpcode(), vj, vk);
     }
 }
\ No newline at end of file
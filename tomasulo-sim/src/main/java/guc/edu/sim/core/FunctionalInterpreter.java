@@ -0,0 +1,400 @@
+package guc.edu.sim.core;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-order functional execution of a {@link Program}: architectural state only, no timing.
+ * Serves as the golden reference for final state and as the fast-forward engine for
+ * sampled simulation, and can keep a cache warm by replaying every memory access into it.
+ *
+ * Instructions are decoded once into compact ops grouped in basic blocks (cached by entry
+ * PC), and registers live in a flat array, so the scalar loop allocates nothing per
+ * instruction. Register values are read from the {@link RegisterFile} once, when the
+ * interpreter is created, and stay in the array across runs and steps: read them with
+ * {@link #getValue}, and {@link #syncRegisters} writes them back (done automatically when
+ * the program finishes). Memory is updated in place. Immediates get read-only slots in
+ * the register array so every ALU op reads two slots.
+ */
+public class FunctionalInterpreter implements Serializable {
+    private static final long serialVersionUID = 1L;
+    // Op kinds
+    private static final int ADD = 0;
+    private static final int SUB = 1;
+    private static final int MUL = 2;
+    private static final int DIV = 3;
+    private static final int FMA = 4;
+    private static final int FMS = 5;
+    private static final int ZERO = 6;         // unknown ALU opcode; the ALU yields 0.0
+    private static final int LOAD_DOUBLE = 7;
+    private static final int LOAD_WORD = 8;
+    private static final int LOAD_FLOAT = 9;
+    private static final int STORE_DOUBLE = 10;
+    private static final int STORE_WORD = 11;
+    private static final int STORE_FLOAT = 12;
+    private static final int BEQ = 13;
+    private static final int BNE = 14;
+    private static final int VECTOR = 15;
+    private static final int NOP = 16;
+
+    /** One decoded instruction. Slots index the register array. */
+    private static final class Op {
+        int kind = NOP;
+        int dest = -1;
+        int a = -1;
+        int b = -1;
+        int c = -1;
+        int offset;
+        int target = -1;
+        Instruction vector;  // vector instructions take the generic path
+    }
+
+    private final Program program;
+    private final RegisterFile regs;
+    private final Memory memory;
+    private VectorRegisterFile vectorRegs;
+    private Cache warmCache;
+
+    private final Map<String, Integer> slotOf = new HashMap<>();
+    private final List<String> registerNames = new ArrayList<>();
+    private double[] r = new double[0];
+    private transient Op[][] blocks;  // basic block starting at each PC, decoded on first entry
+    private int pc;
+    private long executed = 0;
+
+    public FunctionalInterpreter(Program program, RegisterFile regs, Memory memory) {
+        this.program = program;
+        this.regs = regs;
+        this.memory = memory;
+        this.blocks = new Op[program.size()][];
+        this.pc = 0;
+        for (String name : regs.getAllValues().keySet()) {
+            registerSlot(name);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        blocks = new Op[program.size()][];  // decoded again on first entry
+    }
+
+    /** Replay memory accesses into {@code cache} so it is warm when detailed simulation resumes. */
+    public void setWarmCache(Cache cache) {
+        this.warmCache = cache;
+    }
+
+    public void setVectorRegisterFile(VectorRegisterFile vectorRegs) {
+        this.vectorRegs = vectorRegs;
+    }
+
+    public boolean isFinished() {
+        return pc >= program.size();
+    }
+
+    /** Run to the end of the program. */
+    public long run() {
+        return run(Long.MAX_VALUE);
+    }
+
+    /** Run until {@code instructionCount} instructions have executed in total, or the program ends. */
+    public long runUntil(long instructionCount) {
+        return run(Math.max(0, instructionCount - executed));
+    }
+
+    public void step() {
+        run(1);
+    }
+
+    /**
+     * Execute up to {@code maxInstructions} instructions.
+     * @return how many were executed (fewer once the program ends)
+     */
+    public long run(long maxInstructions) {
+        double[] r = this.r;
+        final int size = program.size();
+        long done = 0;
+
+        while (done < maxInstructions && pc < size) {
+            Op[] ops = blocks[pc];
+            if (ops == null) {
+                ops = decodeBlock(pc);
+                blocks[pc] = ops;
+                r = this.r;  // decoding may have added slots
+            }
+            int n = (int) Math.min(ops.length, maxInstructions - done);
+            int next = pc + n;
+
+            for (int i = 0; i < n; i++) {
+                Op op = ops[i];
+                switch (op.kind) {
+                    case ADD:
+                        r[op.dest] = r[op.a] + r[op.b];
+                        break;
+                    case SUB:
+                        r[op.dest] = r[op.a] - r[op.b];
+                        break;
+                    case MUL:
+                        r[op.dest] = r[op.a] * r[op.b];
+                        break;
+                    case DIV: {
+                        double divisor = r[op.b];
+                        r[op.dest] = divisor == 0 ? Double.NaN : r[op.a] / divisor;
+                        break;
+                    }
+                    case FMA:
+                        r[op.dest] = Math.fma(r[op.a], r[op.b], r[op.c]);
+                        break;
+                    case FMS:
+                        r[op.dest] = Math.fma(r[op.a], r[op.b], -r[op.c]);
+                        break;
+                    case ZERO:
+                        r[op.dest] = 0.0;
+                        break;
+                    case LOAD_DOUBLE: {
+                        int address = (int) r[op.a] + op.offset;
+                        if (warmCache != null) warmCache.touch(address);
+                        r[op.dest] = memory.loadDouble(address);
+                        break;
+                    }
+                    case LOAD_WORD: {
+                        int address = (int) r[op.a] + op.offset;
+                        if (warmCache != null) warmCache.touch(address);
+                        r[op.dest] = memory.loadWord(address);
+                        break;
+                    }
+                    case LOAD_FLOAT: {
+                        int address = (int) r[op.a] + op.offset;
+                        if (warmCache != null) warmCache.touch(address);
+                        r[op.dest] = memory.loadFloat(address);
+                        break;
+                    }
+                    case STORE_DOUBLE: {
+                        int address = (int) r[op.a] + op.offset;
+                        if (warmCache != null) warmCache.touch(address);
+                        memory.storeDouble(address, r[op.b]);
+                        break;
+                    }
+                    case STORE_WORD: {
+                        int address = (int) r[op.a] + op.offset;
+                        if (warmCache != null) warmCache.touch(address);
+                        memory.storeWord(address, (int) r[op.b]);
+                        break;
+                    }
+                    case STORE_FLOAT: {
+                        int address = (int) r[op.a] + op.offset;
+                        if (warmCache != null) warmCache.touch(address);
+                        memory.storeFloat(address, (float) r[op.b]);
+                        break;
+                    }
+                    case BEQ:
+                        if (r[op.a] == r[op.b]) next = op.target;
+                        break;
+                    case BNE:
+                        if (r[op.a] != r[op.b]) next = op.target;
+                        break;
+                    case VECTOR:
+                        executeVector(op);
+                        break;
+                    default:
+                        break;
+                }
+            }
+            done += n;
+            pc = next;
+        }
+
+        executed += done;
+        if (pc >= size) syncRegisters();
+        return done;
+    }
+
+    /** Decode from {@code start} up to and including the next branch. */
+    private Op[] decodeBlock(int start) {
+        List<Op> ops = new ArrayList<>();
+        for (int i = start; i < program.size(); i++) {
+            Op op = decode(program.get(i));
+            ops.add(op);
+            if (op.kind == BEQ || op.kind == BNE) break;
+        }
+        return ops.toArray(new Op[0]);
+    }
+
+    private Op decode(Instruction instr) {
+        Op op = new Op();
+        String opcode = instr.getOpcode().toUpperCase();
+        switch (instr.getType()) {
+            case ALU_FP:
+            case ALU_INT:
+                op.kind = aluKind(opcode);
+                op.dest = registerSlot(instr.getDest());
+                op.a = operandSlot(instr.getSrc1());
+                op.b = operandSlot(instr.getSrc2());
+                op.c = operandSlot(instr.getSrc3());
+                break;
+            case LOAD:
+                op.kind = opcode.equals("LW") ? LOAD_WORD : opcode.equals("L.S") ? LOAD_FLOAT : LOAD_DOUBLE;
+                op.dest = registerSlot(instr.getDest());
+                op.a = registerSlot(instr.getBase());
+                op.offset = instr.getOffset() != null ? instr.getOffset() : 0;
+                break;
+            case STORE:
+                op.kind = opcode.equals("SW") ? STORE_WORD : opcode.equals("S.S") ? STORE_FLOAT : STORE_DOUBLE;
+                op.b = registerSlot(instr.getSrc1());
+                op.a = registerSlot(instr.getBase());
+                op.offset = instr.getOffset() != null ? instr.getOffset() : 0;
+                break;
+            case BRANCH: {
+                op.kind = opcode.equals("BEQ") ? BEQ : BNE;
+                op.a = registerSlot(instr.getSrc1());
+                op.b = registerSlot(instr.getSrc2());
+                Integer target = program.getLabels().get(instr.getBranchTargetLabel());
+                if (target == null) {
+                    throw new IllegalStateException("Unknown branch target " + instr.getBranchTargetLabel());
+                }
+                op.target = target;
+                break;
+            }
+            case VECTOR_ALU:
+            case VECTOR_LOAD:
+            case VECTOR_STORE:
+                op.kind = VECTOR;
+                op.vector = instr;
+                if (instr.getBase() != null) op.a = registerSlot(instr.getBase());
+                if (instr.getSrc2() != null && !VectorRegisterFile.isVectorRegister(instr.getSrc2())) {
+                    op.b = registerSlot(instr.getSrc2());
+                }
+                op.offset = instr.getOffset() != null ? instr.getOffset() : 0;
+                break;
+            default:
+                break;
+        }
+        return op;
+    }
+
+    /** Same opcode families as {@link ALU#compute}. */
+    private static int aluKind(String opcode) {
+        if (ALU.isFused(opcode)) {
+            return opcode.startsWith("FMS") ? FMS : FMA;
+        }
+        String op = opcode;
+        if (op.endsWith(".D") || op.endsWith(".S")) {
+            op = op.substring(0, op.length() - 2);
+        }
+        switch (op) {
+            case "ADD":
+            case "DADD":
+            case "DADDI":
+            case "ADDI":
+                return ADD;
+            case "SUB":
+            case "DSUB":
+            case "SUBI":
+            case "DSUBI":
+                return SUB;
+            case "MUL":
+            case "DMUL":
+                return MUL;
+            case "DIV":
+            case "DDIV":
+                return DIV;
+            default:
+                return ZERO;
+        }
+    }
+
+    /** Slot of a register or immediate operand; a missing operand reads a constant zero. */
+    private int operandSlot(String operand) {
+        if (operand == null) return constantSlot(0.0);
+        if (operand.matches("-?\\d+")) return constantSlot(Double.parseDouble(operand));
+        return registerSlot(operand);
+    }
+
+    private int registerSlot(String name) {
+        Integer slot = slotOf.get(name);
+        if (slot == null) {
+            slot = addSlot(name, regs.getValue(name));
+            registerNames.add(name);
+        }
+        return slot;
+    }
+
+    private int constantSlot(double value) {
+        String key = "#" + value;
+        Integer slot = slotOf.get(key);
+        return slot != null ? slot : addSlot(key, value);
+    }
+
+    private int addSlot(String key, double initial) {
+        int slot = slotOf.size();
+        slotOf.put(key, slot);
+        if (slot >= r.length) {
+            double[] grown = new double[Math.max(16, r.length * 2)];
+            System.arraycopy(r, 0, grown, 0, r.length);
+            r = grown;
+        }
+        r[slot] = initial;
+        return slot;
+    }
+
+    /** Current value of {@code register}, without touching the {@link RegisterFile}. */
+    public double getValue(String register) {
+        Integer slot = slotOf.get(register);
+        return slot != null ? r[slot] : regs.getValue(register);
+    }
+
+    /** Write every register back to the {@link RegisterFile}. */
+    public void syncRegisters() {
+        for (String name : registerNames) {
+            regs.setValue(name, r[slotOf.get(name)]);
+        }
+    }
+
+    private void executeVector(Op op) {
+        if (vectorRegs == null) {
+            throw new IllegalStateException("Vector instruction " + op.vector.getOpcode() + " without a vector register file");
+        }
+        Instruction instr = op.vector;
+        int length = vectorRegs.getVectorLength();
+        if (instr.getType() == InstructionType.VECTOR_ALU) {
+            double[] a = vectorRegs.getValue(instr.getSrc1());
+            double[] b = op.b < 0 ? vectorRegs.getValue(instr.getSrc2()) : null;
+            double scalar = op.b >= 0 ? r[op.b] : 0.0;
+            String scalarOp = instr.getOpcode().substring(1);
+            double[] result = new double[length];
+            for (int i = 0; i < length; i++) {
+                result[i] = ALU.compute(scalarOp, a[i], b != null ? b[i] : scalar);
+            }
+            vectorRegs.setValue(instr.getDest(), result);
+            return;
+        }
+
+        int base = (int) r[op.a] + op.offset;
+        int stride = op.b >= 0 ? (int) r[op.b] : 8;
+        if (instr.getType() == InstructionType.VECTOR_LOAD) {
+            double[] result = new double[length];
+            for (int i = 0; i < length; i++) {
+                if (warmCache != null) warmCache.touch(base + i * stride);
+                result[i] = memory.loadDouble(base + i * stride);
+            }
+            vectorRegs.setValue(instr.getDest(), result);
+        } else {
+            double[] value = vectorRegs.getValue(instr.getSrc1());
+            for (int i = 0; i < length; i++) {
+                if (warmCache != null) warmCache.touch(base + i * stride);
+                memory.storeDouble(base + i * stride, value[i]);
+            }
+        }
+    }
+
+    public int getPc() { return pc; }
+    public void setPc(int pc) { this.pc = pc; }
+    public long getExecutedCount() { return executed; }
+    public RegisterFile getRegisterFile() { return regs; }
+    public Memory getMemory() { return memory; }
+    public Program getProgram() { return program; }
+}
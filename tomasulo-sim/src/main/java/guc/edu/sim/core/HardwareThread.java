@@ -0,0 +1,46 @@
+package guc.edu.sim.core;
+
+import java.io.Serializable;
+
+/**
+ * One SMT hardware thread: its own slice of the program, PC (issue unit) and branch unit.
+ * Reservation stations, buffers, the CDB and the cache are shared with the other threads.
+ */
+public class HardwareThread implements Serializable {
+    private static final long serialVersionUID = 1L;
+    public final int id;
+    public final int start;
+    public final int end;
+    public final IssueUnit issueUnit;
+    public final BranchUnit branchUnit;
+    public String activeBranchTag;
+
+    // Instructions issued but not yet written back, used by the ICOUNT fetch policy
+    public int inFlight = 0;
+    public int issued = 0;
+    public int completed = 0;
+
+    public HardwareThread(int id, Program program, RegisterFile regFile, int branchLatency) {
+        this.id = id;
+        this.start = program.getThreadStart(id);
+        this.end = program.getThreadEnd(id);
+        this.issueUnit = new IssueUnit(program, start, end);
+        this.branchUnit = new BranchUnit(regFile, program);
+        this.branchUnit.setLatency(branchLatency);
+    }
+
+    /** Suffix of this thread's architectural register names; thread 0 uses the plain names. */
+    public static String registerSuffix(int thread) {
+        return thread == 0 ? "" : ".T" + thread;
+    }
+
+    public boolean isDone() {
+        return !issueUnit.hasNext() && activeBranchTag == null;
+    }
+
+    @Override
+    public String toString() {
+        return "T" + id + " [pc=" + issueUnit.getPc() + ", issued=" + issued +
+               ", completed=" + completed + ", inFlight=" + inFlight + "]";
+    }
+}
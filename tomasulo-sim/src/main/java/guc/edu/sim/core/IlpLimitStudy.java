@@ -0,0 +1,250 @@
+package guc.edu.sim.core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Ideal-machine limit study: how fast the program could run if only true dataflow and
+ * the configured latencies mattered.
+ *
+ * A {@link FunctionalInterpreter} supplies the dynamic instruction stream, with every
+ * branch outcome and memory address known in advance. Each instruction is then scheduled
+ * as early as its operands allow, as on a machine with unlimited reservation stations and
+ * buffers, unlimited CDBs, perfect branch prediction, perfect memory disambiguation, a
+ * cache that always hits, and unlimited vector lanes. Only register RAW dependences and
+ * store-to-load dependences on overlapping addresses constrain it. Latencies come from the
+ * detailed simulator's {@link LatencyConfig}. Timing follows the detailed model: execution
+ * starts the cycle after the last operand is written back, and the result is written back
+ * the cycle after execution ends.
+ */
+public class IlpLimitStudy {
+
+    /** Result of a limit study. */
+    public static class Report {
+        public final long instructions;
+        public final int cycles;
+        /** Instructions executing in each cycle; index 0 is cycle 0. */
+        public final int[] profile;
+
+        Report(long instructions, int cycles, int[] profile) {
+            this.instructions = instructions;
+            this.cycles = cycles;
+            this.profile = profile;
+        }
+
+        /** IPC of the ideal machine, an upper bound for any configuration with these latencies. */
+        public double getIpc() {
+            return cycles > 0 ? (double) instructions / cycles : 0.0;
+        }
+
+        /** Mean number of instructions executing per cycle. */
+        public double getAverageParallelism() {
+            long busy = 0;
+            for (int inFlight : profile) busy += inFlight;
+            return cycles > 0 ? (double) busy / cycles : 0.0;
+        }
+
+        public int getPeakParallelism() {
+            int peak = 0;
+            for (int inFlight : profile) peak = Math.max(peak, inFlight);
+            return peak;
+        }
+
+        /** How many times faster the ideal machine is than a run that took {@code actualCycles}. */
+        public double getHeadroom(int actualCycles) {
+            return cycles > 0 ? (double) actualCycles / cycles : 0.0;
+        }
+
+        /** The profile averaged over {@code buckets} equal slices of the run, for plotting. */
+        public double[] getProfile(int buckets) {
+            int n = Math.max(1, Math.min(buckets, profile.length));
+            double[] averaged = new double[n];
+            for (int b = 0; b < n; b++) {
+                int from = (int) ((long) b * profile.length / n);
+                int to = (int) ((long) (b + 1) * profile.length / n);
+                long sum = 0;
+                for (int c = from; c < to; c++) sum += profile[c];
+                averaged[b] = to > from ? (double) sum / (to - from) : 0.0;
+            }
+            return averaged;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(String.format(
+                    "Ideal machine: %d instructions in %d cycles, IPC %.3f, parallelism avg %.2f peak %d%n",
+                    instructions, cycles, getIpc(), getAverageParallelism(), getPeakParallelism()));
+            double[] slices = getProfile(20);
+            double max = 0.0;
+            for (double slice : slices) max = Math.max(max, slice);
+            for (int b = 0; b < slices.length; b++) {
+                int bar = max > 0 ? (int) Math.round(40 * slices[b] / max) : 0;
+                sb.append(String.format("  %5.1f%% %7.2f %s%n", 100.0 * b / slices.length, slices[b],
+                                        "#".repeat(bar)));
+            }
+            return sb.toString();
+        }
+    }
+
+    private static final int WORD = 4;
+
+    private final SimulatorState detailed;
+
+    /**
+     * @param detailed a configured simulator with the program, registers and memory loaded.
+     *                 The study starts from the loaded values, not from the simulator's
+     *                 current state, and does not change it.
+     */
+    public IlpLimitStudy(SimulatorState detailed) {
+        if (!detailed.isProgramLoaded()) {
+            throw new IllegalArgumentException("Load a program before running a limit study");
+        }
+        if (detailed.getProgram().getThreadCount() > 1) {
+            throw new IllegalArgumentException("The limit study supports single-thread programs only");
+        }
+        this.detailed = detailed;
+    }
+
+    public Report run() {
+        return run(Long.MAX_VALUE);
+    }
+
+    /** Schedule the first {@code maxInstructions} dynamic instructions (or the whole program). */
+    public Report run(long maxInstructions) {
+        Program program = detailed.getProgram();
+        LatencyConfig latencies = detailed.getLatencyConfig();
+
+        // Start from the loaded program state, wherever the detailed simulator has got to
+        RegisterFile regs = new RegisterFile();
+        regs.loadInitialValues(detailed.getInitialRegisterValues());
+        Memory memory = new Memory();
+        memory.loadInitialData(detailed.getInitialMemoryValues());
+        VectorRegisterFile vectorRegs = new VectorRegisterFile(detailed.getVectorRegisterFile().getVectorLength());
+        FunctionalInterpreter functional = new FunctionalInterpreter(program, regs, memory);
+        functional.setVectorRegisterFile(vectorRegs);
+        int vectorLength = vectorRegs.getVectorLength();
+
+        Map<String, Integer> registerReady = new HashMap<>();   // cycle the value is written back
+        Map<Integer, Integer> wordReady = new HashMap<>();      // cycle the last store to the word completes
+        int[] starts = new int[64];
+        int[] ends = new int[64];
+        int scheduled = 0;
+        int lastCycle = 0;
+
+        while (!functional.isFinished() && functional.getExecutedCount() < maxInstructions) {
+            Instruction instr = program.get(functional.getPc());
+            InstructionType type = instr.getType();
+
+            // Operands are read before the functional step changes them
+            int ready = 1;   // issued in cycle 1, executes from cycle 2 at the earliest
+            for (String src : new String[] {instr.getSrc1(), instr.getSrc2(), instr.getSrc3(), instr.getBase()}) {
+                if (src != null) ready = Math.max(ready, registerReady.getOrDefault(src, 0));
+            }
+            int[] words = memoryWords(instr, functional, vectorLength);
+            boolean isLoad = type == InstructionType.LOAD || type == InstructionType.VECTOR_LOAD;
+            if (isLoad) {
+                for (int word : words) ready = Math.max(ready, wordReady.getOrDefault(word, 0));
+            }
+
+            int start = ready + 1;
+            int end = start + latency(instr, latencies) - 1;
+            int done = end + 1;
+            if (instr.getDest() != null && type != InstructionType.STORE && type != InstructionType.VECTOR_STORE
+                    && type != InstructionType.BRANCH) {
+                registerReady.put(instr.getDest(), done);
+                lastCycle = Math.max(lastCycle, done);
+            } else {
+                lastCycle = Math.max(lastCycle, end);
+            }
+            if (type == InstructionType.STORE || type == InstructionType.VECTOR_STORE) {
+                for (int word : words) wordReady.put(word, done);
+            }
+
+            if (scheduled == starts.length) {
+                starts = Arrays.copyOf(starts, scheduled * 2);
+                ends = Arrays.copyOf(ends, scheduled * 2);
+            }
+            starts[scheduled] = start;
+            ends[scheduled] = end;
+            scheduled++;
+            functional.step();
+        }
+
+        int[] profile = new int[lastCycle + 1];
+        int[] delta = new int[lastCycle + 2];
+        for (int i = 0; i < scheduled; i++) {
+            delta[starts[i]]++;
+            delta[ends[i] + 1]--;
+        }
+        int inFlight = 0;
+        for (int c = 0; c <= lastCycle; c++) {
+            inFlight += delta[c];
+            profile[c] = inFlight;
+        }
+
+        Report report = new Report(scheduled, lastCycle, profile);
+        SimLog.println(String.format("[ILP] %d instructions in %d cycles, IPC %.3f, peak parallelism %d",
+                                     report.instructions, report.cycles, report.getIpc(), report.getPeakParallelism()));
+        return report;
+    }
+
+    private static int latency(Instruction instr, LatencyConfig latencies) {
+        switch (instr.getType()) {
+            case LOAD:
+            case VECTOR_LOAD:
+                return latencies.getLatency(StationType.LOAD);
+            case STORE:
+            case VECTOR_STORE:
+                return latencies.getLatency(StationType.STORE);
+            case BRANCH:
+                return latencies.getLatency(StationType.INTEGER);
+            case VECTOR_ALU: {
+                String opcode = instr.getOpcode().toUpperCase();
+                StationType pipe = opcode.startsWith("VADD") || opcode.startsWith("VSUB")
+                                   ? StationType.FP_ADD : StationType.FP_MUL;
+                return latencies.getLatency(pipe, instr.getOpcode());
+            }
+            default:
+                StationType type = RealReservationStations.getStationType(instr);
+                return latencies.getLatency(type, instr.getOpcode());
+        }
+    }
+
+    /** Words touched by a memory instruction, from the current register values. */
+    private static int[] memoryWords(Instruction instr, FunctionalInterpreter regs, int vectorLength) {
+        InstructionType type = instr.getType();
+        int offset = instr.getOffset() != null ? instr.getOffset() : 0;
+        switch (type) {
+            case LOAD:
+            case STORE: {
+                String opcode = instr.getOpcode().toUpperCase();
+                int bytes = opcode.equals("LW") || opcode.equals("SW") || opcode.endsWith(".S") ? 4 : 8;
+                return words((int) regs.getValue(instr.getBase()) + offset, bytes);
+            }
+            case VECTOR_LOAD:
+            case VECTOR_STORE: {
+                int base = (int) regs.getValue(instr.getBase()) + offset;
+                int stride = instr.getSrc2() != null ? (int) regs.getValue(instr.getSrc2()) : 8;
+                int[] all = new int[0];
+                for (int i = 0; i < vectorLength; i++) {
+                    int[] element = words(base + i * stride, 8);
+                    int used = all.length;
+                    all = Arrays.copyOf(all, used + element.length);
+                    System.arraycopy(element, 0, all, used, element.length);
+                }
+                return all;
+            }
+            default:
+                return new int[0];
+        }
+    }
+
+    private static int[] words(int address, int bytes) {
+        int first = Math.floorDiv(address, WORD);
+        int last = Math.floorDiv(address + bytes - 1, WORD);
+        int[] words = new int[last - first + 1];
+        for (int i = 0; i < words.length; i++) words[i] = first + i;
+        return words;
+    }
+}
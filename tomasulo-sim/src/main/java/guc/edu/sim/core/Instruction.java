@@ -10,6 +10,7 @@ public class Instruction {
     private final String dest;
     private final String src1;
     private final String src2;
+    private final String src3;            // addend of FMA.D / FMS.D, null otherwise
     private final Integer offset;
     private final String base;
     private final String branchTargetLabel;
@@ -25,12 +26,26 @@ public class Instruction {
                        Integer offset,
                        String base,
                        String branchTargetLabel) {
+        this(label, opcode, type, dest, src1, src2, null, offset, base, branchTargetLabel);
+    }
+
+    public Instruction(String label,
+                       String opcode,
+                       InstructionType type,
+                       String dest,
+                       String src1,
+                       String src2,
+                       String src3,
+                       Integer offset,
+                       String base,
+                       String branchTargetLabel) {
         this.label = label;
         this.opcode = opcode.toUpperCase();
         this.type = type;
         this.dest = dest;
         this.src1 = src1;
         this.src2 = src2;
+        this.src3 = src3;
         this.offset = offset;
         this.base = base;
         this.branchTargetLabel = branchTargetLabel;
@@ -42,10 +57,27 @@ public class Instruction {
     public String getDest() { return dest; }
     public String getSrc1() { return src1; }
     public String getSrc2() { return src2; }
+    public String getSrc3() { return src3; }
     public Integer getOffset() { return offset; }
     public String getBase() { return base; }
     public String getBranchTargetLabel() { return branchTargetLabel; }
 
     public int getIssueCycle() { return issueCycle; }
     public void setIssueCycle(int cycle) { this.issueCycle = cycle; }
+
+    /** Assembly form, e.g. {@code ADD.D F2, F4, F6} or {@code L.D F0, 8(R2)}. */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(opcode);
+        String sep = " ";
+        for (String part : new String[] {dest, src1, src2, src3}) {
+            if (part != null) {
+                sb.append(sep).append(part);
+                sep = ", ";
+            }
+        }
+        if (base != null) sb.append(sep).append(offset != null ? offset : 0).append('(').append(base).append(')');
+        if (branchTargetLabel != null) sb.append(sep).append(branchTargetLabel);
+        return sb.toString();
+    }
 }
\ No newline at end of file
@@ -6,5 +6,8 @@ public enum InstructionType {
     LOAD,       // L.D, LW, L.S
     STORE,      // S.D, SW
     BRANCH,     // BEQ, BNE
+    VECTOR_ALU,   // VADD.D, VSUB.D, VMUL.D, VDIV.D
+    VECTOR_LOAD,  // VL.D, VLS.D
+    VECTOR_STORE, // VS.D, VSS.D
     UNKNOWN
 }
\ No newline at end of file
@@ -0,0 +1,127 @@
+package guc.edu.sim.core;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Integer multiply/divide unit. The multiplier is pipelined: it accepts one DMUL per
+ * cycle and several can be in flight. DDIV runs on an iterative divider which, unless
+ * configured as pipelined, blocks the unit from accepting anything until it finishes.
+ * If two operations finish in the same cycle the younger one leaves in the next cycle.
+ */
+public class IntMulDivUnit extends ExecutionUnit {
+    private static final long serialVersionUID = 1L;
+    private final LatencyConfig latencyConfig;
+    private final boolean pipelinedDivider;
+    private final List<InFlight> pipeline = new ArrayList<>();
+    private boolean acceptedThisCycle = false;
+    private int busyCycles = 0;
+    private int dividerBlockedCycles = 0;
+
+    public IntMulDivUnit(LatencyConfig latencyConfig, boolean pipelinedDivider) {
+        super(StationType.INT_MULDIV, latencyConfig);
+        this.latencyConfig = latencyConfig;
+        this.pipelinedDivider = pipelinedDivider;
+    }
+
+    @Override
+    public boolean isIdle() {
+        return !acceptedThisCycle && !isDividerBlocking();
+    }
+
+    private boolean isDividerBlocking() {
+        if (pipelinedDivider) return false;
+        for (InFlight op : pipeline) {
+            if (op.divide) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int getRemainingCycles() {
+        int max = 0;
+        for (InFlight op : pipeline) {
+            max = Math.max(max, op.remainingCycles);
+        }
+        return max;
+    }
+
+    @Override
+    public ReservationStationEntry getCurrentEntry() {
+        return pipeline.isEmpty() ? null : pipeline.get(0).entry;
+    }
+
+    @Override
+    public boolean start(ReservationStationEntry entry) {
+        if (!isIdle()) return false;
+        if (entry == null) return false;
+        if (!entry.isReady()) return false;
+
+        int latency = latencyConfig.getLatency(StationType.INT_MULDIV, entry.getOpcode());
+        boolean divide = latencyConfig.isDivisionOpcode(entry.getOpcode());
+        pipeline.add(new InFlight(entry, Math.max(0, latency - 1), divide));
+        acceptedThisCycle = true;
+
+        entry.markExecuting();
+        if (SimLog.isEnabled()) {
+            SimLog.println("[IntMulDiv] Started " + entry.getId() + " (" + entry.getOpcode() + ") with latency " +
+                             latency + " cycles, " + pipeline.size() + " in flight" +
+                             (divide && !pipelinedDivider ? " - divider busy" : ""));
+        }
+        return true;
+    }
+
+    @Override
+    public Optional<ReservationStationEntry> tick() {
+        acceptedThisCycle = false;
+        if (pipeline.isEmpty()) return Optional.empty();
+
+        busyCycles++;
+        if (isDividerBlocking()) dividerBlockedCycles++;
+
+        for (InFlight op : pipeline) {
+            op.remainingCycles--;
+        }
+
+        // One result leaves the unit per cycle, oldest first
+        for (int i = 0; i < pipeline.size(); i++) {
+            InFlight op = pipeline.get(i);
+            if (op.remainingCycles <= 0) {
+                pipeline.remove(i);
+                op.entry.setResult(computeResult(op.entry));
+                if (SimLog.isEnabled()) SimLog.println("[IntMulDiv] " + op.entry.getId() + " COMPLETED");
+                return Optional.of(op.entry);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** Cycles in which at least one operation was in flight. */
+    public int getBusyCycles() {
+        return busyCycles;
+    }
+
+    /** Cycles in which a non-pipelined divide kept the unit from accepting work. */
+    public int getDividerBlockedCycles() {
+        return dividerBlockedCycles;
+    }
+
+    public boolean isPipelinedDivider() {
+        return pipelinedDivider;
+    }
+
+    private static class InFlight implements Serializable {
+        private static final long serialVersionUID = 1L;
+        final ReservationStationEntry entry;
+        final boolean divide;
+        int remainingCycles;
+
+        InFlight(ReservationStationEntry entry, int remainingCycles, boolean divide) {
+            this.entry = entry;
+            this.remainingCycles = remainingCycles;
+            this.divide = divide;
+        }
+    }
+}
@@ -1,17 +1,27 @@
 package guc.edu.sim.core;
 
+import java.io.Serializable;
 
-public class IssueUnit {
+public class IssueUnit implements Serializable {
+    private static final long serialVersionUID = 1L;
 
     private final Program program;
+    private final int end;
     private int pc = 0;
 
     public IssueUnit(Program program) {
+        this(program, 0, program.size());
+    }
+
+    /** Issue unit confined to instructions {@code [start, end)}, e.g. one SMT thread. */
+    public IssueUnit(Program program, int start, int end) {
         this.program = program;
+        this.pc = start;
+        this.end = end;
     }
 
     public boolean hasNext() {
-        return pc < program.size();
+        return pc < end;
     }
 
     public int getPc() {
@@ -25,7 +35,8 @@ public class IssueUnit {
     public boolean stepIssue(ReservationStations rs,
                              MemoryUnitInterface mem,
                              BranchUnitInterface br,
-                             RegisterStatusTable regStatus) {
+                             RegisterStatusTable regStatus,
+                             int cycle) {
         if (!hasNext()) return false;
 
         Instruction instr = program.get(pc);
@@ -35,7 +46,7 @@ public class IssueUnit {
         }
 
         routeToUnit(instr, rs, mem, br, regStatus);
-        instr.setIssueCycle(SimulationClock.getCycle());
+        instr.setIssueCycle(cycle);
         pc++;
         return true;
     }
@@ -10,6 +10,8 @@ import java.util.Map;
 public class LatencyConfig {
     private final EnumMap<StationType, Integer> latencies;
     private int fpDivLatency;
+    private int fmaLatency;
+    private int intDivLatency;
 
     public LatencyConfig() {
         latencies = new EnumMap<>(StationType.class);
@@ -17,9 +19,12 @@ public class LatencyConfig {
         latencies.put(StationType.FP_ADD, 3);
         latencies.put(StationType.FP_MUL, 10);
         latencies.put(StationType.INTEGER, 1);
+        latencies.put(StationType.INT_MULDIV, 4);
         latencies.put(StationType.LOAD, 2);
         latencies.put(StationType.STORE, 2);
         fpDivLatency = 40;
+        fmaLatency = 10;
+        intDivLatency = 20;
     }
 
     public void setLatency(StationType type, int cycles) {
@@ -32,6 +37,22 @@ public class LatencyConfig {
         fpDivLatency = cycles;
     }
 
+    /** Latency of DDIV on the integer mul/div unit; DMUL uses the INT_MULDIV latency. */
+    public void setIntDivisionLatency(int cycles) {
+        if (cycles < 1) throw new IllegalArgumentException("latency must be >= 1");
+        intDivLatency = cycles;
+    }
+
+    /** Latency of FMA.D / FMS.D, which run on the FP_MUL pipe. */
+    public void setFmaLatency(int cycles) {
+        if (cycles < 1) throw new IllegalArgumentException("latency must be >= 1");
+        fmaLatency = cycles;
+    }
+
+    public int getFmaLatency() {
+        return fmaLatency;
+    }
+
     public int getLatency(StationType type) {
         return latencies.getOrDefault(type, 1);
     }
@@ -40,6 +61,12 @@ public class LatencyConfig {
         if (type == StationType.FP_MUL && isDivisionOpcode(opcode)) {
             return fpDivLatency;
         }
+        if (type == StationType.INT_MULDIV && isDivisionOpcode(opcode)) {
+            return intDivLatency;
+        }
+        if (type == StationType.FP_MUL && ALU.isFused(opcode)) {
+            return fmaLatency;
+        }
         return getLatency(type);
     }
 
@@ -47,7 +74,7 @@ public class LatencyConfig {
         return new EnumMap<>(latencies);
     }
 
-    private boolean isDivisionOpcode(String opcode) {
+    public boolean isDivisionOpcode(String opcode) {
         if (opcode == null) return false;
         String op = opcode.toUpperCase();
         if (op.endsWith(".D") || op.endsWith(".S")) {
@@ -1,12 +1,16 @@
 package guc.edu.sim.core;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Dedicated Load buffer for handling load instructions. 
  */
-public class LoadBuffer {
+public class LoadBuffer implements Serializable {
+    private static final long serialVersionUID = 1L;
     private final List<LoadEntry> buffer = new ArrayList<>();
     private final int maxSize;
     private final RegisterFile regFile;
@@ -16,13 +20,23 @@ public class LoadBuffer {
     private final Cache cache;
     private int nextId = 1;
     private String lastAllocatedTag;
+    private transient ChangeTracker changes = new ChangeTracker();  // UI feed, not part of a checkpoint
 
     public LoadBuffer(int maxSize, RegisterFile regFile, Memory memory, Cache cache) {
         this.maxSize = maxSize;
         this.regFile = regFile;
         this.memory = memory;
         this.cache = cache;
-        System.out.println("[LoadBuffer] Initialized with size=" + maxSize);
+        SimLog.println("[LoadBuffer] Initialized with size=" + maxSize);
+    }
+
+    public void setChangeTracker(ChangeTracker changes) {
+        this.changes = changes;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        changes = new ChangeTracker();  // the simulator hands its own tracker in again
     }
 
     public boolean hasFree() {
@@ -51,15 +65,35 @@ public class LoadBuffer {
 
         buffer.add(entry);
         lastAllocatedTag = tag;
-        System.out.println("[LoadBuffer] Allocated " + tag + " for " + instr.getOpcode());
+        changes.markLoadEntry(tag);
+        SimLog.println("[LoadBuffer] Allocated " + tag + " for " + instr.getOpcode());
     }
 
     public List<LoadEntry> getBuffer() {
         return new ArrayList<>(buffer);
     }
 
+    public int size() {
+        return buffer.size();
+    }
+
+    /**
+     * Look up a live entry by its tag.
+     * @return the entry, or null if it has been freed
+     */
+    public LoadEntry findEntryByTag(String tag) {
+        for (LoadEntry entry : buffer) {
+            if (entry.tag.equals(tag)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
     public void removeEntry(LoadEntry entry) {
-        buffer.remove(entry);
+        if (buffer.remove(entry)) {
+            changes.markLoadEntry(entry.tag);
+        }
     }
 
     /**
@@ -71,6 +105,7 @@ public class LoadBuffer {
         for (int i = 0; i < buffer.size(); i++) {
             if (buffer.get(i).tag.equals(tag)) {
                 buffer.remove(i);
+                changes.markLoadEntry(tag);
                 return true;
             }
         }
@@ -87,6 +122,7 @@ public class LoadBuffer {
                 entry.baseValue = result;
                 entry.baseReady = true;
                 entry.baseProducer = null;
+                changes.markLoadEntry(entry.tag);
                 if (currentCycle >= 0 && entry.readyCycle < 0) {
                     entry.readyCycle = currentCycle;
                 }
@@ -94,7 +130,8 @@ public class LoadBuffer {
         }
     }
 
-    public static class LoadEntry {
+    public static class LoadEntry implements Serializable {
+        private static final long serialVersionUID = 1L;
         public final String tag;
         public final Instruction instruction;
         public double baseValue;
@@ -102,9 +139,16 @@ public class LoadBuffer {
         public String baseProducer;
         public boolean executing = false;
         public int remainingCycles = 0;
+        public DramController.Request memoryRequest;  // DRAM read whose latency is not yet added
         public double result;
         public int readyCycle = -1;  // cycle when this entry became ready (-1 means ready at issue or not yet)
         public boolean completedExecution = false;  // true when execution is complete but waiting for write-back
+        public int seq;  // program-order position among memory operations (smaller = older)
+        public boolean forwarded = false;  // true when the value came from an older store, not the cache
+        public int pc;   // program index, used by the memory dependence predictor
+        public int sourceSeq = 0;  // seq of the store whose value was read (0 = memory before any buffered store)
+        public final List<String> bypassedStores = new ArrayList<>();  // older stores passed with unknown address
+        public boolean predictedWait = false;  // held back at least once by the store-set predictor
 
         public LoadEntry(String tag, Instruction instruction) {
             this.tag = tag;
@@ -0,0 +1,214 @@
+package guc.edu.sim.core;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index over the in-flight loads and stores used by the memory ordering checks.
+ * Every memory op between issue and write-back is reachable by its resolved address
+ * and by its (base register, offset) pair, so a conflict check touches only the
+ * entries that can match instead of scanning both buffers. Lists are kept in issue
+ * order, so the first match is always the oldest.
+ */
+public class LoadStoreQueue implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final Map<String, Entry> byTag = new HashMap<>();
+    private final Map<Integer, List<Entry>> byAddress = new HashMap<>();
+    private final Map<Integer, List<Entry>> storesByAddress = new HashMap<>();
+    private final Map<String, List<Entry>> byBaseOffset = new HashMap<>();
+    private final Map<String, List<Entry>> waitingOnProducer = new HashMap<>();
+    private final Map<String, Entry> unresolvedStores = new LinkedHashMap<>();
+
+    public void add(LoadBuffer.LoadEntry load) {
+        Entry entry = new Entry(load.tag, false, load.seq, load.instruction, load, null);
+        insert(entry, load.baseReady, load.baseProducer);
+    }
+
+    public void add(StoreBuffer.StoreEntry store) {
+        Entry entry = new Entry(store.tag, true, store.seq, store.instruction, null, store);
+        insert(entry, store.baseReady, store.baseProducer);
+    }
+
+    private void insert(Entry entry, boolean baseReady, String baseProducer) {
+        byTag.put(entry.tag, entry);
+        byBaseOffset.computeIfAbsent(entry.baseKey(), k -> new ArrayList<>()).add(entry);
+        if (baseReady) {
+            indexAddress(entry);
+        } else {
+            waitingOnProducer.computeIfAbsent(baseProducer, k -> new ArrayList<>()).add(entry);
+            if (entry.isStore) {
+                unresolvedStores.put(entry.tag, entry);
+            }
+        }
+    }
+
+    private void indexAddress(Entry entry) {
+        entry.address = entry.isStore ? entry.store.computeAddress() : entry.load.computeAddress();
+        insertByAge(byAddress.computeIfAbsent(entry.address, k -> new ArrayList<>()), entry);
+        if (entry.isStore) {
+            insertByAge(storesByAddress.computeIfAbsent(entry.address, k -> new ArrayList<>()), entry);
+        }
+    }
+
+    // Keep each address list in age order even when a younger op resolves first
+    private static void insertByAge(List<Entry> list, Entry entry) {
+        list.add(entry);
+        for (int i = list.size() - 1; i > 0 && list.get(i - 1).seq > list.get(i).seq; i--) {
+            Entry tmp = list.get(i - 1);
+            list.set(i - 1, list.get(i));
+            list.set(i, tmp);
+        }
+    }
+
+    /**
+     * Index the addresses of every entry whose base register was produced by {@code tag}.
+     * Call after the buffers have taken the broadcast value.
+     */
+    public void resolve(String tag) {
+        List<Entry> waiting = waitingOnProducer.remove(tag);
+        if (waiting == null) return;
+        for (Entry entry : waiting) {
+            if (byTag.get(entry.tag) == entry) {
+                unresolvedStores.remove(entry.tag);
+                indexAddress(entry);
+            }
+        }
+    }
+
+    /**
+     * Drop an entry once it has written back; it can no longer conflict.
+     */
+    public void remove(String tag) {
+        Entry entry = byTag.remove(tag);
+        if (entry == null) return;
+        removeFrom(byBaseOffset, entry.baseKey(), entry);
+        if (entry.address != null) {
+            removeFrom(byAddress, entry.address, entry);
+            if (entry.isStore) {
+                removeFrom(storesByAddress, entry.address, entry);
+            }
+        }
+        unresolvedStores.remove(tag);
+    }
+
+    private static <K> void removeFrom(Map<K, List<Entry>> index, K key, Entry entry) {
+        List<Entry> list = index.get(key);
+        if (list != null) {
+            list.remove(entry);
+            if (list.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Oldest pending op with the same base register and offset, resolved or not.
+     */
+    public Entry findByBaseOffset(String base, int offset, boolean includeStores) {
+        return first(byBaseOffset.get(key(base, offset)), includeStores, false);
+    }
+
+    /**
+     * Oldest pending op with the same base register and offset whose address is still unknown.
+     */
+    public Entry findUnresolvedByBaseOffset(String base, int offset, boolean includeStores) {
+        return first(byBaseOffset.get(key(base, offset)), includeStores, true);
+    }
+
+    /**
+     * Oldest pending op whose resolved address is {@code address}.
+     */
+    public Entry findAtAddress(int address, boolean includeStores) {
+        return first(byAddress.get(address), includeStores, false);
+    }
+
+    private static Entry first(List<Entry> list, boolean includeStores, boolean unresolvedOnly) {
+        if (list == null) return null;
+        for (Entry entry : list) {
+            if (!includeStores && entry.isStore) continue;
+            if (unresolvedOnly && entry.address != null) continue;
+            return entry;
+        }
+        return null;
+    }
+
+    /**
+     * True if a load older than {@code seq} reads {@code address} and has not finished executing.
+     */
+    public boolean hasOlderIncompleteLoadAt(int address, int seq) {
+        List<Entry> list = byAddress.get(address);
+        if (list == null) return false;
+        for (Entry entry : list) {
+            if (entry.seq >= seq) break;
+            if (!entry.isStore && !entry.load.completedExecution) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stores whose address is not yet known, oldest first.
+     */
+    public Iterable<Entry> getUnresolvedStores() {
+        return unresolvedStores.values();
+    }
+
+    /**
+     * Resolved stores at exactly {@code address}, oldest first. This is the live index
+     * list, read it without modifying it or holding on to it.
+     */
+    public List<Entry> getStoresAt(int address) {
+        List<Entry> list = storesByAddress.get(address);
+        return list != null ? list : Collections.emptyList();
+    }
+
+    public int size() {
+        return byTag.size();
+    }
+
+    public void clear() {
+        byTag.clear();
+        byAddress.clear();
+        storesByAddress.clear();
+        byBaseOffset.clear();
+        waitingOnProducer.clear();
+        unresolvedStores.clear();
+    }
+
+    private static String key(String base, int offset) {
+        return base + ":" + offset;
+    }
+
+    public static class Entry implements Serializable {
+        private static final long serialVersionUID = 1L;
+        public final String tag;
+        public final boolean isStore;
+        public final int seq;
+        public final String base;
+        public final int offset;
+        public final LoadBuffer.LoadEntry load;
+        public final StoreBuffer.StoreEntry store;
+        public Integer address;  // null until the base register is known
+
+        Entry(String tag, boolean isStore, int seq, Instruction instr,
+              LoadBuffer.LoadEntry load, StoreBuffer.StoreEntry store) {
+            this.tag = tag;
+            this.isStore = isStore;
+            this.seq = seq;
+            this.base = instr.getBase();
+            this.offset = instr.getOffset() != null ? instr.getOffset() : 0;
+            this.load = load;
+            this.store = store;
+        }
+
+        String baseKey() {
+            return key(base, offset);
+        }
+    }
+}
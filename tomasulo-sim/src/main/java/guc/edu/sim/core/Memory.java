@@ -1,46 +1,184 @@
 package guc.edu.sim.core;
 
-import java.util.HashMap;
+import java.io.Serializable;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Byte-addressable memory system. 
+ * Byte-addressable memory system.
+ * Bytes live in 4 KB pages allocated on first write; unwritten memory reads as zero.
+ *
+ * A memory is not safe to write from several host threads. Cores of a multicore each get
+ * a {@link #coreView} instead: stores stay private to the core until {@link #publishWrites()}
+ * applies them to the shared memory at a synchronization point.
+ *
+ * {@link #checkpoint()} hands out the current pages without copying them; the memory
+ * copies a page again the first time it writes it after that.
  */
-public class Memory {
-    private final Map<Integer, Byte> memory = new HashMap<>();
+public class Memory implements Serializable {
+    private static final long serialVersionUID = 1L;
+    public static final int PAGE_BITS = 12;
+    public static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final Map<Integer, byte[]> pages = new ConcurrentHashMap<>();
+    private final Memory backing;  // read-through for pages this memory has not written
+    private transient volatile Page lastPage;  // most recently used local page
+    private final Set<Integer> sharedPages = ConcurrentHashMap.newKeySet();  // also held by a checkpoint
+    // Write watchpoints: byte ranges [low, high) and a bit per range stored to since the last take
+    private int[] watchLows = new int[0];
+    private int[] watchHighs = new int[0];
+    private long watchedWrites;
+    // Core views only: stores not yet published, in program order
+    private int[] pendingAddresses;
+    private long[] pendingBits;
+    private byte[] pendingSizes;
+    private int pendingCount;
 
     public Memory() {
-        // Initialize some memory
+        this(null);
+    }
+
+    /**
+     * Copy-on-write view of {@code backing}: reads fall through to it, and the first write
+     * to a page copies that page here.
+     */
+    public Memory(Memory backing) {
+        this.backing = backing;
+    }
+
+    /**
+     * One core's view of {@code shared}: reads see the shared memory plus this core's own
+     * stores, which are kept until {@link #publishWrites()}. Watchpoints on the view only
+     * see this core's stores.
+     */
+    public static Memory coreView(Memory shared) {
+        Memory view = new Memory(shared);
+        view.pendingAddresses = new int[16];
+        view.pendingBits = new long[16];
+        view.pendingSizes = new byte[16];
+        return view;
+    }
+
+    /**
+     * Apply this core view's stores to the shared memory in the order they were made, then
+     * drop the private copies so later reads see the shared memory, including other cores'
+     * published stores. Call only while no core is stepping.
+     */
+    public void publishWrites() {
+        if (pendingAddresses == null) {
+            throw new IllegalStateException("Only a core view has writes to publish");
+        }
+        for (int i = 0; i < pendingCount; i++) {
+            long bits = pendingBits[i];
+            for (int b = 0; b < pendingSizes[i]; b++) {
+                backing.write(pendingAddresses[i] + b, (byte) ((bits >> (8 * b)) & 0xFF));
+            }
+        }
+        pendingCount = 0;
+        pages.clear();
+        sharedPages.clear();
+        lastPage = null;
+    }
+
+    private void deferWrite(int address, long bits, int bytes) {
+        if (pendingCount == pendingAddresses.length) {
+            int grown = pendingCount * 2;
+            pendingAddresses = java.util.Arrays.copyOf(pendingAddresses, grown);
+            pendingBits = java.util.Arrays.copyOf(pendingBits, grown);
+            pendingSizes = java.util.Arrays.copyOf(pendingSizes, grown);
+        }
+        pendingAddresses[pendingCount] = address;
+        pendingBits[pendingCount] = bits;
+        pendingSizes[pendingCount] = (byte) bytes;
+        pendingCount++;
+    }
+
+    private static final class Page {
+        final int number;
+        final byte[] bytes;
+        final boolean shared;
+
+        Page(int number, byte[] bytes, boolean shared) {
+            this.number = number;
+            this.bytes = bytes;
+            this.shared = shared;
+        }
+    }
+
+    /** The page holding {@code number} for reading, or null if it was never written. */
+    private byte[] findPage(int number) {
+        Page last = lastPage;
+        if (last != null && last.number == number) return last.bytes;
+        byte[] bytes = pages.get(number);
+        if (bytes != null) {
+            lastPage = new Page(number, bytes, !sharedPages.isEmpty() && sharedPages.contains(number));
+            return bytes;
+        }
+        return backing != null ? backing.findPage(number) : null;
+    }
+
+    /** The local page holding {@code number} for writing, created (or copied from the backing memory) if needed. */
+    private byte[] writablePage(int number) {
+        Page last = lastPage;
+        if (last != null && last.number == number && !last.shared) return last.bytes;
+        byte[] bytes;
+        if (!sharedPages.isEmpty() && sharedPages.remove(number)) {
+            // Still referenced by a checkpoint: write to a private copy
+            bytes = pages.get(number).clone();
+            pages.put(number, bytes);
+        } else {
+            bytes = pages.computeIfAbsent(number, n -> {
+                byte[] shared = backing != null ? backing.findPage(n) : null;
+                return shared != null ? shared.clone() : new byte[PAGE_SIZE];
+            });
+        }
+        lastPage = new Page(number, bytes, false);
+        return bytes;
+    }
+
+    private byte read(int address) {
+        byte[] page = findPage(address >> PAGE_BITS);
+        return page != null ? page[address & PAGE_MASK] : 0;
+    }
+
+    private void write(int address, byte value) {
+        writablePage(address >> PAGE_BITS)[address & PAGE_MASK] = value;
     }
 
     public void storeByte(int address, byte value) {
-        memory.put(address, value);
-        System.out.println("[Memory] Stored byte at address " + address + ": " + value);
+        noteWrite(address, 1);
+        if (pendingAddresses != null) deferWrite(address, value, 1);
+        write(address, value);
+        if (SimLog.isEnabled()) SimLog.println("[Memory] Stored byte at address " + address + ": " + value);
     }
 
     public byte loadByte(int address) {
-        return memory.getOrDefault(address, (byte) 0);
+        return read(address);
     }
 
     public void storeWord(int address, int value) {
-        memory.put(address, (byte) (value & 0xFF));
-        memory.put(address + 1, (byte) ((value >> 8) & 0xFF));
-        memory.put(address + 2, (byte) ((value >> 16) & 0xFF));
-        memory.put(address + 3, (byte) ((value >> 24) & 0xFF));
-        System.out.println("[Memory] Stored word at address " + address + ": " + value);
+        noteWrite(address, 4);
+        if (pendingAddresses != null) deferWrite(address, value, 4);
+        write(address, (byte) (value & 0xFF));
+        write(address + 1, (byte) ((value >> 8) & 0xFF));
+        write(address + 2, (byte) ((value >> 16) & 0xFF));
+        write(address + 3, (byte) ((value >> 24) & 0xFF));
+        if (SimLog.isEnabled()) SimLog.println("[Memory] Stored word at address " + address + ": " + value);
     }
 
     public int loadWord(int address) {
-        int b0 = memory.getOrDefault(address, (byte) 0) & 0xFF;
-        int b1 = memory.getOrDefault(address + 1, (byte) 0) & 0xFF;
-        int b2 = memory.getOrDefault(address + 2, (byte) 0) & 0xFF;
-        int b3 = memory. getOrDefault(address + 3, (byte) 0) & 0xFF;
+        int b0 = read(address) & 0xFF;
+        int b1 = read(address + 1) & 0xFF;
+        int b2 = read(address + 2) & 0xFF;
+        int b3 = read(address + 3) & 0xFF;
         return b0 | (b1 << 8) | (b2 << 16) | (b3 << 24);
     }
 
     public void storeFloat(int address, float value) {
         storeWord(address, Float.floatToRawIntBits(value));
-        System.out.println("[Memory] Stored float at address " + address + ": " + value);
+        if (SimLog.isEnabled()) SimLog.println("[Memory] Stored float at address " + address + ": " + value);
     }
 
     public float loadFloat(int address) {
@@ -49,18 +187,37 @@ public class Memory {
     }
 
     public void storeDouble(int address, double value) {
+        noteWrite(address, 8);
         long bits = Double.doubleToRawLongBits(value);
-        for (int i = 0; i < 8; i++) {
-            memory. put(address + i, (byte) ((bits >> (8 * i)) & 0xFF));
+        if (pendingAddresses != null) deferWrite(address, bits, 8);
+        int offset = address & PAGE_MASK;
+        if (offset <= PAGE_SIZE - 8) {
+            byte[] page = writablePage(address >> PAGE_BITS);
+            for (int i = 0; i < 8; i++) {
+                page[offset + i] = (byte) ((bits >> (8 * i)) & 0xFF);
+            }
+        } else {
+            for (int i = 0; i < 8; i++) {
+                write(address + i, (byte) ((bits >> (8 * i)) & 0xFF));
+            }
         }
-        System.out.println("[Memory] Stored double at address " + address + ": " + value);
+        if (SimLog.isEnabled()) SimLog.println("[Memory] Stored double at address " + address + ": " + value);
     }
 
     public double loadDouble(int address) {
         long bits = 0;
-        for (int i = 0; i < 8; i++) {
-            long b = memory.getOrDefault(address + i, (byte) 0) & 0xFF;
-            bits |= (b << (8 * i));
+        int offset = address & PAGE_MASK;
+        if (offset <= PAGE_SIZE - 8) {
+            byte[] page = findPage(address >> PAGE_BITS);
+            if (page == null) return 0.0;
+            for (int i = 0; i < 8; i++) {
+                bits |= ((long) (page[offset + i] & 0xFF)) << (8 * i);
+            }
+        } else {
+            for (int i = 0; i < 8; i++) {
+                long b = read(address + i) & 0xFF;
+                bits |= (b << (8 * i));
+            }
         }
         return Double.longBitsToDouble(bits);
     }
@@ -71,11 +228,95 @@ public class Memory {
 
     public byte[] loadBlock(int blockStartAddress, int blockSize) {
         byte[] block = new byte[blockSize];
-        System.out.println("[Memory] loadBlock called: blockStartAddress=" + blockStartAddress + ", blockSize=" + blockSize);
+        if (SimLog.isEnabled()) {
+            SimLog.println("[Memory] loadBlock called: blockStartAddress=" + blockStartAddress + ", blockSize=" + blockSize);
+        }
         for (int i = 0; i < blockSize; i++) {
             block[i] = loadByte(blockStartAddress + i);
         }
-        System.out.println("[Memory] loadBlock returning: " + java.util.Arrays.toString(block));
+        if (SimLog.isEnabled()) {
+            SimLog.println("[Memory] loadBlock returning: " + java.util.Arrays.toString(block));
+        }
         return block;
     }
+
+    /**
+     * Independent copy of the current contents, including anything read through from a
+     * backing memory. Later writes to either memory do not show in the other.
+     */
+    public Memory snapshot() {
+        Map<Integer, byte[]> flat = new java.util.HashMap<>();
+        collectPages(flat);
+        Memory copy = new Memory();
+        flat.forEach((number, bytes) -> copy.pages.put(number, bytes.clone()));
+        return copy;
+    }
+
+    /**
+     * Every page written so far, including those read through from a backing memory. The
+     * pages are shared, not copied; callers must not change them.
+     */
+    public Map<Integer, byte[]> getPages() {
+        Map<Integer, byte[]> flat = new java.util.TreeMap<>();
+        collectPages(flat);
+        return java.util.Collections.unmodifiableMap(flat);
+    }
+
+    private void collectPages(Map<Integer, byte[]> into) {
+        if (backing != null) backing.collectPages(into);
+        into.putAll(pages);
+    }
+
+    /**
+     * The pages written so far, for restoring later with {@link #restore(Map)}. The pages
+     * are shared, not copied; this memory copies each one before writing it again.
+     */
+    public Map<Integer, byte[]> checkpoint() {
+        Map<Integer, byte[]> saved = new java.util.HashMap<>(pages);
+        sharedPages.addAll(saved.keySet());
+        lastPage = null;
+        return java.util.Collections.unmodifiableMap(saved);
+    }
+
+    /** Return to the contents saved by {@link #checkpoint()}; the backing memory is unchanged. */
+    public void restore(Map<Integer, byte[]> saved) {
+        pages.clear();
+        pages.putAll(saved);
+        sharedPages.clear();
+        sharedPages.addAll(saved.keySet());
+        lastPage = null;
+    }
+
+    /**
+     * Watch stores to the byte ranges {@code [lows[i], highs[i])}, replacing any earlier ranges.
+     * At most 64 ranges; {@link #takeWatchedWrites} reports which were written. The watch
+     * state belongs to the one simulator stepping this memory: each multicore core watches
+     * its own {@link #coreView}, never the shared memory other host threads publish to.
+     */
+    public void watchWrites(int[] lows, int[] highs) {
+        if (lows.length != highs.length || lows.length > Long.SIZE) {
+            throw new IllegalArgumentException("Expected up to " + Long.SIZE + " ranges with both bounds");
+        }
+        watchLows = lows.clone();
+        watchHighs = highs.clone();
+        watchedWrites = 0;
+    }
+
+    /** Bit i is set if range i was stored to since the previous call. */
+    public long takeWatchedWrites() {
+        long written = watchedWrites;
+        watchedWrites = 0;
+        return written;
+    }
+
+    private void noteWrite(int address, int bytes) {
+        for (int i = 0; i < watchLows.length; i++) {
+            if (address < watchHighs[i] && address + bytes > watchLows[i]) watchedWrites |= 1L << i;
+        }
+    }
+
+    /** Pages written in this memory itself (not counting a backing memory). */
+    public int getPageCount() {
+        return pages.size();
+    }
 }
@@ -0,0 +1,153 @@
+package guc.edu.sim.core;
+
+import java.io.Serializable;
+import java.util.PriorityQueue;
+
+/**
+ * Finite-bandwidth channel between the cache and {@link Memory}.
+ *
+ * Every transfer occupies the channel for {@code bytes / bytesPerCycle} cycles, one at a
+ * time in arrival order, and at most {@code maxOutstanding} requests may be in flight
+ * (admitted but not yet returned). A block read completes {@code accessLatency} cycles
+ * after its data has crossed the channel, so an uncontended miss costs the transfer time
+ * plus the access latency and anything beyond that is queueing delay. Write-throughs are
+ * posted: they take channel time but nobody waits for them.
+ *
+ * The owner moves the channel forward with {@link #advanceTo(int)} once per cycle.
+ */
+public class MemoryChannel implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final double bytesPerCycle;
+    private final int maxOutstanding;
+    private final int accessLatency;
+
+    private int cycle = 0;
+    private int firstCycle = -1;
+    private int busyUntil = 0;                 // first cycle the channel is free again
+    private final PriorityQueue<Integer> outstanding = new PriorityQueue<>();  // completion cycles
+
+    private long reads = 0;
+    private long writes = 0;
+    private long bytesTransferred = 0;
+    private long busyCycles = 0;
+    private long totalQueueDelay = 0;
+    private int maxQueueDelay = 0;
+    private long delayedRequests = 0;
+    private long outstandingLimitStalls = 0;   // requests that waited for a free slot
+    private int peakOutstanding = 0;
+
+    /**
+     * @param bytesPerCycle  channel bandwidth
+     * @param maxOutstanding requests allowed in flight at once
+     * @param accessLatency  cycles from the end of a read's transfer to its data being usable
+     */
+    public MemoryChannel(double bytesPerCycle, int maxOutstanding, int accessLatency) {
+        if (bytesPerCycle <= 0) {
+            throw new IllegalArgumentException("Bandwidth must be positive: " + bytesPerCycle);
+        }
+        if (maxOutstanding < 1) {
+            throw new IllegalArgumentException("Need at least one outstanding request");
+        }
+        this.bytesPerCycle = bytesPerCycle;
+        this.maxOutstanding = maxOutstanding;
+        this.accessLatency = Math.max(0, accessLatency);
+    }
+
+    /** Move to {@code cycle} and retire requests that have completed by then. */
+    public synchronized void advanceTo(int cycle) {
+        this.cycle = cycle;
+        if (firstCycle < 0) firstCycle = cycle;
+        while (!outstanding.isEmpty() && outstanding.peek() <= cycle) {
+            outstanding.poll();
+        }
+    }
+
+    /**
+     * Read {@code bytes} (a cache block) starting this cycle. Returns the cycles until the
+     * data is available, including queueing.
+     */
+    public synchronized int read(int bytes) {
+        int done = schedule(bytes, true);
+        return done - cycle;
+    }
+
+    /** Post a write of {@code bytes}; it uses channel time but adds no latency to the writer. */
+    public synchronized void write(int bytes) {
+        schedule(bytes, false);
+    }
+
+    /** Admit and transfer one request; returns the cycle it completes. */
+    private int schedule(int bytes, boolean read) {
+        int start = Math.max(cycle, busyUntil);
+        if (outstanding.size() >= maxOutstanding) {
+            // Wait for the oldest in-flight request to return its slot
+            outstandingLimitStalls++;
+            while (outstanding.size() >= maxOutstanding) {
+                start = Math.max(start, outstanding.poll());
+            }
+        }
+        int transfer = Math.max(1, (int) Math.ceil(bytes / bytesPerCycle));
+        busyUntil = start + transfer;
+        int done = busyUntil + (read ? accessLatency : 0);
+        outstanding.add(done);
+        peakOutstanding = Math.max(peakOutstanding, outstanding.size());
+
+        int delay = start - cycle;
+        totalQueueDelay += delay;
+        maxQueueDelay = Math.max(maxQueueDelay, delay);
+        if (delay > 0) delayedRequests++;
+        if (read) reads++; else writes++;
+        bytesTransferred += bytes;
+        busyCycles += transfer;
+
+        if (SimLog.isEnabled()) {
+            SimLog.println("[MemChannel] Cycle " + cycle + ": " + (read ? "read " : "write ") + bytes + " bytes, queued " +
+                           delay + ", transfer " + transfer + ", done at " + done +
+                           " (" + outstanding.size() + " outstanding)");
+        }
+        return done;
+    }
+
+    public double getBytesPerCycle() { return bytesPerCycle; }
+    public int getMaxOutstanding() { return maxOutstanding; }
+    public int getAccessLatency() { return accessLatency; }
+    public long getReads() { return reads; }
+    public long getWrites() { return writes; }
+    public long getRequests() { return reads + writes; }
+    public long getBytesTransferred() { return bytesTransferred; }
+    public long getBusyCycles() { return busyCycles; }
+    public long getDelayedRequests() { return delayedRequests; }
+    public long getOutstandingLimitStalls() { return outstandingLimitStalls; }
+    public int getMaxQueueDelay() { return maxQueueDelay; }
+    public int getPeakOutstanding() { return peakOutstanding; }
+
+    /** Mean cycles a request waited before its transfer started. */
+    public double getAverageQueueDelay() {
+        long requests = getRequests();
+        return requests > 0 ? (double) totalQueueDelay / requests : 0.0;
+    }
+
+    private int elapsedCycles() {
+        return firstCycle < 0 ? 0 : cycle - firstCycle + 1;
+    }
+
+    /** Bytes moved per cycle over the cycles seen so far. */
+    public double getAchievedBandwidth() {
+        int elapsed = elapsedCycles();
+        return elapsed > 0 ? (double) bytesTransferred / elapsed : 0.0;
+    }
+
+    /** Fraction of the cycles seen so far in which the channel was transferring. */
+    public double getUtilization() {
+        int elapsed = elapsedCycles();
+        return elapsed > 0 ? Math.min(1.0, (double) busyCycles / elapsed) : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.2f of %.2f B/cycle (%.0f%% busy), %d reads, %d writes, " +
+                             "queue delay avg %.2f max %d, %d waited for an outstanding slot",
+                getAchievedBandwidth(), bytesPerCycle, 100 * getUtilization(), reads, writes,
+                getAverageQueueDelay(), maxQueueDelay, outstandingLimitStalls);
+    }
+}
@@ -0,0 +1,125 @@
+package guc.edu.sim.core;
+
+import java.io.Serializable;
+
+/**
+ * Virtual-to-physical translation in front of the cache: a data TLB, an optional
+ * second-level TLB and a page-table walker.
+ *
+ * The simulator runs a single address space, so pages are identity-mapped and
+ * translation never changes an address; it only adds latency. A first-level hit costs
+ * {@code l1HitLatency}, a second-level hit {@code l2HitLatency} more, and a miss in both
+ * a walk of {@code walkLevels} dependent page-table reads of {@code walkLevelLatency}
+ * cycles each. Walked translations are filled into both levels.
+ */
+public class Mmu implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** Page size, TLB organization and latencies in cycles. */
+    public static class Config implements Serializable {
+        private static final long serialVersionUID = 1L;
+        public int pageSize = 4096;
+        public int l1Entries = 64;
+        public int l1Ways = 4;
+        public int l1HitLatency = 0;   // overlapped with the cache access
+        public int l2Entries = 0;      // 0 = no second-level TLB
+        public int l2Ways = 8;
+        public int l2HitLatency = 7;
+        public int walkLevels = 4;
+        public int walkLevelLatency = 20;
+    }
+
+    private final Config config;
+    private final Tlb l1;
+    private final Tlb l2;   // null without a second level
+
+    private long translations = 0;
+    private long walks = 0;
+    private long walkCycles = 0;
+    private long totalLatency = 0;
+
+    public Mmu(Config config) {
+        if (config.pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive: " + config.pageSize);
+        }
+        this.config = config;
+        this.l1 = new Tlb("DTLB", config.l1Entries, config.l1Ways);
+        this.l2 = config.l2Entries > 0 ? new Tlb("L2 TLB", config.l2Entries, config.l2Ways) : null;
+    }
+
+    /** Translate {@code address}; returns the cycles translation adds to the access. */
+    public synchronized int translate(int address) {
+        long page = Integer.toUnsignedLong(address) / config.pageSize;
+        translations++;
+        int latency = config.l1HitLatency;
+        String outcome;
+
+        if (l1.lookup(page)) {
+            outcome = "DTLB hit";
+        } else if (l2 != null && l2.lookup(page)) {
+            latency += config.l2HitLatency;
+            l1.insert(page);
+            outcome = "L2 TLB hit";
+        } else {
+            if (l2 != null) latency += config.l2HitLatency;
+            int walk = config.walkLevels * config.walkLevelLatency;
+            latency += walk;
+            walks++;
+            walkCycles += walk;
+            l1.insert(page);
+            if (l2 != null) l2.insert(page);
+            outcome = "page walk";
+        }
+
+        totalLatency += latency;
+        if (SimLog.isEnabled()) {
+            SimLog.println("[MMU] Address " + address + " page " + page + ": " + outcome + " (+" + latency + " cycles)");
+        }
+        return latency;
+    }
+
+    /**
+     * Base addresses of the pages the DTLB ({@code level} 1) or the second-level TLB
+     * ({@code level} 2) holds, least recently used first; empty for a level this MMU lacks.
+     */
+    public long[] getResidentAddresses(int level) {
+        Tlb tlb = level == 1 ? l1 : l2;
+        if (tlb == null) return new long[0];
+        long[] addresses = tlb.getResidentPages();
+        for (int i = 0; i < addresses.length; i++) addresses[i] *= config.pageSize;
+        return addresses;
+    }
+
+    /**
+     * Fill the TLBs with the pages holding the given addresses, in order and without
+     * statistics. The addresses may come from an MMU with another page size or organization.
+     */
+    public void warm(long[] l1Addresses, long[] l2Addresses) {
+        for (long address : l1Addresses) l1.insert(address / config.pageSize);
+        if (l2 != null) {
+            for (long address : l2Addresses) l2.insert(address / config.pageSize);
+        }
+    }
+
+    public Config getConfig() { return config; }
+    public Tlb getL1() { return l1; }
+    /** The second-level TLB, or null. */
+    public Tlb getL2() { return l2; }
+    public long getTranslations() { return translations; }
+    public long getPageWalks() { return walks; }
+    public long getWalkCycles() { return walkCycles; }
+
+    /** Mean cycles translation added per access. */
+    public double getAverageLatency() {
+        return translations > 0 ? (double) totalLatency / translations : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        String text = String.format("DTLB %d hits / %d misses (%.1f%%)", l1.getHits(), l1.getMisses(), 100 * l1.getHitRate());
+        if (l2 != null) {
+            text += String.format(", L2 TLB %d hits / %d misses", l2.getHits(), l2.getMisses());
+        }
+        return text + String.format(", %d page walks, avg +%.2f cycles per access", walks, getAverageLatency());
+    }
+}
@@ -0,0 +1,166 @@
+package guc.edu.sim.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Several Tomasulo cores, each a full {@link SimulatorState} with a private cache,
+ * sharing one {@link Memory} and kept coherent by a MESI {@link CoherenceBus}.
+ *
+ * Cores advance in parallel on host threads and synchronize every {@code quantum}
+ * cycles. Within a quantum each core runs on its own clock against the shared state as
+ * of the last synchronization: its stores go to a private {@link Memory#coreView} and its
+ * coherence transactions are queued on the bus. At the synchronization point the stores
+ * and transactions are applied core by core, core 0 first. Another core therefore sees a
+ * store from the next quantum on, and within a quantum coherence events interleave only
+ * approximately. Nothing depends on how the host threads are scheduled, so a run gives
+ * the same result for any number of host threads; a quantum of 1 is closest to lockstep.
+ */
+public class MulticoreSimulator {
+    private final Memory memory = new Memory();
+    private final CoherenceBus bus;
+    private final List<SimulatorState> cores = new ArrayList<>();
+    private final List<Memory> coreMemories = new ArrayList<>();
+    private int quantum = 100;
+    private int hostThreads;
+
+    public MulticoreSimulator(int coreCount, int busLatency, int cacheToCacheLatency) {
+        if (coreCount < 1) {
+            throw new IllegalArgumentException("Need at least one core, got " + coreCount);
+        }
+        this.bus = new CoherenceBus(coreCount, busLatency, cacheToCacheLatency);
+        for (int c = 0; c < coreCount; c++) {
+            SimulatorState core = new SimulatorState();
+            Memory view = Memory.coreView(memory);
+            core.attachToMulticore(c, view, bus);
+            cores.add(core);
+            coreMemories.add(view);
+        }
+        this.hostThreads = Math.min(coreCount, Runtime.getRuntime().availableProcessors());
+        SimLog.println("[Multicore] " + coreCount + " cores, bus latency " + busLatency +
+                       ", cache-to-cache latency " + cacheToCacheLatency);
+    }
+
+    /** One program per core; a core without a program stays idle. */
+    public void loadPrograms(List<List<String>> programs) {
+        if (programs.size() > cores.size()) {
+            throw new IllegalArgumentException(programs.size() + " programs for " + cores.size() + " cores");
+        }
+        for (int c = 0; c < programs.size(); c++) {
+            cores.get(c).loadProgramLines(programs.get(c));
+        }
+    }
+
+    public void loadInitialMemoryValues(Map<Integer, Double> values) {
+        memory.loadInitialData(values);
+    }
+
+    /** Cycles each core runs between synchronizations. */
+    public void setQuantum(int cycles) {
+        this.quantum = Math.max(1, cycles);
+    }
+
+    public void setHostThreads(int threads) {
+        this.hostThreads = Math.max(1, threads);
+    }
+
+    public boolean isFinished() {
+        for (SimulatorState core : cores) {
+            if (!core.isFinished()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Run until every core has finished or {@code maxCycles} cycles have passed.
+     * @return the cycle count of the slowest core
+     */
+    public int run(int maxCycles) {
+        ExecutorService pool = hostThreads > 1 ? Executors.newFixedThreadPool(hostThreads) : null;
+        try {
+            int target = 0;
+            while (!isFinished() && target < maxCycles) {
+                target = Math.min(maxCycles, target + quantum);
+                runQuantum(pool, target);
+            }
+        } finally {
+            if (pool != null) pool.shutdown();
+        }
+        SimLog.println("[Multicore] Finished after " + getCycle() + " cycles; " + bus);
+        return getCycle();
+    }
+
+    private void runQuantum(ExecutorService pool, int target) {
+        if (pool == null) {
+            for (SimulatorState core : cores) {
+                stepUntil(core, target);
+            }
+        } else {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (SimulatorState core : cores) {
+                tasks.add(() -> {
+                    stepUntil(core, target);
+                    return null;
+                });
+            }
+            try {
+                for (Future<Void> done : pool.invokeAll(tasks)) {
+                    done.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Multicore run interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Core failed: " + e.getCause(), e.getCause());
+            }
+        }
+
+        // Every core has stopped: make this quantum's stores and coherence traffic visible
+        for (Memory view : coreMemories) {
+            view.publishWrites();
+        }
+        bus.synchronize();
+    }
+
+    private static void stepUntil(SimulatorState core, int target) {
+        synchronized (core) {
+            while (core.isProgramLoaded() && !core.isFinished() && core.getCycle() < target) {
+                core.step();
+            }
+        }
+    }
+
+    /** Cycle count of the slowest core. */
+    public int getCycle() {
+        int cycle = 0;
+        for (SimulatorState core : cores) {
+            cycle = Math.max(cycle, core.getCycle());
+        }
+        return cycle;
+    }
+
+    /** Instructions completed per cycle by each core over the whole run. */
+    public double[] getCoreIpc() {
+        int cycles = Math.max(1, getCycle());
+        double[] ipc = new double[cores.size()];
+        for (int c = 0; c < cores.size(); c++) {
+            ipc[c] = (double) cores.get(c).getCompletedInstructionCount() / cycles;
+        }
+        return ipc;
+    }
+
+    public SimulatorState getCore(int core) { return cores.get(core); }
+    public List<SimulatorState> getCores() { return Collections.unmodifiableList(cores); }
+    public int getCoreCount() { return cores.size(); }
+    public Memory getMemory() { return memory; }
+    public CoherenceBus getCoherenceBus() { return bus; }
+    public int getQuantum() { return quantum; }
+    public int getHostThreads() { return hostThreads; }
+}
@@ -0,0 +1,109 @@
+package guc.edu.sim.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Runs one program under a series of configurations and records cycles, IPC and the
+ * energy estimate for each, so performance and power can be compared point by point.
+ */
+public class ParameterSweep {
+
+    /** Result of one configuration. */
+    public static class Point {
+        public final String label;
+        public final int cycles;
+        public final int instructions;
+        public final boolean finished;
+        public final EnergyModel.Report energy;
+
+        Point(String label, int cycles, int instructions, boolean finished, EnergyModel.Report energy) {
+            this.label = label;
+            this.cycles = cycles;
+            this.instructions = instructions;
+            this.finished = finished;
+            this.energy = energy;
+        }
+
+        public double getIpc() {
+            return cycles > 0 ? (double) instructions / cycles : 0.0;
+        }
+
+        /** Energy per completed instruction, in picojoules. */
+        public double getEnergyPerInstruction() {
+            return instructions > 0 ? energy.totalEnergy / instructions : 0.0;
+        }
+    }
+
+    private final List<String> programLines;
+    private final Map<String, Double> registerValues;
+    private final Map<Integer, Double> memoryValues;
+    private final List<Point> points = new ArrayList<>();
+    private int maxCycles = 1_000_000;
+
+    public ParameterSweep(List<String> programLines, Map<String, Double> registerValues,
+                          Map<Integer, Double> memoryValues) {
+        this.programLines = programLines;
+        this.registerValues = registerValues;
+        this.memoryValues = memoryValues;
+    }
+
+    /** Cycle limit per point, for configurations that never finish. */
+    public void setMaxCycles(int maxCycles) {
+        this.maxCycles = maxCycles;
+    }
+
+    /**
+     * Run the program on a fresh simulator after {@code configure} has set it up
+     * (latencies, cache, energy costs, ...).
+     */
+    public Point run(String label, Consumer<SimulatorState> configure) {
+        SimulatorState sim = new SimulatorState();
+        boolean wasLogging = SimLog.isEnabled();
+        SimLog.setEnabled(false);
+        try {
+            configure.accept(sim);
+            sim.loadProgramLines(programLines);
+            sim.loadInitialRegisterValues(registerValues);
+            sim.loadInitialMemoryValues(memoryValues);
+            while (!sim.isFinished() && sim.getCycle() < maxCycles) {
+                sim.step();
+            }
+        } finally {
+            SimLog.setEnabled(wasLogging);
+        }
+
+        Point point = new Point(label, sim.getCycle(), sim.getCompletedInstructionCount(), sim.isFinished(),
+                                sim.getEnergyReport());
+        points.add(point);
+        SimLog.println(String.format("[Sweep] %s: %d cycles, IPC %.3f, %.1f pJ, %.2f mW, EDP %.4g",
+                label, point.cycles, point.getIpc(), point.energy.totalEnergy,
+                point.energy.getAveragePowerMilliwatts(), point.energy.getEnergyDelayProduct()));
+        return point;
+    }
+
+    public List<Point> getPoints() {
+        return Collections.unmodifiableList(points);
+    }
+
+    /** One row per point: cycles, IPC, energy, power and EDP, then energy by component. */
+    public String toTable() {
+        StringBuilder sb = new StringBuilder(String.format("%-20s %8s %6s %12s %9s %12s",
+                "point", "cycles", "IPC", "energy(pJ)", "power(mW)", "EDP(pJ*ns)"));
+        for (EnergyModel.Component component : EnergyModel.Component.values()) {
+            sb.append(String.format(" %12s", component.name().toLowerCase()));
+        }
+        for (Point point : points) {
+            sb.append(String.format("%n%-20s %8d %6.3f %12.1f %9.2f %12.4g", point.label, point.cycles,
+                    point.getIpc(), point.energy.totalEnergy, point.energy.getAveragePowerMilliwatts(),
+                    point.energy.getEnergyDelayProduct()));
+            for (EnergyModel.Component component : EnergyModel.Component.values()) {
+                sb.append(String.format(" %12.1f", point.energy.getEnergy(component)));
+            }
+        }
+        return sb.toString();
+    }
+}
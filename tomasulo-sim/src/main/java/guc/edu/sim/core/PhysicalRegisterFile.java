@@ -0,0 +1,168 @@
+package guc.edu.sim.core;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MIPS R10000-style explicit renaming: a unified physical register file, a rename
+ * map table from architectural to physical registers, and a free list.
+ *
+ * Each architectural register (R0-R31 and F0-F31, per hardware thread) starts mapped
+ * to its own physical register; the rest are free. Every instruction with a destination takes a
+ * physical register at issue. The register it replaces in the map is freed when the
+ * renaming instruction retires - once it and every older renaming instruction have
+ * written back - so no value can be freed while an older writer is still in flight.
+ */
+public class PhysicalRegisterFile implements Serializable {
+    private static final long serialVersionUID = 1L;
+    /** Architectural registers of a single thread. */
+    public static final int ARCHITECTURAL_REGISTERS = 64;
+
+    private final int size;
+    private final double[] values;
+    private final boolean[] ready;
+    private final Map<String, Integer> mapTable = new HashMap<>();
+    private final Deque<Integer> freeList = new ArrayDeque<>();
+    private final Deque<Allocation> retireQueue = new ArrayDeque<>();
+    private final Map<String, Allocation> byTag = new HashMap<>();
+    private int peakInUse;
+    private long occupancySum;
+    private int sampledCycles;
+
+    public PhysicalRegisterFile(int size, RegisterFile archState) {
+        List<String> archRegisters = new ArrayList<>(archState.getAllValues().keySet());
+        if (size <= archRegisters.size()) {
+            throw new IllegalArgumentException("Physical register file needs more than " +
+                    archRegisters.size() + " registers, got " + size);
+        }
+        Collections.sort(archRegisters);
+        this.size = size;
+        this.values = new double[size];
+        this.ready = new boolean[size];
+
+        int p = 0;
+        for (String reg : archRegisters) {
+            mapTable.put(reg, p);
+            values[p] = archState.getValue(reg);
+            ready[p] = true;
+            p++;
+        }
+        for (; p < size; p++) {
+            freeList.add(p);
+        }
+        peakInUse = archRegisters.size();
+        SimLog.println("[Rename] Physical register file: " + size + " registers, " + freeList.size() + " free");
+    }
+
+    public boolean hasFree() {
+        return !freeList.isEmpty();
+    }
+
+    /**
+     * Map {@code arch} to a fresh physical register on behalf of the instruction tagged {@code tag}.
+     */
+    public int rename(String arch, String tag) {
+        Integer physical = freeList.poll();
+        if (physical == null) {
+            throw new IllegalStateException("No free physical register for " + arch);
+        }
+        Integer previous = mapTable.put(arch, physical);
+        ready[physical] = false;
+
+        Allocation allocation = new Allocation(tag, arch, physical, previous);
+        retireQueue.add(allocation);
+        byTag.put(tag, allocation);
+        peakInUse = Math.max(peakInUse, getInUseCount());
+
+        if (SimLog.isEnabled()) {
+            SimLog.println("[Rename] " + arch + " -> P" + physical + " (was P" + previous + ") for " + tag +
+                             ", " + freeList.size() + " free");
+        }
+        return physical;
+    }
+
+    /**
+     * Record the result of {@code tag} and retire every completed allocation at the head of the queue.
+     * Tags that did not rename a register are ignored.
+     */
+    public void writeBack(String tag, double value) {
+        Allocation allocation = byTag.remove(tag);
+        if (allocation == null) return;
+
+        values[allocation.physical] = value;
+        ready[allocation.physical] = true;
+        allocation.done = true;
+
+        while (!retireQueue.isEmpty() && retireQueue.peek().done) {
+            Allocation retired = retireQueue.poll();
+            if (retired.previous != null) {
+                freeList.add(retired.previous);
+                if (SimLog.isEnabled()) {
+                    SimLog.println("[Rename] Retired " + retired.tag + ", freed P" + retired.previous +
+                                     " (" + freeList.size() + " free)");
+                }
+            }
+        }
+    }
+
+    /** Accumulate occupancy for the average; call once per cycle. */
+    public void sample() {
+        occupancySum += getInUseCount();
+        sampledCycles++;
+    }
+
+    public String lookup(String arch) {
+        Integer physical = mapTable.get(arch);
+        return physical != null ? "P" + physical : null;
+    }
+
+    public double getValue(int physical) {
+        return values[physical];
+    }
+
+    public boolean isReady(int physical) {
+        return ready[physical];
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getFreeCount() {
+        return freeList.size();
+    }
+
+    public int getInUseCount() {
+        return size - freeList.size();
+    }
+
+    public int getPeakInUse() {
+        return peakInUse;
+    }
+
+    public double getAverageInUse() {
+        return sampledCycles > 0 ? (double) occupancySum / sampledCycles : 0.0;
+    }
+
+    private static class Allocation implements Serializable {
+        private static final long serialVersionUID = 1L;
+        final String tag;
+        final String arch;
+        final int physical;
+        final Integer previous;
+        boolean done = false;
+
+        Allocation(String tag, String arch, int physical, Integer previous) {
+            this.tag = tag;
+            this.arch = arch;
+            this.physical = physical;
+            this.previous = previous;
+        }
+    }
+}
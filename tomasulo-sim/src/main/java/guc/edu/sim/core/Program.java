@@ -5,10 +5,16 @@ public class Program {
 
     private final List<Instruction> instructions;
     private final Map<String, Integer> labelToIndex;
+    private final List<Integer> threadStarts;  // first instruction of each hardware thread
 
     public Program(List<Instruction> instructions, Map<String, Integer> labelToIndex) {
+        this(instructions, labelToIndex, List.of(0));
+    }
+
+    public Program(List<Instruction> instructions, Map<String, Integer> labelToIndex, List<Integer> threadStarts) {
         this.instructions = instructions;
         this.labelToIndex = labelToIndex;
+        this.threadStarts = threadStarts;
     }
 
     public Instruction get(int pc) {
@@ -23,7 +29,24 @@ public class Program {
         return labelToIndex.get(label);
     }
 
+    public Map<String, Integer> getLabels() {
+        return Collections.unmodifiableMap(labelToIndex);
+    }
+
     public List<Instruction> getInstructions() {
         return instructions;
     }
+
+    public int getThreadCount() {
+        return threadStarts.size();
+    }
+
+    public int getThreadStart(int thread) {
+        return threadStarts.get(thread);
+    }
+
+    /** One past the last instruction of {@code thread}. */
+    public int getThreadEnd(int thread) {
+        return thread + 1 < threadStarts.size() ? threadStarts.get(thread + 1) : instructions.size();
+    }
 }
\ No newline at end of file
@@ -5,8 +5,71 @@ import java.util.*;
 
 public class ProgramLoader {
 
+    public static final String THREAD_DIRECTIVE = ".thread";
+
     public Program loadFromLines(List<String> lines) {
-        return parseLines(lines);
+        List<List<String>> threads = splitThreads(lines);
+        return threads.size() > 1 ? loadThreads(threads) : parseLines(lines);
+    }
+
+    /**
+     * Split a listing at {@code .thread} lines. A listing without the directive is one thread.
+     */
+    public static List<List<String>> splitThreads(List<String> lines) {
+        List<List<String>> threads = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        for (String raw : lines) {
+            if (raw.trim().equalsIgnoreCase(THREAD_DIRECTIVE)) {
+                if (!current.isEmpty() || !threads.isEmpty()) threads.add(current);
+                current = new ArrayList<>();
+            } else {
+                current.add(raw);
+            }
+        }
+        threads.add(current);
+        threads.removeIf(thread -> thread.stream().allMatch(l -> l.trim().isEmpty() || l.trim().startsWith("#")));
+        return threads;
+    }
+
+    /**
+     * Lay out several SMT threads back to back in one program. Thread 0 keeps its names;
+     * thread t > 0 gets its own registers (R1 becomes R1.Tt) and labels (LOOP becomes Tt.LOOP).
+     */
+    public Program loadThreads(List<List<String>> threads) {
+        List<Instruction> instructions = new ArrayList<>();
+        Map<String, Integer> labelToIndex = new HashMap<>();
+        List<Integer> threadStarts = new ArrayList<>();
+
+        for (int t = 0; t < threads.size(); t++) {
+            Program threadProgram = parseLines(threads.get(t));
+            int start = instructions.size();
+            threadStarts.add(start);
+
+            String regSuffix = HardwareThread.registerSuffix(t);
+            String labelPrefix = t == 0 ? "" : "T" + t + ".";
+            for (Instruction instr : threadProgram.getInstructions()) {
+                instructions.add(new Instruction(instr.getLabel(), instr.getOpcode(), instr.getType(),
+                        threadRegister(instr.getDest(), regSuffix),
+                        threadRegister(instr.getSrc1(), regSuffix),
+                        threadRegister(instr.getSrc2(), regSuffix),
+                        threadRegister(instr.getSrc3(), regSuffix),
+                        instr.getOffset(),
+                        threadRegister(instr.getBase(), regSuffix),
+                        instr.getBranchTargetLabel() != null ? labelPrefix + instr.getBranchTargetLabel() : null));
+            }
+            for (Map.Entry<String, Integer> label : threadProgram.getLabels().entrySet()) {
+                labelToIndex.put(labelPrefix + label.getKey(), start + label.getValue());
+            }
+        }
+        return new Program(instructions, labelToIndex, threadStarts);
+    }
+
+    private static String threadRegister(String operand, String suffix) {
+        // Only scalar R/F registers are per thread; vector registers are shared
+        if (operand == null || suffix.isEmpty() || !operand.matches("(?i)[RF]\\d+")) {
+            return operand;
+        }
+        return operand.toUpperCase() + suffix;
     }
 
     private Program parseLines(List<String> lines) {
@@ -51,7 +114,7 @@ public class ProgramLoader {
         String opcode = t[0].toUpperCase();
         InstructionType type = classify(opcode);
 
-        String dest = null, src1 = null, src2 = null, base = null, labelTarget = null;
+        String dest = null, src1 = null, src2 = null, src3 = null, base = null, labelTarget = null;
         Integer offset = null;
 
         switch (type) {
@@ -71,10 +134,34 @@ public class ProgramLoader {
 
             case ALU_FP:
             case ALU_INT:
-                // MUL.D F0, F2, F4 or DADDI R1, R1, 24
+                // MUL.D F0, F2, F4 or DADDI R1, R1, 24 or FMA.D F0, F2, F4, F6
                 dest = t[1];
                 src1 = t[2];
                 if (t.length > 3) src2 = t[3];
+                if (t.length > 4) src3 = t[4];
+                break;
+
+            case VECTOR_LOAD:
+                // VL.D V1, 0(R1) or strided VLS.D V1, 0(R1), R2
+                dest = t[1];
+                offset = Integer.parseInt(t[2]);
+                base = t[3];
+                if (t.length > 4) src2 = t[4];
+                break;
+
+            case VECTOR_STORE:
+                // VS.D V1, 0(R1) or strided VSS.D V1, 0(R1), R2
+                src1 = t[1];
+                offset = Integer.parseInt(t[2]);
+                base = t[3];
+                if (t.length > 4) src2 = t[4];
+                break;
+
+            case VECTOR_ALU:
+                // VADD.D V3, V1, V2 or vector-scalar VMUL.D V3, V1, F0
+                dest = t[1];
+                src1 = t[2];
+                src2 = t[3];
                 break;
 
             case BRANCH:
@@ -88,7 +175,7 @@ public class ProgramLoader {
                 break;
         }
 
-        return new Instruction(null, opcode, type, dest, src1, src2, offset, base, labelTarget);
+        return new Instruction(null, opcode, type, dest, src1, src2, src3, offset, base, labelTarget);
     }
 
     private InstructionType classify(String op) {
@@ -111,6 +198,23 @@ public class ProgramLoader {
             return InstructionType.BRANCH;
         }
 
+        // Vector operations (checked first: VADD.D also contains ADD)
+        if (opcode.equals("VL.D") || opcode.equals("VLS.D")) {
+            return InstructionType.VECTOR_LOAD;
+        }
+        if (opcode.equals("VS.D") || opcode.equals("VSS.D")) {
+            return InstructionType.VECTOR_STORE;
+        }
+        if (opcode.startsWith("V") && (opcode.contains("ADD") || opcode.contains("SUB") ||
+            opcode.contains("MUL") || opcode.contains("DIV"))) {
+            return InstructionType.VECTOR_ALU;
+        }
+
+        // Fused multiply-add / multiply-subtract: FMA.D Fd, Fa, Fb, Fc = Fa * Fb +/- Fc
+        if (ALU.isFused(opcode)) {
+            return InstructionType.ALU_FP;
+        }
+
         // ALU operations (integer or floating)
         if (opcode.contains("ADD") || opcode.contains("SUB") ||
             opcode.contains("MUL") || opcode.contains("DIV")) {
@@ -1,5 +1,8 @@
 package guc.edu.sim.core;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -7,24 +10,43 @@ import java.util.List;
  * Real implementation of reservation stations for FP and integer ALU operations.
  * FIXED: Properly enforces reservation station size limits.
  */
-public class RealReservationStations implements ReservationStations {
+public class RealReservationStations implements ReservationStations, Serializable {
+    private static final long serialVersionUID = 1L;
     private final List<ReservationStationEntry> stations = new ArrayList<>();
     private final int fpAddSize;
     private final int fpMulSize;
     private final int intSize;
+    private final int intMulDivSize;
     private final RegisterFile regFile;
     private String lastAllocatedTag;
+    private transient ChangeTracker changes = new ChangeTracker();  // UI feed, not part of a checkpoint
 
     private int nextFpAddId = 1;
     private int nextFpMulId = 1;
     private int nextIntId = 1;
+    private int nextIntMulDivId = 1;
 
     public RealReservationStations(int fpAddSize, int fpMulSize, int intSize, RegisterFile regFile) {
+        this(fpAddSize, fpMulSize, intSize, 2, regFile);
+    }
+
+    public RealReservationStations(int fpAddSize, int fpMulSize, int intSize, int intMulDivSize, RegisterFile regFile) {
         this.fpAddSize = fpAddSize;
         this.fpMulSize = fpMulSize;
         this.intSize = intSize;
+        this.intMulDivSize = intMulDivSize;
         this.regFile = regFile;
-        System.out.println("[RS] Initialized: FP_ADD=" + fpAddSize + ", FP_MUL=" + fpMulSize + ", INT=" + intSize);
+        SimLog.println("[RS] Initialized: FP_ADD=" + fpAddSize + ", FP_MUL=" + fpMulSize + ", INT=" + intSize +
+                         ", INT_MULDIV=" + intMulDivSize);
+    }
+
+    public void setChangeTracker(ChangeTracker changes) {
+        this.changes = changes;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        changes = new ChangeTracker();  // the simulator hands its own tracker in again
     }
 
     @Override
@@ -34,7 +56,7 @@ public class RealReservationStations implements ReservationStations {
         long count = stations.stream().filter(s -> s.getType() == type).count();
         boolean hasFree = count < max;
         
-        System.out.println("[RS] hasFreeFor " + instr.getOpcode() + " type=" + type + 
+        SimLog.println("[RS] hasFreeFor " + instr.getOpcode() + " type=" + type + 
                          ": current=" + count + "/" + max + " -> " + hasFree);
         return hasFree;
     }
@@ -45,7 +67,7 @@ public class RealReservationStations implements ReservationStations {
         
         // FIXED: Double-check we actually have space before accepting
         if (!hasFreeFor(instr)) {
-            System.out.println("[RS] ERROR: Attempted to accept instruction when RS is full!");
+            SimLog.println("[RS] ERROR: Attempted to accept instruction when RS is full!");
             throw new IllegalStateException("Cannot accept instruction - reservation station is full");
         }
         
@@ -57,6 +79,9 @@ public class RealReservationStations implements ReservationStations {
             case FP_MUL:
                 tag = "M" + nextFpMulId++;
                 break;
+            case INT_MULDIV:
+                tag = "IM" + nextIntMulDivId++;
+                break;
             case INTEGER:
             default:
                 tag = "I" + nextIntId++;
@@ -101,6 +126,20 @@ public class RealReservationStations implements ReservationStations {
             }
         }
 
+        // Third source of a fused multiply-add
+        String src3 = instr.getSrc3();
+        if (src3 != null) {
+            String producer = regFile.getProducer(src3);
+            if (producer == null) {
+                Double value = regFile.getValue(src3);
+                if (value != null) {
+                    entry.setVl(value);
+                }
+            } else {
+                entry.setQl(producer);
+            }
+        }
+
         // Mark destination as busy
         if (instr.getDest() != null) {
             regFile.setProducer(instr.getDest(), tag);
@@ -108,20 +147,25 @@ public class RealReservationStations implements ReservationStations {
 
         stations.add(entry);
         lastAllocatedTag = tag;
+        changes.markStation(tag);
         
         // FIXED: Log current RS occupancy
         long count = stations.stream().filter(s -> s.getType() == type).count();
         int max = getMaxSize(type);
-        System.out.println("[RS] Allocated " + tag + " for " + instr.getOpcode() + 
+        SimLog.println("[RS] Allocated " + tag + " for " + instr.getOpcode() + 
                          " -> " + entry + " (now " + count + "/" + max + " " + type + " entries)");
     }
 
-    private StationType getStationType(Instruction instr) {
+    static StationType getStationType(Instruction instr) {
         String op = instr.getOpcode().toUpperCase();
         boolean isFloat = op.contains(".D") || op.contains(".S");
 
+        // FMA shares the FP multiplier pipe and its stations
+        if (ALU.isFused(op)) {
+            return StationType.FP_MUL;
+        }
         if (op.contains("MUL") || op.contains("DIV")) {
-            return isFloat ? StationType.FP_MUL : StationType.INTEGER;
+            return isFloat ? StationType.FP_MUL : StationType.INT_MULDIV;
         }
         if (op.contains("ADD") || op.contains("SUB")) {
             return isFloat ? StationType.FP_ADD : StationType.INTEGER;
@@ -134,6 +178,7 @@ public class RealReservationStations implements ReservationStations {
             case FP_ADD: return fpAddSize;
             case FP_MUL: return fpMulSize;
             case INTEGER: return intSize;
+            case INT_MULDIV: return intMulDivSize;
             default: return 0;
         }
     }
@@ -142,10 +187,28 @@ public class RealReservationStations implements ReservationStations {
         return new ArrayList<>(stations);
     }
 
+    public int getStationCount() {
+        return stations.size();
+    }
+
+    /**
+     * Look up a live station entry by its tag.
+     * @return the entry, or null if the station has been freed
+     */
+    public ReservationStationEntry findEntryByTag(String tag) {
+        for (ReservationStationEntry entry : stations) {
+            if (entry.getId().equals(tag)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
     public void removeEntry(ReservationStationEntry entry) {
         boolean removed = stations.remove(entry);
         if (removed) {
-            System.out.println("[RS] Removed entry " + entry.getId() + 
+            changes.markStation(entry.getId());
+            SimLog.println("[RS] Removed entry " + entry.getId() + 
                              " (remaining: " + stations.size() + ")");
         }
     }
@@ -160,7 +223,8 @@ public class RealReservationStations implements ReservationStations {
         for (int i = 0; i < stations.size(); i++) {
             if (stations.get(i).getId().equals(tag)) {
                 stations.remove(i);
-                System.out.println("[RS] Removed entry " + tag + " by tag lookup");
+                changes.markStation(tag);
+                SimLog.println("[RS] Removed entry " + tag + " by tag lookup");
                 return true;
             }
         }
@@ -179,6 +243,7 @@ public class RealReservationStations implements ReservationStations {
                 } else {
                     entry.setVj(result);
                 }
+                changes.markStation(entry.getId());
             }
             if (tag.equals(entry.getQk())) {
                 if (currentCycle >= 0) {
@@ -186,6 +251,15 @@ public class RealReservationStations implements ReservationStations {
                 } else {
                     entry.setVk(result);
                 }
+                changes.markStation(entry.getId());
+            }
+            if (tag.equals(entry.getQl())) {
+                if (currentCycle >= 0) {
+                    entry.setVl(result, currentCycle);
+                } else {
+                    entry.setVl(result);
+                }
+                changes.markStation(entry.getId());
             }
         }
     }
@@ -1,5 +1,8 @@
 package guc.edu.sim.core;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util. HashMap;
 import java.util. Map;
 
@@ -7,9 +10,11 @@ import java.util. Map;
  * Register file supporting both integer and floating-point registers.
  * Stores values and tracks which reservation station is producing a pending result.
  */
-public class RegisterFile {
+public class RegisterFile implements Serializable {
+    private static final long serialVersionUID = 1L;
     private final Map<String, Double> values = new HashMap<>();
     private final Map<String, String> producerTags = new HashMap<>(); // Qi field
+    private transient ChangeTracker changes = new ChangeTracker();  // UI feed, not part of a checkpoint
 
     public RegisterFile() {
         // Initialize integer registers R0-R31
@@ -24,10 +29,33 @@ public class RegisterFile {
         }
     }
 
+    /**
+     * Add another architectural register set named R0-R31 and F0-F31 followed by
+     * {@code suffix}, e.g. "R1.T1" for a second hardware thread.
+     */
+    public void addRegisterSet(String suffix) {
+        for (String prefix : new String[] {"R", "F"}) {
+            for (int i = 0; i < 32; i++) {
+                values.put(prefix + i + suffix, 0.0);
+                producerTags.put(prefix + i + suffix, null);
+            }
+        }
+    }
+
+    public void setChangeTracker(ChangeTracker changes) {
+        this.changes = changes;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        changes = new ChangeTracker();  // the simulator hands its own tracker in again
+    }
+
     public void setValue(String reg, double value) {
         if (reg != null && values.containsKey(reg)) {
             values.put(reg, value);
-            System.out.println("[RegFile] " + reg + " = " + value);
+            changes.markRegister(reg);
+            if (SimLog.isEnabled()) SimLog.println("[RegFile] " + reg + " = " + value);
         }
     }
 
@@ -38,6 +66,7 @@ public class RegisterFile {
     public void setProducer(String reg, String tag) {
         if (reg != null) {
             producerTags. put(reg, tag);
+            changes.markRegister(reg);
         }
     }
 
@@ -51,6 +80,7 @@ public class RegisterFile {
 
     public void clearProducer(String reg) {
         producerTags.put(reg, null);
+        changes.markRegister(reg);
     }
 
     public Map<String, Double> getAllValues() {
@@ -65,6 +95,7 @@ public class RegisterFile {
         initialValues.forEach((reg, val) -> {
             if (values.containsKey(reg)) {
                 values.put(reg, val);
+                changes.markRegister(reg);
             }
         });
     }
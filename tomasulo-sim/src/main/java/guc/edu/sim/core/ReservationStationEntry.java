@@ -1,12 +1,15 @@
 package guc.edu.sim.core;
 
+import java.io.Serializable;
+
 /**
  * Minimal representation of a reservation-station entry (an instruction in a station).
  * Designed to be compatible with typical Tomasulo implementations using Vj/Vk and Qj/Qk.
  *
  * Note: Replace Object with the concrete data type your simulator uses for values (Integer, Long, Double).
  */
-public class ReservationStationEntry {
+public class ReservationStationEntry implements Serializable {
+    private static final long serialVersionUID = 1L;
     private final String id;              // unique tag, e.g., "RS1", "RS2" or the ROB tag
     private StationType type;
     private String opcode;          // e.g., "ADD.D", "LW", etc.
@@ -14,6 +17,8 @@ public class ReservationStationEntry {
     private Object Vk;                    // value of source k if ready
     private String Qj;                    // tag of producer for j if not ready
     private String Qk;                    // tag of producer for k if not ready
+    private Object Vl;                    // value of the third source (FMA addend) if ready
+    private String Ql;                    // tag of producer for the third source if not ready
     private String destination;           // register or ROB tag to write result to
     private boolean executing;            // execution started (on an execution unit)
     private int executionCycles = 0;      // how many cycles this has been executing
@@ -59,7 +64,7 @@ public class ReservationStationEntry {
     
     public void setInstruction(Instruction instruction) { 
         this.instruction = instruction; 
-        System.out.println("[DEBUG] Set instruction for " + id + ": " + 
+        SimLog.println("[DEBUG] Set instruction for " + id + ": " + 
                           (instruction != null ? instruction.getOpcode() : "null"));
     }
 
@@ -83,15 +88,28 @@ public class ReservationStationEntry {
         updateReadyCycle(currentCycle);
     }
 
+    public Object getVl() { return Vl; }
+    public void setVl(Object vl) { Vl = vl; Ql = null; }
+    
+    /** Set Vl value and record readyCycle if this made the entry ready (from CDB broadcast) */
+    public void setVl(Object vl, int currentCycle) { 
+        Vl = vl; 
+        Ql = null; 
+        updateReadyCycle(currentCycle);
+    }
+
     public String getQj() { return Qj; }
     public void setQj(String qj) { Qj = qj; Vj = null; }
 
     public String getQk() { return Qk; }
     public void setQk(String qk) { Qk = qk; Vk = null; }
+
+    public String getQl() { return Ql; }
+    public void setQl(String ql) { Ql = ql; Vl = null; }
     
     /** Update readyCycle if all operands are now available */
     private void updateReadyCycle(int currentCycle) {
-        if (Qj == null && Qk == null && readyCycle < 0) {
+        if (Qj == null && Qk == null && Ql == null && readyCycle < 0) {
             readyCycle = currentCycle;
         }
     }
@@ -103,19 +121,19 @@ public class ReservationStationEntry {
     public void setReadyCycle(int cycle) { this.readyCycle = cycle; }
 
     public boolean isReady() {
-        return Qj == null && Qk == null && !executing && !completed;
+        return Qj == null && Qk == null && Ql == null && !executing && !completed;
     }
     
     /**
      * Check if the entry is ready to be dispatched in the given cycle.
      * An entry is ready for dispatch only if:
-     * 1. All operands are available (Qj == null && Qk == null)
+     * 1. All operands are available (Qj, Qk and Ql are null)
      * 2. It's not already executing or completed
      * 3. Either it was issued with all operands ready (readyCycle < 0)
      *    OR it received operands from CDB in a previous cycle (currentCycle > readyCycle)
      */
     public boolean isReadyForDispatch(int currentCycle) {
-        if (Qj != null || Qk != null || executing || completed) {
+        if (Qj != null || Qk != null || Ql != null || executing || completed) {
             return false;
         }
         return readyCycle < 0 || currentCycle > readyCycle;
@@ -136,7 +154,7 @@ public class ReservationStationEntry {
     }
     
     public void markExecuting() { 
-        System.out.println("[DEBUG] markExecuting for " + id);
+        SimLog.println("[DEBUG] markExecuting for " + id);
         executing = true;
         executionCycles = 0;
     }
@@ -144,12 +162,12 @@ public class ReservationStationEntry {
     public void advanceExecution() {
         if (executing) {
             executionCycles++;
-            System.out.println("[DEBUG] advanceExecution for " + id + " (now cycles=" + executionCycles + ")");
+            SimLog.println("[DEBUG] advanceExecution for " + id + " (now cycles=" + executionCycles + ")");
         }
     }
     
     public void markCompleted() {
-        System.out.println("[DEBUG] markCompleted for " + id);
+        SimLog.println("[DEBUG] markCompleted for " + id);
         executing = false;
         completed = true;
     }
@@ -163,8 +181,9 @@ public class ReservationStationEntry {
 
     @Override
     public String toString() {
-        return String.format("%s(%s) op=%s Vj=%s Vk=%s Qj=%s Qk=%s dest=%s exec=%b cycles=%d completed=%b",
-                id, type, opcode, Vj, Vk, Qj, Qk, destination, executing, executionCycles, completed);
+        String third = (Vl != null || Ql != null) ? String.format(" Vl=%s Ql=%s", Vl, Ql) : "";
+        return String.format("%s(%s) op=%s Vj=%s Vk=%s Qj=%s Qk=%s%s dest=%s exec=%b cycles=%d completed=%b",
+                id, type, opcode, Vj, Vk, Qj, Qk, third, destination, executing, executionCycles, completed);
     }
 }
  
\ No newline at end of file
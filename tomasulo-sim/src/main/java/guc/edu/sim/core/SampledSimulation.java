@@ -0,0 +1,178 @@
+package guc.edu.sim.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SMARTS-style sampled simulation. A {@link FunctionalInterpreter} fast-forwards through
+ * the program, keeping architectural state and a functionally warmed cache. At regular
+ * intervals the detailed {@link SimulatorState} restarts from that state, runs a short
+ * detailed warm-up and then measures CPI over a fixed number of instructions. The
+ * functional model then executes the same instructions and fast-forwarding resumes.
+ *
+ * The samples give a mean CPI with a normal-approximation confidence interval, which is
+ * turned into an IPC estimate and interval.
+ */
+public class SampledSimulation {
+
+    /** Sampling parameters, in instructions. */
+    public static class Config {
+        public long fastForward = 100_000;    // functional instructions between samples
+        public int detailedWarmup = 2_000;    // detailed instructions before measuring
+        public int measurement = 1_000;       // instructions measured per sample
+        public int maxSamples = Integer.MAX_VALUE;
+        public double z = 1.96;               // 95% confidence
+    }
+
+    /** Result of a sampled run. */
+    public static class Report {
+        public final List<Double> sampleCpi;
+        public final long totalInstructions;
+        public final long detailedInstructions;
+        public final double meanCpi;
+        public final double cpiHalfWidth;
+        public final long wallMillis;
+
+        Report(List<Double> sampleCpi, long totalInstructions, long detailedInstructions,
+               double z, long wallMillis) {
+            this.sampleCpi = Collections.unmodifiableList(sampleCpi);
+            this.totalInstructions = totalInstructions;
+            this.detailedInstructions = detailedInstructions;
+            this.wallMillis = wallMillis;
+
+            int n = sampleCpi.size();
+            double sum = 0.0;
+            for (double cpi : sampleCpi) sum += cpi;
+            this.meanCpi = n > 0 ? sum / n : 0.0;
+            double squares = 0.0;
+            for (double cpi : sampleCpi) squares += (cpi - meanCpi) * (cpi - meanCpi);
+            double stdDev = n > 1 ? Math.sqrt(squares / (n - 1)) : 0.0;
+            this.cpiHalfWidth = n > 1 ? z * stdDev / Math.sqrt(n) : Double.POSITIVE_INFINITY;
+        }
+
+        public int getSampleCount() { return sampleCpi.size(); }
+
+        public double getIpc() {
+            return meanCpi > 0 ? 1.0 / meanCpi : 0.0;
+        }
+
+        public double getIpcLow() {
+            return 1.0 / (meanCpi + cpiHalfWidth);
+        }
+
+        public double getIpcHigh() {
+            double low = meanCpi - cpiHalfWidth;
+            return low > 0 ? 1.0 / low : Double.POSITIVE_INFINITY;
+        }
+
+        /** Half-width of the CPI interval relative to the mean. */
+        public double getRelativeError() {
+            return meanCpi > 0 ? cpiHalfWidth / meanCpi : Double.POSITIVE_INFINITY;
+        }
+
+        public long getEstimatedCycles() {
+            return Math.round(meanCpi * totalInstructions);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("IPC %.4f [%.4f, %.4f] (CPI %.4f +/- %.4f, %.2f%%) from %d samples; " +
+                                 "%d instructions (%d detailed), ~%d cycles, %d ms",
+                    getIpc(), getIpcLow(), getIpcHigh(), meanCpi, cpiHalfWidth, 100 * getRelativeError(),
+                    getSampleCount(), totalInstructions, detailedInstructions, getEstimatedCycles(), wallMillis);
+        }
+    }
+
+    private final SimulatorState detailed;
+    private final Config config;
+
+    /**
+     * @param detailed a configured simulator with the program, registers and memory loaded.
+     *                 The detailed windows run on it; {@link #run} leaves it reset to the
+     *                 start of its program, with the registers and memory it was loaded with.
+     */
+    public SampledSimulation(SimulatorState detailed, Config config) {
+        if (!detailed.isProgramLoaded()) {
+            throw new IllegalArgumentException("Load a program before sampling");
+        }
+        if (detailed.getProgram().getThreadCount() > 1) {
+            throw new IllegalArgumentException("Sampling supports single-thread programs only");
+        }
+        this.detailed = detailed;
+        this.config = config;
+    }
+
+    /**
+     * Run the program (or its first {@code maxInstructions} instructions) in sampled mode.
+     */
+    public Report run(long maxInstructions) {
+        long startNanos = System.nanoTime();
+        Program program = detailed.getProgram();
+
+        // Architectural state starts from what the detailed simulator was loaded with
+        RegisterFile regs = new RegisterFile();
+        regs.loadInitialValues(detailed.getRegFile().getAllValues());
+        Memory memory = new Memory(detailed.getMemory());
+        Cache detailedCache = detailed.getCache();
+        Cache warmCache = new Cache(detailedCache.getNumBlocks() * detailedCache.getBlockSize(),
+                                    detailedCache.getBlockSize(), 1, 1);
+        VectorRegisterFile vectorRegs = new VectorRegisterFile(detailed.getVectorRegisterFile().getVectorLength());
+
+        FunctionalInterpreter functional = new FunctionalInterpreter(program, regs, memory);
+        functional.setWarmCache(warmCache);
+        functional.setVectorRegisterFile(vectorRegs);
+
+        List<Double> samples = new ArrayList<>();
+        long detailedInstructions = 0;
+        int window = config.detailedWarmup + config.measurement;
+
+        SimulatorState.RunStart loaded = detailed.saveRunStart();
+        boolean wasLogging = SimLog.isEnabled();
+        SimLog.setEnabled(false);
+        try {
+            while (!functional.isFinished() && functional.getExecutedCount() < maxInstructions
+                   && samples.size() < config.maxSamples) {
+                functional.run(Math.min(config.fastForward, maxInstructions - functional.getExecutedCount()));
+                if (functional.isFinished() || functional.getExecutedCount() >= maxInstructions) break;
+
+                functional.syncRegisters();
+                detailed.startFrom(regs.getAllValues(), memory, warmCache, functional.getPc());
+                for (int v = 0; v < VectorRegisterFile.NUM_REGISTERS; v++) {
+                    detailed.getVectorRegisterFile().setValue("V" + v, vectorRegs.getValue("V" + v));
+                }
+
+                runDetailedUntil(config.detailedWarmup, window);
+                int startCycle = detailed.getCycle();
+                int startCount = detailed.getCompletedInstructionCount();
+                runDetailedUntil(window, window);
+                int measured = detailed.getCompletedInstructionCount() - startCount;
+                if (measured > 0) {
+                    samples.add((double) (detailed.getCycle() - startCycle) / measured);
+                }
+                detailedInstructions += detailed.getCompletedInstructionCount();
+
+                // The detailed run worked on a copy; advance the architectural state past the window
+                functional.run(window);
+            }
+        } finally {
+            // Each window re-based the simulator on the sampled state; hand it back as loaded
+            detailed.restoreRunStart(loaded);
+            SimLog.setEnabled(wasLogging);
+        }
+
+        Report report = new Report(samples, functional.getExecutedCount(), detailedInstructions,
+                                   config.z, (System.nanoTime() - startNanos) / 1_000_000L);
+        SimLog.println("[Sampling] " + report);
+        return report;
+    }
+
+    private void runDetailedUntil(int completed, int window) {
+        // Guard against a window that never completes (e.g. a stalled configuration)
+        int cycleLimit = detailed.getCycle() + 1000 * Math.max(1, window);
+        while (!detailed.isFinished() && detailed.getCompletedInstructionCount() < completed
+               && detailed.getCycle() < cycleLimit) {
+            detailed.step();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package guc.edu.sim.core;
+
+/**
+ * Console output for the simulator core.
+ * Output can be switched off so long or full-speed runs are not bound by console I/O.
+ * An optional sink (e.g. the UI log console) receives every message together with
+ * its level and the component named in its "[Component]" prefix.
+ */
+public final class SimLog {
+    public enum Level { DEBUG, INFO, WARN, ERROR }
+
+    /**
+     * Receives log messages. May be called from the simulation thread.
+     */
+    public interface Sink {
+        void log(Level level, String component, String message);
+    }
+
+    private static volatile boolean enabled = true;
+    private static volatile Sink sink;
+
+    private SimLog() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    public static void setSink(Sink newSink) {
+        sink = newSink;
+    }
+
+    public static void println(String message) {
+        if (enabled) {
+            System.out.println(message);
+            Sink s = sink;
+            if (s != null) {
+                String text = message.strip();
+                s.log(levelOf(text), componentOf(text), text);
+            }
+        }
+    }
+
+    private static Level levelOf(String text) {
+        return text.contains("ERROR") ? Level.ERROR : Level.DEBUG;
+    }
+
+    /**
+     * Core messages start with a tag such as "[Issue]" or "[ExecutionUnit-A1]".
+     */
+    static String componentOf(String text) {
+        if (text.startsWith("[")) {
+            int end = text.indexOf(']');
+            if (end > 1) {
+                String tag = text.substring(1, end);
+                int dash = tag.indexOf('-');
+                return dash > 0 ? tag.substring(0, dash) : tag;
+            }
+        }
+        return "Core";
+    }
+}
@@ -1,11 +1,17 @@
 package guc.edu.sim.core;
 
+/**
+ * Cycle counter. Each simulator owns its clock so several cores can run side by side.
+ */
 public class SimulationClock {
-    private static int cycle = 0;
+    private int cycle = 0;
 
-    public static int getCycle() { return cycle; }
+    public int getCycle() { return cycle; }
 
-    public static void nextCycle() { cycle++; }
+    public void nextCycle() { cycle++; }
 
-    public static void reset() { cycle = 0; }
-}
\ No newline at end of file
+    public void reset() { cycle = 0; }
+
+    /** Move to {@code cycle}, when a checkpoint is restored. */
+    void setCycle(int cycle) { this.cycle = cycle; }
+}
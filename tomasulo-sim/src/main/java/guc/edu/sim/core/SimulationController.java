@@ -7,6 +7,7 @@ public class SimulationController {
     private final MemoryUnitInterface mem;
     private final BranchUnitInterface br;
     private final RegisterStatusTable regStatus;
+    private final SimulationClock clock = new SimulationClock();
 
     public SimulationController(IssueUnit issueUnit,
                                 ReservationStations rs,
@@ -21,7 +22,7 @@ public class SimulationController {
     }
 
     public boolean stepOneCycle() {
-        SimulationClock.nextCycle();
+        clock.nextCycle();
 
         if (br != null && br.hasResolvedBranch()) {
             if (br.shouldFlushQueue()) {
@@ -31,7 +32,7 @@ public class SimulationController {
             }
         }
 
-        return issueUnit.stepIssue(rs, mem, br, regStatus);
+        return issueUnit.stepIssue(rs, mem, br, regStatus, clock.getCycle());
     }
 
     public IssueUnit getIssueUnit() {
@@ -0,0 +1,103 @@
+package guc.edu.sim.core;
+
+/**
+ * Runs a simulator on its own thread, either at full speed or paced to a fixed
+ * number of cycles per second. Observers never touch the live simulator; they call
+ * {@link #snapshot()} at whatever rate they render, so rendering cannot throttle
+ * the simulation.
+ */
+public class SimulationRunner {
+    private final SimulatorState sim;
+    private volatile boolean running = false;
+    private Thread worker;
+
+    public SimulationRunner(SimulatorState sim) {
+        this.sim = sim;
+    }
+
+    /**
+     * Start stepping on a background thread.
+     *
+     * @param cyclesPerSecond pacing rate, or 0 to run as fast as possible
+     * @param stopAtCycle     stop once this cycle is reached, or -1 to run to completion;
+     *                        a breakpoint set on the simulator also stops the run
+     * @param onFinish        called on the worker thread when the run ends (may be null)
+     */
+    public synchronized void start(int cyclesPerSecond, int stopAtCycle, Runnable onFinish) {
+        if (running) return;
+        running = true;
+
+        worker = new Thread(() -> {
+            boolean wasLogging = SimLog.isEnabled();
+            if (cyclesPerSecond <= 0) {
+                // Console output would dominate a full-speed run
+                SimLog.setEnabled(false);
+            }
+            long periodNanos = cyclesPerSecond > 0 ? 1_000_000_000L / cyclesPerSecond : 0;
+            long nextCycleAt = System.nanoTime();
+
+            try {
+                while (running) {
+                    synchronized (sim) {
+                        if (sim.isFinished() || (stopAtCycle >= 0 && sim.getCycle() >= stopAtCycle)) {
+                            break;
+                        }
+                        sim.step();
+                        if (sim.getBreakpointHit() != null) {
+                            break;
+                        }
+                    }
+
+                    if (periodNanos > 0) {
+                        nextCycleAt += periodNanos;
+                        long sleepNanos = nextCycleAt - System.nanoTime();
+                        if (sleepNanos > 0) {
+                            Thread.sleep(sleepNanos / 1_000_000L, (int) (sleepNanos % 1_000_000L));
+                        } else {
+                            // Fell behind (e.g. after a long GC pause); don't try to catch up in a burst
+                            nextCycleAt = System.nanoTime();
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                SimLog.setEnabled(wasLogging);
+                running = false;
+                if (onFinish != null) {
+                    onFinish.run();
+                }
+            }
+        }, "simulation-runner");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Ask the worker to stop and wait for it to leave the current cycle.
+     */
+    public void stop() {
+        running = false;
+        Thread t = worker;
+        if (t != null && t != Thread.currentThread()) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Capture the rows that changed since the previous snapshot.
+     */
+    public SimulatorSnapshot snapshot() {
+        synchronized (sim) {
+            return sim.captureSnapshot();
+        }
+    }
+}
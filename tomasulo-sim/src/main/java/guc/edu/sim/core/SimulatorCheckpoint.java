@@ -0,0 +1,117 @@
+package guc.edu.sim.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Simulator state at the start of one cycle.
+ *
+ * Memory pages are shared copy-on-write with the live {@link Memory}, and instruction
+ * status rows that were already written back are shared with the live status table; only
+ * the rows still in flight are copied. The run state the simulator writes explicitly
+ * (stations, buffers, registers, cache, statistics) is serialized into a byte array.
+ * Objects that outlive a restore - the simulator itself, its memory, program and latency
+ * configuration - are written as references and resolve to the live objects again, so
+ * restored components point at the same simulator the UI holds.
+ *
+ * Checkpoints live in memory only; a file holds a {@link WarmState} instead.
+ */
+public final class SimulatorCheckpoint {
+    private final int cycle;
+    private final byte[] state;
+    private final Map<Integer, byte[]> memoryPages;
+    private final SimulatorState.InstructionStatus[] statuses;
+
+    SimulatorCheckpoint(int cycle, byte[] state, Map<Integer, byte[]> memoryPages,
+                        SimulatorState.InstructionStatus[] statuses) {
+        this.cycle = cycle;
+        this.state = state;
+        this.memoryPages = memoryPages;
+        this.statuses = statuses;
+    }
+
+    public int getCycle() { return cycle; }
+
+    /** Bytes held by this checkpoint, not counting memory pages shared with the live memory. */
+    public int getStateSize() { return state.length; }
+
+    byte[] getState() { return state; }
+    Map<Integer, byte[]> getMemoryPages() { return memoryPages; }
+    SimulatorState.InstructionStatus[] getStatuses() { return statuses; }
+
+    /** Stands in for a live object in the serialized state. */
+    private static final class LiveRef implements Serializable {
+        private static final long serialVersionUID = 1L;
+        final int index;
+
+        LiveRef(int index) {
+            this.index = index;
+        }
+    }
+
+    /** Writes the run state to a checkpoint stream. */
+    interface StateWriter {
+        void write(ObjectOutputStream out) throws IOException;
+    }
+
+    /** Reads back what the matching {@link StateWriter} wrote, in the same order. */
+    interface StateReader {
+        void read(ObjectInputStream in) throws IOException, ClassNotFoundException;
+    }
+
+    /** Serialize the state {@code writer} writes, writing the objects in {@code live} as references. */
+    static byte[] write(StateWriter writer, List<Object> live) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 * 1024);
+        try (ObjectOutputStream out = new LiveObjectOutputStream(bytes, live)) {
+            writer.write(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Inverse of {@link #write}; {@code live} must list the same objects in the same order. */
+    static void read(byte[] state, List<Object> live, StateReader reader) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new LiveObjectInputStream(new ByteArrayInputStream(state), live)) {
+            reader.read(in);
+        }
+    }
+
+    private static final class LiveObjectOutputStream extends ObjectOutputStream {
+        private final Map<Object, Integer> indices = new IdentityHashMap<>();
+
+        LiveObjectOutputStream(OutputStream out, List<Object> live) throws IOException {
+            super(out);
+            for (int i = 0; i < live.size(); i++) indices.put(live.get(i), i);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            Integer index = indices.get(obj);
+            return index != null ? new LiveRef(index) : obj;
+        }
+    }
+
+    private static final class LiveObjectInputStream extends ObjectInputStream {
+        private final List<Object> live;
+
+        LiveObjectInputStream(InputStream in, List<Object> live) throws IOException {
+            super(in);
+            this.live = live;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) {
+            return obj instanceof LiveRef ? live.get(((LiveRef) obj).index) : obj;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package guc.edu.sim.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable copy of the parts of the simulator the UI renders.
+ * Only rows reported by the change feed are copied, so a snapshot is cheap to take
+ * while the simulator runs on another thread. A row mapped to null was freed.
+ */
+public class SimulatorSnapshot {
+    private final int cycle;
+    private final int furthestCycle;
+    private final boolean finished;
+    private final boolean fullRefresh;
+    private final int completedInstructions;
+    private final int statusCount;
+    private final int cacheHits;
+    private final int cacheMisses;
+    private final int rawHazards;
+    private final int warHazards;
+    private final int wawHazards;
+    private final int structuralHazards;
+    private final int loadIssued;
+    private final int storeIssued;
+    private final int fpIssued;
+    private final int intIssued;
+    private final int branchIssued;
+    private final int intMulDivIssued;
+    private final int intMulDivBusyCycles;
+    private final int registerFreeStalls;
+    private final int peakPhysicalRegisters;
+    private final EnergyModel.Report energy;
+    private final String memoryChannel;
+    private final String dram;
+    private final String tlb;
+
+    private final Map<String, StationRow> stations = new LinkedHashMap<>();
+    private final Map<String, BufferRow> loadEntries = new LinkedHashMap<>();
+    private final Map<String, BufferRow> storeEntries = new LinkedHashMap<>();
+    private final List<RegisterRow> registers = new ArrayList<>();
+    private final List<CacheLineRow> cacheLines = new ArrayList<>();
+    private final List<StatusRow> statusRows = new ArrayList<>();
+
+    /**
+     * Thread 0's registers first, then each further thread's (suffix ".T1", ".T2", ...);
+     * within a thread R0-R31 before F0-F31.
+     */
+    private static final Comparator<String> REGISTER_ORDER = Comparator
+            .comparingInt(SimulatorSnapshot::registerThread)
+            .thenComparing(name -> name.charAt(0) != 'R')
+            .thenComparingInt(SimulatorSnapshot::registerNumber)
+            .thenComparing(Comparator.naturalOrder());
+
+    SimulatorSnapshot(SimulatorState sim, ChangeTracker.Changes changes) {
+        this.cycle = sim.getCycle();
+        this.furthestCycle = sim.getFurthestCycle();
+        this.finished = sim.isFinished();
+        this.fullRefresh = changes.isFullRefresh();
+        this.completedInstructions = sim.getCompletedInstructionCount();
+        this.statusCount = sim.getInstructionStatuses().size();
+        this.cacheHits = sim.getCache() != null ? sim.getCache().getHits() : 0;
+        this.cacheMisses = sim.getCache() != null ? sim.getCache().getMisses() : 0;
+        this.rawHazards = sim.getRawHazards();
+        this.warHazards = sim.getWarHazards();
+        this.wawHazards = sim.getWawHazards();
+        this.structuralHazards = sim.getStructuralHazards();
+        this.loadIssued = sim.getLoadIssuedCount();
+        this.storeIssued = sim.getStoreIssuedCount();
+        this.fpIssued = sim.getFpIssuedCount();
+        this.intIssued = sim.getIntIssuedCount();
+        this.branchIssued = sim.getBranchIssuedCount();
+        this.intMulDivIssued = sim.getIntMulDivIssuedCount();
+        this.intMulDivBusyCycles = sim.getIntMulDivBusyCycles();
+        this.registerFreeStalls = sim.getRegisterFreeStalls();
+        this.peakPhysicalRegisters = sim.getPeakPhysicalRegistersInUse();
+        this.energy = sim.getEnergyReport();
+        this.memoryChannel = sim.getMemoryChannel() != null ? sim.getMemoryChannel().toString() : null;
+        this.dram = sim.getDram() != null ? sim.getDram().toString() : null;
+        this.tlb = sim.getMmu() != null ? sim.getMmu().toString() : null;
+
+        if (!sim.isProgramLoaded()) return;
+
+        if (fullRefresh) {
+            for (ReservationStationEntry entry : sim.getReservationStations().getStations()) {
+                stations.put(entry.getId(), new StationRow(entry));
+            }
+            for (LoadBuffer.LoadEntry entry : sim.getLoadBuffer().getBuffer()) {
+                loadEntries.put(entry.tag, new BufferRow(entry));
+            }
+            for (StoreBuffer.StoreEntry entry : sim.getStoreBuffer().getBuffer()) {
+                storeEntries.put(entry.tag, new BufferRow(entry));
+            }
+            List<String> names = new ArrayList<>(sim.getRegFile().getAllValues().keySet());
+            names.sort(REGISTER_ORDER);
+            for (String name : names) {
+                registers.add(new RegisterRow(sim.getRegFile(), name));
+            }
+            Cache.CacheLine[] lines = sim.getCache().getLines();
+            for (int i = 0; i < lines.length; i++) {
+                cacheLines.add(new CacheLineRow(i, lines[i]));
+            }
+            List<SimulatorState.InstructionStatus> statuses = sim.getInstructionStatuses();
+            for (int i = 0; i < statuses.size(); i++) {
+                statusRows.add(new StatusRow(i, statuses.get(i)));
+            }
+            return;
+        }
+
+        for (String tag : changes.getStations()) {
+            ReservationStationEntry entry = sim.getReservationStations().findEntryByTag(tag);
+            stations.put(tag, entry != null ? new StationRow(entry) : null);
+        }
+        for (String tag : changes.getLoadEntries()) {
+            LoadBuffer.LoadEntry entry = sim.getLoadBuffer().findEntryByTag(tag);
+            loadEntries.put(tag, entry != null ? new BufferRow(entry) : null);
+        }
+        for (String tag : changes.getStoreEntries()) {
+            StoreBuffer.StoreEntry entry = sim.getStoreBuffer().findEntryByTag(tag);
+            storeEntries.put(tag, entry != null ? new BufferRow(entry) : null);
+        }
+        for (String reg : changes.getRegisters()) {
+            registers.add(new RegisterRow(sim.getRegFile(), reg));
+        }
+        Cache.CacheLine[] lines = sim.getCache().getLines();
+        for (int index : changes.getCacheLines()) {
+            if (index >= 0 && index < lines.length) {
+                cacheLines.add(new CacheLineRow(index, lines[index]));
+            }
+        }
+        List<SimulatorState.InstructionStatus> statuses = sim.getInstructionStatuses();
+        for (int index : changes.getStatusRows()) {
+            if (index < statuses.size()) {
+                statusRows.add(new StatusRow(index, statuses.get(index)));
+            }
+        }
+        // Rows appended by new loop iterations are reported in index order
+        statusRows.sort((a, b) -> Integer.compare(a.index, b.index));
+    }
+
+    private static int registerThread(String name) {
+        int suffix = name.indexOf(".T");
+        return suffix < 0 ? 0 : parseOr(name.substring(suffix + 2), Integer.MAX_VALUE);
+    }
+
+    private static int registerNumber(String name) {
+        int suffix = name.indexOf(".T");
+        return parseOr(name.substring(1, suffix < 0 ? name.length() : suffix), Integer.MAX_VALUE);
+    }
+
+    private static int parseOr(String digits, int fallback) {
+        try {
+            return Integer.parseInt(digits);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    public int getCycle() { return cycle; }
+    /** Highest cycle reached so far; the end of the timeline when stepped back. */
+    public int getFurthestCycle() { return furthestCycle; }
+    public boolean isFinished() { return finished; }
+    public boolean isFullRefresh() { return fullRefresh; }
+    public int getCompletedInstructions() { return completedInstructions; }
+    public int getStatusCount() { return statusCount; }
+    public int getCacheHits() { return cacheHits; }
+    public int getCacheMisses() { return cacheMisses; }
+    public int getRawHazards() { return rawHazards; }
+    public int getWarHazards() { return warHazards; }
+    public int getWawHazards() { return wawHazards; }
+    public int getStructuralHazards() { return structuralHazards; }
+    public int getLoadIssued() { return loadIssued; }
+    public int getStoreIssued() { return storeIssued; }
+    public int getFpIssued() { return fpIssued; }
+    public int getIntIssued() { return intIssued; }
+    public int getBranchIssued() { return branchIssued; }
+    public int getIntMulDivIssued() { return intMulDivIssued; }
+    public int getIntMulDivBusyCycles() { return intMulDivBusyCycles; }
+    public int getRegisterFreeStalls() { return registerFreeStalls; }
+    public int getPeakPhysicalRegisters() { return peakPhysicalRegisters; }
+    public EnergyModel.Report getEnergy() { return energy; }
+    /** Channel bandwidth and queueing summary, or null when the channel model is off. */
+    public String getMemoryChannel() { return memoryChannel; }
+    /** DRAM row-hit rate and latency summary, or null when DRAM timing is off. */
+    public String getDram() { return dram; }
+    /** TLB hit/miss and page-walk summary, or null when translation is off. */
+    public String getTlb() { return tlb; }
+
+    public Map<String, StationRow> getStations() { return Collections.unmodifiableMap(stations); }
+    public Map<String, BufferRow> getLoadEntries() { return Collections.unmodifiableMap(loadEntries); }
+    public Map<String, BufferRow> getStoreEntries() { return Collections.unmodifiableMap(storeEntries); }
+    public List<RegisterRow> getRegisters() { return Collections.unmodifiableList(registers); }
+    public List<CacheLineRow> getCacheLines() { return Collections.unmodifiableList(cacheLines); }
+    public List<StatusRow> getStatusRows() { return Collections.unmodifiableList(statusRows); }
+
+    public static class StationRow {
+        public final String tag;
+        public final StationType type;
+        public final String opcode;
+        public final String vj;
+        public final String vk;
+        public final String qj;
+        public final String qk;
+        public final String vl;            // third source, FMA only
+        public final String ql;
+
+        StationRow(ReservationStationEntry entry) {
+            this.tag = entry.getId();
+            this.type = entry.getType();
+            this.opcode = entry.getOpcode();
+            this.vj = entry.getVj() != null ? String.valueOf(entry.getVj()) : null;
+            this.vk = entry.getVk() != null ? String.valueOf(entry.getVk()) : null;
+            this.qj = entry.getQj();
+            this.qk = entry.getQk();
+            this.vl = entry.getVl() != null ? String.valueOf(entry.getVl()) : null;
+            this.ql = entry.getQl();
+        }
+    }
+
+    public static class BufferRow {
+        public final String tag;
+        public final String opcode;
+        public final Integer address;      // null while the base register is pending
+        public final String register;      // destination for loads, source for stores
+
+        BufferRow(LoadBuffer.LoadEntry entry) {
+            this.tag = entry.tag;
+            this.opcode = entry.instruction.getOpcode();
+            this.address = entry.baseReady ? entry.computeAddress() : null;
+            this.register = entry.instruction.getDest();
+        }
+
+        BufferRow(StoreBuffer.StoreEntry entry) {
+            this.tag = entry.tag;
+            this.opcode = entry.instruction.getOpcode();
+            this.address = entry.baseReady ? entry.computeAddress() : null;
+            this.register = entry.instruction.getSrc1();
+        }
+    }
+
+    public static class RegisterRow {
+        public final String name;
+        public final double value;
+        public final String producer;
+
+        RegisterRow(RegisterFile regFile, String name) {
+            this.name = name;
+            this.value = regFile.getValue(name);
+            this.producer = regFile.getProducer(name);
+        }
+    }
+
+    public static class CacheLineRow {
+        public final int index;
+        public final boolean valid;
+        public final int tag;
+        private final byte[] data;
+
+        CacheLineRow(int index, Cache.CacheLine line) {
+            this.index = index;
+            this.valid = line.isValid();
+            this.tag = line.getTag();
+            this.data = line.getData() != null ? line.getData().clone() : new byte[0];
+        }
+
+        public byte[] getData() { return data.clone(); }
+    }
+
+    public static class StatusRow {
+        public final int index;
+        public final int programIndex;
+        public final int iteration;
+        public final int issueCycle;
+        public final int execStartCycle;
+        public final int execEndCycle;
+        public final int writeBackCycle;
+
+        StatusRow(int index, SimulatorState.InstructionStatus status) {
+            this.index = index;
+            this.programIndex = status.programIndex;
+            this.iteration = status.iteration;
+            this.issueCycle = status.issueCycle;
+            this.execStartCycle = status.execStartCycle;
+            this.execEndCycle = status.execEndCycle;
+            this.writeBackCycle = status.writeBackCycle;
+        }
+    }
+}
@@ -1,5 +1,13 @@
 package guc.edu.sim.core;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
@@ -8,14 +16,12 @@ import java.util.*;
 public class SimulatorState {
 
     private Program program;
-    private IssueUnit issueUnit;
     private RegisterFile regFile;
     private Memory memory;
     private Cache cache;
     private RealReservationStations rs;
     private LoadBuffer loadBuffer;
     private StoreBuffer storeBuffer;
-    private BranchUnit branchUnit;
     private Dispatcher dispatcher;
     private CommonDataBus cdb;
     private LatencyConfig latencyConfig;
@@ -23,17 +29,24 @@ public class SimulatorState {
     private final Set<String> slotsToFreeNextCycle = new HashSet<>();
     
     private int lastIssuedIndex = -1;
+    // Checkpoints share the written-back rows of these two instead of serializing them
     private List<InstructionStatus> instructionStatuses = new ArrayList<>();
     
     // Iteration tracking: maps instruction index to current iteration count
     private Map<Integer, Integer> iterationCountByIndex = new HashMap<>();
     // Track which InstructionStatus index corresponds to which tag
     private Map<String, Integer> tagToStatusIndex = new HashMap<>();
+    private int completedInstructions = 0;
+    
+    // Change feed consumed by the UI so it only re-renders rows that changed
+    private final ChangeTracker changes = new ChangeTracker();
+    private final SimulationClock clock = new SimulationClock();
     
     // Configuration
     private int fpAddSize = 3;
     private int fpMulSize = 2;
     private int intSize = 2;
+    private int intMulDivSize = 2;
     private int loadBufferSize = 3;
     private int storeBufferSize = 3;
     private int cacheSize = 64;
@@ -43,7 +56,12 @@ public class SimulatorState {
     private int fpAddLatency = 3;
     private int fpMulLatency = 10;
     private int fpDivLatency = 40;
+    private int fmaLatency = 10;
     private int intLatency = 1;
+    private int intMulLatency = 4;
+    private int intDivLatency = 20;
+    private boolean pipelinedIntDivider = false;
+    private IntMulDivUnit intMulDivUnit;
     private int loadLatency = 2;
     private int storeLatency = 2;
     private int branchLatency = 1;
@@ -56,18 +74,124 @@ public class SimulatorState {
     private int fpIssued;
     private int intIssued;
     private int branchIssued;
+    private int fmaIssued;
+    private int intMulDivIssued;
     private Map<String, Double> initialRegValues = new HashMap<>();
     private Map<Integer, Double> initialMemValues = new HashMap<>();
     private final List<IssuedInstructionInfo> inFlight = new ArrayList<>();
     private final Map<String, IssuedInstructionInfo> tagToInstruction = new HashMap<>();
     private int branchTagCounter = 0;
-    private String activeBranchTag;
+    
+    // Hardware threads sharing the back end; one unless the program uses .thread sections
+    private final List<HardwareThread> threads = new ArrayList<>();
+    private final Map<String, HardwareThread> tagToThread = new HashMap<>();
+    private FetchPolicy fetchPolicy = FetchPolicy.ROUND_ROBIN;
+    private int nextFetchThread = 0;
+    
+    /** How the issue stage picks a thread each cycle in SMT mode. */
+    public enum FetchPolicy {
+        ROUND_ROBIN,  // rotate through the threads
+        ICOUNT        // favour the thread with the fewest instructions in flight (Tullsen et al.)
+    }
     private int currentBroadcastCycle = -1;
+    private int memoryOpSeq = 0;
+    private LoadStoreQueue lsq = new LoadStoreQueue();
+    
+    // Store-to-load forwarding (off by default to keep the textbook issue-stall behaviour)
+    private boolean storeForwarding = false;
+    private int forwardingLatency = 1;
+    private int forwardedLoads = 0;
+    
+    // Speculative memory disambiguation: loads pass older stores with unknown addresses
+    // unless the store-set predictor says they conflict
+    private boolean speculativeLoads = false;
+    private int replayPenalty = 3;
+    private StoreSetPredictor storeSets = new StoreSetPredictor();
+    private int speculativeLoadCount = 0;
+    private int predictedDependences = 0;
+    private int memoryOrderViolations = 0;
+    
+    // Vector extension: V0-V7 of vectorLength elements, executed by a lane-parallel vector unit
+    private int vectorLength = 8;
+    private int vectorLanes = 2;
+    private int vectorStations = 2;
+    private VectorRegisterFile vectorRegs;
+    private VectorUnit vectorUnit;
+    private int vectorIssued;
+    
+    /** How destination registers are renamed. */
+    public enum RenameScheme {
+        TAGS,               // classic Tomasulo: register status points at the producing station
+        PHYSICAL_REGISTERS  // R10K: map table, free list and a physical register file
+    }
+    
+    private RenameScheme renameScheme = RenameScheme.TAGS;
+    private int physicalRegisterCount = 96;
+    private PhysicalRegisterFile physicalRegs;
+    private int registerFreeStalls;
+    
+    /** Why the issue stage issued nothing in a cycle. */
+    public enum IssueStall {
+        BRANCH,             // waiting for a branch to write back
+        PHYSICAL_REGISTER,  // no free physical register to rename into
+        STRUCTURAL,         // no free station or buffer
+        MEMORY_ORDER        // held back by an older memory operation
+    }
+    
+    // Reason issue was blocked in the latest cycle (null if something issued) and for how many cycles in a row
+    private IssueStall issueStall;
+    private int issueStallCycles;
+    private IssueStall stallThisCycle;
+    
+    // Multicore: memory shared with the other cores, kept coherent through the bus
+    private Memory sharedMemory;
+    private CoherenceBus coherenceBus;
+    private int coreId = 0;
+    
+    // Optional lock-step check against an in-order functional reference
+    private boolean cosimEnabled = false;
+    private CosimChecker cosim;
+    
+    // Optional finite-bandwidth channel between the cache and memory
+    private boolean memoryChannelEnabled = false;
+    private double channelBytesPerCycle = 8.0;
+    private int channelMaxOutstanding = 8;
+    private MemoryChannel memoryChannel;
+    
+    // Optional DRAM timing in place of the flat miss penalty (null config = off)
+    private DramController.Config dramConfig;
+    private DramController dram;
+    
+    // Optional address translation (data TLBs and page walks) in front of the cache
+    private Mmu.Config mmuConfig;
+    private Mmu mmu;
+    
+    // Optional dependency trace for post-run critical-path analysis
+    private boolean criticalPathTracking = false;
+    private CriticalPathAnalyzer criticalPath;
+    
+    // Event counts and per-event costs for the energy estimate; costs survive re-initialization
+    private final EnergyModel energy = new EnergyModel();
+    
+    // Periodic checkpoints for stepping backwards and jumping to a cycle (interval 0 = off).
+    // A checkpoint holds the run state written by writeRunState, not the configuration.
+    private int checkpointInterval = 0;
+    private TreeMap<Integer, SimulatorCheckpoint> checkpoints = new TreeMap<>();
+    private int furthestCycle = 0;
+    private boolean draining = false;  // saving a warm state: issue nothing until the pipeline is empty
+    
+    // Warm state loaded from a file; applied after every re-initialization until another program is loaded
+    private WarmState warmStart;
+    
+    // Breakpoints are debugger state, not simulator state; the compiled set is rebuilt with the components
+    private List<Breakpoint> breakpoints = new ArrayList<>();
+    private BreakpointSet breakpointSet;
+    private Breakpoint breakpointHit;
     
     // DEBUG: Track specific instructions
     private static final boolean DEBUG = true;
     private void debug(String msg) {
-        if (DEBUG) System.out.println("[DEBUG] " + msg);
+        if (DEBUG && SimLog.isEnabled()) SimLog.println("[DEBUG] " + msg);
     }
     
     /**
@@ -115,45 +239,86 @@ public class SimulatorState {
     public void loadProgramLines(List<String> lines) {
         ProgramLoader loader = new ProgramLoader();
         this.program = loader.loadFromLines(lines);
+        warmStart = null;
         initializeSimulator();
     }
 
     private void initializeSimulator() {
-        System.out.println("\n========== Initializing Tomasulo Simulator ==========");
+        SimLog.println("\n========== Initializing Tomasulo Simulator ==========");
         
         // Create components
         latencyConfig = new LatencyConfig();
         latencyConfig.setLatency(StationType.FP_ADD, fpAddLatency);
         latencyConfig.setLatency(StationType.FP_MUL, fpMulLatency);
         latencyConfig.setDivisionLatency(fpDivLatency);
+        latencyConfig.setFmaLatency(fmaLatency);
         latencyConfig.setLatency(StationType.INTEGER, intLatency);
+        latencyConfig.setLatency(StationType.INT_MULDIV, intMulLatency);
+        latencyConfig.setIntDivisionLatency(intDivLatency);
         latencyConfig.setLatency(StationType.LOAD, loadLatency);
         latencyConfig.setLatency(StationType.STORE, storeLatency);
         
         regFile = new RegisterFile();
-        memory = new Memory();
+        for (int t = 1; t < program.getThreadCount(); t++) {
+            regFile.addRegisterSet(HardwareThread.registerSuffix(t));
+        }
+        memory = sharedMemory != null ? sharedMemory : new Memory();
         cache = new Cache(cacheSize, blockSize, cacheHitLatency, cacheMissPenalty);
+        if (coherenceBus != null) {
+            cache.setCoherence(coherenceBus, coreId);
+        }
+        memoryChannel = memoryChannelEnabled && dramConfig == null
+                ? new MemoryChannel(channelBytesPerCycle, channelMaxOutstanding, cacheMissPenalty) : null;
+        cache.setMemoryChannel(memoryChannel);
+        dram = dramConfig != null ? new DramController(dramConfig) : null;
+        cache.setDram(dram);
         
-        rs = new RealReservationStations(fpAddSize, fpMulSize, intSize, regFile);
+        rs = new RealReservationStations(fpAddSize, fpMulSize, intSize, intMulDivSize, regFile);
         
         loadBuffer = new LoadBuffer(loadBufferSize, regFile, memory, cache);
         storeBuffer = new StoreBuffer(storeBufferSize, regFile, memory, cache);
         
-        branchUnit = new BranchUnit(regFile, program);
-        branchUnit.setLatency(branchLatency);
+        regFile.setChangeTracker(changes);
+        cache.setChangeTracker(changes);
+        rs.setChangeTracker(changes);
+        loadBuffer.setChangeTracker(changes);
+        storeBuffer.setChangeTracker(changes);
+        changes.markFullRefresh();
+        
+        threads.clear();
+        tagToThread.clear();
+        nextFetchThread = 0;
+        for (int t = 0; t < program.getThreadCount(); t++) {
+            threads.add(new HardwareThread(t, program, regFile, branchLatency));
+        }
+        if (threads.size() > 1) {
+            SimLog.println("[SMT] " + threads.size() + " hardware threads, fetch policy " + fetchPolicy);
+        }
+        
+        vectorRegs = new VectorRegisterFile(vectorLength);
+        vectorUnit = new VectorUnit(vectorStations, vectorLanes, vectorRegs, regFile, latencyConfig);
+        mmu = mmuConfig != null ? new Mmu(mmuConfig) : null;
+        vectorUnit.setMmu(mmu);
         
         dispatcher = new Dispatcher(latencyConfig);
         dispatcher.addExecutionUnit(StationType.FP_ADD, 2);
         dispatcher.addExecutionUnit(StationType.FP_MUL, 1);
         dispatcher.addExecutionUnit(StationType.INTEGER, 1);
+        intMulDivUnit = new IntMulDivUnit(latencyConfig, pipelinedIntDivider);
+        dispatcher.addExecutionUnit(intMulDivUnit);
         
         cdb = new CommonDataBus();
         cdb.addListener((tag, result) -> {
-            System.out.println("[CDB] Broadcasting " + tag + " = " + result);
+            SimLog.println("[CDB] Broadcasting " + tag + " = " + result);
             rs.broadcastResult(tag, result, currentBroadcastCycle);
             loadBuffer.broadcastResult(tag, result, currentBroadcastCycle);
             storeBuffer.broadcastResult(tag, result, currentBroadcastCycle);
-            branchUnit.broadcastResult(tag, result, currentBroadcastCycle);
+            lsq.resolve(tag);
+            for (HardwareThread thread : threads) {
+                thread.branchUnit.broadcastResult(tag, result, currentBroadcastCycle);
+            }
+            vectorUnit.broadcastResult(tag, result, currentBroadcastCycle);
+            if (physicalRegs != null) physicalRegs.writeBack(tag, result);
             
             for (String reg : regFile.getAllProducers().keySet()) {
                 if (tag.equals(regFile.getProducer(reg))) {
@@ -163,11 +328,10 @@ public class SimulatorState {
             }
         });
         
-        issueUnit = new IssueUnit(program);
-        
         instructionStatuses.clear();
         iterationCountByIndex.clear();
         tagToStatusIndex.clear();
+        completedInstructions = 0;
         for (int i = 0; i < program.size(); i++) {
             InstructionStatus status = new InstructionStatus(i, 1);
             instructionStatuses.add(status);
@@ -178,56 +342,117 @@ public class SimulatorState {
         inFlight.clear();
         tagToInstruction.clear();
         rawHazards = warHazards = wawHazards = structuralHazards = 0;
-        loadIssued = storeIssued = fpIssued = intIssued = branchIssued = 0;
+        loadIssued = storeIssued = fpIssued = intIssued = branchIssued = vectorIssued = fmaIssued = intMulDivIssued = 0;
         branchTagCounter = 0;
-        activeBranchTag = null;
+        memoryOpSeq = 0;
+        lsq.clear();
+        forwardedLoads = 0;
+        storeSets.clear();
+        speculativeLoadCount = predictedDependences = memoryOrderViolations = 0;
+        registerFreeStalls = 0;
+        issueStall = null;
+        issueStallCycles = 0;
 
         if (!initialRegValues.isEmpty()) {
             regFile.loadInitialValues(initialRegValues);
-            System.out.println("[Init] Re-applied register values: " + initialRegValues);
+            SimLog.println("[Init] Re-applied register values: " + initialRegValues);
         }
         if (!initialMemValues.isEmpty()) {
             memory.loadInitialData(initialMemValues);
-            System.out.println("[Init] Re-applied memory values: " + initialMemValues);
+            SimLog.println("[Init] Re-applied memory values: " + initialMemValues);
         }
         if (!initialMemValues.isEmpty()) {
             memory.loadInitialData(initialMemValues);
-            System.out.println("[Init] Re-applied memory values: " + initialMemValues);
+            SimLog.println("[Init] Re-applied memory values: " + initialMemValues);
             
             // VERIFY: Check what's actually in memory
-            System.out.println("[DEBUG] Verifying memory contents:");
-            for (Integer addr : initialMemValues.keySet()) {
-                double value = memory.loadDouble(addr);
-                System.out.println("[DEBUG]   Memory[" + addr + "] = " + value);
-                
-                // Also check the bytes
-                System.out.println("[DEBUG]   Bytes at " + addr + ":");
-                for (int i = 0; i < 8; i++) {
-                    byte b = memory.loadByte(addr + i);
-                    System.out.println("[DEBUG]     [" + (addr + i) + "] = " + String.format("0x%02X", b & 0xFF));
+            if (SimLog.isEnabled()) {
+                SimLog.println("[DEBUG] Verifying memory contents:");
+                for (Integer addr : initialMemValues.keySet()) {
+                    double value = memory.loadDouble(addr);
+                    SimLog.println("[DEBUG]   Memory[" + addr + "] = " + value);
+                    
+                    // Also check the bytes
+                    SimLog.println("[DEBUG]   Bytes at " + addr + ":");
+                    for (int i = 0; i < 8; i++) {
+                        byte b = memory.loadByte(addr + i);
+                        SimLog.println("[DEBUG]     [" + (addr + i) + "] = " + String.format("0x%02X", b & 0xFF));
+                    }
                 }
             }
         }
     
         
-        SimulationClock.reset();
+        // Values still travel by tag; the physical file models register capacity.
+        // Extra SMT threads each pin another architectural set, so the rename headroom stays the same.
+        physicalRegs = renameScheme == RenameScheme.PHYSICAL_REGISTERS
+                ? new PhysicalRegisterFile(physicalRegisterCount +
+                        (threads.size() - 1) * PhysicalRegisterFile.ARCHITECTURAL_REGISTERS, regFile)
+                : null;
+        
+        if (warmStart != null) applyWarmStart();
+        
+        clock.reset();
+        energy.reset();
         this.lastIssuedIndex = -1;
+        // Created on the first step, once initial register and memory values are in place
+        cosim = null;
+        criticalPath = criticalPathTracking ? new CriticalPathAnalyzer() : null;
+        // Taken on the first step, once initial register and memory values are in place
+        checkpoints.clear();
+        furthestCycle = 0;
+        compileBreakpoints();
         
-        System.out.println("========== Initialization Complete ==========\n");
+        SimLog.println("========== Initialization Complete ==========\n");
     }
 
     public boolean isProgramLoaded() {
         return program != null;
     }
+    
+    /**
+     * True once every instruction has been issued and nothing is left in flight
+     * (no busy station or buffer, no pending write-back, no unresolved branch).
+     */
+    public boolean isFinished() {
+        if (program == null || threads.isEmpty()) return true;
+        if (cosim != null && cosim.hasDiverged()) return true;
+        for (HardwareThread thread : threads) {
+            if (!thread.isDone()) return false;
+        }
+        return isDrained();
+    }
+    
+    /** True when nothing issued is still in flight, whether or not instructions are left to issue. */
+    private boolean isDrained() {
+        for (HardwareThread thread : threads) {
+            if (thread.activeBranchTag != null) return false;
+        }
+        return pendingResults.isEmpty()
+                && rs.getStationCount() == 0
+                && loadBuffer.size() == 0
+                && storeBuffer.size() == 0
+                && vectorUnit.isIdle();
+    }
 
     public boolean step() {
-        if (program == null || issueUnit == null) return false;
+        if (program == null || threads.isEmpty()) return false;
+        if (cosim != null && cosim.hasDiverged()) return false;
         
-        int currentCycle = SimulationClock.getCycle() + 1;
+        int currentCycle = clock.getCycle() + 1;
+        if (cosimEnabled && cosim == null && clock.getCycle() == 0) {
+            startCosim();
+        }
+        if (checkpointInterval > 0 && !draining && clock.getCycle() % checkpointInterval == 0
+                && !checkpoints.containsKey(clock.getCycle())) {
+            saveCheckpoint();
+        }
         
         // Free any slots that completed write-back in the previous cycle
         processDeferredSlotReleases(currentCycle);
-        System.out.println("\n========== Cycle " + currentCycle + " ==========");
+        if (memoryChannel != null) memoryChannel.advanceTo(currentCycle);
+        if (dram != null) dram.advanceTo(currentCycle);
+        SimLog.println("\n========== Cycle " + currentCycle + " ==========");
         
         debug("=== CYCLE " + currentCycle + " START ===");
         debug("pendingResults at start: " + pendingResults.size());
@@ -255,7 +480,7 @@ public class SimulatorState {
                     // FIXED: Handle STORE cache update at write-back
                     if (pr.memoryAddress != null) {
                         cache.writeThrough(pr.memoryAddress, memory);
-                        System.out.println("[Cache] Completed STORE write-through at WRITE-BACK for " + 
+                        SimLog.println("[Cache] Completed STORE write-through at WRITE-BACK for " + 
                                          pr.tag + " at address " + pr.memoryAddress);
                     }
                     
@@ -263,6 +488,11 @@ public class SimulatorState {
                     continue;
                 }
                 
+                if (isHeldSpeculativeLoad(pr.tag)) {
+                    debug("Held (older store address unresolved): " + pr.tag);
+                    continue;
+                }
+                
                 if (broadcastThisCycle == null) {
                     broadcastThisCycle = pr;
                     iterator.remove();
@@ -279,24 +509,44 @@ public class SimulatorState {
             if (broadcastThisCycle != null) {
                 debug("CDB Broadcasting: " + broadcastThisCycle.tag + " = " + broadcastThisCycle.result);
                 cdb.broadcast(broadcastThisCycle.tag, broadcastThisCycle.result);
+                energy.count(EnergyModel.Event.CDB_BROADCAST);
+                energy.count(EnergyModel.Event.RS_WAKEUP, rs.getStationCount() + loadBuffer.size() + storeBuffer.size());
+                if (cosim != null) {
+                    cosim.onResult(broadcastThisCycle.tag, broadcastThisCycle.result, currentCycle);
+                }
                 debug("Write-back already marked for " + broadcastThisCycle.tag);
                 
                 // FIXED: Complete cache fill at WRITE-BACK for LOAD instructions
                 if (broadcastThisCycle.memoryAddress != null) {
                     cache.completeFill(broadcastThisCycle.memoryAddress, memory);
-                    System.out.println("[Cache] Completed LOAD fill at WRITE-BACK for " + 
+                    SimLog.println("[Cache] Completed LOAD fill at WRITE-BACK for " + 
                                      broadcastThisCycle.tag + " at address " + 
                                      broadcastThisCycle.memoryAddress);
                 }
                 
                 if (deferredCount > 0) {
-                    System.out.println("[CDB] Bus busy; deferred " + deferredCount + " result(s) to later cycle(s)");
+                    SimLog.println("[CDB] Bus busy; deferred " + deferredCount + " result(s) to later cycle(s)");
                 }
             }
         } else {
             debug("No pending results to write back");
         }
         
+        // Vector results use the vector unit's own write ports, not the CDB
+        for (VectorUnit.VectorEntry vectorEntry : vectorUnit.writeBack(currentCycle)) {
+            markInstructionWriteBack(vectorEntry.tag, currentCycle);
+            if (cosim != null && vectorEntry.result != null) {
+                cosim.onVectorResult(vectorEntry.tag, vectorEntry.result, currentCycle);
+            }
+            for (int address : vectorEntry.touchedAddresses) {
+                if (vectorEntry.instruction.getType() == InstructionType.VECTOR_STORE) {
+                    cache.writeThrough(address, memory);
+                } else {
+                    cache.completeFill(address, memory);
+                }
+            }
+        }
+        
         // Phase 1: Tick execution units (instructions that were already executing)
         debug("PHASE 1: Checking dispatcher for completed instructions");
         List<ReservationStationEntry> finishedRS = dispatcher.tickUnits();
@@ -377,30 +627,28 @@ public class SimulatorState {
         for (LoadBuffer.LoadEntry loadEntry : loadBuffer.getBuffer()) {
             if (loadEntry.executing && !loadEntry.completedExecution) {
                 loadEntry.remainingCycles--;
+                if (loadEntry.memoryRequest != null) {
+                    // Hold until DRAM has scheduled the read, then add its latency
+                    if (!loadEntry.memoryRequest.isScheduled()) continue;
+                    loadEntry.remainingCycles += loadEntry.memoryRequest.getLatency();
+                    loadEntry.memoryRequest = null;
+                }
                 
                 // FIXED: Check <= 0 to handle edge cases
                 if (loadEntry.remainingCycles <= 0) {
                     int addr = loadEntry.computeAddress();
-                    
-                    System.out.println("[DEBUG] ========== LOAD COMPLETING ==========");
-                    System.out.println("[DEBUG] Load address: " + addr);
-                    
-                    // Check what's in memory BEFORE cache fill
-                    System.out.println("[DEBUG] Memory contents:");
-                    for (int i = 0; i < 8; i++) {
-                        byte b = memory.loadByte(addr + i);
-                        System.out.println("[DEBUG]   Memory[" + (addr + i) + "] = " + String.format("0x%02X", b & 0xFF));
-                    }
-                    
-                    System.out.println("[DEBUG] ====================================");
+                    // Forwarded loads never touched the cache, so there is no fill to complete
+                    Integer fillAddress = loadEntry.forwarded ? null : addr;
                     
                     // FIXED: Don't call cache.completeFill here - it will be called at write-back
                     
-                    System.out.println("[LoadBuffer] " + loadEntry.tag + " COMPLETED with value " + loadEntry.result);
+                    if (SimLog.isEnabled()) {
+                        SimLog.println("[LoadBuffer] " + loadEntry.tag + " COMPLETED with value " + loadEntry.result);
+                    }
                     markInstructionExecEnd(loadEntry.tag, currentCycle);
                     
                     // FIXED: Pass address to PendingResult for cache fill at write-back
-                    pendingResults.add(new PendingResult(loadEntry.tag, loadEntry.result, true, addr));
+                    pendingResults.add(new PendingResult(loadEntry.tag, loadEntry.result, true, fillAddress));
                     // Mark as completed but don't remove - entry stays in buffer until write-back
                     loadEntry.completedExecution = true;
                 }
@@ -411,11 +659,16 @@ public class SimulatorState {
         for (StoreBuffer.StoreEntry storeEntry : storeBuffer.getBuffer()) {
             if (storeEntry.executing && !storeEntry.completedExecution) {
                 storeEntry.remainingCycles--;
+                if (storeEntry.memoryRequest != null) {
+                    if (!storeEntry.memoryRequest.isScheduled()) continue;
+                    storeEntry.remainingCycles += storeEntry.memoryRequest.getLatency();
+                    storeEntry.memoryRequest = null;
+                }
                 
                 // FIXED: Check <= 0 to handle edge cases
                 if (storeEntry.remainingCycles <= 0) {
                     int addr = storeEntry.computeAddress();
-                    System.out.println("[StoreBuffer] " + storeEntry.tag + " COMPLETED");
+                    SimLog.println("[StoreBuffer] " + storeEntry.tag + " COMPLETED");
                     markInstructionExecEnd(storeEntry.tag, currentCycle);
                     
                     // FIXED: Pass address to PendingResult for cache update at write-back
@@ -425,29 +678,40 @@ public class SimulatorState {
                 }
             }
         }
+        // Replay speculative loads that an older store now turns out to conflict with
+        if (speculativeLoads) {
+            checkMemoryOrderViolations(currentCycle);
+        }
+        
      // In Phase 7: Start NEW load operations that are ready
         for (LoadBuffer.LoadEntry loadEntry : loadBuffer.getBuffer()) {
             if (!loadEntry.executing && !loadEntry.completedExecution && loadEntry.isReadyForDispatch(currentCycle)) {
+                if ((storeForwarding || speculativeLoads) && orderLoadAgainstStores(loadEntry, currentCycle)) {
+                    continue;
+                }
                 loadEntry.executing = true;
                 int addr = loadEntry.computeAddress();
+                recordMemoryAddress(loadEntry.tag, addr);
 
+                int translation = mmu != null ? mmu.translate(addr) : 0;
                 Cache.CacheAccessResult result = cache.access(addr, memory);
                 
                 // FIXED: Load total latency = loadLatency + cache latency (either hitLatency or missPenalty)
-                int totalLatency = loadLatency + result.latency;
+                int totalLatency = loadLatency + translation + result.latency;
                 
                 // The start cycle counts as the first cycle of execution.
                 loadEntry.remainingCycles = Math.max(0, totalLatency - 1);
+                loadEntry.memoryRequest = result.memoryRequest;
                 loadEntry.result = loadFromMemory(loadEntry.instruction, addr);
-                System.out.println("[LoadBuffer] " + loadEntry.tag + " LOADING from address " + addr +
+                SimLog.println("[LoadBuffer] " + loadEntry.tag + " LOADING from address " + addr +
                                  " (cache=" + (result.hit ? "HIT" : "MISS") + 
                                  ", totalLatency=" + totalLatency + 
                                  " cycles, remainingCycles=" + loadEntry.remainingCycles + ")");
                 markInstructionExecStart(loadEntry.tag, currentCycle);
                 
                 // FIXED: Handle latency 1 case - complete immediately in same cycle
-                if (loadEntry.remainingCycles == 0) {
-                    System.out.println("[LoadBuffer] " + loadEntry.tag + " COMPLETED (latency 1) with value " + loadEntry.result);
+                if (loadEntry.remainingCycles == 0 && loadEntry.memoryRequest == null) {
+                    SimLog.println("[LoadBuffer] " + loadEntry.tag + " COMPLETED (latency 1) with value " + loadEntry.result);
                     markInstructionExecEnd(loadEntry.tag, currentCycle);
                     pendingResults.add(new PendingResult(loadEntry.tag, loadEntry.result, true, addr));
                     // Mark as completed but don't remove - entry stays in buffer until write-back
@@ -460,28 +724,34 @@ public class SimulatorState {
             if (!storeEntry.executing && !storeEntry.completedExecution && storeEntry.isReadyForDispatch(currentCycle)) {
                 // Check for address conflicts with pending loads
                 if (hasAddressConflict(storeEntry)) {
-                    System.out.println("[StoreBuffer] " + storeEntry.tag + " BLOCKED due to address conflict with pending load");
+                    SimLog.println("[StoreBuffer] " + storeEntry.tag + " BLOCKED due to address conflict with pending load");
                     continue; // Don't issue this store yet
                 }
                 
                 storeEntry.executing = true;
                 int addr = storeEntry.computeAddress();
+                recordMemoryAddress(storeEntry.tag, addr);
 
-                Cache.CacheAccessResult result = cache.access(addr, memory);
+                int translation = mmu != null ? mmu.translate(addr) : 0;
+                Cache.CacheAccessResult result = cache.access(addr, memory, true);
                 // FIXED: Store total latency = storeLatency + cache latency
-                int totalLatency = storeLatency + result.latency;
+                int totalLatency = storeLatency + translation + result.latency;
                 storeEntry.remainingCycles = Math.max(0, totalLatency - 1);
+                storeEntry.memoryRequest = result.memoryRequest;
                 storeToMemory(storeEntry.instruction, addr, storeEntry.storeValue);
+                if (cosim != null) {
+                    cosim.onStore(storeEntry.tag, addr, storeEntry.storeValue, currentCycle);
+                }
                 
-                System.out.println("[StoreBuffer] " + storeEntry.tag + " STORING " + storeEntry.storeValue +
+                SimLog.println("[StoreBuffer] " + storeEntry.tag + " STORING " + storeEntry.storeValue +
                                  " to address " + addr + " (cache=" + (result.hit ? "HIT" : "MISS") +
                                  ", totalLatency=" + totalLatency + 
                                  ", remainingCycles=" + storeEntry.remainingCycles + ")");
                 markInstructionExecStart(storeEntry.tag, currentCycle);
                 
                 // FIXED: Handle latency 1 case - complete immediately in same cycle
-                if (storeEntry.remainingCycles == 0) {
-                    System.out.println("[StoreBuffer] " + storeEntry.tag + " COMPLETED (latency 1)");
+                if (storeEntry.remainingCycles == 0 && storeEntry.memoryRequest == null) {
+                    SimLog.println("[StoreBuffer] " + storeEntry.tag + " COMPLETED (latency 1)");
                     markInstructionExecEnd(storeEntry.tag, currentCycle);
                     pendingResults.add(new PendingResult(storeEntry.tag, storeEntry.storeValue, false, addr));
                     // Mark as completed but don't remove - entry stays in buffer until write-back
@@ -490,55 +760,140 @@ public class SimulatorState {
             }
         }
         
+        // Phase 8b: Start ready vector instructions and finish those whose last element is done
+        for (VectorUnit.VectorEntry vectorEntry : vectorUnit.start(currentCycle, memory, cache)) {
+            markInstructionExecStart(vectorEntry.tag, currentCycle);
+        }
+        for (VectorUnit.VectorEntry vectorEntry : vectorUnit.finish(currentCycle)) {
+            markInstructionExecEnd(vectorEntry.tag, vectorEntry.endCycle);
+        }
+        
         // Phase 9: Resolve branches
-        branchUnit.tryResolve(currentCycle);
+        for (HardwareThread thread : threads) {
+            resolveBranch(thread, currentCycle);
+        }
+        
+        // Phase 10: Issue new instruction from the thread chosen by the fetch policy
+        boolean issued = false;
+        stallThisCycle = null;
+        for (HardwareThread thread : draining ? Collections.<HardwareThread>emptyList() : fetchOrder()) {
+            if (tryIssue(thread, currentCycle)) {
+                issued = true;
+                break;
+            }
+        }
+        IssueStall stall = issued ? null : stallThisCycle;
+        issueStallCycles = stall == null ? 0 : stall == issueStall ? issueStallCycles + 1 : 1;
+        issueStall = stall;
+        
+        if (physicalRegs != null) physicalRegs.sample();
+        energy.count(EnergyModel.Event.LEAKAGE);
+        // DRAM schedules the requests made this cycle; their latency shows up from the next cycle
+        if (dram != null) dram.tick(currentCycle);
+        
+        // Advance clock
+        clock.nextCycle();
+        furthestCycle = Math.max(furthestCycle, clock.getCycle());
+        breakpointHit = breakpointSet != null ? breakpointSet.check() : null;
+        if (breakpointHit != null) {
+            SimLog.println("[Breakpoint] Hit '" + breakpointHit + "' at cycle " + clock.getCycle());
+        }
+        
+        debug("=== END CYCLE " + currentCycle + " ===");
+        debug("pendingResults at end: " + pendingResults.size());
+        for (PendingResult pr : pendingResults) {
+            debug("  - " + pr.tag + " (broadcast=" + pr.broadcast + ", address=" + pr.memoryAddress + ")");
+        }
+        
+        // Print status
+        printStatus();
+        
+        return issued;
+    }
+    
+    /** Record why a thread could not issue; the first thread tried this cycle decides. */
+    private void noteStall(IssueStall reason) {
+        if (stallThisCycle == null) stallThisCycle = reason;
+    }
+    
+    /**
+     * Threads that still have instructions to issue, in the order the fetch policy tries them.
+     * A thread that cannot issue this cycle (branch stall, full stations) yields to the next.
+     */
+    private List<HardwareThread> fetchOrder() {
+        List<HardwareThread> order = new ArrayList<>();
+        for (int i = 0; i < threads.size(); i++) {
+            HardwareThread thread = threads.get((nextFetchThread + i) % threads.size());
+            if (thread.issueUnit.hasNext()) {
+                order.add(thread);
+            }
+        }
+        if (fetchPolicy == FetchPolicy.ICOUNT) {
+            // Stable sort keeps the round-robin order among threads with equal counts
+            order.sort(Comparator.comparingInt(thread -> thread.inFlight));
+        }
+        return order;
+    }
+    
+    /**
+     * Advance the branch held by {@code thread}'s branch unit; on a taken branch, redirect
+     * that thread's issue PC.
+     */
+    private void resolveBranch(HardwareThread thread, int currentCycle) {
+        thread.branchUnit.tryResolve(currentCycle);
         
         // Mark branch exec start when execution begins (operands ready, latency countdown starts)
-        if (activeBranchTag != null && branchUnit.getExecutionStartCycle() >= 0) {
-            int execStartCycle = branchUnit.getExecutionStartCycle();
+        if (thread.activeBranchTag != null && thread.branchUnit.getExecutionStartCycle() >= 0) {
+            int execStartCycle = thread.branchUnit.getExecutionStartCycle();
             // Check if we haven't already marked exec start for this branch
             for (InstructionStatus status : instructionStatuses) {
-                if (status.tag != null && status.tag.equals(activeBranchTag) && status.execStartCycle == -1) {
-                    markInstructionExecStart(activeBranchTag, execStartCycle);
+                if (status.tag != null && status.tag.equals(thread.activeBranchTag) && status.execStartCycle == -1) {
+                    markInstructionExecStart(thread.activeBranchTag, execStartCycle);
                     break;
                 }
             }
         }
         
-        if (branchUnit.hasResolvedBranch()) {
-            if (activeBranchTag != null) {
-                markInstructionExecEnd(activeBranchTag, currentCycle);
+        if (thread.branchUnit.hasResolvedBranch()) {
+            if (thread.activeBranchTag != null) {
+                markInstructionExecEnd(thread.activeBranchTag, currentCycle);
                 // FIXED: Write-back should happen the cycle AFTER execution ends
                 // Add branch result to pendingResults for write-back in next cycle
-                pendingResults.add(new PendingResult(activeBranchTag, 0.0, false, null));
-                // NOTE: activeBranchTag is NOT cleared here - it will be cleared when the branch writes back
+                pendingResults.add(new PendingResult(thread.activeBranchTag, 0.0, false, null));
+                // NOTE: thread.activeBranchTag is NOT cleared here - it will be cleared when the branch writes back
                 // This ensures subsequent instructions are stalled until branch write-back
             }
-            if (branchUnit.shouldFlushQueue()) {
-                int targetPc = branchUnit.getResolvedTargetPc();
-                int currentPc = issueUnit.getPc();
-                System.out.println("[Branch] Taking branch to PC=" + targetPc);
+            if (thread.branchUnit.shouldFlushQueue()) {
+                int targetPc = thread.branchUnit.getResolvedTargetPc();
+                int currentPc = thread.issueUnit.getPc();
+                SimLog.println("[Branch] Taking branch to PC=" + targetPc);
                 
                 // Detect backward branch (loop) - this means we're starting a new iteration
                 if (targetPc < currentPc) {
-                    System.out.println("[Branch] Backward branch detected - starting new loop iteration");
+                    SimLog.println("[Branch] Backward branch detected - starting new loop iteration");
                     // Create new InstructionStatus entries for all instructions in the loop range
                     for (int i = targetPc; i < currentPc; i++) {
                         int newIteration = iterationCountByIndex.getOrDefault(i, 1) + 1;
                         iterationCountByIndex.put(i, newIteration);
                         InstructionStatus newStatus = new InstructionStatus(i, newIteration);
                         instructionStatuses.add(newStatus);
-                        System.out.println("[Branch] Created new status for instruction " + i + " iteration " + newIteration);
+                        changes.markStatusRow(instructionStatuses.size() - 1);
+                        SimLog.println("[Branch] Created new status for instruction " + i + " iteration " + newIteration);
                     }
                 }
                 
-                issueUnit.jumpTo(targetPc);
+                thread.issueUnit.jumpTo(targetPc);
             }
-            branchUnit.clear();
+            thread.branchUnit.clear();
         }
-        
-        // Phase 10: Issue new instruction
-        int prevPc = issueUnit.getPc();
+    }
+    
+    /**
+     * Try to issue the next instruction of {@code thread}.
+     * @return true if an instruction was issued
+     */
+    private boolean tryIssue(HardwareThread thread, int currentCycle) {
+        int prevPc = thread.issueUnit.getPc();
         boolean issued = false;
         String assignedTag = null;
         HazardSnapshot hazardSnapshot = null;
@@ -546,11 +901,20 @@ public class SimulatorState {
         // Check if a branch is pending write-back - if so, stall all subsequent instructions
         // According to Tomasulo's algorithm without branch prediction, instructions following
         // a branch must wait until the branch writes back before they can be issued
-        if (activeBranchTag != null) {
-            debug("Branch stall: " + activeBranchTag + " pending write-back, cannot issue next instruction");
-            System.out.println("[Issue] STALLED - Branch " + activeBranchTag + " pending write-back");
-        } else if (issueUnit.hasNext()) {
-            Instruction instr = program.get(issueUnit.getPc());
+        if (thread.activeBranchTag != null) {
+            debug("Branch stall: " + thread.activeBranchTag + " pending write-back, cannot issue next instruction");
+            SimLog.println("[Issue] STALLED - Branch " + thread.activeBranchTag + " pending write-back");
+            noteStall(IssueStall.BRANCH);
+        } else if (thread.issueUnit.hasNext() && needsPhysicalRegister(program.get(thread.issueUnit.getPc()))
+                   && !physicalRegs.hasFree()) {
+            registerFreeStalls++;
+            noteStall(IssueStall.PHYSICAL_REGISTER);
+            SimLog.println("[Issue] STALLED - No free physical register for " + program.get(thread.issueUnit.getPc()).getOpcode());
+        } else if (thread.issueUnit.hasNext()) {
+            Instruction instr = program.get(thread.issueUnit.getPc());
+            // Producers the sources wait on, read before this instruction renames its destination
+            int[] producers = criticalPath != null ? producerStatusIndices(instr) : null;
+            int structuralBefore = structuralHazards;
             
             boolean canIssue = false;
             switch (instr.getType()) {
@@ -561,7 +925,7 @@ public class SimulatorState {
                         hazardSnapshot = detectHazards(instr);
                         rs.accept(instr, null);
                         assignedTag = rs.getLastAllocatedTag();
-                        System.out.println("[Issue] Issued to RS: " + instr.getOpcode() + " -> " + assignedTag);
+                        SimLog.println("[Issue] Issued to RS: " + instr.getOpcode() + " -> " + assignedTag);
                         debug("Instruction issued: " + instr.getOpcode() + " tag=" + assignedTag);
                     } else {
                         structuralHazards++;
@@ -574,12 +938,16 @@ public class SimulatorState {
                         // Check for memory address conflict with pending operations
                         if (hasMemoryAddressConflictAtIssue(instr)) {
                             canIssue = false;
-                            System.out.println("[Issue] STALLED - Memory address conflict for " + instr.getOpcode());
+                            SimLog.println("[Issue] STALLED - Memory address conflict for " + instr.getOpcode());
                         } else {
                             hazardSnapshot = detectHazards(instr);
                             loadBuffer.accept(instr);
                             assignedTag = loadBuffer.getLastAllocatedTag();
-                            System.out.println("[Issue] Issued to Load Buffer: " + instr.getOpcode() + " -> " + assignedTag);
+                            LoadBuffer.LoadEntry newLoad = loadBuffer.findEntryByTag(assignedTag);
+                            newLoad.seq = ++memoryOpSeq;
+                            newLoad.pc = prevPc;
+                            lsq.add(newLoad);
+                            SimLog.println("[Issue] Issued to Load Buffer: " + instr.getOpcode() + " -> " + assignedTag);
                         }
                     } else {
                         structuralHazards++;
@@ -592,12 +960,16 @@ public class SimulatorState {
                         // Check for memory address conflict with pending operations
                         if (hasMemoryAddressConflictAtIssue(instr)) {
                             canIssue = false;
-                            System.out.println("[Issue] STALLED - Memory address conflict for " + instr.getOpcode());
+                            SimLog.println("[Issue] STALLED - Memory address conflict for " + instr.getOpcode());
                         } else {
                             hazardSnapshot = detectHazards(instr);
                             storeBuffer.accept(instr);
                             assignedTag = storeBuffer.getLastAllocatedTag();
-                            System.out.println("[Issue] Issued to Store Buffer: " + instr.getOpcode() + " -> " + assignedTag);
+                            StoreBuffer.StoreEntry newStore = storeBuffer.findEntryByTag(assignedTag);
+                            newStore.seq = ++memoryOpSeq;
+                            newStore.pc = prevPc;
+                            lsq.add(newStore);
+                            SimLog.println("[Issue] Issued to Store Buffer: " + instr.getOpcode() + " -> " + assignedTag);
                         }
                     } else {
                         structuralHazards++;
@@ -605,24 +977,55 @@ public class SimulatorState {
                     break;
                     
                 case BRANCH:
-                    canIssue = branchUnit.isFree();
+                    canIssue = thread.branchUnit.isFree();
                     if (canIssue) {
                         hazardSnapshot = detectHazards(instr);
-                        branchUnit.accept(instr, null);
+                        thread.branchUnit.accept(instr, null);
                         assignedTag = "BR" + (++branchTagCounter);
-                        activeBranchTag = assignedTag;
+                        thread.activeBranchTag = assignedTag;
                         // Note: Don't mark exec start here - it will be marked when branch resolution begins
-                        System.out.println("[Issue] Issued to Branch Unit: " + instr.getOpcode());
+                        SimLog.println("[Issue] Issued to Branch Unit: " + instr.getOpcode());
+                    } else {
+                        structuralHazards++;
+                    }
+                    break;
+                case VECTOR_ALU:
+                case VECTOR_LOAD:
+                case VECTOR_STORE:
+                    canIssue = vectorUnit.hasFree();
+                    if (canIssue) {
+                        // Scalar and vector memory ops are not disambiguated against each other
+                        if (instr.getType() != InstructionType.VECTOR_ALU && lsq.size() > 0) {
+                            canIssue = false;
+                            SimLog.println("[Issue] STALLED - " + instr.getOpcode() + " waits for scalar memory ops to drain");
+                        } else {
+                            hazardSnapshot = detectHazards(instr);
+                            vectorUnit.accept(instr);
+                            assignedTag = vectorUnit.getLastAllocatedTag();
+                            SimLog.println("[Issue] Issued to Vector Unit: " + instr.getOpcode() + " -> " + assignedTag);
+                        }
                     } else {
                         structuralHazards++;
                     }
                     break;
                 case UNKNOWN:
                 default:
-                    System.out.println("[Issue] Unsupported instruction type: " + instr.getOpcode());
+                    SimLog.println("[Issue] Unsupported instruction type: " + instr.getOpcode());
                     break;
             }
             
+            if (structuralHazards > structuralBefore) {
+                noteStall(IssueStall.STRUCTURAL);
+            } else if (!canIssue && instr.getType() != InstructionType.UNKNOWN) {
+                noteStall(IssueStall.MEMORY_ORDER);
+            }
+            if (criticalPath != null && structuralHazards > structuralBefore) {
+                criticalPath.onStructuralStall(thread.id);
+            } else if (criticalPath != null && !canIssue && instr.getType() != InstructionType.UNKNOWN) {
+                // The only other refusals are address conflicts at issue and vectors waiting for the LSQ
+                criticalPath.onMemoryStall(thread.id);
+            }
+            
             if (canIssue) {
                 instr.setIssueCycle(currentCycle);
                 // Find the correct status entry for the current iteration
@@ -634,12 +1037,20 @@ public class SimulatorState {
                     // Store mapping from tag to status index for later lookup
                     int statusIndex = instructionStatuses.indexOf(currentStatus);
                     tagToStatusIndex.put(assignedTag, statusIndex);
+                    changes.markStatusRow(statusIndex);
+                    if (criticalPath != null) {
+                        criticalPath.onIssue(statusIndex, thread.id, assignedTag, instr, producers);
+                    }
                     debug("Stored tag " + assignedTag + " for instruction at index " + prevPc + " iteration " + currentIteration);
                 } else {
                     debug("WARNING: Could not find status for instruction " + prevPc + " iteration " + currentIteration);
                 }
-                issueUnit.jumpTo(prevPc + 1);
+                if (needsPhysicalRegister(instr)) {
+                    physicalRegs.rename(instr.getDest(), assignedTag);
+                }
+                thread.issueUnit.jumpTo(prevPc + 1);
                 recordInstructionMix(instr);
+                recordIssueEnergy(instr);
                 if (hazardSnapshot != null) {
                     if (hazardSnapshot.raw) rawHazards++;
                     if (hazardSnapshot.war) warHazards++;
@@ -648,24 +1059,18 @@ public class SimulatorState {
                 trackIssuedInstruction(instr, assignedTag);
                 issued = true;
                 lastIssuedIndex = prevPc;
-                System.out.println("[Issue] PC advanced from " + prevPc + " to " + issueUnit.getPc());
+                thread.issued++;
+                if (cosim != null) {
+                    cosim.onIssue(assignedTag, prevPc, currentCycle);
+                }
+                thread.inFlight++;
+                tagToThread.put(assignedTag, thread);
+                nextFetchThread = (thread.id + 1) % threads.size();
+                SimLog.println("[Issue] PC advanced from " + prevPc + " to " + thread.issueUnit.getPc());
             } else {
-                System.out.println("[Issue] STALLED - No free resources for " + instr.getOpcode());
+                SimLog.println("[Issue] STALLED - No free resources for " + instr.getOpcode());
             }
         }
-        
-        // Advance clock
-        SimulationClock.nextCycle();
-        
-        debug("=== END CYCLE " + currentCycle + " ===");
-        debug("pendingResults at end: " + pendingResults.size());
-        for (PendingResult pr : pendingResults) {
-            debug("  - " + pr.tag + " (broadcast=" + pr.broadcast + ", address=" + pr.memoryAddress + ")");
-        }
-        
-        // Print status
-        printStatus();
-        
         return issued;
     }
     
@@ -688,10 +1093,20 @@ public class SimulatorState {
         
         switch (instr.getType()) {
             case ALU_INT:
+                if (opcode.contains("DIV")) {
+                    debug("INT DIV latency = " + intDivLatency);
+                    return intDivLatency;
+                } else if (opcode.contains("MUL")) {
+                    debug("INT MUL latency = " + intMulLatency);
+                    return intMulLatency;
+                }
                 debug("ALU_INT latency = " + intLatency);
                 return intLatency;
             case ALU_FP:
-                if (opcode.contains("ADD") || opcode.contains("SUB")) {
+                if (ALU.isFused(opcode)) {
+                    debug("FMA latency = " + fmaLatency);
+                    return fmaLatency;
+                } else if (opcode.contains("ADD") || opcode.contains("SUB")) {
                     debug("FP ADD/SUB latency = " + fpAddLatency);
                     return fpAddLatency;
                 } else if (opcode.contains("MUL")) {
@@ -730,7 +1145,11 @@ public class SimulatorState {
                 String op = entry.getOpcode().toUpperCase();
                 debug("Operands: vj=" + vj + ", vk=" + vk);
                 
-                if (op.contains("ADD")) {
+                if (ALU.isFused(op) && entry.getVl() != null) {
+                    double result = ALU.compute(op, vj, vk, Double.parseDouble(entry.getVl().toString()));
+                    debug("FMA result: " + result);
+                    return result;
+                } else if (op.contains("ADD")) {
                     double result = vj + vk;
                     debug("ADD result: " + result);
                     return result;
@@ -738,6 +1157,10 @@ public class SimulatorState {
                     double result = vj - vk;
                     debug("SUB result: " + result);
                     return result;
+                } else if (op.contains("MUL") || op.contains("DIV")) {
+                    double result = ALU.compute(op, vj, vk);
+                    debug("MUL/DIV result: " + result);
+                    return result;
                 }
             } catch (NumberFormatException e) {
                 debug("Number format error: " + e.getMessage());
@@ -767,20 +1190,216 @@ public class SimulatorState {
         
         int storeAddress = storeEntry.computeAddress();
         
-        // Check all load buffer entries
+        // Younger loads read the store's value (forwarded or from memory); only older ones must go first
+        if (lsq.hasOlderIncompleteLoadAt(storeAddress, storeEntry.seq)) {
+            SimLog.println("[SimulatorState] Address conflict detected: " + 
+                             storeEntry.tag + " blocked by an older load at address " + storeAddress);
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Order a ready load against the older stores in the store buffer when store
+     * forwarding or speculative loads are enabled (loads no longer stall at issue
+     * behind stores).
+     * 
+     * An older store whose address is still unknown makes the load wait, unless
+     * speculation is on and the store-set predictor does not tie the two together;
+     * the store is then recorded as bypassed and checked once its address resolves.
+     * Among the older stores with known addresses, the youngest that overlaps the load decides:
+     * - same address and kind with its value ready (forwarding only): the value is taken
+     *   from the store buffer after {@code forwardingLatency} cycles, without a cache access
+     * - already executing: memory holds its value, so the load reads the cache as usual
+     * - otherwise the load waits
+     * 
+     * @return true if the load was started from a forwarded value or must wait this cycle,
+     *         false if it should read memory normally
+     */
+    private boolean orderLoadAgainstStores(LoadBuffer.LoadEntry loadEntry, int currentCycle) {
+        int loadAddress = loadEntry.computeAddress();
+        int loadWidth = memoryAccessWidth(loadEntry.instruction);
+        StoreBuffer.StoreEntry youngestOverlap = null;
+        List<String> bypassed = new ArrayList<>();
+        
+        for (LoadStoreQueue.Entry pending : lsq.getUnresolvedStores()) {
+            if (pending.seq > loadEntry.seq) {
+                break; // Oldest first, so the rest are younger too
+            }
+            if (speculativeLoads && !storeSets.predictsDependence(loadEntry.pc, pending.store.pc)) {
+                bypassed.add(pending.tag);
+                continue;
+            }
+            if (speculativeLoads && !loadEntry.predictedWait) {
+                loadEntry.predictedWait = true;
+                predictedDependences++;
+            }
+            SimLog.println("[LoadBuffer] " + loadEntry.tag + " WAITING - older " + pending.tag + " address unknown");
+            return true;
+        }
+        
+        // A store overlapping the load starts at most 7 bytes below it (doubles are the widest access)
+        for (int address = loadAddress - 7; address < loadAddress + loadWidth; address++) {
+            for (LoadStoreQueue.Entry pending : lsq.getStoresAt(address)) {
+                StoreBuffer.StoreEntry storeEntry = pending.store;
+                if (storeEntry.seq > loadEntry.seq) {
+                    break;
+                }
+                boolean overlaps = address + memoryAccessWidth(storeEntry.instruction) > loadAddress;
+                if (overlaps && (youngestOverlap == null || storeEntry.seq > youngestOverlap.seq)) {
+                    youngestOverlap = storeEntry;
+                }
+            }
+        }
+        
+        boolean canForward = false;
+        if (youngestOverlap != null) {
+            canForward = storeForwarding
+                    && youngestOverlap.storeReady
+                    && youngestOverlap.computeAddress() == loadAddress
+                    && memoryAccessKind(youngestOverlap.instruction) == memoryAccessKind(loadEntry.instruction);
+            if (!canForward && !youngestOverlap.executing && !youngestOverlap.completedExecution) {
+                SimLog.println("[LoadBuffer] " + loadEntry.tag + " WAITING - older " + youngestOverlap.tag +
+                                 " to address " + youngestOverlap.computeAddress() + " has not written memory");
+                return true;
+            }
+            // Either way the value comes from this store
+            loadEntry.sourceSeq = youngestOverlap.seq;
+        } else {
+            loadEntry.sourceSeq = 0;
+        }
+        
+        if (!bypassed.isEmpty()) {
+            loadEntry.bypassedStores.addAll(bypassed);
+            speculativeLoadCount++;
+            SimLog.println("[LoadBuffer] " + loadEntry.tag + " SPECULATING past " + bypassed);
+        }
+        
+        if (canForward) {
+            return forwardFromStore(loadEntry, youngestOverlap, currentCycle);
+        }
+        return false;
+    }
+    
+    /**
+     * A speculative load may not write back while any store it bypassed is unresolved,
+     * so a misspeculated value never reaches the CDB.
+     */
+    private boolean isHeldSpeculativeLoad(String tag) {
+        if (!speculativeLoads || !tag.startsWith("LOAD")) {
+            return false;
+        }
+        LoadBuffer.LoadEntry entry = loadBuffer.findEntryByTag(tag);
+        return entry != null && !entry.bypassedStores.isEmpty();
+    }
+    
+    /**
+     * Compare each speculative load against the bypassed stores whose addresses have
+     * resolved. A store that overlaps the load and is younger than the value's source
+     * means the load read stale data: the predictor is trained and the load is replayed.
+     */
+    private void checkMemoryOrderViolations(int currentCycle) {
         for (LoadBuffer.LoadEntry loadEntry : loadBuffer.getBuffer()) {
-            if (loadEntry.baseReady) {
+            Iterator<String> it = loadEntry.bypassedStores.iterator();
+            while (it.hasNext()) {
+                StoreBuffer.StoreEntry storeEntry = storeBuffer.findEntryByTag(it.next());
+                if (storeEntry == null) {
+                    it.remove();
+                    continue;
+                }
+                if (!storeEntry.baseReady) {
+                    continue;
+                }
+                it.remove();
+                
                 int loadAddress = loadEntry.computeAddress();
-                // If addresses match and load hasn't completed execution (not written back yet)
-                if (loadAddress == storeAddress && !loadEntry.completedExecution) {
-                    System.out.println("[SimulatorState] Address conflict detected: " + 
-                                     storeEntry.tag + " blocked by " + loadEntry.tag + 
-                                     " at address " + storeAddress);
-                    return true;
+                int storeAddress = storeEntry.computeAddress();
+                boolean overlaps = storeAddress < loadAddress + memoryAccessWidth(loadEntry.instruction)
+                        && loadAddress < storeAddress + memoryAccessWidth(storeEntry.instruction);
+                if (overlaps && storeEntry.seq > loadEntry.sourceSeq) {
+                    replayLoad(loadEntry, storeEntry, currentCycle);
+                    break;
                 }
             }
         }
-        return false;
+    }
+    
+    private void replayLoad(LoadBuffer.LoadEntry loadEntry, StoreBuffer.StoreEntry storeEntry, int currentCycle) {
+        memoryOrderViolations++;
+        storeSets.recordViolation(loadEntry.pc, storeEntry.pc);
+        SimLog.println("[LoadBuffer] " + loadEntry.tag + " VIOLATION with " + storeEntry.tag +
+                         " at address " + storeEntry.computeAddress() + " - replay in " + replayPenalty + " cycles");
+        
+        pendingResults.removeIf(pr -> pr.tag.equals(loadEntry.tag));
+        loadEntry.executing = false;
+        loadEntry.completedExecution = false;
+        loadEntry.forwarded = false;
+        loadEntry.remainingCycles = 0;
+        loadEntry.memoryRequest = null;
+        loadEntry.bypassedStores.clear();
+        // isReadyForDispatch waits until currentCycle > readyCycle
+        loadEntry.readyCycle = currentCycle + replayPenalty - 1;
+        changes.markLoadEntry(loadEntry.tag);
+        
+        int index = findStatusIndexByTag(loadEntry.tag);
+        if (index >= 0) {
+            instructionStatuses.get(index).execStartCycle = -1;
+            instructionStatuses.get(index).execEndCycle = -1;
+            changes.markStatusRow(index);
+        }
+    }
+    
+    private boolean forwardFromStore(LoadBuffer.LoadEntry loadEntry, StoreBuffer.StoreEntry storeEntry, int currentCycle) {
+        loadEntry.executing = true;
+        loadEntry.forwarded = true;
+        loadEntry.result = storedRepresentation(storeEntry.instruction, storeEntry.storeValue);
+        loadEntry.remainingCycles = Math.max(0, forwardingLatency - 1);
+        forwardedLoads++;
+        changes.markLoadEntry(loadEntry.tag);
+        SimLog.println("[LoadBuffer] " + loadEntry.tag + " FORWARDED " + loadEntry.result + " from " + storeEntry.tag +
+                         " (latency=" + forwardingLatency + ")");
+        markInstructionExecStart(loadEntry.tag, currentCycle);
+        
+        if (loadEntry.remainingCycles == 0) {
+            SimLog.println("[LoadBuffer] " + loadEntry.tag + " COMPLETED (forwarded) with value " + loadEntry.result);
+            markInstructionExecEnd(loadEntry.tag, currentCycle);
+            pendingResults.add(new PendingResult(loadEntry.tag, loadEntry.result, true, null));
+            loadEntry.completedExecution = true;
+        }
+        return true;
+    }
+    
+    /** Bytes touched by a load or store. */
+    private int memoryAccessWidth(Instruction instr) {
+        char kind = memoryAccessKind(instr);
+        return kind == 'D' ? 8 : 4;
+    }
+    
+    /** 'W' for integer words, 'S' for single floats, 'D' for doubles. */
+    private char memoryAccessKind(Instruction instr) {
+        String op = instr.getOpcode().toUpperCase();
+        switch (op) {
+            case "LW":
+            case "SW":
+                return 'W';
+            case "L.S":
+            case "S.S":
+                return 'S';
+            default:
+                return 'D';
+        }
+    }
+    
+    /** The value a load of the same kind would read back after this store. */
+    private double storedRepresentation(Instruction storeInstr, double value) {
+        switch (memoryAccessKind(storeInstr)) {
+            case 'W':
+                return (int) value;
+            case 'S':
+                return (float) value;
+            default:
+                return value;
+        }
     }
     
     /**
@@ -794,57 +1413,34 @@ public class SimulatorState {
      * @return true if there's a conflict that prevents issue, false otherwise
      */
     private boolean hasMemoryAddressConflictAtIssue(Instruction instr) {
+        if (vectorUnit.hasPendingMemoryOp()) {
+            debug("hasMemoryAddressConflictAtIssue: vector memory op in flight");
+            return true;
+        }
+        
         // Get the base register and offset for the new instruction
         String baseReg = instr.getBase();
         Integer offset = instr.getOffset();
         int newOffset = (offset != null ? offset : 0);
         
+        // With forwarding or speculation, a load never waits on a store at issue; it is ordered at dispatch
+        boolean includeStores = !((storeForwarding || speculativeLoads) && instr.getType() == InstructionType.LOAD);
+        
         // Check if the base register value is available (not waiting for a result)
         String baseProducer = regFile.getProducer(baseReg);
         
         if (baseProducer != null) {
-            // Base register is not ready - we can't compute the exact address yet
-            // However, we should still check for potential conflicts with pending 
-            // memory operations that use the same base register and offset.
-            // If any pending operation has the same base register (waiting on same producer)
-            // and same offset, we conservatively assume a conflict.
+            // Base register is not ready - we can't compute the exact address yet.
+            // Conservatively assume a conflict with any pending memory operation that
+            // uses the same base register and offset.
             debug("hasMemoryAddressConflictAtIssue: base register " + baseReg + " not ready (waiting for " + baseProducer + ")");
             
-            // Check load buffer entries with same base register and offset
-            for (LoadBuffer.LoadEntry loadEntry : loadBuffer.getBuffer()) {
-                Instruction loadInstr = loadEntry.instruction;
-                if (loadInstr.getBase() != null && loadInstr.getBase().equals(baseReg)) {
-                    int loadOffset = (loadInstr.getOffset() != null ? loadInstr.getOffset() : 0);
-                    if (loadOffset == newOffset) {
-                        InstructionStatus loadStatus = findStatusByTag(loadEntry.tag);
-                        boolean hasWrittenBack = (loadStatus != null && loadStatus.writeBackCycle > 0);
-                        if (!hasWrittenBack) {
-                            System.out.println("[Issue] Memory address conflict at issue (same base+offset): " + 
-                                             instr.getOpcode() + " blocked by pending " + loadEntry.tag);
-                            return true;
-                        }
-                    }
-                }
-            }
-            
-            // Check store buffer entries with same base register and offset
-            for (StoreBuffer.StoreEntry storeEntry : storeBuffer.getBuffer()) {
-                Instruction storeInstr = storeEntry.instruction;
-                if (storeInstr.getBase() != null && storeInstr.getBase().equals(baseReg)) {
-                    int storeOffset = (storeInstr.getOffset() != null ? storeInstr.getOffset() : 0);
-                    if (storeOffset == newOffset) {
-                        InstructionStatus storeStatus = findStatusByTag(storeEntry.tag);
-                        boolean hasWrittenBack = (storeStatus != null && storeStatus.writeBackCycle > 0);
-                        if (!hasWrittenBack) {
-                            System.out.println("[Issue] Memory address conflict at issue (same base+offset): " + 
-                                             instr.getOpcode() + " blocked by pending " + storeEntry.tag);
-                            return true;
-                        }
-                    }
-                }
+            LoadStoreQueue.Entry match = lsq.findByBaseOffset(baseReg, newOffset, includeStores);
+            if (match != null) {
+                SimLog.println("[Issue] Memory address conflict at issue (same base+offset): " + 
+                                 instr.getOpcode() + " blocked by pending " + match.tag);
+                return true;
             }
-            
-            // No conflict found with same base+offset
             return false;
         }
         
@@ -854,72 +1450,21 @@ public class SimulatorState {
         
         debug("hasMemoryAddressConflictAtIssue: checking address " + newAddress + " for " + instr.getOpcode());
         
-        // Check all pending LOAD buffer entries that haven't written back yet
-        for (LoadBuffer.LoadEntry loadEntry : loadBuffer.getBuffer()) {
-            // Check if we can compute the load's address
-            if (loadEntry.baseReady) {
-                int loadAddress = loadEntry.computeAddress();
-                
-                // Check if this load entry has written back
-                InstructionStatus loadStatus = findStatusByTag(loadEntry.tag);
-                boolean hasWrittenBack = (loadStatus != null && loadStatus.writeBackCycle > 0);
-                
-                if (loadAddress == newAddress && !hasWrittenBack) {
-                    System.out.println("[Issue] Memory address conflict at issue: " + 
-                                     instr.getOpcode() + " blocked by pending " + loadEntry.tag + 
-                                     " at address " + newAddress);
-                    return true;
-                }
-            } else {
-                // Load's address is not ready - check if it might conflict by base+offset
-                Instruction loadInstr = loadEntry.instruction;
-                if (loadInstr.getBase() != null && loadInstr.getBase().equals(baseReg)) {
-                    int loadOffset = (loadInstr.getOffset() != null ? loadInstr.getOffset() : 0);
-                    if (loadOffset == newOffset) {
-                        InstructionStatus loadStatus = findStatusByTag(loadEntry.tag);
-                        boolean hasWrittenBack = (loadStatus != null && loadStatus.writeBackCycle > 0);
-                        if (!hasWrittenBack) {
-                            System.out.println("[Issue] Memory address conflict at issue (same base+offset): " + 
-                                             instr.getOpcode() + " blocked by pending " + loadEntry.tag);
-                            return true;
-                        }
-                    }
-                }
-            }
+        // Pending operations (not yet written back) whose address is known and equal
+        LoadStoreQueue.Entry match = lsq.findAtAddress(newAddress, includeStores);
+        if (match != null) {
+            SimLog.println("[Issue] Memory address conflict at issue: " + 
+                             instr.getOpcode() + " blocked by pending " + match.tag + 
+                             " at address " + newAddress);
+            return true;
         }
         
-        // Check all pending STORE buffer entries that haven't written back yet
-        for (StoreBuffer.StoreEntry storeEntry : storeBuffer.getBuffer()) {
-            // Check if we can compute the store's address
-            if (storeEntry.baseReady) {
-                int storeAddress = storeEntry.computeAddress();
-                
-                // Check if this store entry has written back
-                InstructionStatus storeStatus = findStatusByTag(storeEntry.tag);
-                boolean hasWrittenBack = (storeStatus != null && storeStatus.writeBackCycle > 0);
-                
-                if (storeAddress == newAddress && !hasWrittenBack) {
-                    System.out.println("[Issue] Memory address conflict at issue: " + 
-                                     instr.getOpcode() + " blocked by pending " + storeEntry.tag + 
-                                     " at address " + newAddress);
-                    return true;
-                }
-            } else {
-                // Store's address is not ready - check if it might conflict by base+offset
-                Instruction storeInstr = storeEntry.instruction;
-                if (storeInstr.getBase() != null && storeInstr.getBase().equals(baseReg)) {
-                    int storeOffset = (storeInstr.getOffset() != null ? storeInstr.getOffset() : 0);
-                    if (storeOffset == newOffset) {
-                        InstructionStatus storeStatus = findStatusByTag(storeEntry.tag);
-                        boolean hasWrittenBack = (storeStatus != null && storeStatus.writeBackCycle > 0);
-                        if (!hasWrittenBack) {
-                            System.out.println("[Issue] Memory address conflict at issue (same base+offset): " + 
-                                             instr.getOpcode() + " blocked by pending " + storeEntry.tag);
-                            return true;
-                        }
-                    }
-                }
-            }
+        // Pending operations whose address is unknown but use the same base+offset
+        match = lsq.findUnresolvedByBaseOffset(baseReg, newOffset, includeStores);
+        if (match != null) {
+            SimLog.println("[Issue] Memory address conflict at issue (same base+offset): " + 
+                             instr.getOpcode() + " blocked by pending " + match.tag);
+            return true;
         }
         
         return false;
@@ -941,25 +1486,34 @@ public class SimulatorState {
      * Find the InstructionStatus by tag using the direct lookup map.
      */
     private InstructionStatus findStatusByTag(String tag) {
-        if (tag == null) return null;
+        int index = findStatusIndexByTag(tag);
+        return index >= 0 ? instructionStatuses.get(index) : null;
+    }
+    
+    /**
+     * Find the row index of the InstructionStatus for a tag, or -1 if there is none.
+     */
+    private int findStatusIndexByTag(String tag) {
+        if (tag == null) return -1;
         Integer index = tagToStatusIndex.get(tag);
         if (index != null && index >= 0 && index < instructionStatuses.size()) {
-            return instructionStatuses.get(index);
+            return index;
         }
         // Fallback to linear search if not in map
-        for (InstructionStatus status : instructionStatuses) {
-            if (tag.equals(status.tag)) {
-                return status;
+        for (int i = 0; i < instructionStatuses.size(); i++) {
+            if (tag.equals(instructionStatuses.get(i).tag)) {
+                return i;
             }
         }
-        return null;
+        return -1;
     }
     
     private void markInstructionExecStart(String tag, int cycle) {
         debug("markInstructionExecStart: tag=" + tag + " cycle=" + cycle);
-        InstructionStatus status = findStatusByTag(tag);
-        if (status != null) {
-            status.execStartCycle = cycle;
+        int index = findStatusIndexByTag(tag);
+        if (index >= 0) {
+            instructionStatuses.get(index).execStartCycle = cycle;
+            changes.markStatusRow(index);
             debug("Found instruction, set execStartCycle=" + cycle);
         } else {
             debug("WARNING: Could not find instruction with tag " + tag);
@@ -968,9 +1522,10 @@ public class SimulatorState {
     
     private void markInstructionExecEnd(String tag, int cycle) {
         debug("markInstructionExecEnd: tag=" + tag + " cycle=" + cycle);
-        InstructionStatus status = findStatusByTag(tag);
-        if (status != null) {
-            status.execEndCycle = cycle;
+        int index = findStatusIndexByTag(tag);
+        if (index >= 0) {
+            instructionStatuses.get(index).execEndCycle = cycle;
+            changes.markStatusRow(index);
             debug("Found instruction, set execEndCycle=" + cycle);
         } else {
             debug("WARNING: Could not find instruction with tag " + tag);
@@ -980,42 +1535,54 @@ public class SimulatorState {
     private void markInstructionWriteBack(String tag, int cycle) {
         debug("markInstructionWriteBack: tag=" + tag + " cycle=" + cycle);
         debug("Looking through " + instructionStatuses.size() + " instruction statuses");
-        InstructionStatus status = findStatusByTag(tag);
-        if (status != null) {
+        int index = findStatusIndexByTag(tag);
+        if (index >= 0) {
+            InstructionStatus status = instructionStatuses.get(index);
+            if (status.writeBackCycle <= 0) {
+                completedInstructions++;
+            }
             status.writeBackCycle = cycle;
+            changes.markStatusRow(index);
+            if (breakpointSet != null) breakpointSet.onWriteBack(tag);
             debug("FOUND! Set writeBackCycle=" + cycle + " for tag " + tag);
         } else {
             debug("WARNING: Could not find instruction with tag " + tag + " for write-back!");
         }
         completeIssuedInstruction(tag);
+        lsq.remove(tag);
         
-        // Clear activeBranchTag when the branch writes back
-        // This allows subsequent instructions to issue in the same cycle
-        if (tag != null && tag.equals(activeBranchTag)) {
-            debug("Clearing activeBranchTag - branch " + tag + " has written back");
-            activeBranchTag = null;
+        HardwareThread thread = tag != null ? tagToThread.remove(tag) : null;
+        if (thread != null) {
+            thread.inFlight--;
+            thread.completed++;
+            // Clear activeBranchTag when the branch writes back
+            // This allows subsequent instructions to issue in the same cycle
+            if (tag.equals(thread.activeBranchTag)) {
+                debug("Clearing activeBranchTag - branch " + tag + " has written back");
+                thread.activeBranchTag = null;
+            }
         }
     }
     
     private void printStatus() {
-        System.out.println("\n--- Current State ---");
-        System.out.println("Reservation Stations: " + rs.getStations().size());
+        SimLog.println("\n--- Current State ---");
+        SimLog.println("Reservation Stations: " + rs.getStations().size());
         for (ReservationStationEntry entry : rs.getStations()) {
-            System.out.println("  " + entry);
+            SimLog.println("  " + entry);
         }
         
-        System.out.println("Load Buffer: " + loadBuffer.getBuffer().size());
+        SimLog.println("Load Buffer: " + loadBuffer.getBuffer().size());
         for (LoadBuffer.LoadEntry entry : loadBuffer.getBuffer()) {
-            System.out.println("  " + entry);
+            SimLog.println("  " + entry);
         }
         
-        System.out.println("Store Buffer: " + storeBuffer.getBuffer().size());
+        SimLog.println("Store Buffer: " + storeBuffer.getBuffer().size());
         for (StoreBuffer.StoreEntry entry : storeBuffer.getBuffer()) {
-            System.out.println("  " + entry);
+            SimLog.println("  " + entry);
         }
         
-        System.out.println("Cache Hits: " + cache.getHits() + ", Misses: " + cache.getMisses());
-        System.out.println("--------------------\n");
+        SimLog.println("Cache Hits: " + cache.getHits() + ", Misses: " + cache.getMisses());
+        SimLog.println("--------------------\n");
     }
 
     private double loadFromMemory(Instruction instr, int address) {
@@ -1050,28 +1617,44 @@ public class SimulatorState {
     }
 
     public void reset() {
-        SimulationClock.reset();
+        clock.reset();
         lastIssuedIndex = -1;
-        if (issueUnit != null) issueUnit.jumpTo(0);
         if (cache != null) cache.clear();
         if (program != null) {
             initializeSimulator();
         }
     }
 
-    public int getCycle() { return SimulationClock.getCycle(); }
+    public int getCycle() { return clock.getCycle(); }
     public Program getProgram() { return program; }
     public int getLastIssuedIndex() { return lastIssuedIndex; }
-    public IssueUnit getIssueUnit() { return issueUnit; }
+    public IssueUnit getIssueUnit() { return threads.isEmpty() ? null : threads.get(0).issueUnit; }
     public RegisterFile getRegFile() { return regFile; }
     public Cache getCache() { return cache; }
     public RealReservationStations getReservationStations() { return rs; }
     public LoadBuffer getLoadBuffer() { return loadBuffer; }
     public StoreBuffer getStoreBuffer() { return storeBuffer; }
     public List<InstructionStatus> getInstructionStatuses() { return instructionStatuses; }
+    public int getCompletedInstructionCount() { return completedInstructions; }
+    public int getCacheSize() { return cacheSize; }
+    
+    /**
+     * Drain the change feed and capture the changed rows into an immutable snapshot.
+     * Callers stepping the simulator on another thread must hold the simulator's monitor.
+     */
+    public SimulatorSnapshot captureSnapshot() {
+        return new SimulatorSnapshot(this, drainChanges());
+    }
+    
+    /**
+     * Return everything that changed since the previous call. The first drain after
+     * (re)initialisation reports a full refresh.
+     */
+    public ChangeTracker.Changes drainChanges() { return changes.drain(); }
     public int getFpAddSize() { return fpAddSize; }
     public int getFpMulSize() { return fpMulSize; }
     public int getIntSize() { return intSize; }
+    public int getIntMulDivSize() { return intMulDivSize; }
     public int getLoadBufferSize() { return loadBufferSize; }
     public int getStoreBufferSize() { return storeBufferSize; }
     
@@ -1124,7 +1707,9 @@ public class SimulatorState {
         initialRegValues = new HashMap<>(values);
         if (regFile != null) {
             regFile.loadInitialValues(initialRegValues);
-            System.out.println("[Init] Loaded initial register values: " + initialRegValues);
+            checkpoints.clear();
+            compileBreakpoints();
+            SimLog.println("[Init] Loaded initial register values: " + initialRegValues);
         }
     }
     
@@ -1132,9 +1717,784 @@ public class SimulatorState {
         initialMemValues = new HashMap<>(values);
         if (memory != null) {
             memory.loadInitialData(initialMemValues);
-            System.out.println("[Init] Loaded initial memory values: " + initialMemValues);
+            checkpoints.clear();
+            compileBreakpoints();
+            SimLog.println("[Init] Loaded initial memory values: " + initialMemValues);
+        }
+    }
+
+    /** Register values the program starts from, as loaded (not the current values). */
+    public Map<String, Double> getInitialRegisterValues() {
+        return Collections.unmodifiableMap(initialRegValues);
+    }
+
+    /** Memory image the program starts from, as loaded (not the current contents). */
+    public Map<Integer, Double> getInitialMemoryValues() {
+        return Collections.unmodifiableMap(initialMemValues);
+    }
+
+    /**
+     * Enable store-to-load forwarding. Loads then issue past older stores and take a
+     * matching store's value from the store buffer after {@code latency} cycles.
+     */
+    public void setStoreForwarding(boolean enabled, int latency) {
+        this.storeForwarding = enabled;
+        this.forwardingLatency = Math.max(1, latency);
+    }
+    
+    public boolean isStoreForwarding() { return storeForwarding; }
+    public int getForwardingLatency() { return forwardingLatency; }
+    public int getForwardedLoadCount() { return forwardedLoads; }
+    
+    /**
+     * Enable speculative memory disambiguation. Loads execute ahead of older stores whose
+     * addresses are unknown unless the store-set predictor links them; a load found to have
+     * read stale data is replayed after {@code penalty} cycles and the predictor is trained.
+     */
+    public void setSpeculativeLoads(boolean enabled, int penalty) {
+        this.speculativeLoads = enabled;
+        this.replayPenalty = Math.max(1, penalty);
+    }
+    
+    public boolean isSpeculativeLoads() { return speculativeLoads; }
+    public int getReplayPenalty() { return replayPenalty; }
+    public StoreSetPredictor getStoreSetPredictor() { return storeSets; }
+    public int getSpeculativeLoadCount() { return speculativeLoadCount; }
+    public int getPredictedDependenceCount() { return predictedDependences; }
+    public int getMemoryOrderViolationCount() { return memoryOrderViolations; }
+    
+    /**
+     * Configure the vector extension: maximum vector length (elements per V register),
+     * elements processed per cycle, and number of vector stations.
+     */
+    public void setVectorConfiguration(int length, int lanes, int stations) {
+        this.vectorLength = Math.max(1, length);
+        this.vectorLanes = Math.max(1, lanes);
+        this.vectorStations = Math.max(1, stations);
+        
+        if (program != null) {
+            initializeSimulator();
+        }
+    }
+    
+    /**
+     * Latency of FMA.D / FMS.D. They share the FP multiplier stations and unit.
+     */
+    public void setFmaLatency(int cycles) {
+        this.fmaLatency = Math.max(1, cycles);
+        
+        if (program != null) {
+            initializeSimulator();
+        }
+    }
+    
+    public int getFmaLatency() { return fmaLatency; }
+    
+    /**
+     * Configure the integer multiply/divide unit (DMUL, DDIV): station count, latencies,
+     * and whether the divider is pipelined. The multiplier is always pipelined.
+     */
+    public void setIntMulDivConfiguration(int stations, int mulLatency, int divLatency, boolean pipelinedDivider) {
+        this.intMulDivSize = Math.max(1, stations);
+        this.intMulLatency = Math.max(1, mulLatency);
+        this.intDivLatency = Math.max(1, divLatency);
+        this.pipelinedIntDivider = pipelinedDivider;
+        
+        if (program != null) {
+            initializeSimulator();
+        }
+    }
+    
+    /**
+     * Model the path between cache and memory as a channel of {@code bytesPerCycle} with at
+     * most {@code maxOutstanding} requests in flight. A miss then costs its queueing delay and
+     * block transfer time on top of the cache miss penalty; disabled, every miss costs the
+     * flat miss penalty.
+     */
+    public void setMemoryChannel(boolean enabled, double bytesPerCycle, int maxOutstanding) {
+        if (enabled && (bytesPerCycle <= 0 || maxOutstanding < 1)) {
+            throw new IllegalArgumentException("Channel needs positive bandwidth and at least one outstanding request");
+        }
+        this.memoryChannelEnabled = enabled;
+        this.channelBytesPerCycle = bytesPerCycle;
+        this.channelMaxOutstanding = maxOutstanding;
+        
+        if (program != null) {
+            initializeSimulator();
+        }
+    }
+    
+    public boolean isMemoryChannelEnabled() { return memoryChannelEnabled; }
+    
+    /**
+     * Time cache misses with a DRAM model (banks, row buffers, FR-FCFS) instead of the flat
+     * miss penalty; null turns it off. DRAM has its own channels, so the simple memory
+     * channel is not used while it is on.
+     */
+    public void setDram(DramController.Config config) {
+        this.dramConfig = config;
+        
+        if (program != null) {
+            initializeSimulator();
+        }
+    }
+    
+    public DramController.Config getDramConfig() { return dramConfig; }
+    
+    /**
+     * Translate every data address through a TLB hierarchy before the cache (null turns
+     * translation off). Pages are identity-mapped, so translation only adds TLB and
+     * page-walk latency. Loads served by store forwarding are not translated.
+     */
+    public void setVirtualMemory(Mmu.Config config) {
+        this.mmuConfig = config;
+        
+        if (program != null) {
+            initializeSimulator();
+        }
+    }
+    
+    public Mmu.Config getVirtualMemoryConfig() { return mmuConfig; }
+    /** Translation state of the current run, or null when off. */
+    public Mmu getMmu() { return mmu; }
+    /** The DRAM of the current run, or null when off. */
+    public DramController getDram() { return dram; }
+    /** The channel of the current run, or null when disabled. */
+    public MemoryChannel getMemoryChannel() { return memoryChannel; }
+    
+    /**
+     * Select the renaming scheme. With {@link RenameScheme#PHYSICAL_REGISTERS}, issue also needs
+     * a free register from a physical file of {@code physicalRegisters} entries (more than the
+     * 64 architectural registers).
+     */
+    public void setRenameScheme(RenameScheme scheme, int physicalRegisters) {
+        if (scheme == RenameScheme.PHYSICAL_REGISTERS && physicalRegisters <= PhysicalRegisterFile.ARCHITECTURAL_REGISTERS) {
+            throw new IllegalArgumentException("Physical register file must have more than " +
+                    PhysicalRegisterFile.ARCHITECTURAL_REGISTERS + " registers");
+        }
+        this.renameScheme = scheme;
+        this.physicalRegisterCount = physicalRegisters;
+        
+        if (program != null) {
+            initializeSimulator();
+        }
+    }
+    
+    public RenameScheme getRenameScheme() { return renameScheme; }
+    public int getPhysicalRegisterCount() { return physicalRegisterCount; }
+    public PhysicalRegisterFile getPhysicalRegisterFile() { return physicalRegs; }
+    public int getRegisterFreeStalls() { return registerFreeStalls; }
+    public int getPeakPhysicalRegistersInUse() { return physicalRegs != null ? physicalRegs.getPeakInUse() : 0; }
+    
+    /**
+     * Select how the issue stage chooses among hardware threads. Threads come from
+     * {@code .thread} sections in the program listing.
+     */
+    public void setSmtFetchPolicy(FetchPolicy policy) {
+        this.fetchPolicy = policy;
+        
+        if (program != null) {
+            initializeSimulator();
+        }
+    }
+    
+    public FetchPolicy getSmtFetchPolicy() { return fetchPolicy; }
+    
+    /**
+     * Run as core {@code coreId} of a multicore: use {@code memory}, this core's
+     * {@link Memory#coreView} of the memory shared with the other cores, and keep this
+     * core's private cache coherent through {@code bus}.
+     */
+    public void attachToMulticore(int coreId, Memory memory, CoherenceBus bus) {
+        this.coreId = coreId;
+        this.sharedMemory = memory;
+        this.coherenceBus = bus;
+        
+        if (program != null) {
+            initializeSimulator();
+        }
+    }
+    
+    /**
+     * Restart detailed simulation from an architectural checkpoint: the given register values,
+     * a copy-on-write view of {@code memory}, the blocks held by a functionally warmed cache
+     * (may be null) and the PC to issue from. Used by sampled simulation after fast-forward.
+     * This replaces what {@link #reset()} starts from; take {@link #saveRunStart()} first to
+     * get the loaded state back.
+     */
+    public void startFrom(Map<String, Double> registers, Memory memory, Cache warmedCache, int pc) {
+        initialRegValues = new HashMap<>(registers);
+        initialMemValues = new HashMap<>();
+        sharedMemory = new Memory(memory);
+        warmStart = null;
+        initializeSimulator();
+        if (warmedCache != null) {
+            cache.copyStateFrom(warmedCache, this.memory);
+        }
+        threads.get(0).issueUnit.jumpTo(pc);
+    }
+    
+    /** What a reset starts from: the loaded registers and memory, or the loaded warm state. */
+    static final class RunStart {
+        private final Map<String, Double> registers;
+        private final Map<Integer, Double> memoryValues;
+        private final Memory sharedMemory;
+        private final WarmState warmStart;
+        
+        private RunStart(Map<String, Double> registers, Map<Integer, Double> memoryValues,
+                         Memory sharedMemory, WarmState warmStart) {
+            this.registers = registers;
+            this.memoryValues = memoryValues;
+            this.sharedMemory = sharedMemory;
+            this.warmStart = warmStart;
+        }
+    }
+    
+    /** Keep the current starting point aside before {@link #startFrom} replaces it. */
+    RunStart saveRunStart() {
+        return new RunStart(initialRegValues, initialMemValues, sharedMemory, warmStart);
+    }
+    
+    /** Put a saved starting point back and reset to its cycle 0. */
+    void restoreRunStart(RunStart start) {
+        initialRegValues = start.registers;
+        initialMemValues = start.memoryValues;
+        sharedMemory = start.sharedMemory;
+        warmStart = start.warmStart;
+        reset();
+    }
+    
+    /**
+     * Check every result against an in-order functional model and stop at the first
+     * divergence (see {@link #getCosimDivergence()}). Not available for SMT programs or
+     * multicore runs, where other threads or cores also change the state.
+     */
+    public void setCosimEnabled(boolean enabled) {
+        this.cosimEnabled = enabled;
+        
+        if (program != null) {
+            initializeSimulator();
+        }
+    }
+    
+    private void startCosim() {
+        if (threads.size() > 1 || coherenceBus != null) {
+            SimLog.println("[Cosim] Not available with several threads or cores; checking disabled");
+            cosimEnabled = false;
+            return;
+        }
+        cosim = new CosimChecker(program, regFile.getAllValues(), memory, vectorRegs,
+                                 threads.get(0).issueUnit.getPc());
+        SimLog.println("[Cosim] Checking against the functional reference");
+    }
+    
+    public boolean isCosimEnabled() { return cosimEnabled; }
+    /** The first disagreement with the reference, or null. */
+    public CosimChecker.Divergence getCosimDivergence() { return cosim != null ? cosim.getDivergence() : null; }
+    public long getCosimCheckedCount() { return cosim != null ? cosim.getCheckedCount() : 0; }
+    
+    /** Per-event costs and clock frequency for {@link #getEnergyReport()}; costs persist across runs. */
+    public EnergyModel getEnergyModel() { return energy; }
+    
+    /** Energy, average power and energy-delay product of the run so far. */
+    public EnergyModel.Report getEnergyReport() {
+        if (cache != null) {
+            energy.setCount(EnergyModel.Event.CACHE_HIT, cache.getHits());
+            energy.setCount(EnergyModel.Event.CACHE_MISS, cache.getMisses());
+            energy.setCount(EnergyModel.Event.CACHE_FILL, cache.getFills());
+            energy.setCount(EnergyModel.Event.MEMORY_ACCESS, cache.getMisses() + cache.getWriteThroughs());
+        }
+        return energy.report(clock.getCycle());
+    }
+    
+    /**
+     * Record producers, structural stalls and memory addresses during the run so that
+     * {@link #analyzeCriticalPath()} can rebuild the dependency graph afterwards.
+     */
+    public void setCriticalPathTracking(boolean enabled) {
+        this.criticalPathTracking = enabled;
+        
+        if (program != null) {
+            initializeSimulator();
+        }
+    }
+    
+    public boolean isCriticalPathTracking() { return criticalPathTracking; }
+    
+    /** Critical path of the run so far; null unless tracking was on. */
+    public CriticalPathAnalyzer.Report analyzeCriticalPath() {
+        return criticalPath != null ? criticalPath.analyze(instructionStatuses, program) : null;
+    }
+    
+    /**
+     * Save the full state every {@code cycles} cycles (0 turns checkpointing off) so that
+     * {@link #goToCycle(int)} and {@link #stepBack()} only replay from the nearest one.
+     * Not available for multicore runs, where memory is shared with the other cores.
+     */
+    public void setCheckpointInterval(int cycles) {
+        this.checkpointInterval = Math.max(0, cycles);
+        
+        if (program != null) {
+            initializeSimulator();
         }
     }
+    
+    public int getCheckpointInterval() { return checkpointInterval; }
+    
+    /** Cycles at which a checkpoint is held, oldest first. */
+    public List<Integer> getCheckpointCycles() { return new ArrayList<>(checkpoints.keySet()); }
+    
+    /** Highest cycle reached since the program was loaded, including cycles stepped back from. */
+    public int getFurthestCycle() { return furthestCycle; }
+    
+    /**
+     * Move to the end of {@code cycle}: restore the nearest checkpoint at or before it and
+     * replay forward, or just step forward when that is closer. Without checkpoints the
+     * run restarts from cycle 0. Stops early if the program finishes first.
+     */
+    public void goToCycle(int cycle) {
+        if (program == null) return;
+        int target = Math.max(0, cycle);
+        Map.Entry<Integer, SimulatorCheckpoint> nearest = checkpoints.floorEntry(target);
+        int current = clock.getCycle();
+        boolean forwardFromHere = current <= target && (nearest == null || nearest.getKey() <= current);
+        
+        if (!forwardFromHere) {
+            if (nearest != null) {
+                restoreCheckpoint(nearest.getValue());
+            } else {
+                reset();
+            }
+        }
+        
+        boolean wasLogging = SimLog.isEnabled();
+        SimLog.setEnabled(false);
+        breakpointSet = null;
+        try {
+            while (clock.getCycle() < target && !isFinished()) {
+                step();
+            }
+        } finally {
+            SimLog.setEnabled(wasLogging);
+            compileBreakpoints();
+        }
+        breakpointHit = null;
+        changes.markFullRefresh();
+        SimLog.println("[Checkpoint] Moved from cycle " + current + " to cycle " + clock.getCycle() +
+                       (forwardFromHere ? "" : nearest != null ? " via checkpoint " + nearest.getKey() : " via reset"));
+    }
+    
+    /** Go back one cycle; false at cycle 0. */
+    public boolean stepBack() {
+        if (program == null || clock.getCycle() == 0) return false;
+        goToCycle(clock.getCycle() - 1);
+        return true;
+    }
+    
+    /** Stop runs when {@code breakpoint} fires; see {@link Breakpoint} for the conditions. */
+    public void addBreakpoint(Breakpoint breakpoint) {
+        breakpoints.add(breakpoint);
+        compileBreakpoints();
+    }
+    
+    public void removeBreakpoint(Breakpoint breakpoint) {
+        breakpoints.remove(breakpoint);
+        compileBreakpoints();
+    }
+    
+    public void clearBreakpoints() {
+        breakpoints.clear();
+        compileBreakpoints();
+    }
+    
+    public List<Breakpoint> getBreakpoints() { return Collections.unmodifiableList(breakpoints); }
+    
+    /** The breakpoint that fired in the latest cycle, or null. */
+    public Breakpoint getBreakpointHit() { return breakpointHit; }
+    
+    /** Reason issue was blocked in the latest cycle, or null if an instruction issued (or none was left). */
+    public IssueStall getIssueStall() { return issueStall; }
+    
+    /** Consecutive cycles issue has been blocked for {@link #getIssueStall()}. */
+    public int getIssueStallCycles() { return issueStallCycles; }
+    
+    /**
+     * Step until a breakpoint fires, the program finishes or {@code maxCycles} cycles have run.
+     * @return the breakpoint that stopped the run, or null
+     */
+    public Breakpoint runToBreakpoint(int maxCycles) {
+        for (int i = 0; i < maxCycles && program != null && !isFinished(); i++) {
+            step();
+            if (breakpointHit != null) return breakpointHit;
+        }
+        return null;
+    }
+    
+    /** Compile the breakpoints against the current components; called whenever those are replaced. */
+    private void compileBreakpoints() {
+        if (breakpointSet != null) breakpointSet.detach();
+        breakpointSet = breakpoints.isEmpty() || memory == null ? null : new BreakpointSet(breakpoints, this);
+    }
+    
+    /**
+     * Write the warmed-up state of the run to {@code file}: architectural registers, memory,
+     * which blocks the cache holds, the store-set predictor and the TLBs (layout in
+     * {@link WarmState}). Anything still in flight is first let finish without issuing more,
+     * on a copy of the run; this simulator carries on from where it was.
+     */
+    public void saveCheckpoint(Path file) throws IOException {
+        if (program == null) {
+            throw new IllegalStateException("Load a program before saving a checkpoint");
+        }
+        if (coherenceBus != null) {
+            throw new IllegalStateException("Checkpoint files are not available with several cores");
+        }
+        WarmState state = captureWarmState();
+        try (OutputStream out = Files.newOutputStream(file)) {
+            state.writeTo(out);
+        }
+        SimLog.println("[Checkpoint] Wrote the warm state of cycle " + state.getCycle() + " to " + file + " (" +
+                       Files.size(file) + " bytes)");
+    }
+    
+    /**
+     * Start the loaded program from a warm state written by {@link #saveCheckpoint(Path)},
+     * under this simulator's own configuration. The run starts at cycle 0 with an empty
+     * pipeline and fresh statistics. Changing the configuration or resetting keeps starting
+     * from the warm state, so one file can be run under many configurations; loading another
+     * program drops it.
+     */
+    public void loadCheckpoint(Path file) throws IOException {
+        if (program == null) {
+            throw new IllegalStateException("Load the checkpoint's program first");
+        }
+        if (coherenceBus != null) {
+            throw new IllegalStateException("Checkpoint files are not available with several cores");
+        }
+        WarmState state;
+        try (InputStream in = Files.newInputStream(file)) {
+            state = WarmState.readFrom(in, programListing());
+        }
+        warmStart = state;
+        sharedMemory = null;  // memory comes from the file, not from an earlier startFrom
+        initializeSimulator();
+        SimLog.println("[Checkpoint] Loaded the warm state of cycle " + state.getCycle() + " from " + file);
+    }
+    
+    /** The state to save, taken once nothing is in flight. */
+    private WarmState captureWarmState() {
+        if (isDrained()) return warmState();
+        
+        SimulatorCheckpoint resume = captureCheckpoint();
+        int furthest = furthestCycle;
+        Breakpoint hit = breakpointHit;
+        boolean wasLogging = SimLog.isEnabled();
+        SimLog.setEnabled(false);
+        breakpointSet = null;
+        draining = true;
+        try {
+            // Issue is held; everything in flight writes back
+            while (!isDrained() && (cosim == null || !cosim.hasDiverged())) {
+                step();
+            }
+            if (!isDrained()) {
+                throw new IllegalStateException("Cannot save a warm state: co-simulation diverged at cycle " +
+                                                clock.getCycle() + " with instructions in flight");
+            }
+            return warmState();
+        } finally {
+            draining = false;
+            SimLog.setEnabled(wasLogging);
+            restoreCheckpoint(resume);
+            furthestCycle = furthest;
+            compileBreakpoints();
+            breakpointHit = hit;
+            changes.markFullRefresh();
+        }
+    }
+    
+    private WarmState warmState() {
+        int[] pcs = new int[threads.size()];
+        for (int t = 0; t < pcs.length; t++) pcs[t] = threads.get(t).issueUnit.getPc();
+        double[][] vectors = new double[VectorRegisterFile.NUM_REGISTERS][];
+        for (int v = 0; v < vectors.length; v++) vectors[v] = vectorRegs.getValue("V" + v);
+        return new WarmState(programListing(), clock.getCycle(), pcs, regFile.getAllValues(), vectors,
+                             memory.getPages(), cache.getBlockSize(), cache.getResidentBlocks(),
+                             storeSets.getNextSetId(), new HashMap<>(storeSets.getTable()),
+                             mmu != null ? mmu.getResidentAddresses(1) : new long[0],
+                             mmu != null ? mmu.getResidentAddresses(2) : new long[0]);
+    }
+    
+    /** Put the freshly built components into the loaded warm state. */
+    private void applyWarmStart() {
+        WarmState warm = warmStart;
+        memory.restore(warm.memoryPages);  // shared copy-on-write, so a reset starts from the same contents
+        regFile.loadInitialValues(warm.registers);
+        for (int v = 0; v < warm.vectorRegisters.length; v++) {
+            vectorRegs.setValue("V" + v, warm.vectorRegisters[v]);
+        }
+        // Blocks of another size are installed piece by piece; a smaller cache keeps the last ones to map
+        for (int block : warm.cacheBlocks) {
+            for (int address = block; address < block + warm.cacheBlockSize; address += cache.getBlockSize()) {
+                cache.install(address, memory);
+            }
+        }
+        storeSets.restore(warm.storeSets, warm.nextStoreSet);
+        if (mmu != null) mmu.warm(warm.dtlbAddresses, warm.l2TlbAddresses);
+        for (int t = 0; t < threads.size(); t++) {
+            threads.get(t).issueUnit.jumpTo(warm.threadPcs[t]);
+        }
+        SimLog.println("[Checkpoint] Starting from the warm state of cycle " + warm.getCycle() + ": " +
+                       warm.memoryPages.size() + " memory pages, " + warm.cacheBlocks.length + " cache blocks");
+    }
+    
+    private List<String> programListing() {
+        List<String> listing = new ArrayList<>(program.size());
+        for (Instruction instr : program.getInstructions()) listing.add(instr.toString());
+        return listing;
+    }
+    
+    private void saveCheckpoint() {
+        if (coherenceBus != null) {
+            SimLog.println("[Checkpoint] Not available with several cores; checkpointing disabled");
+            checkpointInterval = 0;
+            return;
+        }
+        SimulatorCheckpoint checkpoint = captureCheckpoint();
+        checkpoints.put(checkpoint.getCycle(), checkpoint);
+        if (SimLog.isEnabled()) {
+            SimLog.println("[Checkpoint] Saved cycle " + checkpoint.getCycle() + " (" + checkpoint.getStateSize() +
+                           " bytes, " + checkpoint.getMemoryPages().size() + " shared memory pages)");
+        }
+    }
+    
+    private SimulatorCheckpoint captureCheckpoint() {
+        try {
+            Map<Integer, byte[]> pages = memory.checkpoint();
+            byte[] state = SimulatorCheckpoint.write(this::writeRunState, liveObjects());
+            // Written-back rows never change again and are shared; the rest are copied
+            InstructionStatus[] statuses = new InstructionStatus[instructionStatuses.size()];
+            for (int i = 0; i < statuses.length; i++) {
+                InstructionStatus status = instructionStatuses.get(i);
+                statuses[i] = status.writeBackCycle >= 0 ? status : status.copy();
+            }
+            return new SimulatorCheckpoint(clock.getCycle(), state, pages, statuses);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot checkpoint cycle " + clock.getCycle(), e);
+        }
+    }
+    
+    private void restoreCheckpoint(SimulatorCheckpoint checkpoint) {
+        try {
+            restoreCheckpoint(checkpoint, liveObjects());
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Cannot restore checkpoint of cycle " + checkpoint.getCycle(), e);
+        }
+    }
+    
+    private void restoreCheckpoint(SimulatorCheckpoint checkpoint, List<Object> live)
+            throws IOException, ClassNotFoundException {
+        SimulatorCheckpoint.read(checkpoint.getState(), live, this::readRunState);
+        memory.restore(checkpoint.getMemoryPages());
+        
+        instructionStatuses = new ArrayList<>(checkpoint.getStatuses().length);
+        tagToStatusIndex = new HashMap<>();
+        for (InstructionStatus status : checkpoint.getStatuses()) {
+            InstructionStatus row = status.writeBackCycle >= 0 ? status : status.copy();
+            if (row.tag != null) tagToStatusIndex.put(row.tag, instructionStatuses.size());
+            instructionStatuses.add(row);
+        }
+    }
+    
+    /**
+     * Write everything a run changes from cycle to cycle. Configuration is not written: the
+     * setters rebuild the components and drop the checkpoints, so a checkpoint is always
+     * restored under the configuration it was taken with. A new field that changes while
+     * the simulator runs has to be added here and to {@link #readRunState} in the same order.
+     */
+    private void writeRunState(ObjectOutputStream out) throws IOException {
+        out.writeInt(clock.getCycle());
+        out.writeObject(energy.snapshotCounts());
+        
+        out.writeObject(regFile);
+        out.writeObject(cache);
+        out.writeObject(memoryChannel);
+        out.writeObject(dram);
+        out.writeObject(mmu);
+        out.writeObject(rs);
+        out.writeObject(loadBuffer);
+        out.writeObject(storeBuffer);
+        out.writeObject(lsq);
+        out.writeObject(dispatcher);
+        out.writeObject(intMulDivUnit);
+        out.writeObject(vectorRegs);
+        out.writeObject(vectorUnit);
+        out.writeObject(physicalRegs);
+        out.writeObject(storeSets);
+        out.writeObject(cosim);
+        out.writeObject(criticalPath);
+        
+        out.writeObject(new ArrayList<>(threads));
+        out.writeObject(new ArrayList<>(pendingResults));
+        out.writeObject(new HashSet<>(slotsToFreeNextCycle));
+        out.writeObject(new ArrayList<>(inFlight));
+        out.writeObject(new HashMap<>(tagToInstruction));
+        out.writeObject(new HashMap<>(tagToThread));
+        out.writeObject(new HashMap<>(iterationCountByIndex));
+        
+        int[] counters = {
+            lastIssuedIndex, completedInstructions,
+            rawHazards, warHazards, wawHazards, structuralHazards,
+            loadIssued, storeIssued, fpIssued, intIssued, branchIssued, fmaIssued, intMulDivIssued, vectorIssued,
+            branchTagCounter, nextFetchThread, currentBroadcastCycle, memoryOpSeq, forwardedLoads,
+            speculativeLoadCount, predictedDependences, memoryOrderViolations, registerFreeStalls,
+            issueStallCycles
+        };
+        out.writeObject(counters);
+        out.writeObject(issueStall);
+        out.writeObject(stallThisCycle);
+    }
+    
+    /** Inverse of {@link #writeRunState}. */
+    private void readRunState(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        clock.setCycle(in.readInt());
+        energy.restoreCounts(read(in, long[].class));
+        
+        regFile = read(in, RegisterFile.class);
+        cache = read(in, Cache.class);
+        memoryChannel = read(in, MemoryChannel.class);
+        dram = read(in, DramController.class);
+        mmu = read(in, Mmu.class);
+        rs = read(in, RealReservationStations.class);
+        loadBuffer = read(in, LoadBuffer.class);
+        storeBuffer = read(in, StoreBuffer.class);
+        lsq = read(in, LoadStoreQueue.class);
+        dispatcher = read(in, Dispatcher.class);
+        intMulDivUnit = read(in, IntMulDivUnit.class);
+        vectorRegs = read(in, VectorRegisterFile.class);
+        vectorUnit = read(in, VectorUnit.class);
+        physicalRegs = read(in, PhysicalRegisterFile.class);
+        storeSets = read(in, StoreSetPredictor.class);
+        cosim = read(in, CosimChecker.class);
+        criticalPath = read(in, CriticalPathAnalyzer.class);
+        
+        restoreList(threads, in);
+        restoreList(pendingResults, in);
+        restoreSet(slotsToFreeNextCycle, in);
+        restoreList(inFlight, in);
+        restoreMap(tagToInstruction, in);
+        restoreMap(tagToThread, in);
+        iterationCountByIndex = new HashMap<>();
+        restoreMap(iterationCountByIndex, in);
+        
+        int[] counters = read(in, int[].class);
+        int i = 0;
+        lastIssuedIndex = counters[i++];
+        completedInstructions = counters[i++];
+        rawHazards = counters[i++];
+        warHazards = counters[i++];
+        wawHazards = counters[i++];
+        structuralHazards = counters[i++];
+        loadIssued = counters[i++];
+        storeIssued = counters[i++];
+        fpIssued = counters[i++];
+        intIssued = counters[i++];
+        branchIssued = counters[i++];
+        fmaIssued = counters[i++];
+        intMulDivIssued = counters[i++];
+        vectorIssued = counters[i++];
+        branchTagCounter = counters[i++];
+        nextFetchThread = counters[i++];
+        currentBroadcastCycle = counters[i++];
+        memoryOpSeq = counters[i++];
+        forwardedLoads = counters[i++];
+        speculativeLoadCount = counters[i++];
+        predictedDependences = counters[i++];
+        memoryOrderViolations = counters[i++];
+        registerFreeStalls = counters[i++];
+        issueStallCycles = counters[i++];
+        issueStall = read(in, IssueStall.class);
+        stallThisCycle = read(in, IssueStall.class);
+        
+        // The UI feed is not part of the state; point the restored components at the live one
+        regFile.setChangeTracker(changes);
+        cache.setChangeTracker(changes);
+        rs.setChangeTracker(changes);
+        loadBuffer.setChangeTracker(changes);
+        storeBuffer.setChangeTracker(changes);
+    }
+    
+    private static <T> T read(ObjectInputStream in, Class<T> type) throws IOException, ClassNotFoundException {
+        return type.cast(in.readObject());
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> void restoreList(List<T> target, ObjectInputStream in) throws IOException, ClassNotFoundException {
+        target.clear();
+        target.addAll((List<T>) in.readObject());
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> void restoreSet(Set<T> target, ObjectInputStream in) throws IOException, ClassNotFoundException {
+        target.clear();
+        target.addAll((Set<T>) in.readObject());
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <K, V> void restoreMap(Map<K, V> target, ObjectInputStream in) throws IOException, ClassNotFoundException {
+        target.clear();
+        target.putAll((Map<K, V>) in.readObject());
+    }
+    
+    /** Objects a checkpoint refers to instead of copying; they are the same before and after a restore. */
+    private List<Object> liveObjects() {
+        List<Object> live = new ArrayList<>();
+        live.add(this);
+        live.add(memory);
+        live.add(latencyConfig);
+        live.add(program);
+        live.addAll(program.getInstructions());
+        return live;
+    }
+    
+    private void recordMemoryAddress(String tag, int address) {
+        if (criticalPath == null) return;
+        Integer index = tagToStatusIndex.get(tag);
+        if (index != null) criticalPath.onMemoryAddress(index, address);
+    }
+    
+    public int getCoreId() { return coreId; }
+    public Memory getMemory() { return memory; }
+    public List<HardwareThread> getThreads() { return Collections.unmodifiableList(threads); }
+    
+    /** Instructions completed per cycle by each hardware thread so far. */
+    public double[] getThreadIpc() {
+        int cycles = Math.max(1, clock.getCycle());
+        double[] ipc = new double[threads.size()];
+        for (int t = 0; t < threads.size(); t++) {
+            ipc[t] = (double) threads.get(t).completed / cycles;
+        }
+        return ipc;
+    }
+    
+    /**
+     * SMT throughput and fairness for this run against each thread's IPC when run alone
+     * on the same configuration.
+     */
+    public SmtMetrics computeSmtMetrics(double[] aloneIpc) {
+        return new SmtMetrics(getThreadIpc(), aloneIpc);
+    }
+    
+    public int getIntMulLatency() { return intMulLatency; }
+    public int getIntDivLatency() { return intDivLatency; }
+    public boolean isPipelinedIntDivider() { return pipelinedIntDivider; }
+    
+    public VectorRegisterFile getVectorRegisterFile() { return vectorRegs; }
+    /** Latencies the execution units use, as configured for the current program. */
+    public LatencyConfig getLatencyConfig() { return latencyConfig; }
+    public VectorUnit getVectorUnit() { return vectorUnit; }
+    public int getVectorLength() { return vectorLength; }
+    public int getVectorLanes() { return vectorLanes; }
 
     public int getRawHazards() { return rawHazards; }
     public int getWarHazards() { return warHazards; }
@@ -1145,6 +2505,11 @@ public class SimulatorState {
     public int getFpIssuedCount() { return fpIssued; }
     public int getIntIssuedCount() { return intIssued; }
     public int getBranchIssuedCount() { return branchIssued; }
+    public int getFmaIssuedCount() { return fmaIssued; }
+    public int getIntMulDivIssuedCount() { return intMulDivIssued; }
+    public int getIntMulDivBusyCycles() { return intMulDivUnit != null ? intMulDivUnit.getBusyCycles() : 0; }
+    public int getIntDividerBlockedCycles() { return intMulDivUnit != null ? intMulDivUnit.getDividerBlockedCycles() : 0; }
+    public int getVectorIssuedCount() { return vectorIssued; }
 
     private void recordInstructionMix(Instruction instr) {
         switch (instr.getType()) {
@@ -1156,18 +2521,77 @@ public class SimulatorState {
                 break;
             case ALU_FP:
                 fpIssued++;
+                if (ALU.isFused(instr.getOpcode())) fmaIssued++;
                 break;
             case ALU_INT:
                 intIssued++;
+                String op = instr.getOpcode();
+                if (op.contains("MUL") || op.contains("DIV")) intMulDivIssued++;
                 break;
             case BRANCH:
                 branchIssued++;
                 break;
+            case VECTOR_ALU:
+            case VECTOR_LOAD:
+            case VECTOR_STORE:
+                vectorIssued++;
+                break;
             default:
                 break;
         }
     }
 
+    private int[] producerStatusIndices(Instruction instr) {
+        List<Integer> indices = new ArrayList<>();
+        for (String src : extractSourceRegisters(instr)) {
+            String tag = VectorRegisterFile.isVectorRegister(src) ? vectorRegs.getProducer(src) : regFile.getProducer(src);
+            Integer index = tag != null ? tagToStatusIndex.get(tag) : null;
+            if (index != null) indices.add(index);
+        }
+        return indices.stream().mapToInt(Integer::intValue).toArray();
+    }
+    
+    /** Station write, operand reads, the functional unit operation and the eventual result write. */
+    private void recordIssueEnergy(Instruction instr) {
+        String op = instr.getOpcode().toUpperCase();
+        switch (instr.getType()) {
+            case ALU_FP:
+                energy.count(EnergyModel.Event.RS_WRITE);
+                if (ALU.isFused(op)) energy.count(EnergyModel.Event.FMA);
+                else if (op.contains("DIV")) energy.count(EnergyModel.Event.FP_DIV);
+                else if (op.contains("MUL")) energy.count(EnergyModel.Event.FP_MUL);
+                else energy.count(EnergyModel.Event.FP_ADD);
+                break;
+            case ALU_INT:
+                energy.count(EnergyModel.Event.RS_WRITE);
+                if (op.contains("DIV")) energy.count(EnergyModel.Event.INT_DIV);
+                else if (op.contains("MUL")) energy.count(EnergyModel.Event.INT_MUL);
+                else energy.count(EnergyModel.Event.INT_ALU);
+                break;
+            case LOAD:
+            case STORE:
+            case VECTOR_LOAD:
+            case VECTOR_STORE:
+                // Address generation; the cache and memory traffic is counted by the cache
+                energy.count(EnergyModel.Event.RS_WRITE);
+                energy.count(EnergyModel.Event.INT_ALU);
+                break;
+            case VECTOR_ALU:
+                energy.count(EnergyModel.Event.RS_WRITE);
+                energy.count(EnergyModel.Event.VECTOR_ELEMENT, vectorLength);
+                break;
+            case BRANCH:
+                energy.count(EnergyModel.Event.BRANCH);
+                break;
+            default:
+                break;
+        }
+        energy.count(EnergyModel.Event.REG_READ, extractSourceRegisters(instr).size());
+        if (extractDestinationRegister(instr) != null) {
+            energy.count(EnergyModel.Event.REG_WRITE);
+        }
+    }
+
     private void trackIssuedInstruction(Instruction instr, String tag) {
         List<String> sources = extractSourceRegisters(instr);
         String dest = extractDestinationRegister(instr);
@@ -1234,9 +2658,20 @@ public class SimulatorState {
             case ALU_INT:
                 if (isRegister(instr.getSrc1())) sources.add(instr.getSrc1());
                 if (isRegister(instr.getSrc2())) sources.add(instr.getSrc2());
+                if (isRegister(instr.getSrc3())) sources.add(instr.getSrc3());
                 break;
             case BRANCH:
+            case VECTOR_ALU:
+                if (isRegister(instr.getSrc1())) sources.add(instr.getSrc1());
+                if (isRegister(instr.getSrc2())) sources.add(instr.getSrc2());
+                break;
+            case VECTOR_LOAD:
+                if (isRegister(instr.getBase())) sources.add(instr.getBase());
+                if (isRegister(instr.getSrc2())) sources.add(instr.getSrc2());
+                break;
+            case VECTOR_STORE:
                 if (isRegister(instr.getSrc1())) sources.add(instr.getSrc1());
+                if (isRegister(instr.getBase())) sources.add(instr.getBase());
                 if (isRegister(instr.getSrc2())) sources.add(instr.getSrc2());
                 break;
             default:
@@ -1251,18 +2686,34 @@ public class SimulatorState {
             case LOAD:
             case ALU_FP:
             case ALU_INT:
+            case VECTOR_ALU:
+            case VECTOR_LOAD:
                 return instr.getDest();
             default:
                 return null;
         }
     }
 
+    /** True if {@code instr} takes a physical register at issue (scalar destination, R10K mode). */
+    private boolean needsPhysicalRegister(Instruction instr) {
+        if (physicalRegs == null) return false;
+        switch (instr.getType()) {
+            case LOAD:
+            case ALU_FP:
+            case ALU_INT:
+                return instr.getDest() != null;
+            default:
+                return false;
+        }
+    }
+
     private boolean isRegister(String operand) {
         if (operand == null) return false;
         return !operand.matches("-?\\d+");
     }
 
-    private static class IssuedInstructionInfo {
+    private static class IssuedInstructionInfo implements Serializable {
+        private static final long serialVersionUID = 1L;
         @SuppressWarnings("unused")
         final String tag;
         final String dest;
@@ -1306,10 +2757,21 @@ public class SimulatorState {
             this.programIndex = programIndex;
             this.iteration = iteration;
         }
+        
+        InstructionStatus copy() {
+            InstructionStatus copy = new InstructionStatus(programIndex, iteration);
+            copy.tag = tag;
+            copy.issueCycle = issueCycle;
+            copy.execStartCycle = execStartCycle;
+            copy.execEndCycle = execEndCycle;
+            copy.writeBackCycle = writeBackCycle;
+            return copy;
+        }
     }
 
     // FIXED: Added memoryAddress field for cache updates at write-back
-    private static class PendingResult {
+    private static class PendingResult implements Serializable {
+        private static final long serialVersionUID = 1L;
         final String tag;
         final double result;
         final boolean broadcast;
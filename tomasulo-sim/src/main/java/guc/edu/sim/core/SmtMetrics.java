@@ -0,0 +1,71 @@
+package guc.edu.sim.core;
+
+/**
+ * Throughput and fairness of an SMT run. Each thread's speedup is its IPC in the SMT run
+ * divided by its IPC when run alone on the same machine.
+ */
+public class SmtMetrics {
+    private final double[] smtIpc;
+    private final double[] speedups;
+
+    public SmtMetrics(double[] smtIpc, double[] aloneIpc) {
+        if (smtIpc.length != aloneIpc.length) {
+            throw new IllegalArgumentException("Expected " + smtIpc.length + " alone IPCs, got " + aloneIpc.length);
+        }
+        this.smtIpc = smtIpc.clone();
+        this.speedups = new double[smtIpc.length];
+        for (int t = 0; t < smtIpc.length; t++) {
+            speedups[t] = aloneIpc[t] > 0 ? smtIpc[t] / aloneIpc[t] : 0.0;
+        }
+    }
+
+    /** Per-thread IPC in the SMT run. */
+    public double[] getThreadIpc() {
+        return smtIpc.clone();
+    }
+
+    public double[] getSpeedups() {
+        return speedups.clone();
+    }
+
+    /** Sum of the threads' IPCs. */
+    public double getThroughput() {
+        double sum = 0.0;
+        for (double ipc : smtIpc) sum += ipc;
+        return sum;
+    }
+
+    /** Sum of the per-thread speedups. */
+    public double getWeightedSpeedup() {
+        double sum = 0.0;
+        for (double s : speedups) sum += s;
+        return sum;
+    }
+
+    /** Harmonic mean of the per-thread speedups; punishes starving any one thread. */
+    public double getHarmonicMeanSpeedup() {
+        double sum = 0.0;
+        for (double s : speedups) {
+            if (s <= 0) return 0.0;
+            sum += 1.0 / s;
+        }
+        return speedups.length / sum;
+    }
+
+    /** Smallest speedup over the largest: 1.0 when every thread is slowed down equally. */
+    public double getFairness() {
+        double min = Double.MAX_VALUE;
+        double max = 0.0;
+        for (double s : speedups) {
+            min = Math.min(min, s);
+            max = Math.max(max, s);
+        }
+        return max > 0 ? min / max : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("throughput=%.3f IPC, weighted speedup=%.3f, hmean speedup=%.3f, fairness=%.3f",
+                getThroughput(), getWeightedSpeedup(), getHarmonicMeanSpeedup(), getFairness());
+    }
+}
@@ -1,12 +1,16 @@
 package guc.edu.sim.core;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Dedicated Store buffer for handling store instructions.
  */
-public class StoreBuffer {
+public class StoreBuffer implements Serializable {
+    private static final long serialVersionUID = 1L;
     private final List<StoreEntry> buffer = new ArrayList<>();
     private final int maxSize;
     private final RegisterFile regFile;
@@ -16,13 +20,23 @@ public class StoreBuffer {
     private final Cache cache;
     private int nextId = 1;
     private String lastAllocatedTag;
+    private transient ChangeTracker changes = new ChangeTracker();  // UI feed, not part of a checkpoint
 
     public StoreBuffer(int maxSize, RegisterFile regFile, Memory memory, Cache cache) {
         this.maxSize = maxSize;
         this.regFile = regFile;
         this.memory = memory;
         this.cache = cache;
-        System.out. println("[StoreBuffer] Initialized with size=" + maxSize);
+        SimLog.println("[StoreBuffer] Initialized with size=" + maxSize);
+    }
+
+    public void setChangeTracker(ChangeTracker changes) {
+        this.changes = changes;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        changes = new ChangeTracker();  // the simulator hands its own tracker in again
     }
 
     public boolean hasFree() {
@@ -57,15 +71,35 @@ public class StoreBuffer {
 
         buffer.add(entry);
         lastAllocatedTag = tag;
-        System.out.println("[StoreBuffer] Allocated " + tag + " for " + instr.getOpcode());
+        changes.markStoreEntry(tag);
+        SimLog.println("[StoreBuffer] Allocated " + tag + " for " + instr.getOpcode());
     }
 
     public List<StoreEntry> getBuffer() {
         return new ArrayList<>(buffer);
     }
 
+    public int size() {
+        return buffer.size();
+    }
+
+    /**
+     * Look up a live entry by its tag.
+     * @return the entry, or null if it has been freed
+     */
+    public StoreEntry findEntryByTag(String tag) {
+        for (StoreEntry entry : buffer) {
+            if (entry.tag.equals(tag)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
     public void removeEntry(StoreEntry entry) {
-        buffer.remove(entry);
+        if (buffer.remove(entry)) {
+            changes.markStoreEntry(entry.tag);
+        }
     }
 
     /**
@@ -77,6 +111,7 @@ public class StoreBuffer {
         for (int i = 0; i < buffer.size(); i++) {
             if (buffer.get(i).tag.equals(tag)) {
                 buffer.remove(i);
+                changes.markStoreEntry(tag);
                 return true;
             }
         }
@@ -93,6 +128,7 @@ public class StoreBuffer {
                 entry.baseValue = result;
                 entry.baseReady = true;
                 entry.baseProducer = null;
+                changes.markStoreEntry(entry.tag);
                 entry.updateReadyCycleIfReady(currentCycle);
             }
             if (tag.equals(entry.storeProducer)) {
@@ -104,7 +140,8 @@ public class StoreBuffer {
         }
     }
 
-    public static class StoreEntry {
+    public static class StoreEntry implements Serializable {
+        private static final long serialVersionUID = 1L;
         public final String tag;
         public final Instruction instruction;
         public double baseValue;
@@ -115,8 +152,11 @@ public class StoreBuffer {
         public String storeProducer;
         public boolean executing = false;
         public int remainingCycles = 0;
+        public DramController.Request memoryRequest;  // DRAM read whose latency is not yet added
         public int readyCycle = -1;  // cycle when this entry became ready (-1 means ready at issue or not yet)
         public boolean completedExecution = false;  // true when execution is complete but waiting for write-back
+        public int seq;  // program-order position among memory operations (smaller = older)
+        public int pc;   // program index, used by the memory dependence predictor
 
         public StoreEntry(String tag, Instruction instruction) {
             this.tag = tag;
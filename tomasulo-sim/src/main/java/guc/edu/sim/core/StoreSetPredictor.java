@@ -0,0 +1,77 @@
+package guc.edu.sim.core;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Store-set memory dependence predictor (Chrysos and Emer).
+ * The store set identifier table (SSIT) maps the program index of a load or store
+ * to a store set. A load is predicted to depend on an older store when both belong
+ * to the same set; sets are created and merged as ordering violations are observed.
+ */
+public class StoreSetPredictor implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final Map<Integer, Integer> ssit = new HashMap<>();
+    private int nextSetId = 1;
+
+    /**
+     * @return true if the load at {@code loadIndex} should wait for the store at {@code storeIndex}
+     */
+    public boolean predictsDependence(int loadIndex, int storeIndex) {
+        Integer loadSet = ssit.get(loadIndex);
+        return loadSet != null && loadSet.equals(ssit.get(storeIndex));
+    }
+
+    /**
+     * Learn from a violation: the load at {@code loadIndex} read memory before the
+     * older store at {@code storeIndex} wrote the same address.
+     */
+    public void recordViolation(int loadIndex, int storeIndex) {
+        Integer loadSet = ssit.get(loadIndex);
+        Integer storeSet = ssit.get(storeIndex);
+
+        if (loadSet == null && storeSet == null) {
+            int id = nextSetId++;
+            ssit.put(loadIndex, id);
+            ssit.put(storeIndex, id);
+        } else if (loadSet == null) {
+            ssit.put(loadIndex, storeSet);
+        } else if (storeSet == null) {
+            ssit.put(storeIndex, loadSet);
+        } else if (!loadSet.equals(storeSet)) {
+            // Merge into the smaller id so repeated merges converge on one set
+            int winner = Math.min(loadSet, storeSet);
+            int loser = Math.max(loadSet, storeSet);
+            ssit.replaceAll((index, set) -> set == loser ? winner : set);
+        }
+        SimLog.println("[StoreSet] Violation: load@" + loadIndex + " now waits for store@" + storeIndex +
+                         " (set " + ssit.get(loadIndex) + ")");
+    }
+
+    public Integer getStoreSet(int index) {
+        return ssit.get(index);
+    }
+
+    /** The SSIT: store set of each program index that has one. */
+    public Map<Integer, Integer> getTable() {
+        return Collections.unmodifiableMap(ssit);
+    }
+
+    public int getNextSetId() {
+        return nextSetId;
+    }
+
+    /** Replace the table with one saved from {@link #getTable()} and {@link #getNextSetId()}. */
+    public void restore(Map<Integer, Integer> table, int nextSetId) {
+        ssit.clear();
+        ssit.putAll(table);
+        this.nextSetId = nextSetId;
+    }
+
+    public void clear() {
+        ssit.clear();
+        nextSetId = 1;
+    }
+}
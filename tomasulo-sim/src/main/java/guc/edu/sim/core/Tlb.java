@@ -0,0 +1,97 @@
+package guc.edu.sim.core;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Set-associative translation lookaside buffer with LRU replacement. It only records
+ * which virtual page numbers are cached; {@link Mmu} decides what a miss costs.
+ */
+public class Tlb implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final long EMPTY = -1L;
+
+    private final String name;
+    private final int sets;
+    private final int ways;
+    private final long[] pages;     // [set * ways + way], EMPTY when unused
+    private final long[] lastUse;
+    private long useCounter = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * @param entries total entries
+     * @param ways    associativity; {@code entries} makes it fully associative
+     */
+    public Tlb(String name, int entries, int ways) {
+        if (entries < 1 || ways < 1 || entries % ways != 0) {
+            throw new IllegalArgumentException(name + ": " + entries + " entries cannot be split into " + ways + "-way sets");
+        }
+        this.name = name;
+        this.ways = ways;
+        this.sets = entries / ways;
+        this.pages = new long[entries];
+        this.lastUse = new long[entries];
+        Arrays.fill(pages, EMPTY);
+    }
+
+    /** True if {@code page} is cached; a hit makes it most recently used. */
+    public boolean lookup(long page) {
+        int base = setOf(page) * ways;
+        for (int way = 0; way < ways; way++) {
+            if (pages[base + way] == page) {
+                lastUse[base + way] = ++useCounter;
+                hits++;
+                return true;
+            }
+        }
+        misses++;
+        return false;
+    }
+
+    /** Cache {@code page}, replacing the least recently used entry of its set. */
+    public void insert(long page) {
+        int base = setOf(page) * ways;
+        int victim = base;
+        for (int way = 0; way < ways; way++) {
+            int slot = base + way;
+            if (pages[slot] == page || pages[slot] == EMPTY) {
+                victim = slot;
+                break;
+            }
+            if (lastUse[slot] < lastUse[victim]) victim = slot;
+        }
+        pages[victim] = page;
+        lastUse[victim] = ++useCounter;
+    }
+
+    /** Pages this TLB holds, least recently used first, so inserting them in order rebuilds the LRU state. */
+    public long[] getResidentPages() {
+        Integer[] slots = new Integer[pages.length];
+        int count = 0;
+        for (int slot = 0; slot < pages.length; slot++) {
+            if (pages[slot] != EMPTY) slots[count++] = slot;
+        }
+        Arrays.sort(slots, 0, count, (a, b) -> Long.compare(lastUse[a], lastUse[b]));
+        long[] resident = new long[count];
+        for (int i = 0; i < count; i++) resident[i] = pages[slots[i]];
+        return resident;
+    }
+
+    private int setOf(long page) {
+        return (int) Long.remainderUnsigned(page, sets);
+    }
+
+    public String getName() { return name; }
+    public int getEntries() { return pages.length; }
+    public int getWays() { return ways; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups > 0 ? (double) hits / lookups : 0.0;
+    }
+}
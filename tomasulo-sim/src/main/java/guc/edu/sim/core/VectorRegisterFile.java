@@ -0,0 +1,63 @@
+package guc.edu.sim.core;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Vector registers V0-V7, each holding {@code vectorLength} doubles,
+ * with the tag of the vector station producing a pending value (Qi).
+ */
+public class VectorRegisterFile implements Serializable {
+    private static final long serialVersionUID = 1L;
+    public static final int NUM_REGISTERS = 8;
+
+    private final int vectorLength;
+    private final double[][] values;
+    private final String[] producers = new String[NUM_REGISTERS];
+
+    public VectorRegisterFile(int vectorLength) {
+        this.vectorLength = vectorLength;
+        this.values = new double[NUM_REGISTERS][vectorLength];
+    }
+
+    public int getVectorLength() {
+        return vectorLength;
+    }
+
+    public static boolean isVectorRegister(String name) {
+        return name != null && name.length() > 1 && (name.charAt(0) == 'V' || name.charAt(0) == 'v')
+                && name.substring(1).matches("\\d+");
+    }
+
+    private int index(String reg) {
+        int i = Integer.parseInt(reg.substring(1));
+        if (i < 0 || i >= NUM_REGISTERS) {
+            throw new IllegalArgumentException("No such vector register: " + reg);
+        }
+        return i;
+    }
+
+    /** Copy of the register contents. */
+    public double[] getValue(String reg) {
+        return values[index(reg)].clone();
+    }
+
+    public void setValue(String reg, double[] value) {
+        double[] target = values[index(reg)];
+        Arrays.fill(target, 0.0);
+        System.arraycopy(value, 0, target, 0, Math.min(value.length, vectorLength));
+        SimLog.println("[VRegFile] " + reg + " = " + Arrays.toString(target));
+    }
+
+    public String getProducer(String reg) {
+        return producers[index(reg)];
+    }
+
+    public void setProducer(String reg, String tag) {
+        producers[index(reg)] = tag;
+    }
+
+    public void clearProducer(String reg) {
+        producers[index(reg)] = null;
+    }
+}
@@ -0,0 +1,450 @@
+package guc.edu.sim.core;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vector reservation stations and lane-parallel vector pipelines.
+ *
+ * Each vector instruction occupies one vector station. When it starts, its element
+ * values are computed at once and a completion cycle is recorded for every element:
+ * {@code lanes} elements enter the pipeline per cycle, so element i finishes at
+ * {@code start + i / lanes + latency - 1}. A consumer may start as soon as the first
+ * element of a producing instruction is available (chaining); its element i then waits
+ * for the producer's element i. Vector memory ops touch the cache once per block, so
+ * unit-stride accesses share blocks and large strides pay a cache access per element.
+ *
+ * Vector results travel on dedicated vector write ports, not on the scalar CDB.
+ */
+public class VectorUnit implements Serializable {
+    private static final long serialVersionUID = 1L;
+    public enum Pipe { ADD, MUL, MEMORY }
+
+    private static final int ELEMENT_BYTES = 8;
+
+    private final int maxStations;
+    private final int lanes;
+    private final VectorRegisterFile vregs;
+    private final RegisterFile regFile;
+    private final LatencyConfig latencyConfig;
+    private final List<VectorEntry> entries = new ArrayList<>();
+    private final Map<Pipe, Integer> pipeFreeAt = new EnumMap<>(Pipe.class);
+    private int nextId = 1;
+    private Mmu mmu;  // translates each element address when virtual memory is on
+    private String lastAllocatedTag;
+    private int elementsProcessed = 0;
+
+    public VectorUnit(int maxStations, int lanes, VectorRegisterFile vregs,
+                      RegisterFile regFile, LatencyConfig latencyConfig) {
+        this.maxStations = maxStations;
+        this.lanes = Math.max(1, lanes);
+        this.vregs = vregs;
+        this.regFile = regFile;
+        this.latencyConfig = latencyConfig;
+        for (Pipe pipe : Pipe.values()) {
+            pipeFreeAt.put(pipe, 0);
+        }
+        SimLog.println("[VectorUnit] Initialized: " + maxStations + " stations, " + this.lanes +
+                         " lanes, vector length " + vregs.getVectorLength());
+    }
+
+    public void setMmu(Mmu mmu) {
+        this.mmu = mmu;
+    }
+
+    public boolean hasFree() {
+        return liveCount() < maxStations;
+    }
+
+    private int liveCount() {
+        int count = 0;
+        for (VectorEntry entry : entries) {
+            if (!entry.writtenBack) count++;
+        }
+        return count;
+    }
+
+    public void accept(Instruction instr) {
+        String tag = "VEC" + nextId++;
+        VectorEntry entry = new VectorEntry(tag, instr, pipeFor(instr));
+
+        switch (instr.getType()) {
+            case VECTOR_ALU:
+                readVector(entry, instr.getSrc1(), true);
+                if (VectorRegisterFile.isVectorRegister(instr.getSrc2())) {
+                    readVector(entry, instr.getSrc2(), false);
+                } else {
+                    // Vector-scalar form: the scalar is applied to every element
+                    entry.scalarProducer = regFile.getProducer(instr.getSrc2());
+                    if (entry.scalarProducer == null) entry.scalarValue = regFile.getValue(instr.getSrc2());
+                }
+                break;
+            case VECTOR_STORE:
+                readVector(entry, instr.getSrc1(), true);
+                readAddressOperands(entry, instr);
+                break;
+            case VECTOR_LOAD:
+                readAddressOperands(entry, instr);
+                break;
+            default:
+                throw new IllegalArgumentException("Not a vector instruction: " + instr.getOpcode());
+        }
+
+        if (instr.getType() != InstructionType.VECTOR_STORE && instr.getDest() != null) {
+            vregs.setProducer(instr.getDest(), tag);
+        }
+
+        entries.add(entry);
+        lastAllocatedTag = tag;
+        SimLog.println("[VectorUnit] Allocated " + tag + " for " + instr.getOpcode());
+    }
+
+    private void readVector(VectorEntry entry, String reg, boolean first) {
+        String producer = vregs.getProducer(reg);
+        // Values are captured at issue, as scalar stations do, so a later writer cannot clobber them
+        double[] value = producer == null ? vregs.getValue(reg) : null;
+        if (first) {
+            entry.qj = producer;
+            entry.vj = value;
+        } else {
+            entry.qk = producer;
+            entry.vk = value;
+        }
+    }
+
+    private void readAddressOperands(VectorEntry entry, Instruction instr) {
+        entry.baseProducer = regFile.getProducer(instr.getBase());
+        if (entry.baseProducer == null) entry.baseValue = regFile.getValue(instr.getBase());
+        if (instr.getSrc2() != null) {
+            // Strided form: VLS.D V1, 0(R1), R2 with the stride in bytes in R2
+            entry.strideProducer = regFile.getProducer(instr.getSrc2());
+            if (entry.strideProducer == null) entry.strideValue = regFile.getValue(instr.getSrc2());
+        }
+    }
+
+    private Pipe pipeFor(Instruction instr) {
+        if (instr.getType() != InstructionType.VECTOR_ALU) {
+            return Pipe.MEMORY;
+        }
+        String op = instr.getOpcode();
+        return op.contains("MUL") || op.contains("DIV") ? Pipe.MUL : Pipe.ADD;
+    }
+
+    /**
+     * Wake entries waiting on a scalar operand (base, stride or scalar source).
+     */
+    public void broadcastResult(String tag, double result, int currentCycle) {
+        for (VectorEntry entry : entries) {
+            if (tag.equals(entry.baseProducer)) {
+                entry.baseValue = result;
+                entry.baseProducer = null;
+                entry.scalarReadyCycle = currentCycle;
+            }
+            if (tag.equals(entry.strideProducer)) {
+                entry.strideValue = result;
+                entry.strideProducer = null;
+                entry.scalarReadyCycle = currentCycle;
+            }
+            if (tag.equals(entry.scalarProducer)) {
+                entry.scalarValue = result;
+                entry.scalarProducer = null;
+                entry.scalarReadyCycle = currentCycle;
+            }
+        }
+    }
+
+    /**
+     * Write back every entry whose last element finished in an earlier cycle.
+     * Entries written back in the previous call free their stations now.
+     */
+    public List<VectorEntry> writeBack(int currentCycle) {
+        entries.removeIf(entry -> entry.writtenBack);
+
+        List<VectorEntry> written = new ArrayList<>();
+        for (VectorEntry entry : entries) {
+            if (!entry.completed || entry.endCycle >= currentCycle) continue;
+
+            Instruction instr = entry.instruction;
+            if (instr.getType() != InstructionType.VECTOR_STORE) {
+                if (entry.tag.equals(vregs.getProducer(instr.getDest()))) {
+                    vregs.setValue(instr.getDest(), entry.result);
+                    vregs.clearProducer(instr.getDest());
+                }
+                for (VectorEntry consumer : entries) {
+                    if (entry.tag.equals(consumer.qj)) {
+                        consumer.vj = entry.result.clone();
+                        consumer.qj = null;
+                    }
+                    if (entry.tag.equals(consumer.qk)) {
+                        consumer.vk = entry.result.clone();
+                        consumer.qk = null;
+                    }
+                }
+            }
+            entry.writtenBack = true;
+            written.add(entry);
+            SimLog.println("[VectorUnit] " + entry.tag + " WRITE-BACK");
+        }
+        return written;
+    }
+
+    /**
+     * Start every ready entry whose pipe can accept a new instruction this cycle.
+     * Memory ops start in program order.
+     */
+    public List<VectorEntry> start(int currentCycle, Memory memory, Cache cache) {
+        List<VectorEntry> started = new ArrayList<>();
+        boolean olderMemoryWaiting = false;
+
+        for (VectorEntry entry : entries) {
+            if (entry.executing || entry.completed || entry.writtenBack) continue;
+
+            boolean isMemory = entry.pipe == Pipe.MEMORY;
+            if (isMemory && olderMemoryWaiting) continue;
+
+            if (!isReadyToStart(entry, currentCycle) || pipeFreeAt.get(entry.pipe) > currentCycle) {
+                if (isMemory) olderMemoryWaiting = true;
+                continue;
+            }
+
+            execute(entry, currentCycle, memory, cache);
+            started.add(entry);
+        }
+        return started;
+    }
+
+    /**
+     * Entries whose last element completes in this cycle.
+     */
+    public List<VectorEntry> finish(int currentCycle) {
+        List<VectorEntry> finished = new ArrayList<>();
+        for (VectorEntry entry : entries) {
+            if (entry.executing && !entry.pendingMemory.isEmpty()) {
+                resolveMemory(entry);
+            }
+            if (entry.executing && !entry.completed && entry.pendingMemory.isEmpty() && entry.endCycle <= currentCycle) {
+                entry.executing = false;
+                entry.completed = true;
+                finished.add(entry);
+                SimLog.println("[VectorUnit] " + entry.tag + " COMPLETED");
+            }
+        }
+        return finished;
+    }
+
+    /**
+     * Once DRAM has scheduled every block of a vector memory operation, push each element's
+     * completion out by its block's latency.
+     */
+    private void resolveMemory(VectorEntry entry) {
+        for (PendingElement pending : entry.pendingMemory) {
+            if (!pending.request.isScheduled()) return;
+        }
+        for (PendingElement pending : entry.pendingMemory) {
+            entry.elementDone[pending.element] += pending.request.getLatency();
+            entry.endCycle = Math.max(entry.endCycle, entry.elementDone[pending.element]);
+        }
+        entry.pendingMemory.clear();
+    }
+
+    private boolean isReadyToStart(VectorEntry entry, int currentCycle) {
+        if (entry.baseProducer != null || entry.strideProducer != null || entry.scalarProducer != null) {
+            return false;
+        }
+        if (entry.scalarReadyCycle >= 0 && currentCycle <= entry.scalarReadyCycle) {
+            return false;
+        }
+        return canChain(entry.qj, currentCycle) && canChain(entry.qk, currentCycle);
+    }
+
+    /** A pending vector source may be consumed once the producer's first element is out. */
+    private boolean canChain(String producerTag, int currentCycle) {
+        if (producerTag == null) return true;
+        VectorEntry producer = findEntryByTag(producerTag);
+        return producer != null && producer.elementDone != null && producer.pendingMemory.isEmpty()
+               && currentCycle > producer.elementDone[0];
+    }
+
+    private void execute(VectorEntry entry, int currentCycle, Memory memory, Cache cache) {
+        int length = vregs.getVectorLength();
+        Instruction instr = entry.instruction;
+        entry.executing = true;
+        entry.startCycle = currentCycle;
+        entry.elementDone = new int[length];
+        entry.result = new double[length];
+
+        VectorEntry producerJ = entry.qj != null ? findEntryByTag(entry.qj) : null;
+        VectorEntry producerK = entry.qk != null ? findEntryByTag(entry.qk) : null;
+        double[] a = producerJ != null ? producerJ.result : entry.vj;
+        double[] b = producerK != null ? producerK.result : entry.vk;
+
+        switch (instr.getType()) {
+            case VECTOR_ALU: {
+                StationType type = entry.pipe == Pipe.ADD ? StationType.FP_ADD : StationType.FP_MUL;
+                int latency = latencyConfig.getLatency(type, instr.getOpcode());
+                String scalarOp = instr.getOpcode().substring(1);
+                for (int i = 0; i < length; i++) {
+                    double rhs = b != null ? b[i] : entry.scalarValue;
+                    entry.result[i] = ALU.compute(scalarOp, a[i], rhs);
+                    int issueAt = Math.max(currentCycle + i / lanes,
+                            Math.max(chainedReady(producerJ, i), chainedReady(producerK, i)));
+                    entry.elementDone[i] = issueAt + latency - 1;
+                }
+                break;
+            }
+            case VECTOR_LOAD:
+            case VECTOR_STORE: {
+                boolean isLoad = instr.getType() == InstructionType.VECTOR_LOAD;
+                int latency = latencyConfig.getLatency(isLoad ? StationType.LOAD : StationType.STORE);
+                int offset = instr.getOffset() != null ? instr.getOffset() : 0;
+                int stride = instr.getSrc2() != null ? (int) entry.strideValue : ELEMENT_BYTES;
+                Map<Integer, Integer> blockLatency = new java.util.HashMap<>();
+                Map<Integer, DramController.Request> blockRequest = new java.util.HashMap<>();
+
+                for (int i = 0; i < length; i++) {
+                    int address = (int) entry.baseValue + offset + i * stride;
+                    int block = (address / cache.getBlockSize()) * cache.getBlockSize();
+                    Integer memLatency = blockLatency.get(block);
+                    if (memLatency == null) {
+                        Cache.CacheAccessResult access = cache.access(address, memory, !isLoad);
+                        memLatency = access.latency;
+                        blockLatency.put(block, memLatency);
+                        if (access.memoryRequest != null) blockRequest.put(block, access.memoryRequest);
+                        entry.touchedAddresses.add(address);
+                    }
+                    int translation = mmu != null ? mmu.translate(address) : 0;
+                    int issueAt = Math.max(currentCycle + i / lanes, chainedReady(producerJ, i));
+                    entry.elementDone[i] = issueAt + latency + translation + memLatency - 1;
+                    DramController.Request request = blockRequest.get(block);
+                    if (request != null) {
+                        // Completes once DRAM has timed the block (see resolveMemory)
+                        entry.pendingMemory.add(new PendingElement(i, request));
+                    }
+
+                    if (isLoad) {
+                        entry.result[i] = memory.loadDouble(address);
+                    } else {
+                        entry.result[i] = a[i];
+                        memory.storeDouble(address, a[i]);
+                    }
+                }
+                SimLog.println("[VectorUnit] " + entry.tag + (isLoad ? " LOADING " : " STORING ") + length +
+                                 " elements from " + ((int) entry.baseValue + offset) + " stride " + stride +
+                                 " (" + blockLatency.size() + " cache blocks)");
+                break;
+            }
+            default:
+                break;
+        }
+
+        entry.endCycle = currentCycle;
+        for (int done : entry.elementDone) {
+            entry.endCycle = Math.max(entry.endCycle, done);
+        }
+        // The pipe takes a new instruction once the last group of elements has entered it
+        pipeFreeAt.put(entry.pipe, currentCycle + (length + lanes - 1) / lanes);
+        elementsProcessed += length;
+
+        SimLog.println("[VectorUnit] Started " + entry.tag + " (" + instr.getOpcode() + ") at cycle " + currentCycle +
+                         ", first element " + entry.elementDone[0] + ", last element " + entry.endCycle +
+                         (producerJ != null || producerK != null ? " (chained)" : ""));
+    }
+
+    private static int chainedReady(VectorEntry producer, int element) {
+        return producer == null ? Integer.MIN_VALUE : producer.elementDone[element] + 1;
+    }
+
+    public VectorEntry findEntryByTag(String tag) {
+        for (VectorEntry entry : entries) {
+            if (entry.tag.equals(tag)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    public List<VectorEntry> getEntries() {
+        return new ArrayList<>(entries);
+    }
+
+    /** True while no vector instruction is in flight. */
+    public boolean isIdle() {
+        return liveCount() == 0;
+    }
+
+    /** True while a vector load or store has not written back. */
+    public boolean hasPendingMemoryOp() {
+        for (VectorEntry entry : entries) {
+            if (entry.pipe == Pipe.MEMORY && !entry.writtenBack) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getElementsProcessed() {
+        return elementsProcessed;
+    }
+
+    public int getLanes() {
+        return lanes;
+    }
+
+    public String getLastAllocatedTag() {
+        return lastAllocatedTag;
+    }
+
+    /** An element whose completion still lacks the DRAM latency of its block. */
+    public static class PendingElement implements Serializable {
+        private static final long serialVersionUID = 1L;
+        public final int element;
+        public final DramController.Request request;
+
+        PendingElement(int element, DramController.Request request) {
+            this.element = element;
+            this.request = request;
+        }
+    }
+
+    public static class VectorEntry implements Serializable {
+        private static final long serialVersionUID = 1L;
+        public final String tag;
+        public final Instruction instruction;
+        public final Pipe pipe;
+        public double[] vj;
+        public double[] vk;
+        public String qj;
+        public String qk;
+        public double scalarValue;
+        public String scalarProducer;
+        public double baseValue;
+        public String baseProducer;
+        public double strideValue = ELEMENT_BYTES;
+        public String strideProducer;
+        public int scalarReadyCycle = -1;  // cycle a scalar operand arrived on the CDB
+        public boolean executing = false;
+        public boolean completed = false;
+        public boolean writtenBack = false;
+        public int startCycle = -1;
+        public int endCycle = -1;
+        public int[] elementDone;          // completion cycle of each element once started
+        public double[] result;
+        public final List<Integer> touchedAddresses = new ArrayList<>();  // one address per cache block
+        public final List<PendingElement> pendingMemory = new ArrayList<>();  // elements waiting on DRAM timing
+
+        VectorEntry(String tag, Instruction instruction, Pipe pipe) {
+            this.tag = tag;
+            this.instruction = instruction;
+            this.pipe = pipe;
+        }
+
+        @Override
+        public String toString() {
+            return tag + " " + instruction.getOpcode() + " Qj=" + qj + " Qk=" + qk +
+                   " executing=" + executing + " start=" + startCycle + " end=" + endCycle;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package guc.edu.sim.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Warmed-up state of a run at a point where nothing is in flight, as written by
+ * {@link SimulatorState#saveCheckpoint(java.nio.file.Path)}. It holds no configuration, so
+ * a simulator with other stations, latencies, cache or TLB geometry can start from it:
+ * snapshot once after warm-up, then fan out to as many configurations as needed.
+ *
+ * File layout (big-endian; everything after the version is gzip-compressed):
+ * <pre>
+ *   int     magic "TSCP"
+ *   int     {@link #FORMAT_VERSION}
+ *   int n,  n x UTF           program listing, one instruction per entry
+ *   int                       cycle the state was taken at
+ *   int t,  t x int           next PC of each hardware thread
+ *   int r,  r x (UTF, double) architectural registers
+ *   int l,  8 x l x double    vector registers V0-V7 of l elements
+ *   int p,  p x (int, 4096 x byte)  written memory pages: page number, contents
+ *   int b,  int c, c x int    cache block size and the start addresses of the c resident blocks
+ *   int k,  int s, s x (int, int)   next store set id, then SSIT entries: program index, set
+ *   int d,  d x long          DTLB page base addresses, least recently used first
+ *   int e,  e x long          second-level TLB page base addresses, least recently used first
+ * </pre>
+ * Cache data is not stored; the cache is write-through, so it is read from memory again.
+ */
+public final class WarmState {
+    private static final int MAGIC = 0x54534350;   // "TSCP"
+    /** Version of the file layout; files of any other version are rejected. */
+    public static final int FORMAT_VERSION = 3;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    final List<String> listing;
+    final int cycle;
+    final int[] threadPcs;
+    final Map<String, Double> registers;
+    final double[][] vectorRegisters;
+    final Map<Integer, byte[]> memoryPages;
+    final int cacheBlockSize;
+    final int[] cacheBlocks;
+    final int nextStoreSet;
+    final Map<Integer, Integer> storeSets;
+    final long[] dtlbAddresses;
+    final long[] l2TlbAddresses;
+
+    WarmState(List<String> listing, int cycle, int[] threadPcs, Map<String, Double> registers,
+              double[][] vectorRegisters, Map<Integer, byte[]> memoryPages, int cacheBlockSize, int[] cacheBlocks,
+              int nextStoreSet, Map<Integer, Integer> storeSets, long[] dtlbAddresses, long[] l2TlbAddresses) {
+        this.listing = listing;
+        this.cycle = cycle;
+        this.threadPcs = threadPcs;
+        this.registers = registers;
+        this.vectorRegisters = vectorRegisters;
+        this.memoryPages = memoryPages;
+        this.cacheBlockSize = cacheBlockSize;
+        this.cacheBlocks = cacheBlocks;
+        this.nextStoreSet = nextStoreSet;
+        this.storeSets = storeSets;
+        this.dtlbAddresses = dtlbAddresses;
+        this.l2TlbAddresses = l2TlbAddresses;
+    }
+
+    /** Cycle of the original run this state was taken at. */
+    public int getCycle() { return cycle; }
+
+    /** Write this state in the file layout above; {@code out} is left open. */
+    void writeTo(OutputStream out) throws IOException {
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(MAGIC);
+        header.writeInt(FORMAT_VERSION);
+        header.flush();
+
+        GZIPOutputStream zip = new GZIPOutputStream(out, BUFFER_SIZE) {
+            {
+                def.setLevel(Deflater.BEST_SPEED);
+            }
+        };
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(zip, BUFFER_SIZE));
+        data.writeInt(listing.size());
+        for (String line : listing) data.writeUTF(line);
+        data.writeInt(cycle);
+
+        data.writeInt(threadPcs.length);
+        for (int pc : threadPcs) data.writeInt(pc);
+        data.writeInt(registers.size());
+        for (Map.Entry<String, Double> register : new TreeMap<>(registers).entrySet()) {
+            data.writeUTF(register.getKey());
+            data.writeDouble(register.getValue());
+        }
+        data.writeInt(vectorRegisters[0].length);
+        for (double[] vector : vectorRegisters) {
+            for (double element : vector) data.writeDouble(element);
+        }
+
+        data.writeInt(memoryPages.size());
+        for (Map.Entry<Integer, byte[]> page : memoryPages.entrySet()) {
+            data.writeInt(page.getKey());
+            data.write(page.getValue());
+        }
+
+        data.writeInt(cacheBlockSize);
+        data.writeInt(cacheBlocks.length);
+        for (int block : cacheBlocks) data.writeInt(block);
+
+        data.writeInt(nextStoreSet);
+        data.writeInt(storeSets.size());
+        for (Map.Entry<Integer, Integer> entry : new TreeMap<>(storeSets).entrySet()) {
+            data.writeInt(entry.getKey());
+            data.writeInt(entry.getValue());
+        }
+
+        writeAddresses(data, dtlbAddresses);
+        writeAddresses(data, l2TlbAddresses);
+        data.flush();
+        zip.finish();
+    }
+
+    private static void writeAddresses(DataOutputStream data, long[] addresses) throws IOException {
+        data.writeInt(addresses.length);
+        for (long address : addresses) data.writeLong(address);
+    }
+
+    /**
+     * Read a state written by {@link #writeTo}; {@code in} is left open.
+     * @param listing the loaded program's instructions, which must match the file's
+     */
+    static WarmState readFrom(InputStream in, List<String> listing) throws IOException {
+        DataInputStream header = new DataInputStream(in);
+        if (header.readInt() != MAGIC) {
+            throw new IOException("Not a simulator checkpoint file");
+        }
+        int version = header.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Checkpoint format version " + version + " is not supported (expected " +
+                                  FORMAT_VERSION + ")");
+        }
+
+        DataInputStream data = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in, BUFFER_SIZE), BUFFER_SIZE));
+        int lines = data.readInt();
+        boolean sameProgram = lines == listing.size();
+        for (int i = 0; i < lines; i++) {
+            String line = data.readUTF();
+            sameProgram &= i < listing.size() && line.equals(listing.get(i));
+        }
+        if (!sameProgram) {
+            throw new IOException("Checkpoint was saved from a different program");
+        }
+        int cycle = data.readInt();
+
+        int[] threadPcs = new int[data.readInt()];
+        for (int i = 0; i < threadPcs.length; i++) threadPcs[i] = data.readInt();
+        int registerCount = data.readInt();
+        Map<String, Double> registers = new HashMap<>(registerCount * 2);
+        for (int i = 0; i < registerCount; i++) {
+            registers.put(data.readUTF(), data.readDouble());
+        }
+        double[][] vectorRegisters = new double[VectorRegisterFile.NUM_REGISTERS][data.readInt()];
+        for (double[] vector : vectorRegisters) {
+            for (int i = 0; i < vector.length; i++) vector[i] = data.readDouble();
+        }
+
+        int pageCount = data.readInt();
+        Map<Integer, byte[]> pages = new HashMap<>(pageCount * 2);
+        for (int i = 0; i < pageCount; i++) {
+            int number = data.readInt();
+            byte[] page = new byte[Memory.PAGE_SIZE];
+            data.readFully(page);
+            pages.put(number, page);
+        }
+
+        int cacheBlockSize = data.readInt();
+        int[] cacheBlocks = new int[data.readInt()];
+        for (int i = 0; i < cacheBlocks.length; i++) cacheBlocks[i] = data.readInt();
+
+        int nextStoreSet = data.readInt();
+        int storeSetCount = data.readInt();
+        Map<Integer, Integer> storeSets = new HashMap<>(storeSetCount * 2);
+        for (int i = 0; i < storeSetCount; i++) {
+            storeSets.put(data.readInt(), data.readInt());
+        }
+
+        long[] dtlbAddresses = readAddresses(data);
+        long[] l2TlbAddresses = readAddresses(data);
+        return new WarmState(listing, cycle, threadPcs, registers, vectorRegisters, pages, cacheBlockSize,
+                             cacheBlocks, nextStoreSet, storeSets, dtlbAddresses, l2TlbAddresses);
+    }
+
+    private static long[] readAddresses(DataInputStream data) throws IOException {
+        long[] addresses = new long[data.readInt()];
+        for (int i = 0; i < addresses.length; i++) addresses[i] = data.readLong();
+        return addresses;
+    }
+}
@@ -0,0 +1,314 @@
+package guc.edu.sim.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Seeded generator of synthetic programs and matching memory images for stress and
+ * sensitivity runs. The same {@link Config} (including the seed) always produces the
+ * same listing, register values and memory image.
+ *
+ * A workload is a sequence of loops. Each loop body is drawn from the instruction mix;
+ * every source operand reads the result of an earlier instruction at a distance drawn
+ * from the dependency-distance distribution. Memory operations address a region of
+ * {@code footprintBytes} through base register R2, which can advance every iteration.
+ * Forward branches inside the body skip a few instructions, taken or not by site.
+ *
+ * Register use: R1 loop counter, R2 memory base, R3 = 0 and R4 = 1 for branch
+ * conditions, R10-R25 integer values, F0-F31 floating-point values.
+ */
+public class WorkloadGenerator {
+
+    public enum StridePattern {
+        SEQUENTIAL,  // consecutive doubles
+        STRIDED,     // every strideBytes
+        RANDOM       // anywhere in the footprint
+    }
+
+    /** Generator settings; the defaults give a small mixed FP loop. */
+    public static class Config {
+        public long seed = 1;
+
+        // Shape
+        public int loops = 1;
+        public int bodyLength = 16;
+        public int minTripCount = 10;
+        public int maxTripCount = 10;
+
+        // Instruction mix (relative weights)
+        public double fpAddWeight = 0.25;
+        public double fpMulWeight = 0.15;
+        public double fpDivWeight = 0.02;
+        public double intAluWeight = 0.15;
+        public double intMulWeight = 0.0;
+        public double loadWeight = 0.28;
+        public double storeWeight = 0.15;
+
+        /**
+         * Dependency distances: if set, weight i is the relative chance that a source reads
+         * the result produced i + 1 instructions earlier. Otherwise distances are geometric
+         * with mean {@link #meanDependencyDistance}.
+         */
+        public double[] dependencyDistanceWeights = null;
+        public double meanDependencyDistance = 4.0;
+
+        // Memory
+        public int footprintBytes = 512;
+        public StridePattern stridePattern = StridePattern.SEQUENTIAL;
+        public int strideBytes = 64;
+        public int iterationAdvanceBytes = 0;  // added to the base register every iteration
+
+        // Branches
+        public double branchFraction = 0.0;          // chance of a forward branch at each body slot
+        public double branchTakenProbability = 0.5;  // chance a branch site always skips
+        public int maxBranchSkip = 3;
+    }
+
+    /** A generated program with the register and memory values it expects. */
+    public static class Workload {
+        public final long seed;
+        public final List<String> lines;
+        public final Map<String, Double> registerValues;
+        public final Map<Integer, Double> memoryImage;
+        public final int staticInstructions;
+
+        Workload(long seed, List<String> lines, Map<String, Double> registerValues,
+                 Map<Integer, Double> memoryImage, int staticInstructions) {
+            this.seed = seed;
+            this.lines = Collections.unmodifiableList(lines);
+            this.registerValues = Collections.unmodifiableMap(registerValues);
+            this.memoryImage = Collections.unmodifiableMap(memoryImage);
+            this.staticInstructions = staticInstructions;
+        }
+
+        /** Load the program, registers and memory image into {@code sim}. */
+        public void loadInto(SimulatorState sim) {
+            sim.loadProgramLines(lines);
+            sim.loadInitialRegisterValues(registerValues);
+            sim.loadInitialMemoryValues(memoryImage);
+        }
+
+        public String toListing() {
+            return String.join("\n", lines) + "\n";
+        }
+    }
+
+    private static final int INT_REG_FIRST = 10;
+    private static final int INT_REG_COUNT = 16;
+    private static final int FP_REG_COUNT = 32;
+    private static final int ELEMENT_BYTES = 8;
+
+    private final Config config;
+    private Random random;
+    private List<String> fpProducers;
+    private List<String> intProducers;
+    private int nextMemorySlot;
+
+    public WorkloadGenerator(Config config) {
+        if (config.loops < 1 || config.bodyLength < 1) {
+            throw new IllegalArgumentException("Need at least one loop with a non-empty body");
+        }
+        if (config.minTripCount < 1 || config.maxTripCount < config.minTripCount) {
+            throw new IllegalArgumentException("Bad trip count range " + config.minTripCount + ".." + config.maxTripCount);
+        }
+        if (config.footprintBytes < ELEMENT_BYTES) {
+            throw new IllegalArgumentException("Footprint must hold at least one double");
+        }
+        this.config = config;
+    }
+
+    public Workload generate() {
+        random = new Random(config.seed);
+        fpProducers = new ArrayList<>();
+        intProducers = new ArrayList<>();
+        nextMemorySlot = 0;
+
+        List<String> lines = new ArrayList<>();
+        lines.add("# Synthetic workload, seed " + config.seed);
+        int staticInstructions = 0;
+        int branchSites = 0;
+        int maxSpan = config.footprintBytes;
+
+        for (int loop = 0; loop < config.loops; loop++) {
+            int trips = config.minTripCount + random.nextInt(config.maxTripCount - config.minTripCount + 1);
+            String loopLabel = "L" + loop;
+            lines.add("DADDI R1, R0, " + trips);
+            lines.add("DADDI R2, R0, 0");
+            staticInstructions += 2;
+
+            List<String> body = new ArrayList<>();
+            int skipEndsAt = -1;
+            String skipLabel = null;
+            for (int slot = 0; slot < config.bodyLength; slot++) {
+                if (skipLabel == null && slot < config.bodyLength - 1 && random.nextDouble() < config.branchFraction) {
+                    skipLabel = "S" + (branchSites++);
+                    String condition = random.nextDouble() < config.branchTakenProbability ? "R3" : "R4";
+                    body.add("BEQ " + condition + ", R0, " + skipLabel);
+                    skipEndsAt = Math.min(config.bodyLength, slot + 1 + random.nextInt(Math.max(1, config.maxBranchSkip)));
+                    staticInstructions++;
+                }
+                body.add(nextInstruction());
+                staticInstructions++;
+                if (skipLabel != null && slot + 1 == skipEndsAt) {
+                    body.add(skipLabel + ":");
+                    skipLabel = null;
+                }
+            }
+            if (skipLabel != null) {
+                body.add(skipLabel + ":");
+            }
+
+            body.set(0, loopLabel + ": " + body.get(0));
+            lines.addAll(body);
+            if (config.iterationAdvanceBytes != 0) {
+                lines.add("DADDI R2, R2, " + config.iterationAdvanceBytes);
+                staticInstructions++;
+            }
+            lines.add("DSUBI R1, R1, 1");
+            lines.add("BNE R1, R0, " + loopLabel);
+            staticInstructions += 2;
+
+            maxSpan = Math.max(maxSpan, config.footprintBytes + Math.max(0, config.iterationAdvanceBytes) * (trips - 1));
+        }
+
+        Map<String, Double> registers = new LinkedHashMap<>();
+        registers.put("R4", 1.0);
+        for (int r = 0; r < INT_REG_COUNT; r++) {
+            registers.put("R" + (INT_REG_FIRST + r), (double) (1 + random.nextInt(16)));
+        }
+        for (int f = 0; f < FP_REG_COUNT; f++) {
+            registers.put("F" + f, 1.0 + random.nextInt(64) / 8.0);
+        }
+
+        Map<Integer, Double> memoryImage = new HashMap<>();
+        for (int address = 0; address < maxSpan; address += ELEMENT_BYTES) {
+            memoryImage.put(address, 1.0 + random.nextInt(64) / 8.0);
+        }
+
+        SimLog.println("[Workload] Seed " + config.seed + ": " + staticInstructions + " static instructions, " +
+                       config.loops + " loop(s), " + memoryImage.size() + " memory words");
+        return new Workload(config.seed, lines, registers, memoryImage, staticInstructions);
+    }
+
+    private String nextInstruction() {
+        double[] weights = {
+            config.fpAddWeight, config.fpMulWeight, config.fpDivWeight,
+            config.intAluWeight, config.intMulWeight, config.loadWeight, config.storeWeight
+        };
+        switch (pick(weights)) {
+            case 0:
+                return fpOp(random.nextBoolean() ? "ADD.D" : "SUB.D");
+            case 1:
+                return fpOp("MUL.D");
+            case 2:
+                return fpOp("DIV.D");
+            case 3:
+                return intOp();
+            case 4: {
+                String src1 = intSource();
+                String src2 = intSource();
+                return "DMUL " + intDest() + ", " + src1 + ", " + src2;
+            }
+            case 5: {
+                String dest = "F" + random.nextInt(FP_REG_COUNT);
+                String line = "L.D " + dest + ", " + memoryOffset() + "(R2)";
+                fpProducers.add(dest);
+                return line;
+            }
+            default:
+                return "S.D " + fpSource() + ", " + memoryOffset() + "(R2)";
+        }
+    }
+
+    private String fpOp(String opcode) {
+        String src1 = fpSource();
+        String src2 = fpSource();
+        String dest = "F" + random.nextInt(FP_REG_COUNT);
+        fpProducers.add(dest);
+        return opcode + " " + dest + ", " + src1 + ", " + src2;
+    }
+
+    private String intOp() {
+        String src1 = intSource();
+        if (random.nextBoolean()) {
+            return "DADDI " + intDest() + ", " + src1 + ", " + (1 + random.nextInt(8));
+        }
+        String src2 = intSource();
+        return (random.nextBoolean() ? "DADD " : "DSUB ") + intDest() + ", " + src1 + ", " + src2;
+    }
+
+    private String intDest() {
+        String dest = "R" + (INT_REG_FIRST + random.nextInt(INT_REG_COUNT));
+        intProducers.add(dest);
+        return dest;
+    }
+
+    private String fpSource() {
+        return source(fpProducers, "F", 0, FP_REG_COUNT);
+    }
+
+    private String intSource() {
+        return source(intProducers, "R", INT_REG_FIRST, INT_REG_COUNT);
+    }
+
+    /**
+     * The result of the producer {@code distance} instructions back, or a live-in register
+     * when there is no such producer yet.
+     */
+    private String source(List<String> producers, String prefix, int first, int count) {
+        int distance = dependencyDistance();
+        if (distance <= producers.size()) {
+            return producers.get(producers.size() - distance);
+        }
+        return prefix + (first + random.nextInt(count));
+    }
+
+    private int dependencyDistance() {
+        if (config.dependencyDistanceWeights != null) {
+            return pick(config.dependencyDistanceWeights) + 1;
+        }
+        // Geometric on 1, 2, ... with the configured mean
+        double p = 1.0 / Math.max(1.0, config.meanDependencyDistance);
+        if (p >= 1.0) return 1;
+        return 1 + (int) Math.floor(Math.log(1.0 - random.nextDouble()) / Math.log(1.0 - p));
+    }
+
+    private int memoryOffset() {
+        int slots = config.footprintBytes / ELEMENT_BYTES;
+        int slot;
+        switch (config.stridePattern) {
+            case STRIDED:
+                slot = (nextMemorySlot * Math.max(1, config.strideBytes / ELEMENT_BYTES)) % slots;
+                nextMemorySlot++;
+                break;
+            case RANDOM:
+                slot = random.nextInt(slots);
+                break;
+            case SEQUENTIAL:
+            default:
+                slot = nextMemorySlot % slots;
+                nextMemorySlot++;
+                break;
+        }
+        return slot * ELEMENT_BYTES;
+    }
+
+    private int pick(double[] weights) {
+        double total = 0.0;
+        for (double w : weights) total += Math.max(0.0, w);
+        if (total <= 0.0) {
+            throw new IllegalArgumentException("All weights are zero");
+        }
+        double x = random.nextDouble() * total;
+        for (int i = 0; i < weights.length; i++) {
+            x -= Math.max(0.0, weights[i]);
+            if (x < 0) return i;
+        }
+        return weights.length - 1;
+    }
+}
@@ -21,10 +21,13 @@ public class CacheLineView {
 
     public boolean isValid() { return valid.get(); }
     public BooleanProperty validProperty() { return valid; }
+    public void setValid(boolean value) { valid.set(value); }
 
     public String getTag() { return tag.get(); }
     public StringProperty tagProperty() { return tag; }
+    public void setTag(String value) { tag.set(value); }
 
     public String getData() { return data.get(); }
     public StringProperty dataProperty() { return data; }
+    public void setData(String value) { data.set(value); }
 }
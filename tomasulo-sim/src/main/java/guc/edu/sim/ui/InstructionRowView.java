@@ -46,15 +46,19 @@ public class InstructionRowView {
 
     public String getIssue() { return issue.get(); }
     public StringProperty issueProperty() { return issue; }
+    public void setIssue(String value) { issue.set(value); }
 
     public String getExecStart() { return execStart.get(); }
     public StringProperty execStartProperty() { return execStart; }
+    public void setExecStart(String value) { execStart.set(value); }
 
     public String getExecEnd() { return execEnd.get(); }
     public StringProperty execEndProperty() { return execEnd; }
+    public void setExecEnd(String value) { execEnd.set(value); }
 
     public String getWriteBack() { return writeBack.get(); }
     public StringProperty writeBackProperty() { return writeBack; }
+    public void setWriteBack(String value) { writeBack.set(value); }
     
     public int getIteration() { return iteration.get(); }
     public IntegerProperty iterationProperty() { return iteration; }
@@ -0,0 +1,160 @@
+package guc.edu.sim.ui;
+
+import javafx.animation.AnimationTimer;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.ListView;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import guc.edu.sim.core.SimLog;
+
+/**
+ * Bounded log view. Messages may be appended from any thread; they are queued and
+ * added to the (virtualized) list once per frame, and only the newest
+ * {@link #capacity} entries are kept.
+ */
+public class LogConsole {
+    public static final String ALL_COMPONENTS = "All components";
+
+    private final int capacity;
+    private final ListView<Entry> listView;
+    private final ComboBox<SimLog.Level> levelCombo;
+    private final ComboBox<String> componentCombo;
+
+    private final ObservableList<Entry> entries = FXCollections.observableArrayList();
+    private final FilteredList<Entry> visible = new FilteredList<>(entries);
+    private final ConcurrentLinkedQueue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AnimationTimer flushTimer;
+
+    public LogConsole(ListView<Entry> listView, ComboBox<SimLog.Level> levelCombo,
+                      ComboBox<String> componentCombo, int capacity) {
+        this.listView = listView;
+        this.levelCombo = levelCombo;
+        this.componentCombo = componentCombo;
+        this.capacity = capacity;
+
+        listView.setItems(visible);
+        if (levelCombo != null) {
+            levelCombo.getItems().setAll(SimLog.Level.values());
+            levelCombo.setValue(SimLog.Level.INFO);
+            levelCombo.valueProperty().addListener((obs, oldV, newV) -> updateFilter());
+        }
+        if (componentCombo != null) {
+            componentCombo.getItems().setAll(ALL_COMPONENTS);
+            componentCombo.setValue(ALL_COMPONENTS);
+            componentCombo.valueProperty().addListener((obs, oldV, newV) -> updateFilter());
+        }
+        updateFilter();
+
+        flushTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                flush();
+            }
+        };
+        flushTimer.start();
+    }
+
+    /**
+     * Queue a message. Safe to call from the simulation thread.
+     */
+    public void append(int cycle, SimLog.Level level, String component, String message) {
+        pending.add(new Entry(cycle, level, component, message));
+        // Never buffer more than one console's worth between frames
+        if (pendingCount.incrementAndGet() > capacity && pending.poll() != null) {
+            pendingCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Move queued messages into the list in one batch. Runs on the FX thread.
+     */
+    public void flush() {
+        if (pending.isEmpty()) return;
+
+        List<Entry> batch = new ArrayList<>();
+        Entry entry;
+        while ((entry = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            batch.add(entry);
+            if (componentCombo != null && !componentCombo.getItems().contains(entry.component)) {
+                componentCombo.getItems().add(entry.component);
+            }
+        }
+
+        boolean atEnd = isScrolledToEnd();
+        entries.addAll(batch);
+        int excess = entries.size() - capacity;
+        if (excess > 0) {
+            entries.remove(0, excess);
+        }
+        if (atEnd && !visible.isEmpty()) {
+            listView.scrollTo(visible.size() - 1);
+        }
+    }
+
+    public void clear() {
+        pending.clear();
+        pendingCount.set(0);
+        entries.clear();
+    }
+
+    /**
+     * Write every retained entry (ignoring the filters) to a text file.
+     */
+    public void save(File file) throws IOException {
+        flush();
+        List<String> lines = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            lines.add(entry.toString());
+        }
+        Files.write(file.toPath(), lines);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void updateFilter() {
+        SimLog.Level minLevel = levelCombo != null && levelCombo.getValue() != null
+                ? levelCombo.getValue() : SimLog.Level.DEBUG;
+        String component = componentCombo != null ? componentCombo.getValue() : null;
+        boolean anyComponent = component == null || ALL_COMPONENTS.equals(component);
+        visible.setPredicate(entry -> entry.level.compareTo(minLevel) >= 0
+                && (anyComponent || entry.component.equals(component)));
+    }
+
+    private boolean isScrolledToEnd() {
+        // Keep following new output unless the user has selected an older line
+        int selected = listView.getSelectionModel().getSelectedIndex();
+        return selected < 0 || selected >= visible.size() - 1;
+    }
+
+    public static class Entry {
+        public final int cycle;
+        public final SimLog.Level level;
+        public final String component;
+        public final String message;
+
+        Entry(int cycle, SimLog.Level level, String component, String message) {
+            this.cycle = cycle;
+            this.level = level;
+            this.component = component;
+            this.message = message;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[Cycle %d] %-5s [%s] %s", cycle, level, component, message);
+        }
+    }
+}
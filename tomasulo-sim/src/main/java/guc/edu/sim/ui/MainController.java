@@ -6,6 +6,7 @@ import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.VBox;
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.stage.FileChooser;
 import java.io.File;
@@ -32,7 +33,9 @@ public class MainController {
     @FXML private TableColumn<InstructionRowView, String> colExecStart;
     @FXML private TableColumn<InstructionRowView, String> colExecEnd;
     @FXML private TableColumn<InstructionRowView, String> colWriteBack;
-    @FXML private TextArea logArea;
+    @FXML private ListView<LogConsole.Entry> logList;
+    @FXML private ComboBox<SimLog.Level> logLevelCombo;
+    @FXML private ComboBox<String> logComponentCombo;
     @FXML private VBox logContainer;
 
     // RS tab
@@ -127,6 +130,8 @@ public class MainController {
     @FXML private TextField intRsSizeField;
     @FXML private TextField loadBufferSizeField;   // CHANGED
     @FXML private TextField storeBufferSizeField;  // CHANGED
+    @FXML private ComboBox<SimulatorState.RenameScheme> renameSchemeCombo;
+    @FXML private TextField physicalRegsField;
 
     @FXML private TextField cacheSizeField;
     @FXML private TextField blockSizeField;
@@ -145,10 +150,19 @@ public class MainController {
     @FXML private Label warHazardsLabel;
     @FXML private Label wawHazardsLabel;
     @FXML private Label structuralHazardsLabel;
+    @FXML private Label registerFreeStallsLabel;
     @FXML private Label loadCountLabel;
     @FXML private Label storeCountLabel;
     @FXML private Label aluCountLabel;
     @FXML private Label branchCountLabel;
+    @FXML private Label intMulDivCountLabel;
+    @FXML private Label energyTotalLabel;
+    @FXML private Label averagePowerLabel;
+    @FXML private Label energyDelayLabel;
+    @FXML private Label energyBreakdownLabel;
+    @FXML private Label memoryChannelLabel;
+    @FXML private Label dramLabel;
+    @FXML private Label tlbLabel;
 
 
     // Menu items
@@ -158,6 +172,14 @@ public class MainController {
     // Status bar
     @FXML private Label statusBarLabel;
 
+    // Run controls
+    @FXML private ComboBox<String> runSpeedCombo;
+    @FXML private TextField runToCycleField;
+    @FXML private Slider timelineSlider;
+    @FXML private Label timelineLabel;
+    @FXML private TextField breakpointField;
+    @FXML private Label breakpointsLabel;
+
     // Data - CHANGED: Separate lists for load and store buffers
     private final ObservableList<InstructionRowView> instructions = FXCollections.observableArrayList();
     private final ObservableList<ReservationStationView> addSubStations = FXCollections.observableArrayList();
@@ -169,11 +191,29 @@ public class MainController {
     private final ObservableList<RegisterView> fpRegisters = FXCollections.observableArrayList();
     private final ObservableList<CacheLineView> cacheLines = FXCollections.observableArrayList();
 
+    // Row lookup so the change feed can patch individual rows in place
+    private final Map<String, ReservationStationView> stationViews = new HashMap<>();
+    private final Map<String, LoadStoreView> loadBufferViews = new HashMap<>();
+    private final Map<String, LoadStoreView> storeBufferViews = new HashMap<>();
+    private final Map<String, RegisterView> registerViews = new HashMap<>();
+
+    // Run speeds offered in the toolbar, in cycles per second (0 = full speed)
+    private static final int[] RUN_RATES = {0, 10000, 1000, 100, 10, 2};
+    private static final long FRAME_INTERVAL_NANOS = 1_000_000_000L / 30;
+    // Cycles between simulator checkpoints; stepping back replays at most this many cycles
+    private static final int CHECKPOINT_INTERVAL = 500;
+
     private int cycle = 0;
     private int cacheHits = 0;
     private int cacheMisses = 0;
     private boolean isRunning = false;
     private SimulatorState sim;
+    private SimulationRunner runner;
+    private SimulatorSnapshot lastSnapshot;
+    private AnimationTimer frameTimer;
+    private LogConsole logConsole;
+
+    private static final int LOG_CAPACITY = 5000;
 
     @FXML
     private void initialize() {
@@ -182,6 +222,9 @@ public class MainController {
         setupLoadStoreBufferTables();  // CHANGED
         setupRegisterTables();
         setupCacheTable();
+        setupRunControls();
+        setupRenameControls();
+        setupLogConsole();
 
         refreshAllLabels();
         log("✓ Tomasulo Simulator initialized successfully");
@@ -190,6 +233,56 @@ public class MainController {
 
     // ========== Table Setup ==========
 
+    private void setupRenameControls() {
+        if (renameSchemeCombo != null) {
+            renameSchemeCombo.getItems().setAll(SimulatorState.RenameScheme.values());
+            renameSchemeCombo.setValue(SimulatorState.RenameScheme.TAGS);
+        }
+    }
+
+    /** Apply the renaming scheme selected on the configuration tab. */
+    private void applyRenameConfiguration() {
+        SimulatorState.RenameScheme scheme = renameSchemeCombo != null && renameSchemeCombo.getValue() != null
+                ? renameSchemeCombo.getValue() : SimulatorState.RenameScheme.TAGS;
+        sim.setRenameScheme(scheme, getIntValue(physicalRegsField, 96));
+    }
+
+    private void setupRunControls() {
+        if (runSpeedCombo != null) {
+            for (int rate : RUN_RATES) {
+                runSpeedCombo.getItems().add(rate > 0 ? rate + " cycles/s" : "Full speed");
+            }
+            runSpeedCombo.getSelectionModel().selectLast();
+        }
+        if (timelineSlider != null) {
+            // Jump only when the drag ends; every intermediate value would replay the run
+            timelineSlider.valueChangingProperty().addListener((obs, wasChanging, changing) -> {
+                if (!changing) onTimelineMoved();
+            });
+            timelineSlider.setOnMouseReleased(e -> onTimelineMoved());
+        }
+        
+        // Rendering is capped at a fixed frame rate, independent of simulation speed
+        frameTimer = new AnimationTimer() {
+            private long lastFrame = 0;
+            
+            @Override
+            public void handle(long now) {
+                if (now - lastFrame < FRAME_INTERVAL_NANOS) return;
+                lastFrame = now;
+                renderFrame();
+            }
+        };
+    }
+
+    private void setupLogConsole() {
+        if (logList == null) return;
+        logConsole = new LogConsole(logList, logLevelCombo, logComponentCombo, LOG_CAPACITY);
+        // Core messages are captured too; they are DEBUG level and hidden by the default filter
+        SimLog.setSink((level, component, message) ->
+                logConsole.append(sim != null ? sim.getCycle() : cycle, level, component, message));
+    }
+
     private void setupInstructionTable() {
         colInstrIndex.setCellValueFactory(new PropertyValueFactory<>("index"));
         colInstrPC.setCellValueFactory(new PropertyValueFactory<>("pc"));
@@ -304,13 +397,26 @@ public class MainController {
                         nullSafe(instr.getSrc2()), nullSafe(instr.getBranchTargetLabel()));
             case ALU_FP:
             case ALU_INT:
-                if (instr.getSrc2() != null) {
+                if (instr.getSrc3() != null) {
+                    return String.format("%s %s, %s, %s, %s", op, nullSafe(instr.getDest()),
+                            nullSafe(instr.getSrc1()), nullSafe(instr.getSrc2()), nullSafe(instr.getSrc3()));
+                } else if (instr.getSrc2() != null) {
                     return String.format("%s %s, %s, %s", op, nullSafe(instr.getDest()),
                             nullSafe(instr.getSrc1()), nullSafe(instr.getSrc2()));
                 } else {
                     return String.format("%s %s, %s", op, nullSafe(instr.getDest()),
                             nullSafe(instr.getSrc1()));
                 }
+            case VECTOR_ALU:
+                return String.format("%s %s, %s, %s", op, nullSafe(instr.getDest()),
+                        nullSafe(instr.getSrc1()), nullSafe(instr.getSrc2()));
+            case VECTOR_LOAD:
+            case VECTOR_STORE: {
+                String reg = instr.getType() == InstructionType.VECTOR_LOAD ? instr.getDest() : instr.getSrc1();
+                String text = String.format("%s %s, %d(%s)", op, nullSafe(reg),
+                        instr.getOffset() == null ? 0 : instr.getOffset(), nullSafe(instr.getBase()));
+                return instr.getSrc2() != null ? text + ", " + instr.getSrc2() : text;
+            }
             default:
                 return op;
         }
@@ -331,93 +437,91 @@ public class MainController {
     @FXML
     private void onRun() {
         if (isRunning) {
-            log("⚠ Simulation already running");
+            log(SimLog.Level.WARN, "⚠ Simulation already running");
             return;
         }
         if (sim == null || ! sim.isProgramLoaded()) {
-            log("⚠ No program loaded");
+            log(SimLog.Level.WARN, "⚠ No program loaded");
             return;
         }
+        if (sim.isFinished()) {
+            log(SimLog.Level.WARN, "⚠ Program already completed - reset to run again");
+            return;
+        }
+        
+        int rate = selectedRunRate();
+        int stopAtCycle = getIntValue(runToCycleField, -1);
         
         isRunning = true;
         statusLabel.setText("Running");
         statusLabel.setStyle("-fx-font-size: 14; -fx-font-weight: bold; -fx-text-fill: #4CAF50;");
-        log("▶ Starting continuous simulation...");
+        log("▶ Starting continuous simulation " + (rate > 0 ? "at " + rate + " cycles/s" : "at full speed")
+                + (stopAtCycle >= 0 ? " until cycle " + stopAtCycle : "") + "...");
         
-        // Run simulation in background thread
-        new Thread(() -> {
-            // Keep running while:
-            // 1. There are instructions to issue, OR
-            // 2. There are instructions that haven't completed (not all write-backs are done)
-            while (isRunning && (sim.getIssueUnit().hasNext() || hasInstructionsInProgress())) {
-                try {
-                    Thread.sleep(500); // 500ms delay between cycles
-                    Platform.runLater(() -> {
-                        if (isRunning) {
-                            stepSimulation();
-                        }
-                    });
-                    // Wait for UI update to complete before checking again
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {
-                    Thread. currentThread().interrupt();
-                    break;
-                }
-            }
-            Platform.runLater(() -> {
-                isRunning = false;
-                statusLabel.setText("Completed");
-                statusLabel.setStyle("-fx-font-size: 14; -fx-font-weight: bold; -fx-text-fill: #2196F3;");
-                log("✓ Simulation completed");
-            });
-        }).start();
+        // The simulator steps on its own thread; the frame timer samples snapshots of it
+        runner = new SimulationRunner(sim);
+        runner.start(rate, stopAtCycle, () -> Platform.runLater(this::onRunFinished));
+        frameTimer.start();
     }
     
- // Check if there are any instructions still in progress (not yet written back)
-    private boolean hasInstructionsInProgress() {
-        if (sim == null) {
-            return false;
-        }
-        
-        // Check if there are any reservation stations busy
-        if (sim.getReservationStations() != null) {
-            for (ReservationStationEntry entry : sim.getReservationStations(). getStations()) {
-                // If any station is busy, we have instructions in progress
-                return true;
-            }
+    private void onRunFinished() {
+        if (!isRunning) {
+            return; // Paused or reset; already handled
         }
-        
-        // Check if there are any load buffer entries
-        if (sim.getLoadBuffer() != null && ! sim.getLoadBuffer().getBuffer().isEmpty()) {
-            return true;
+        stopRun();
+        if (lastSnapshot != null && lastSnapshot.isFinished()) {
+            statusLabel.setText("Completed");
+            statusLabel.setStyle("-fx-font-size: 14; -fx-font-weight: bold; -fx-text-fill: #2196F3;");
+            log("✓ Simulation completed");
+            updateStatusBar("Completed at cycle " + cycle);
+        } else if (sim.getBreakpointHit() != null) {
+            statusLabel.setText("Breakpoint");
+            statusLabel.setStyle("-fx-font-size: 14; -fx-font-weight: bold; -fx-text-fill: #f44336;");
+            log("⛔ Breakpoint '" + sim.getBreakpointHit() + "' hit at cycle " + cycle);
+            updateStatusBar("Stopped at breakpoint, cycle " + cycle);
+        } else {
+            statusLabel.setText("Paused");
+            statusLabel.setStyle("-fx-font-size: 14; -fx-font-weight: bold; -fx-text-fill: #FF9800;");
+            log("⏸ Reached cycle " + cycle);
+            updateStatusBar("Stopped at cycle " + cycle);
         }
-        
-        // Check if there are any store buffer entries
-        if (sim.getStoreBuffer() != null && !sim.getStoreBuffer().getBuffer().isEmpty()) {
-            return true;
+    }
+    
+    /**
+     * Stop the background run (if any) and render its final state.
+     */
+    private void stopRun() {
+        isRunning = false;
+        frameTimer.stop();
+        if (runner != null) {
+            runner.stop();
+            applySnapshot(runner.snapshot());
+            refreshAllLabels();
+            runner = null;
         }
-        
-        // Check instruction statuses to see if any haven't written back yet
-        if (sim.getInstructionStatuses() != null) {
-            List<SimulatorState.InstructionStatus> statuses = sim.getInstructionStatuses();
-            for (SimulatorState.InstructionStatus status : statuses) {
-                // If instruction was issued but hasn't written back, it's still in progress
-                if (status. issueCycle > 0 && status.writeBackCycle <= 0) {
-                    return true;
-                }
-            }
+    }
+    
+    private void renderFrame() {
+        if (runner == null) return;
+        applySnapshot(runner.snapshot());
+        refreshAllLabels();
+        updateStatusBar("Running - cycle " + cycle);
+    }
+    
+    private int selectedRunRate() {
+        if (runSpeedCombo == null || runSpeedCombo.getSelectionModel().getSelectedIndex() < 0) {
+            return RUN_RATES[RUN_RATES.length - 1];
         }
-        
-        return false;
+        return RUN_RATES[runSpeedCombo.getSelectionModel().getSelectedIndex()];
     }
 
     @FXML
     private void onPause() {
         if (!isRunning) {
-            log("⚠ Simulation not running");
+            log(SimLog.Level.WARN, "⚠ Simulation not running");
             return;
         }
-        isRunning = false;
+        stopRun();
         statusLabel.setText("Paused");
         statusLabel.setStyle("-fx-font-size: 14; -fx-font-weight: bold; -fx-text-fill: #FF9800;");
         log("⏸ Simulation paused at cycle " + cycle);
@@ -427,7 +531,11 @@ public class MainController {
     @FXML
     private void onStep() {
         if (sim == null || !sim.isProgramLoaded()) {
-            log("⚠ No program loaded.Use File > Open Program.. .");
+            log(SimLog.Level.WARN, "⚠ No program loaded.Use File > Open Program.. .");
+            return;
+        }
+        if (isRunning) {
+            log(SimLog.Level.WARN, "⚠ Pause the simulation before stepping");
             return;
         }
         stepSimulation();
@@ -435,54 +543,116 @@ public class MainController {
 
     private void stepSimulation() {
         try {
-            System.out.println("\n==================== UI STEPPING ====================");
+            sim.step();
             
-            boolean issued = sim.step();
-            cycle = sim.getCycle();
-            
-            // Update ALL UI components after each step
-            System.out.println("[UI] Updating Reservation Stations...");
-            updateReservationStations();
-            
-            System.out.println("[UI] Updating Load/Store Buffers...");
-            updateLoadStoreBuffers();
-            
-            System.out.println("[UI] Updating Registers...");
-            updateRegisters();
-            
-            System.out.println("[UI] Updating Cache...");
-            updateCacheView();
-            
-            System.out.println("[UI] Updating Instruction Table...");
-            updateInstructionTable();
-            
-            System.out.println("[UI] Refreshing labels...");
+            // Patch only the rows the simulator reported as changed
+            applySnapshot(sim.captureSnapshot());
             refreshAllLabels();
             
-            if (issued) {
-                int idx = sim.getLastIssuedIndex();
-                if (idx >= 0 && idx < instructions.size()) {
-                    instructions.get(idx).issueProperty().set(String.valueOf(cycle));
-                }
-            }
-            
             log("⏭ Stepped to cycle " + cycle);
             updateStatusBar("Executed cycle " + cycle);
-            
-            System.out.println("==================== UI UPDATE COMPLETE ====================\n");
-            
+            if (sim.getBreakpointHit() != null) {
+                log("⛔ Breakpoint '" + sim.getBreakpointHit() + "' hit at cycle " + cycle);
+            }
         } catch (Exception e) {
-            log("❌ Error during simulation step: " + e.getMessage());
+            log(SimLog.Level.ERROR, "❌ Error during simulation step: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    @FXML
+    private void onAddBreakpoint() {
+        String text = breakpointField.getText();
+        if (text == null || text.isBlank()) return;
+        if (sim == null) {
+            sim = new SimulatorState();
+            sim.setCheckpointInterval(CHECKPOINT_INTERVAL);
+        }
+        try {
+            Breakpoint breakpoint = Breakpoint.parse(text);
+            // The runner thread reads the compiled breakpoints while it holds the simulator
+            synchronized (sim) {
+                sim.addBreakpoint(breakpoint);
+            }
+            breakpointField.clear();
+            log("● Breakpoint added: " + breakpoint);
+            refreshBreakpointsLabel();
+        } catch (IllegalArgumentException ex) {
+            log(SimLog.Level.WARN, "⚠ " + ex.getMessage());
+        }
+    }
+
+    @FXML
+    private void onClearBreakpoints() {
+        if (sim == null) return;
+        synchronized (sim) {
+            sim.clearBreakpoints();
+        }
+        log("Breakpoints cleared");
+        refreshBreakpointsLabel();
+    }
+
+    private void refreshBreakpointsLabel() {
+        if (breakpointsLabel == null) return;
+        List<Breakpoint> list = sim.getBreakpoints();
+        breakpointsLabel.setText(list.isEmpty() ? "No breakpoints" : list.size() + " breakpoint" + (list.size() == 1 ? "" : "s"));
+        StringBuilder tip = new StringBuilder();
+        for (Breakpoint breakpoint : list) {
+            if (tip.length() > 0) tip.append('\n');
+            tip.append(breakpoint);
+        }
+        breakpointsLabel.setTooltip(list.isEmpty() ? null : new Tooltip(tip.toString()));
+    }
+
+    @FXML
+    private void onStepBack() {
+        if (sim == null || !sim.isProgramLoaded()) {
+            log(SimLog.Level.WARN, "⚠ No program loaded");
+            return;
+        }
+        if (isRunning) {
+            log(SimLog.Level.WARN, "⚠ Pause the simulation before stepping back");
+            return;
+        }
+        if (sim.getCycle() == 0) {
+            log(SimLog.Level.WARN, "⚠ Already at cycle 0");
+            return;
+        }
+        goToCycle(sim.getCycle() - 1);
+        log("⏮ Stepped back to cycle " + cycle);
+    }
+
+    private void onTimelineMoved() {
+        if (sim == null || !sim.isProgramLoaded() || isRunning) return;
+        int target = (int) Math.round(timelineSlider.getValue());
+        if (target == sim.getCycle()) return;
+        goToCycle(target);
+        log("⏱ Moved to cycle " + cycle);
+    }
+
+    /** Move the simulator to {@code target} and redraw everything. */
+    private void goToCycle(int target) {
+        try {
+            sim.goToCycle(target);
+            applySnapshot(sim.captureSnapshot());
+            refreshAllLabels();
+            statusLabel.setText(sim.isFinished() ? "Completed" : "Paused");
+            statusLabel.setStyle("-fx-font-size: 14; -fx-font-weight: bold; -fx-text-fill: "
+                    + (sim.isFinished() ? "#2196F3;" : "#FF9800;"));
+            updateStatusBar("At cycle " + cycle + " of " + sim.getFurthestCycle());
+        } catch (Exception e) {
+            log(SimLog.Level.ERROR, "❌ Could not move to cycle " + target + ": " + e.getMessage());
             e.printStackTrace();
         }
     }
 
     @FXML
     private void onReset() {
+        stopRun();
         cycle = 0;
         cacheHits = 0;
         cacheMisses = 0;
-        isRunning = false;
+        lastSnapshot = null;
         if (sim != null) sim.reset();
         instructions.clear();
         addSubStations.clear();
@@ -493,6 +663,15 @@ public class MainController {
         intRegisters.clear();
         fpRegisters.clear();
         cacheLines.clear();
+        stationViews.clear();
+        loadBufferViews.clear();
+        storeBufferViews.clear();
+        registerViews.clear();
+        if (timelineSlider != null) {
+            timelineSlider.setMax(1);
+            timelineSlider.setValue(0);
+        }
+        if (timelineLabel != null) timelineLabel.setText("0 / 0");
         refreshAllLabels();
         statusLabel.setText("Ready");
         statusLabel.setStyle("-fx-font-size: 14; -fx-font-weight: bold; -fx-text-fill: #666;");
@@ -516,30 +695,30 @@ public class MainController {
                 new FileChooser.ExtensionFilter("Text Files", "*.txt"),
                 new FileChooser.ExtensionFilter("All Files", "*.*")
         );
-        File file = fileChooser.showOpenDialog(logArea.getScene().getWindow());
+        File file = fileChooser.showOpenDialog(logList.getScene().getWindow());
         if (file != null) {
+            stopRun();
             try {
                 List<String> lines = Files.readAllLines(file.toPath());
-                if (sim == null) sim = new SimulatorState();
+                if (sim == null) {
+                    sim = new SimulatorState();
+                    sim.setCheckpointInterval(CHECKPOINT_INTERVAL);
+                }
                 sim.loadProgramLines(lines);
                 
                 // Apply configuration with defaults (don't call onApplyConfig which requires UI fields)
                 applyDefaultConfiguration();
                 
                 renderProgram(sim.getProgram());
-                cycle = SimulationClock.getCycle();
                 
-                // Initialize UI with register values
-                updateRegisters();
-                updateReservationStations();
-                updateLoadStoreBuffers();
-                updateCacheView();
+                // Initialize UI from the simulator's full-refresh change set
+                applySnapshot(sim.captureSnapshot());
                 
                 refreshAllLabels();
                 log("📂 Loaded program: " + file.getName());
                 updateStatusBar("Loaded: " + file.getName());
             } catch (Exception ex) {
-                log("❌ Failed to load program: " + ex.getMessage());
+                log(SimLog.Level.ERROR, "❌ Failed to load program: " + ex.getMessage());
                 ex.printStackTrace();
                 updateStatusBar("Load failed");
             }
@@ -571,6 +750,7 @@ public class MainController {
         sim.setConfigurationWithLatencies(fpAdd, fpMul, intRs, loadBufSize, storeBufSize, 
                 cacheSz, blockSz, hitLat, missPen, 
                 fpAddLat, fpMulLat, fpDivLat, intLat, loadLat, storeLat, branchLat);
+        applyRenameConfiguration();
         setConfigFieldTexts(fpAdd, fpMul, intRs, loadBufSize, storeBufSize,
                 cacheSz, blockSz, hitLat, missPen,
                 fpAddLat, fpMulLat, fpDivLat, intLat, loadLat, storeLat, branchLat);
@@ -586,6 +766,60 @@ public class MainController {
         // TODO: Implement save functionality
     }
 
+    @FXML
+    private void onSaveCheckpoint() {
+        if (sim == null || !sim.isProgramLoaded()) {
+            log(SimLog.Level.WARN, "⚠ No program loaded");
+            return;
+        }
+        stopRun();
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Save Checkpoint");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Checkpoints", "*.tsc"));
+        fileChooser.setInitialFileName("cycle-" + sim.getCycle() + ".tsc");
+        File file = fileChooser.showSaveDialog(logList.getScene().getWindow());
+        if (file != null) {
+            try {
+                sim.saveCheckpoint(file.toPath());
+                log("💾 Saved checkpoint of cycle " + sim.getCycle() + " to " + file.getName());
+            } catch (Exception ex) {
+                log(SimLog.Level.ERROR, "❌ Failed to save checkpoint: " + ex.getMessage());
+            }
+        }
+    }
+
+    @FXML
+    private void onLoadCheckpoint() {
+        if (sim == null || !sim.isProgramLoaded()) {
+            log(SimLog.Level.WARN, "⚠ Load the checkpoint's program first");
+            return;
+        }
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Load Checkpoint");
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Checkpoints", "*.tsc"),
+                new FileChooser.ExtensionFilter("All Files", "*.*")
+        );
+        File file = fileChooser.showOpenDialog(logList.getScene().getWindow());
+        if (file != null) {
+            stopRun();
+            try {
+                sim.loadCheckpoint(file.toPath());
+                applySnapshot(sim.captureSnapshot());
+                refreshAllLabels();
+                statusLabel.setText(sim.isFinished() ? "Completed" : "Paused");
+                statusLabel.setStyle("-fx-font-size: 14; -fx-font-weight: bold; -fx-text-fill: "
+                        + (sim.isFinished() ? "#2196F3;" : "#FF9800;"));
+                log("📂 Loaded checkpoint " + file.getName() + "; running from its warm state with the current configuration");
+                updateStatusBar("Loaded checkpoint: " + file.getName());
+            } catch (Exception ex) {
+                log(SimLog.Level.ERROR, "❌ Failed to load checkpoint: " + ex.getMessage());
+                ex.printStackTrace();
+                updateStatusBar("Load failed");
+            }
+        }
+    }
+
     @FXML
     private void onLoadConfig() {
         log("⚙ Loading configuration...");
@@ -604,6 +838,28 @@ public class MainController {
         // Configuration is now in a tab, just switch to it
     }
 
+    /** Log how fast the loaded program could run on an ideal machine with these latencies. */
+    @FXML
+    private void onIlpLimitStudy() {
+        if (sim == null || !sim.isProgramLoaded()) {
+            log(SimLog.Level.WARN, "⚠ No program loaded");
+            return;
+        }
+        try {
+            IlpLimitStudy.Report report = new IlpLimitStudy(sim).run();
+            for (String line : report.toString().split("\\R")) {
+                log(line);
+            }
+            if (sim.isFinished()) {
+                log(String.format("This configuration took %d cycles, %.2fx the ideal machine",
+                                  sim.getCycle(), report.getHeadroom(sim.getCycle())));
+            }
+            updateStatusBar(String.format("Ideal IPC %.3f", report.getIpc()));
+        } catch (IllegalArgumentException ex) {
+            log(SimLog.Level.WARN, "⚠ " + ex.getMessage());
+        }
+    }
+
     @FXML
     private void onExit() {
         log("👋 Exiting simulator...");
@@ -612,10 +868,28 @@ public class MainController {
 
     @FXML
     private void onClearLog() {
-        logArea.clear();
+        if (logConsole != null) logConsole.clear();
         log("Log cleared");
     }
 
+    @FXML
+    private void onSaveLog() {
+        if (logConsole == null) return;
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Save Log");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Log Files", "*.log", "*.txt"));
+        fileChooser.setInitialFileName("tomasulo.log");
+        File file = fileChooser.showSaveDialog(logList.getScene().getWindow());
+        if (file != null) {
+            try {
+                logConsole.save(file);
+                log("💾 Saved " + logConsole.size() + " log entries to " + file.getName());
+            } catch (Exception ex) {
+                log(SimLog.Level.ERROR, "❌ Failed to save log: " + ex.getMessage());
+            }
+        }
+    }
+
     @FXML
     private void onClearCache() {
         for (CacheLineView line : cacheLines) {
@@ -631,6 +905,7 @@ public class MainController {
 
     @FXML
     private void onApplyConfig() {
+        stopRun();
         try {
             if (sim != null && sim.isProgramLoaded()) {
                 // Use defaults if fields are null or empty
@@ -654,6 +929,7 @@ public class MainController {
                 sim.setConfigurationWithLatencies(fpAdd, fpMul, intRs, loadBufSize, storeBufSize,
                          cacheSz, blockSz, hitLat, missPen,
                          fpAddLat, fpMulLat, fpDivLat, intLat, loadLat, storeLat, branchLat);
+                applyRenameConfiguration();
                 setConfigFieldTexts(fpAdd, fpMul, intRs, loadBufSize, storeBufSize,
                         cacheSz, blockSz, hitLat, missPen,
                         fpAddLat, fpMulLat, fpDivLat, intLat, loadLat, storeLat, branchLat);
@@ -663,21 +939,17 @@ public class MainController {
 
                 // Re-render UI after the simulator is rebuilt
                 renderProgram(sim.getProgram());
-                cycle = sim.getCycle();
-                updateReservationStations();
-                updateLoadStoreBuffers();
-                updateRegisters();
-                updateCacheView();
+                applySnapshot(sim.captureSnapshot());
                 refreshAllLabels();
                 
                 log("✓ Configuration applied successfully");
                 updateStatusBar("Configuration updated");
                 refreshConfigLabels();
             } else {
-                log("⚠ Load a program first before applying configuration");
+                log(SimLog.Level.WARN, "⚠ Load a program first before applying configuration");
             }
         } catch (Exception e) {
-            log("❌ Error applying configuration: " + e.getMessage());
+            log(SimLog.Level.ERROR, "❌ Error applying configuration: " + e.getMessage());
             e.printStackTrace();
         }
     }
@@ -714,6 +986,12 @@ public class MainController {
         }
         loadBufferSizeField.setText("3");      // CHANGED
         storeBufferSizeField.setText("3");     // CHANGED
+        if (renameSchemeCombo != null) {
+            renameSchemeCombo.setValue(SimulatorState.RenameScheme.TAGS);
+        }
+        if (physicalRegsField != null) {
+            physicalRegsField.setText("96");
+        }
         
         cacheSizeField.setText("64");
         blockSizeField.setText("16");
@@ -817,13 +1095,12 @@ public class MainController {
                     regValues.put(reg, value);
                     log("📝 Setting " + reg + " = " + value);
                 } catch (NumberFormatException e) {
-                    log("⚠ Invalid value for " + reg + ": " + parts[1]);
+                    log(SimLog.Level.WARN, "⚠ Invalid value for " + reg + ": " + parts[1]);
                 }
             }
         }
         
         sim.loadInitialRegisterValues(regValues);
-        updateRegisters(); // Refresh UI
     }
 
     private void parseAndLoadMemoryValues() {
@@ -848,7 +1125,7 @@ public class MainController {
                     memValues.put(address, value);
                     log("📝 Setting Memory[" + address + "] = " + value);
                 } catch (NumberFormatException e) {
-                    log("⚠ Invalid memory entry: " + line);
+                    log(SimLog.Level.WARN, "⚠ Invalid memory entry: " + line);
                 }
             }
         }
@@ -856,128 +1133,171 @@ public class MainController {
         sim.loadInitialMemoryValues(memValues);
     }
 
-    private void updateReservationStations() {
-        addSubStations.clear();
-        mulDivStations.clear();
-        integerStations.clear();
+    /**
+     * Patch the views from a simulator snapshot. Only rows present in the snapshot
+     * are touched; a full-refresh snapshot rebuilds every table.
+     */
+    private void applySnapshot(SimulatorSnapshot snapshot) {
+        lastSnapshot = snapshot;
+        cycle = snapshot.getCycle();
+        cacheHits = snapshot.getCacheHits();
+        cacheMisses = snapshot.getCacheMisses();
+        updateTimeline(snapshot);
         
-        if (sim.getReservationStations() != null) {
-            for (ReservationStationEntry entry : sim.getReservationStations(). getStations()) {
-                String vjStr = (entry.getVj() != null) ? String.valueOf(entry.getVj()) : "-";
-                String vkStr = (entry.getVk() != null) ? String.valueOf(entry.getVk()) : "-";
-                String qjStr = (entry.getQj() != null) ? entry.getQj() : "-";
-                String qkStr = (entry.getQk() != null) ? entry.getQk() : "-";
-                
-                ReservationStationView view = new ReservationStationView(
-                    entry.getId(),
-                    entry.getOpcode(),
-                    vjStr,
-                    vkStr,
-                    qjStr,
-                    qkStr,
-                    true
-                );
-                
-                if (entry.getType() == StationType.FP_ADD) {
-                    addSubStations.add(view);
-                } else if (entry.getType() == StationType.FP_MUL) {
-                    mulDivStations.add(view);
-                } else if (entry.getType() == StationType.INTEGER) {
-                    integerStations.add(view);
-                }
-            }
+        if (snapshot.isFullRefresh()) {
+            addSubStations.clear();
+            mulDivStations.clear();
+            integerStations.clear();
+            loadBuffers.clear();
+            storeBuffers.clear();
+            intRegisters.clear();
+            fpRegisters.clear();
+            cacheLines.clear();
+            instructions.clear();
+            stationViews.clear();
+            loadBufferViews.clear();
+            storeBufferViews.clear();
+            registerViews.clear();
+        }
+        
+        snapshot.getStations().forEach(this::patchStation);
+        snapshot.getLoadEntries().forEach((tag, row) -> patchBufferEntry(tag, row, loadBuffers, loadBufferViews));
+        snapshot.getStoreEntries().forEach((tag, row) -> patchBufferEntry(tag, row, storeBuffers, storeBufferViews));
+        for (SimulatorSnapshot.RegisterRow row : snapshot.getRegisters()) {
+            patchRegister(row);
+        }
+        for (SimulatorSnapshot.CacheLineRow row : snapshot.getCacheLines()) {
+            patchCacheLine(row);
+        }
+        for (SimulatorSnapshot.StatusRow row : snapshot.getStatusRows()) {
+            patchStatusRow(row);
+        }
+    }
+    
+    private void updateTimeline(SimulatorSnapshot snapshot) {
+        if (timelineSlider == null || timelineSlider.isValueChanging()) return;
+        timelineSlider.setMax(Math.max(1, snapshot.getFurthestCycle()));
+        timelineSlider.setValue(snapshot.getCycle());
+        if (timelineLabel != null) {
+            timelineLabel.setText(snapshot.getCycle() + " / " + snapshot.getFurthestCycle());
         }
     }
 
-    // CHANGED: Update to handle separate Load and Store buffers
-    private void updateLoadStoreBuffers() {
-        loadBuffers.clear();
-        storeBuffers.clear();
+    private void patchStation(String tag, SimulatorSnapshot.StationRow row) {
+        ReservationStationView view = stationViews.get(tag);
         
-        // Update Load Buffer
-        if (sim.getLoadBuffer() != null) {
-            for (LoadBuffer.LoadEntry entry : sim.getLoadBuffer(). getBuffer()) {
-                String address = entry.baseReady ? 
-                    String.valueOf(entry.computeAddress()) : 
-                    "Waiting";
-                
-                LoadStoreView view = new LoadStoreView(
-                    entry.tag,
-                    entry.instruction.getOpcode(),
-                    address,
-                    entry.instruction.getDest() != null ? entry.instruction.getDest() : "-",
-                    true
-                );
-                loadBuffers.add(view);
+        if (row == null) {
+            // Station was freed - drop its row
+            if (view != null) {
+                stationViews.remove(tag);
+                addSubStations.remove(view);
+                mulDivStations.remove(view);
+                integerStations.remove(view);
             }
+            return;
         }
         
-        // Update Store Buffer
-        if (sim.getStoreBuffer() != null) {
-            for (StoreBuffer.StoreEntry entry : sim.getStoreBuffer(). getBuffer()) {
-                String address = entry.baseReady ? 
-                    String.valueOf(entry.computeAddress()) : 
-                    "Waiting";
-                
-                LoadStoreView view = new LoadStoreView(
-                    entry.tag,
-                    entry.instruction.getOpcode(),
-                    address,
-                    entry.instruction.getSrc1() != null ? entry.instruction.getSrc1() : "-",
-                    true
-                );
-                storeBuffers.add(view);
-            }
+        String vjStr = (row.vj != null) ? row.vj : "-";
+        String vkStr = (row.vk != null) ? row.vk : "-";
+        String qjStr = (row.qj != null) ? row.qj : "-";
+        String qkStr = (row.qk != null) ? row.qk : "-";
+        if (row.vl != null || row.ql != null) {
+            // FMA addend shares the k column: "Vk | Vl", "Qk | Ql"
+            vkStr += " | " + (row.vl != null ? row.vl : "-");
+            qkStr += " | " + (row.ql != null ? row.ql : "-");
+        }
+        
+        if (view != null) {
+            view.setOp(row.opcode);
+            view.setVj(vjStr);
+            view.setVk(vkStr);
+            view.setQj(qjStr);
+            view.setQk(qkStr);
+            return;
+        }
+        
+        view = new ReservationStationView(
+            row.tag,
+            row.opcode,
+            vjStr,
+            vkStr,
+            qjStr,
+            qkStr,
+            true
+        );
+        stationViews.put(tag, view);
+        
+        if (row.type == StationType.FP_ADD) {
+            addSubStations.add(view);
+        } else if (row.type == StationType.FP_MUL) {
+            mulDivStations.add(view);
+        } else if (row.type == StationType.INTEGER || row.type == StationType.INT_MULDIV) {
+            integerStations.add(view);
         }
     }
-
-    private void updateRegisters() {
-        intRegisters.clear();
-        fpRegisters.clear();
+    
+    // CHANGED: Load and Store buffers are patched into separate tables
+    private void patchBufferEntry(String tag, SimulatorSnapshot.BufferRow row,
+                                  ObservableList<LoadStoreView> table, Map<String, LoadStoreView> views) {
+        LoadStoreView view = views.get(tag);
         
-        if (sim.getRegFile() != null) {
-            RegisterFile rf = sim.getRegFile();
-            
-            // Integer registers
-            for (int i = 0; i < 32; i++) {
-                String reg = "R" + i;
-                double value = rf.getValue(reg);
-                String valueStr = String.format("%.1f", value);
-                String producer = rf.getProducer(reg);
-                String producerStr = (producer != null) ? producer : "";
-                
-                intRegisters.add(new RegisterView(reg, valueStr, producerStr));
-            }
-            
-            // FP registers
-            for (int i = 0; i < 32; i++) {
-                String reg = "F" + i;
-                double value = rf.getValue(reg);
-                String valueStr = String.format("%.1f", value);
-                String producer = rf.getProducer(reg);
-                String producerStr = (producer != null) ? producer : "";
-                
-                fpRegisters.add(new RegisterView(reg, valueStr, producerStr));
+        if (row == null) {
+            if (view != null) {
+                views.remove(tag);
+                table.remove(view);
             }
+            return;
+        }
+        
+        String address = row.address != null ? String.valueOf(row.address) : "Waiting";
+        
+        if (view != null) {
+            view.setAddress(address);
+            return;
         }
+        
+        view = new LoadStoreView(
+            row.tag,
+            row.opcode,
+            address,
+            row.register != null ? row.register : "-",
+            true
+        );
+        views.put(tag, view);
+        table.add(view);
     }
-
-    private void updateCacheView() {
-        cacheLines.clear();
+    
+    private void patchRegister(SimulatorSnapshot.RegisterRow row) {
+        String valueStr = String.format("%.1f", row.value);
+        String producerStr = (row.producer != null) ? row.producer : "";
         
-        if (sim.getCache() != null) {
-            Cache cache = sim.getCache();
-            cacheHits = cache.getHits();
-            cacheMisses = cache.getMisses();
-            
-            Cache.CacheLine[] lines = cache.getLines();
-            for (int i = 0; i < lines.length; i++) {
-                Cache.CacheLine line = lines[i];
-                String tagStr = line.isValid() ? String.valueOf(line.getTag()) : "-";
-                String dataStr = line.isValid() ? bytesToHex(line.getData()) : "-";
-                
-                cacheLines.add(new CacheLineView(i, line.isValid(), tagStr, dataStr));
-            }
+        RegisterView view = registerViews.get(row.name);
+        if (view != null) {
+            view.setValue(valueStr);
+            view.setTag(producerStr);
+            return;
+        }
+        
+        view = new RegisterView(row.name, valueStr, producerStr);
+        registerViews.put(row.name, view);
+        if (row.name.startsWith("F")) {
+            fpRegisters.add(view);
+        } else {
+            intRegisters.add(view);
+        }
+    }
+    
+    private void patchCacheLine(SimulatorSnapshot.CacheLineRow row) {
+        String tagStr = row.valid ? String.valueOf(row.tag) : "-";
+        String dataStr = row.valid ? bytesToHex(row.getData()) : "-";
+        
+        if (row.index < cacheLines.size()) {
+            CacheLineView view = cacheLines.get(row.index);
+            view.setValid(row.valid);
+            view.setTag(tagStr);
+            view.setData(dataStr);
+        } else if (row.index == cacheLines.size()) {
+            cacheLines.add(new CacheLineView(row.index, row.valid, tagStr, dataStr));
         }
     }
 
@@ -991,53 +1311,40 @@ public class MainController {
         }
         return sb.toString(). trim();
     }
-
-    private void updateInstructionTable() {
-        if (sim == null || sim.getInstructionStatuses() == null) return;
-        
-        List<SimulatorState.InstructionStatus> statuses = sim.getInstructionStatuses();
-        Program program = sim.getProgram();
+    
+    private void patchStatusRow(SimulatorSnapshot.StatusRow row) {
+        String issue = row.issueCycle > 0 ? String.valueOf(row.issueCycle) : "-";
+        String execStart = row.execStartCycle > 0 ? String.valueOf(row.execStartCycle) : "-";
+        String execEnd = row.execEndCycle > 0 ? String.valueOf(row.execEndCycle) : "-";
+        String writeBack = row.writeBackCycle > 0 ? String.valueOf(row.writeBackCycle) : "-";
         
-        // Build a map of existing views by (programIndex, iteration) for efficient lookup
-        java.util.Map<String, InstructionRowView> existingViews = new java.util.HashMap<>();
-        for (InstructionRowView view : instructions) {
-            existingViews.put(view.getProgramIndex() + "_" + view.getIteration(), view);
+        // Status rows and table rows share the same index
+        if (row.index < instructions.size()) {
+            InstructionRowView view = instructions.get(row.index);
+            view.setIssue(issue);
+            view.setExecStart(execStart);
+            view.setExecEnd(execEnd);
+            view.setWriteBack(writeBack);
+            return;
         }
         
-        // Update existing rows and add new rows for new iterations
-        for (SimulatorState.InstructionStatus status : statuses) {
-            String key = status.programIndex + "_" + status.iteration;
-            
-            InstructionRowView matchingView = existingViews.get(key);
-            
-            if (matchingView != null) {
-                // Update existing view
-                matchingView.issueProperty().set(status.issueCycle > 0 ? String.valueOf(status.issueCycle) : "-");
-                matchingView.execStartProperty().set(status.execStartCycle > 0 ? String.valueOf(status.execStartCycle) : "-");
-                matchingView.execEndProperty().set(status.execEndCycle > 0 ? String.valueOf(status.execEndCycle) : "-");
-                matchingView.writeBackProperty().set(status.writeBackCycle > 0 ? String.valueOf(status.writeBackCycle) : "-");
-            } else if (status.programIndex >= 0 && status.programIndex < program.size()) {
-                // Add new row for new iteration
-                Instruction instr = program.get(status.programIndex);
-                String pcStr = String.format("0x%04X", status.programIndex * 4);
-                String text = toDisplayStringWithIteration(instr, status.iteration);
-                
-                InstructionRowView newView = new InstructionRowView(
-                    instructions.size() + 1, // Row number (will be sequential as we add)
-                    pcStr,
-                    text,
-                    status.issueCycle > 0 ? String.valueOf(status.issueCycle) : "-",
-                    status.execStartCycle > 0 ? String.valueOf(status.execStartCycle) : "-",
-                    status.execEndCycle > 0 ? String.valueOf(status.execEndCycle) : "-",
-                    status.writeBackCycle > 0 ? String.valueOf(status.writeBackCycle) : "-",
-                    status.iteration,
-                    status.programIndex
-                );
-                instructions.add(newView);
-                existingViews.put(key, newView); // Track newly added view
-                System.out.println("[UI] Added new row for instruction " + status.programIndex + " iteration " + status.iteration);
-            }
+        Program program = sim.getProgram();
+        if (row.index != instructions.size() || program == null
+                || row.programIndex < 0 || row.programIndex >= program.size()) {
+            return;
         }
+        
+        // Add new row for new iteration
+        Instruction instr = program.get(row.programIndex);
+        String pcStr = String.format("0x%04X", row.programIndex * 4);
+        instructions.add(new InstructionRowView(
+            instructions.size() + 1, // Row number (will be sequential as we add)
+            pcStr,
+            toDisplayStringWithIteration(instr, row.iteration),
+            issue, execStart, execEnd, writeBack,
+            row.iteration,
+            row.programIndex
+        ));
     }
 
     private void refreshAllLabels() {
@@ -1057,13 +1364,15 @@ public class MainController {
 
     private void refreshInstructionCount() {
         if (instrCountLabel != null) {
-            int completed = (int) instructions.stream()
-                    .filter(i -> ! i.getWriteBack(). equals("-"))
-                    .count();
+            int completed = completedInstructionCount();
             instrCountLabel.setText(completed + " / " + instructions.size());
         }
     }
 
+    private int completedInstructionCount() {
+        return lastSnapshot != null ? lastSnapshot.getCompletedInstructions() : 0;
+    }
+
     // CHANGED: Include separate labels for Load and Store buffers
     private void refreshRsLabels() {
         if (sim != null) {
@@ -1080,7 +1389,7 @@ public class MainController {
                 mulDivBusyLabel.setText(busyMul + " / " + sim.getFpMulSize() + " Busy");
             }
             if (intBusyLabel != null) {
-                intBusyLabel.setText(busyInt + " / " + sim.getIntSize() + " Busy");
+                intBusyLabel.setText(busyInt + " / " + (sim.getIntSize() + sim.getIntMulDivSize()) + " Busy");
             }
             if (loadBufferBusyLabel != null) {
                 loadBufferBusyLabel.setText(busyLoad + " / " + sim.getLoadBufferSize() + " Busy");
@@ -1108,57 +1417,55 @@ public class MainController {
     private void refreshStatistics() {
         if (totalCyclesLabel != null) totalCyclesLabel.setText(String.valueOf(cycle));
         
+        long completed = completedInstructionCount();
         if (completedInstrLabel != null) {
-            long completed = instructions.stream()
-                    .filter(i -> ! i.getWriteBack(). equals("-"))
-                    .count();
             completedInstrLabel.setText(String.valueOf(completed));
         }
         
         if (ipcLabel != null && cycle > 0) {
-            long completed = instructions.stream()
-                    . filter(i -> !i.getWriteBack().equals("-"))
-                    .count();
             double ipc = (double) completed / cycle;
             ipcLabel.setText(String.format("%.2f", ipc));  // FIXED: %. 2f not %. 2f
         }
         
         if (cpiLabel != null && cycle > 0) {
-            long completed = instructions.stream()
-                    .filter(i -> !i.getWriteBack().equals("-"))
-                    . count();
             if (completed > 0) {
                 double cpi = (double) cycle / completed;
                 cpiLabel.setText(String.format("%.2f", cpi));  // FIXED: %.2f not %. 2f
             }
         }
 
-        if (sim != null) {
-            int raw = sim.getRawHazards();
-            setLabelText(rawHazardsLabel, String.valueOf(raw));
-
-            int war = sim.getWarHazards();
-            setLabelText(warHazardsLabel, String.valueOf(war));
-
-            int waw = sim.getWawHazards();
-            setLabelText(wawHazardsLabel, String.valueOf(waw));
-
-            int structural = sim.getStructuralHazards();
-            setLabelText(structuralHazardsLabel, String.valueOf(structural));
-
-            int loads = sim.getLoadIssuedCount();
-            setLabelText(loadCountLabel, String.valueOf(loads));
-
-            int stores = sim.getStoreIssuedCount();
-            setLabelText(storeCountLabel, String.valueOf(stores));
-
-            int fpOps = sim.getFpIssuedCount();
-            int intOps = sim.getIntIssuedCount();
-            int totalAlu = fpOps + intOps;
-            setLabelText(aluCountLabel, String.valueOf(totalAlu));
-
-            int branches = sim.getBranchIssuedCount();
-            setLabelText(branchCountLabel, String.valueOf(branches));
+        SimulatorSnapshot stats = lastSnapshot;
+        if (stats != null) {
+            setLabelText(rawHazardsLabel, String.valueOf(stats.getRawHazards()));
+            setLabelText(warHazardsLabel, String.valueOf(stats.getWarHazards()));
+            setLabelText(wawHazardsLabel, String.valueOf(stats.getWawHazards()));
+            setLabelText(structuralHazardsLabel, String.valueOf(stats.getStructuralHazards()));
+            setLabelText(registerFreeStallsLabel, stats.getRegisterFreeStalls() + " (peak " +
+                    stats.getPeakPhysicalRegisters() + " physical in use)");
+            setLabelText(loadCountLabel, String.valueOf(stats.getLoadIssued()));
+            setLabelText(storeCountLabel, String.valueOf(stats.getStoreIssued()));
+            setLabelText(aluCountLabel, String.valueOf(stats.getFpIssued() + stats.getIntIssued()));
+            setLabelText(branchCountLabel, String.valueOf(stats.getBranchIssued()));
+            setLabelText(intMulDivCountLabel, stats.getIntMulDivIssued() + " (unit busy " +
+                    stats.getIntMulDivBusyCycles() + " cycles)");
+            
+            EnergyModel.Report energy = stats.getEnergy();
+            setLabelText(energyTotalLabel, String.format("%.1f nJ", energy.totalEnergy / 1000.0));
+            setLabelText(averagePowerLabel, String.format("%.2f mW at %.1f GHz",
+                    energy.getAveragePowerMilliwatts(), energy.clockGhz));
+            setLabelText(energyDelayLabel, String.format("%.4g pJ*ns", energy.getEnergyDelayProduct()));
+            StringBuilder breakdown = new StringBuilder();
+            for (EnergyModel.Component component : EnergyModel.Component.values()) {
+                double share = energy.totalEnergy > 0 ? 100.0 * energy.getEnergy(component) / energy.totalEnergy : 0.0;
+                if (breakdown.length() > 0) breakdown.append('\n');
+                breakdown.append(String.format("%s %.0f%%", component.name().toLowerCase().replace('_', ' '), share));
+            }
+            setLabelText(energyBreakdownLabel, breakdown.toString());
+            
+            setLabelText(memoryChannelLabel, stats.getMemoryChannel() != null
+                    ? stats.getMemoryChannel() : "Flat miss penalty (unlimited bandwidth)");
+            setLabelText(dramLabel, stats.getDram() != null ? stats.getDram() : "Off");
+            setLabelText(tlbLabel, stats.getTlb() != null ? stats.getTlb() : "Off (no address translation)");
         }
     }
 
@@ -1220,16 +1527,11 @@ public class MainController {
     }
 
     private void log(String message) {
-        if (logArea == null) return;
-        Platform.runLater(() -> {
-            String timestamp = String.format("[Cycle %d] ", cycle);
-            if (logArea.getText().isEmpty()) {
-                logArea.setText(timestamp + message);
-            } else {
-                logArea.appendText("\n" + timestamp + message);
-            }
-            // Auto-scroll to bottom
-            logArea.setScrollTop(Double.MAX_VALUE);
-        });
+        log(SimLog.Level.INFO, message);
+    }
+
+    private void log(SimLog.Level level, String message) {
+        if (logConsole == null) return;
+        logConsole.append(cycle, level, "UI", message);
     }
 }
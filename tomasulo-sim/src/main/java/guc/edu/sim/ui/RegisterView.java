@@ -19,7 +19,9 @@ public class RegisterView {
 
     public String getValue() { return value.get(); }
     public StringProperty valueProperty() { return value; }
+    public void setValue(String value) { this.value.set(value); }
 
     public String getTag() { return tag.get(); }
     public StringProperty tagProperty() { return tag; }
+    public void setTag(String value) { tag.set(value); }
 }
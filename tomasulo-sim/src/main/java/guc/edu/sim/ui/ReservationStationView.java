@@ -30,19 +30,25 @@ public class ReservationStationView {
 
     public String getOp() { return op.get(); }
     public StringProperty opProperty() { return op; }
+    public void setOp(String value) { op.set(value); }
 
     public String getVj() { return vj.get(); }
     public StringProperty vjProperty() { return vj; }
+    public void setVj(String value) { vj.set(value); }
 
     public String getVk() { return vk.get(); }
     public StringProperty vkProperty() { return vk; }
+    public void setVk(String value) { vk.set(value); }
 
     public String getQj() { return qj.get(); }
     public StringProperty qjProperty() { return qj; }
+    public void setQj(String value) { qj.set(value); }
 
     public String getQk() { return qk.get(); }
     public StringProperty qkProperty() { return qk; }
+    public void setQk(String value) { qk.set(value); }
 
     public boolean isBusy() { return busy.get(); }
     public BooleanProperty busyProperty() { return busy; }
+    public void setBusy(boolean value) { busy.set(value); }
 }
@@ -0,0 +1,160 @@
+package guc.edu.sim.core;
+
+import java.util.*;
+
+/**
+ * Test for breakpoints and watchpoints.
+ *
+ * A breakpoint is checked at the end of every cycle, so a run stops with the clock on
+ * the cycle in which the condition became true.
+ */
+public class BreakpointTest {
+
+    public static void main(String[] args) {
+        System.out.println("=== Breakpoint Test ===\n");
+        SimLog.setEnabled(false);
+
+        boolean test1 = testParse();
+        boolean test2 = testMemoryWatchpoint();
+        boolean test3 = testRegisterBreakpoint();
+
+        System.out.println("\n=== Test Summary ===");
+        System.out.println("Test 1 (Parse text forms): " + (test1 ? "PASS" : "FAIL"));
+        System.out.println("Test 2 (Memory write watchpoint): " + (test2 ? "PASS" : "FAIL"));
+        System.out.println("Test 3 (Register breakpoint): " + (test3 ? "PASS" : "FAIL"));
+
+        if (test1 && test2 && test3) {
+            System.out.println("\nAll tests PASSED!");
+            System.exit(0);
+        } else {
+            System.out.println("\nSome tests FAILED!");
+            System.exit(1);
+        }
+    }
+
+    private static boolean testParse() {
+        System.out.println("Test 1: Parse Text Forms");
+        System.out.println("---");
+        boolean pass = true;
+
+        Breakpoint cycle = Breakpoint.parse("cycle 500");
+        pass &= cycle.kind == Breakpoint.Kind.CYCLE && cycle.value == 500;
+        Breakpoint pc = Breakpoint.parse("pc 0x10");
+        pass &= pc.kind == Breakpoint.Kind.PC && pc.value == 16;
+        Breakpoint tag = Breakpoint.parse("tag a12");
+        pass &= tag.kind == Breakpoint.Kind.TAG && tag.name.equals("A12");
+        Breakpoint register = Breakpoint.parse("f2>=3.5");
+        pass &= register.kind == Breakpoint.Kind.REGISTER && register.name.equals("F2")
+                && register.comparison == Breakpoint.Comparison.GE && register.operand == 3.5;
+        Breakpoint threadRegister = Breakpoint.parse("R1.T1 != 0");
+        pass &= threadRegister.name.equals("R1.T1") && threadRegister.comparison == Breakpoint.Comparison.NE;
+        Breakpoint write = Breakpoint.parse("write 0x100");
+        pass &= write.kind == Breakpoint.Kind.MEMORY_WRITE && write.value == 256 && write.length == 8;
+        Breakpoint writeWord = Breakpoint.parse("write 64 4");
+        pass &= writeWord.value == 64 && writeWord.length == 4;
+        pass &= Breakpoint.parse("miss").kind == Breakpoint.Kind.CACHE_MISS;
+        Breakpoint stall = Breakpoint.parse("stall memory-order 20");
+        pass &= stall.kind == Breakpoint.Kind.STALL && stall.stall == SimulatorState.IssueStall.MEMORY_ORDER
+                && stall.value == 20;
+
+        // The text form reads back as the same breakpoint
+        for (Breakpoint bp : new Breakpoint[] {cycle, pc, tag, register, threadRegister, write, stall}) {
+            String text = bp.toString();
+            boolean same = Breakpoint.parse(text).toString().equals(text);
+            System.out.println("'" + text + "' " + (same ? "reads back" : "DOES NOT read back"));
+            pass &= same;
+        }
+
+        for (String bad : new String[] {"", "cycle", "cycle x", "pc 3", "stall sleepy 3", "F2 ~ 1", "write 0 0", "Q1 > 2"}) {
+            try {
+                Breakpoint.parse(bad);
+                System.out.println("'" + bad + "' was accepted");
+                pass = false;
+            } catch (IllegalArgumentException e) {
+                System.out.println("'" + bad + "' rejected: " + e.getMessage());
+            }
+        }
+        System.out.println();
+        return pass;
+    }
+
+    /** Step until {@code condition} holds and return the clock afterwards, or -1. */
+    private static int cycleWhen(SimulatorState sim, java.util.function.BooleanSupplier condition) {
+        while (!sim.isFinished() && sim.getCycle() < 1000) {
+            sim.step();
+            if (condition.getAsBoolean()) return sim.getCycle();
+        }
+        return -1;
+    }
+
+    private static SimulatorState storeProgram() {
+        SimulatorState sim = new SimulatorState();
+        sim.loadProgramLines(Arrays.asList(
+            "S.D F2, 16(R0)",
+            "ADD.D F6, F2, F4",
+            "S.D F6, 64(R0)",
+            "S.D F4, 72(R0)"
+        ));
+        Map<String, Double> regs = new HashMap<>();
+        regs.put("F2", 5.0);
+        regs.put("F4", 7.0);
+        sim.loadInitialRegisterValues(regs);
+        return sim;
+    }
+
+    /**
+     * Program:
+     * 0. S.D F2, 16(R0)     - outside the watched range
+     * 1. ADD.D F6, F2, F4
+     * 2. S.D F6, 64(R0)     - writes the watched bytes 64-71 once F6 is ready
+     * 3. S.D F4, 72(R0)     - just past the watched range; writes before store 2
+     */
+    private static boolean testMemoryWatchpoint() {
+        System.out.println("Test 2: Memory Write Watchpoint");
+        System.out.println("---");
+        SimulatorState reference = storeProgram();
+        int expected = cycleWhen(reference, () -> reference.getMemory().loadDouble(64) != 0.0);
+
+        SimulatorState sim = storeProgram();
+        sim.addBreakpoint(Breakpoint.parse("write 64 8"));
+        Breakpoint hit = sim.runToBreakpoint(1000);
+        System.out.println("Store to 64 writes in cycle " + expected + "; stopped at cycle " + sim.getCycle() +
+                           " on " + hit);
+        boolean pass = expected > 0 && hit != null && hit.kind == Breakpoint.Kind.MEMORY_WRITE
+                       && sim.getCycle() == expected && sim.getMemory().loadDouble(64) == 12.0
+                       && sim.getMemory().loadDouble(16) == 5.0 && sim.getMemory().loadDouble(72) == 7.0;
+
+        Breakpoint next = sim.runToBreakpoint(1000);
+        System.out.println("Resumed: " + (next == null ? "ran to the end" : "stopped again on " + next));
+        pass &= next == null && sim.isFinished();
+        System.out.println();
+        return pass;
+    }
+
+    /** F6 becomes 12 when ADD.D writes back; the level condition fires once. */
+    private static boolean testRegisterBreakpoint() {
+        System.out.println("Test 3: Register Breakpoint");
+        System.out.println("---");
+        SimulatorState reference = storeProgram();
+        int expected = cycleWhen(reference, () -> reference.getRegFile().getValue("F6") > 10);
+        int addWriteBack = -1;
+        for (SimulatorState.InstructionStatus status : reference.getInstructionStatuses()) {
+            if (status.programIndex == 1) addWriteBack = status.writeBackCycle;
+        }
+
+        SimulatorState sim = storeProgram();
+        sim.addBreakpoint(Breakpoint.parse("F6 > 10"));
+        Breakpoint hit = sim.runToBreakpoint(1000);
+        System.out.println("ADD.D writes back in cycle " + addWriteBack + "; stopped at cycle " + sim.getCycle() +
+                           " with F6 = " + sim.getRegFile().getValue("F6"));
+        boolean pass = hit != null && hit.kind == Breakpoint.Kind.REGISTER
+                       && sim.getCycle() == expected && sim.getCycle() == addWriteBack
+                       && sim.getRegFile().getValue("F6") == 12.0;
+
+        Breakpoint next = sim.runToBreakpoint(1000);
+        System.out.println("Resumed: " + (next == null ? "ran to the end" : "stopped again on " + next));
+        pass &= next == null && sim.isFinished();
+        System.out.println();
+        return pass;
+    }
+}
@@ -0,0 +1,197 @@
+package guc.edu.sim.core;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Test for checkpoint files.
+ *
+ * A file holds the warm state of a run (registers, memory, cache blocks, store sets,
+ * TLBs) and no configuration, so one file can start runs under other configurations.
+ */
+public class CheckpointTest {
+
+    public static void main(String[] args) throws IOException {
+        System.out.println("=== Checkpoint Test ===\n");
+        SimLog.setEnabled(false);
+
+        boolean test1 = testFanOutToOtherConfigurations();
+        boolean test2 = testWarmStructures();
+        boolean test3 = testOtherProgramRejected();
+
+        System.out.println("\n=== Test Summary ===");
+        System.out.println("Test 1 (Fan out from one warm state): " + (test1 ? "PASS" : "FAIL"));
+        System.out.println("Test 2 (Cache and TLBs start warm): " + (test2 ? "PASS" : "FAIL"));
+        System.out.println("Test 3 (File of another program rejected): " + (test3 ? "PASS" : "FAIL"));
+
+        if (test1 && test2 && test3) {
+            System.out.println("\nAll tests PASSED!");
+            System.exit(0);
+        } else {
+            System.out.println("\nSome tests FAILED!");
+            System.exit(1);
+        }
+    }
+
+    private static WorkloadGenerator.Workload workload(long seed) {
+        WorkloadGenerator.Config config = new WorkloadGenerator.Config();
+        config.seed = seed;
+        config.loops = 2;
+        config.minTripCount = 40;
+        config.maxTripCount = 40;
+        config.branchFraction = 0.15;
+        config.iterationAdvanceBytes = 8;
+        return new WorkloadGenerator(config).generate();
+    }
+
+    /** Registers and written memory pages: what a run leaves behind, whatever its timing. */
+    private static String architecturalState(SimulatorState sim) {
+        StringBuilder state = new StringBuilder(new TreeMap<>(sim.getRegFile().getAllValues()).toString());
+        for (Map.Entry<Integer, byte[]> page : sim.getMemory().getPages().entrySet()) {
+            state.append(' ').append(page.getKey()).append(':').append(Arrays.hashCode(page.getValue()));
+        }
+        return state.toString();
+    }
+
+    /**
+     * Save 1000 cycles into a run, then start two differently configured simulators from the
+     * file. Saving does not disturb the original run, and every run ends with the same
+     * registers and memory as a straight run, having executed only the rest of the program.
+     */
+    private static boolean testFanOutToOtherConfigurations() throws IOException {
+        System.out.println("Test 1: Fan Out From One Warm State");
+        System.out.println("---");
+        WorkloadGenerator.Workload workload = workload(5);
+        SimulatorState straight = new SimulatorState();
+        workload.loadInto(straight);
+        while (!straight.isFinished()) straight.step();
+        String expected = architecturalState(straight);
+
+        SimulatorState warmup = new SimulatorState();
+        workload.loadInto(warmup);
+        while (warmup.getCycle() < 1000) warmup.step();
+        int completedBefore = warmup.getCompletedInstructionCount();
+        Path file = Files.createTempFile("warm", ".tsc");
+        warmup.saveCheckpoint(file);
+        System.out.println("Saved at cycle " + warmup.getCycle() + ": " + Files.size(file) + " bytes");
+        boolean pass = warmup.getCycle() == 1000 && warmup.getCompletedInstructionCount() == completedBefore;
+        while (!warmup.isFinished()) warmup.step();
+        pass &= warmup.getCycle() == straight.getCycle() && architecturalState(warmup).equals(expected);
+
+        int[][] configurations = {
+            {3, 2, 2, 3, 3, 64, 16, 1, 10, 3, 10, 40, 1, 2, 2, 1},
+            {4, 3, 3, 4, 4, 256, 32, 1, 20, 2, 6, 30, 1, 3, 3, 1}
+        };
+        for (int[] c : configurations) {
+            SimulatorState sim = new SimulatorState();
+            workload.loadInto(sim);
+            sim.setConfigurationWithLatencies(c[0], c[1], c[2], c[3], c[4], c[5], c[6], c[7], c[8],
+                                              c[9], c[10], c[11], c[12], c[13], c[14], c[15]);
+            sim.loadCheckpoint(file);
+            while (!sim.isFinished() && sim.getCycle() < 100000) sim.step();
+            int cycles = sim.getCycle();
+            int completed = sim.getCompletedInstructionCount();
+            System.out.println(c[5] + "-byte cache, " + c[6] + "-byte blocks: " + completed + " instructions in " +
+                               cycles + " cycles (straight run: " + straight.getCompletedInstructionCount() + ")");
+            pass &= sim.isFinished() && architecturalState(sim).equals(expected)
+                    && completed > 0 && completed < straight.getCompletedInstructionCount();
+
+            // A reset starts from the warm state again
+            sim.reset();
+            while (!sim.isFinished() && sim.getCycle() < 100000) sim.step();
+            pass &= sim.getCycle() == cycles && sim.getCompletedInstructionCount() == completed
+                    && architecturalState(sim).equals(expected);
+        }
+        Files.delete(file);
+        System.out.println();
+        return pass;
+    }
+
+    /**
+     * Program (R1 = 0, F2 = 1.5):
+     * 0. S.D F2, 0(R1)
+     * 1. L.D F4, 0(R1)
+     * 2. L.D F6, 8240(R1)
+     * 3. ADD.D F8, F4, F6
+     *
+     * Saved once everything has written back, the file holds the 16-byte blocks at 0 and
+     * 8240 and their pages 0 and 2. A simulator with 32-byte blocks and a two-level TLB
+     * loads them: the cache holds the 32-byte blocks at 0 and 8224, and translating either
+     * page hits the DTLB.
+     */
+    private static boolean testWarmStructures() throws IOException {
+        System.out.println("Test 2: Cache and TLBs Start Warm");
+        System.out.println("---");
+        List<String> lines = Arrays.asList(
+            "S.D F2, 0(R1)",
+            "L.D F4, 0(R1)",
+            "L.D F6, 8240(R1)",
+            "ADD.D F8, F4, F6"
+        );
+        Map<String, Double> regs = new HashMap<>();
+        regs.put("R1", 0.0);
+        regs.put("F2", 1.5);
+
+        SimulatorState warmup = new SimulatorState();
+        warmup.loadProgramLines(lines);
+        warmup.loadInitialRegisterValues(regs);
+        warmup.setVirtualMemory(new Mmu.Config());
+        while (!warmup.isFinished()) warmup.step();
+        Path file = Files.createTempFile("warm", ".tsc");
+        warmup.saveCheckpoint(file);
+
+        SimulatorState sim = new SimulatorState();
+        sim.loadProgramLines(lines);
+        sim.setConfiguration(3, 2, 2, 3, 3, 256, 32, 1, 10);
+        Mmu.Config mmu = new Mmu.Config();
+        mmu.l2Entries = 32;
+        sim.setVirtualMemory(mmu);
+        sim.loadCheckpoint(file);
+        Files.delete(file);
+
+        int[] blocks = sim.getCache().getResidentBlocks();
+        Arrays.sort(blocks);
+        System.out.println("Resident blocks: " + Arrays.toString(blocks) + ", F8 = " + sim.getRegFile().getValue("F8"));
+        boolean pass = Arrays.equals(blocks, new int[] {0, 8224}) && sim.isFinished()
+                       && sim.getRegFile().getValue("F8") == 1.5 && sim.getMemory().loadDouble(0) == 1.5;
+        pass &= sim.getMmu().translate(8) == 0 && sim.getMmu().translate(8248) == 0
+                && sim.getMmu().getPageWalks() == 0;
+        System.out.println(sim.getMmu());
+        System.out.println();
+        return pass;
+    }
+
+    /** A file only starts the program it was saved from. */
+    private static boolean testOtherProgramRejected() throws IOException {
+        System.out.println("Test 3: File of Another Program Rejected");
+        System.out.println("---");
+        SimulatorState warmup = new SimulatorState();
+        workload(5).loadInto(warmup);
+        while (warmup.getCycle() < 200) warmup.step();
+        Path file = Files.createTempFile("warm", ".tsc");
+        warmup.saveCheckpoint(file);
+
+        SimulatorState other = new SimulatorState();
+        workload(6).loadInto(other);
+        boolean pass = false;
+        try {
+            other.loadCheckpoint(file);
+        } catch (IOException e) {
+            System.out.println("Rejected: " + e.getMessage());
+            pass = other.getCycle() == 0 && !other.isFinished();
+        }
+
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        try {
+            warmup.loadCheckpoint(file);
+            pass = false;
+        } catch (IOException e) {
+            System.out.println("Rejected: " + e.getMessage());
+        }
+        Files.delete(file);
+        System.out.println();
+        return pass;
+    }
+}
@@ -0,0 +1,143 @@
+package guc.edu.sim.core;
+
+import java.util.*;
+
+/**
+ * Test for lock-step co-simulation against the functional reference.
+ *
+ * Correct runs must compare every result without a divergence. A wrong value injected
+ * into the timing model must be reported at the cycle the wrong result is written back,
+ * with the PC of the instruction that produced it.
+ */
+public class CosimTest {
+
+    public static void main(String[] args) {
+        System.out.println("=== Co-simulation Test ===\n");
+        SimLog.setEnabled(false);
+
+        boolean test1 = testCleanRunsDoNotDiverge();
+        boolean test2 = testInjectedScalarResult();
+        boolean test3 = testInjectedVectorResult();
+
+        System.out.println("\n=== Test Summary ===");
+        System.out.println("Test 1 (Correct runs do not diverge): " + (test1 ? "PASS" : "FAIL"));
+        System.out.println("Test 2 (Wrong scalar result reported): " + (test2 ? "PASS" : "FAIL"));
+        System.out.println("Test 3 (Wrong vector result reported): " + (test3 ? "PASS" : "FAIL"));
+
+        if (test1 && test2 && test3) {
+            System.out.println("\nAll tests PASSED!");
+            System.exit(0);
+        } else {
+            System.out.println("\nSome tests FAILED!");
+            System.exit(1);
+        }
+    }
+
+    private static boolean testCleanRunsDoNotDiverge() {
+        System.out.println("Test 1: Correct Runs Do Not Diverge");
+        System.out.println("---");
+        boolean pass = true;
+        for (long seed = 1; seed <= 4; seed++) {
+            WorkloadGenerator.Config config = new WorkloadGenerator.Config();
+            config.seed = seed;
+            config.loops = 2;
+            config.minTripCount = 5;
+            config.maxTripCount = 8;
+            config.footprintBytes = 64;
+            config.stridePattern = WorkloadGenerator.StridePattern.RANDOM;
+            config.intMulWeight = 0.05;
+            config.branchFraction = 0.1;
+            WorkloadGenerator.Workload w = new WorkloadGenerator(config).generate();
+
+            SimulatorState sim = new SimulatorState();
+            w.loadInto(sim);
+            if (seed == 2) sim.setStoreForwarding(true, 1);
+            if (seed == 3) sim.setSpeculativeLoads(true, 3);
+            if (seed == 4) sim.setRenameScheme(SimulatorState.RenameScheme.PHYSICAL_REGISTERS, 70);
+            sim.setCosimEnabled(true);
+            while (!sim.isFinished() && sim.getCycle() < 200000) sim.step();
+
+            System.out.println("Seed " + seed + ": " + sim.getCosimCheckedCount() + " results checked, divergence " +
+                               sim.getCosimDivergence());
+            pass &= sim.getCosimDivergence() == null && sim.getCosimCheckedCount() > 0;
+        }
+        System.out.println();
+        return pass;
+    }
+
+    /**
+     * Program:
+     * 0. ADD.D F2, F0, F0
+     * 1. L.D F4, 16(R1)     - memory changed under the timing model after cosim started
+     * 2. MUL.D F6, F4, F2
+     */
+    private static boolean testInjectedScalarResult() {
+        System.out.println("Test 2: Wrong Scalar Result Reported");
+        System.out.println("---");
+        SimulatorState sim = new SimulatorState();
+        sim.loadProgramLines(Arrays.asList(
+            "ADD.D F2, F0, F0",
+            "L.D F4, 16(R1)",
+            "MUL.D F6, F4, F2"
+        ));
+        Map<String, Double> regs = new HashMap<>();
+        regs.put("F0", 1.0);
+        regs.put("R1", 0.0);
+        sim.loadInitialRegisterValues(regs);
+        Map<Integer, Double> mem = new HashMap<>();
+        mem.put(16, 3.0);
+        sim.loadInitialMemoryValues(mem);
+        sim.setCosimEnabled(true);
+
+        sim.step();  // the reference copies memory in the first cycle
+        sim.getMemory().storeDouble(16, 7.0);
+        while (!sim.isFinished() && sim.getCycle() < 1000) sim.step();
+
+        CosimChecker.Divergence divergence = sim.getCosimDivergence();
+        int loadWriteBack = writeBackCycle(sim, 1);
+        System.out.println("Divergence: " + divergence);
+        System.out.println("L.D wrote back in cycle " + loadWriteBack);
+        System.out.println();
+        return divergence != null && divergence.pc == 1 && divergence.cycle == loadWriteBack
+               && divergence.detail.startsWith("F4 = 7.0, expected 3.0")
+               && divergence.detail.contains("R1=0.0");
+    }
+
+    /**
+     * Program:
+     * 0. VL.D V1, 0(R1)     - element 2 changed under the timing model
+     * 1. VADD.D V2, V1, V1
+     */
+    private static boolean testInjectedVectorResult() {
+        System.out.println("Test 3: Wrong Vector Result Reported");
+        System.out.println("---");
+        SimulatorState sim = new SimulatorState();
+        sim.loadProgramLines(Arrays.asList(
+            "VL.D V1, 0(R1)",
+            "VADD.D V2, V1, V1"
+        ));
+        Map<Integer, Double> mem = new HashMap<>();
+        for (int i = 0; i < 8; i++) mem.put(i * 8, (double) i);
+        sim.loadInitialMemoryValues(mem);
+        sim.setCosimEnabled(true);
+
+        sim.step();
+        sim.getMemory().storeDouble(16, 42.0);
+        while (!sim.isFinished() && sim.getCycle() < 1000) sim.step();
+
+        CosimChecker.Divergence divergence = sim.getCosimDivergence();
+        int loadWriteBack = writeBackCycle(sim, 0);
+        System.out.println("Divergence: " + divergence);
+        System.out.println("VL.D wrote back in cycle " + loadWriteBack);
+        System.out.println();
+        return divergence != null && divergence.pc == 0 && divergence.cycle == loadWriteBack
+               && divergence.detail.startsWith("V1[2] = 42.0, expected 2.0");
+    }
+
+    private static int writeBackCycle(SimulatorState sim, int programIndex) {
+        for (SimulatorState.InstructionStatus status : sim.getInstructionStatuses()) {
+            if (status.programIndex == programIndex) return status.writeBackCycle;
+        }
+        return -1;
+    }
+}
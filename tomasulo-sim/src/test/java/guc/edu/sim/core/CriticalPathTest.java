@@ -0,0 +1,120 @@
+package guc.edu.sim.core;
+
+import java.util.*;
+
+/**
+ * Test for critical-path analysis: the dependency graph recorded during a run and the
+ * longest path through it.
+ */
+public class CriticalPathTest {
+
+    public static void main(String[] args) {
+        System.out.println("=== Critical Path Test ===\n");
+        SimLog.setEnabled(false);
+
+        boolean test1 = testCriticalPath();
+        boolean test2 = testTrackingLeavesTimingAlone();
+
+        System.out.println("\n=== Test Summary ===");
+        System.out.println("Test 1 (Critical path): " + (test1 ? "PASS" : "FAIL"));
+        System.out.println("Test 2 (Tracking leaves timing alone): " + (test2 ? "PASS" : "FAIL"));
+
+        if (test1 && test2) {
+            System.out.println("\nAll tests PASSED!");
+            System.exit(0);
+        } else {
+            System.out.println("\nSome tests FAILED!");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Program (R2 = 0, F4 = 2, F8 = 1, memory 0 holds 3):
+     * 0. L.D F0, 0(R2)
+     * 1. MUL.D F2, F0, F4
+     * 2. ADD.D F6, F2, F8
+     * 3. S.D F6, 8(R2)
+     * 4. L.D F10, 8(R2)       - waits for the store
+     * 5. DIV.D F12, F10, F4
+     * 6-9. ADD.D Fn, F0, F8   - independent, off the path
+     *
+     * The path runs from the start of the run to the last write-back through the chain
+     * 0-1-2-3-4-5, its edges are contiguous and the divide is the largest contributor.
+     */
+    private static boolean testCriticalPath() {
+        System.out.println("Test 1: Critical Path");
+        System.out.println("---");
+        SimulatorState sim = run(true);
+
+        CriticalPathAnalyzer.Report report = sim.analyzeCriticalPath();
+        System.out.println(report);
+
+        int lastWriteBack = 0;
+        for (SimulatorState.InstructionStatus status : sim.getInstructionStatuses()) {
+            lastWriteBack = Math.max(lastWriteBack, status.writeBackCycle);
+        }
+        boolean pass = sim.isFinished() && report.length == lastWriteBack && !report.path.isEmpty();
+
+        int total = 0;
+        Set<Integer> pcs = new TreeSet<>();
+        for (int i = 0; i < report.path.size(); i++) {
+            CriticalPathAnalyzer.Step step = report.path.get(i);
+            total += step.getCycles();
+            pcs.add(step.pc);
+            if (i + 1 < report.path.size()) pass &= report.path.get(i + 1).toCycle == step.fromCycle;
+        }
+        int byEdge = 0;
+        for (int cycles : report.cyclesByEdge.values()) byEdge += cycles;
+
+        CriticalPathAnalyzer.Step last = report.path.get(0);
+        CriticalPathAnalyzer.Step first = report.path.get(report.path.size() - 1);
+        System.out.println("Instructions on the path: " + pcs);
+        pass &= total == report.length && byEdge == report.length
+                && last.pc == 5 && last.edge == CriticalPathAnalyzer.EdgeType.WRITE_BACK && last.toCycle == lastWriteBack
+                && first.edge == CriticalPathAnalyzer.EdgeType.START && first.fromCycle == 0
+                && pcs.equals(new TreeSet<>(Arrays.asList(0, 1, 2, 3, 4, 5)))
+                && report.cyclesByPc.keySet().iterator().next() == 5;
+        System.out.println();
+        return pass;
+    }
+
+    /** Run the program of test 1 to the end. */
+    private static SimulatorState run(boolean tracking) {
+        SimulatorState sim = new SimulatorState();
+        sim.setCriticalPathTracking(tracking);
+        sim.loadProgramLines(Arrays.asList(
+            "L.D F0, 0(R2)",
+            "MUL.D F2, F0, F4",
+            "ADD.D F6, F2, F8",
+            "S.D F6, 8(R2)",
+            "L.D F10, 8(R2)",
+            "DIV.D F12, F10, F4",
+            "ADD.D F14, F0, F8",
+            "ADD.D F16, F0, F8",
+            "ADD.D F18, F0, F8",
+            "ADD.D F20, F0, F8"
+        ));
+        Map<String, Double> regs = new HashMap<>();
+        regs.put("R2", 0.0);
+        regs.put("F4", 2.0);
+        regs.put("F8", 1.0);
+        sim.loadInitialRegisterValues(regs);
+        sim.loadInitialMemoryValues(Collections.singletonMap(0, 3.0));
+        while (!sim.isFinished() && sim.getCycle() < 1000) sim.step();
+        return sim;
+    }
+
+    /** Tracking only records the run: without it there is no report, and the timing is the same. */
+    private static boolean testTrackingLeavesTimingAlone() {
+        System.out.println("Test 2: Tracking Leaves Timing Alone");
+        System.out.println("---");
+        SimulatorState tracked = run(true);
+        SimulatorState plain = run(false);
+        System.out.println("Tracked: " + tracked.getCycle() + " cycles, untracked: " + plain.getCycle() + " cycles");
+        boolean pass = plain.isFinished() && plain.analyzeCriticalPath() == null
+                       && tracked.getCycle() == plain.getCycle()
+                       && tracked.getRegFile().getValue("F12") == plain.getRegFile().getValue("F12");
+        System.out.println();
+        return pass;
+    }
+}
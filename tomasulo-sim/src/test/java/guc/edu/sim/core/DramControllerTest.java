@@ -0,0 +1,97 @@
+package guc.edu.sim.core;
+
+/**
+ * Test for the DRAM controller: row buffer timing under the open- and closed-page
+ * policies, and FR-FCFS scheduling.
+ *
+ * Default timing: tRCD = tCAS = tRP = 14, burst 4, 2 KB rows over 8 banks. An access to
+ * a precharged bank costs 14 + 14 + 4, a row hit 14 + 4 and a row conflict
+ * 14 + 14 + 14 + 4. Address 16384 is row 1 of bank 0.
+ */
+public class DramControllerTest {
+
+    public static void main(String[] args) {
+        System.out.println("=== DRAM Controller Test ===\n");
+        SimLog.setEnabled(false);
+
+        boolean test1 = testOpenPage();
+        boolean test2 = testClosedPage();
+        boolean test3 = testRowHitsFirst();
+
+        System.out.println("\n=== Test Summary ===");
+        System.out.println("Test 1 (DRAM row hit vs row conflict): " + (test1 ? "PASS" : "FAIL"));
+        System.out.println("Test 2 (Closed page): " + (test2 ? "PASS" : "FAIL"));
+        System.out.println("Test 3 (FR-FCFS serves row hits first): " + (test3 ? "PASS" : "FAIL"));
+
+        if (test1 && test2 && test3) {
+            System.out.println("\nAll tests PASSED!");
+            System.exit(0);
+        } else {
+            System.out.println("\nSome tests FAILED!");
+            System.exit(1);
+        }
+    }
+
+    /** Submit a read of {@code address} in {@code cycle} and tick until it is scheduled. */
+    private static int access(DramController dram, int cycle, int address) {
+        dram.advanceTo(cycle);
+        DramController.Request request = dram.submit(address, false);
+        for (int c = cycle; !request.isScheduled(); c++) dram.tick(c);
+        return request.getLatency();
+    }
+
+    /** With the open-page policy a row stays open until another row of its bank is needed. */
+    private static boolean testOpenPage() {
+        System.out.println("Test 1: DRAM Row Hit vs Row Conflict");
+        System.out.println("---");
+        boolean pass = true;
+        DramController open = new DramController(new DramController.Config());
+        pass &= check("row empty", access(open, 0, 0), 32);
+        pass &= check("row hit", access(open, 100, 64), 18);
+        pass &= check("row conflict", access(open, 200, 16384), 46);
+        pass &= check("back to row 0", access(open, 300, 128), 46);
+        System.out.println(open);
+        pass &= open.getRowHits() == 1 && open.getRowConflicts() == 2 && open.getRowEmptyAccesses() == 1
+                && Math.abs(open.getAverageReadLatency() - (32 + 18 + 46 + 46) / 4.0) < 1e-12;
+        System.out.println();
+        return pass;
+    }
+
+    /** With the closed-page policy every access finds the bank precharged. */
+    private static boolean testClosedPage() {
+        System.out.println("Test 2: Closed Page");
+        System.out.println("---");
+        boolean pass = true;
+        DramController.Config closedConfig = new DramController.Config();
+        closedConfig.pagePolicy = DramController.PagePolicy.CLOSED;
+        DramController closed = new DramController(closedConfig);
+        pass &= check("closed page, row 0", access(closed, 0, 0), 32);
+        pass &= check("closed page, row 0 again", access(closed, 100, 64), 32);
+        pass &= check("closed page, row 1", access(closed, 200, 16384), 32);
+        pass &= closed.getRowHits() == 0 && closed.getRowConflicts() == 0 && closed.getRowEmptyAccesses() == 3;
+        System.out.println();
+        return pass;
+    }
+
+    /** A younger row hit goes ahead of an older request to another row of the bank. */
+    private static boolean testRowHitsFirst() {
+        System.out.println("Test 3: FR-FCFS Serves Row Hits First");
+        System.out.println("---");
+        DramController frfcfs = new DramController(new DramController.Config());
+        access(frfcfs, 0, 0);
+        frfcfs.advanceTo(100);
+        DramController.Request conflict = frfcfs.submit(16384, false);
+        DramController.Request hit = frfcfs.submit(64, false);
+        for (int cycle = 100; cycle < 200 && !conflict.isScheduled(); cycle++) frfcfs.tick(cycle);
+        System.out.println("Older conflict done at " + conflict.getCompletionCycle() +
+                           ", younger hit done at " + hit.getCompletionCycle());
+        boolean pass = hit.isRowHit() && !conflict.isRowHit() && hit.getCompletionCycle() < conflict.getCompletionCycle();
+        System.out.println();
+        return pass;
+    }
+
+    private static boolean check(String what, int latency, int expected) {
+        System.out.println(what + ": " + latency + " cycles (expected " + expected + ")");
+        return latency == expected;
+    }
+}
@@ -0,0 +1,89 @@
+package guc.edu.sim.core;
+
+/**
+ * Test for the event-based energy model and parameter sweeps over it.
+ */
+public class EnergyModelTest {
+
+    public static void main(String[] args) {
+        System.out.println("=== Energy Model Test ===\n");
+        SimLog.setEnabled(false);
+
+        boolean test1 = testEventCosts();
+        boolean test2 = testParameterSweep();
+
+        System.out.println("\n=== Test Summary ===");
+        System.out.println("Test 1 (Event counts times costs): " + (test1 ? "PASS" : "FAIL"));
+        System.out.println("Test 2 (Parameter sweep): " + (test2 ? "PASS" : "FAIL"));
+
+        if (test1 && test2) {
+            System.out.println("\nAll tests PASSED!");
+            System.exit(0);
+        } else {
+            System.out.println("\nSome tests FAILED!");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 10 FP adds at 2.0, one memory access at the default 1300 and 100 cycles of leakage
+     * at the default 10, over 100 cycles at 1 GHz.
+     */
+    private static boolean testEventCosts() {
+        System.out.println("Test 1: Event Counts Times Costs");
+        System.out.println("---");
+        EnergyModel model = new EnergyModel();
+        model.count(EnergyModel.Event.FP_ADD, 10);
+        model.count(EnergyModel.Event.MEMORY_ACCESS);
+        model.count(EnergyModel.Event.LEAKAGE, 100);
+        model.setCost(EnergyModel.Event.FP_ADD, 2.0);
+        EnergyModel.Report unit = model.report(100);
+        System.out.println("Total " + unit.totalEnergy + " over " + unit.getTimeNanos() + " ns");
+        boolean pass = unit.totalEnergy == 10 * 2.0 + 1300.0 + 100 * 10.0
+                       && unit.getEnergy(EnergyModel.Component.FUNCTIONAL_UNITS) == 20.0
+                       && unit.getEnergy(EnergyModel.Component.CDB) == 0.0
+                       && unit.getTimeNanos() == 100.0 && unit.getAveragePowerMilliwatts() == unit.totalEnergy / 100.0;
+        try {
+            model.setCost(EnergyModel.Event.FP_ADD, -1);
+            pass = false;
+        } catch (IllegalArgumentException e) {
+            System.out.println("Negative cost rejected: " + e.getMessage());
+        }
+        System.out.println();
+        return pass;
+    }
+
+    /**
+     * One program swept over energy settings. Changing a cost or the clock must not change
+     * the timing, a faster clock keeps the energy but shortens the time, and a cheaper
+     * memory access saves exactly the difference for every access.
+     */
+    private static boolean testParameterSweep() {
+        System.out.println("Test 2: Parameter Sweep");
+        System.out.println("---");
+        WorkloadGenerator.Config config = new WorkloadGenerator.Config();
+        config.seed = 3;
+        config.loops = 2;
+        config.minTripCount = 20;
+        config.maxTripCount = 20;
+        config.fpDivWeight = 0.1;
+        WorkloadGenerator.Workload workload = new WorkloadGenerator(config).generate();
+        ParameterSweep sweep = new ParameterSweep(workload.lines, workload.registerValues, workload.memoryImage);
+        ParameterSweep.Point baseline = sweep.run("baseline", sim -> {});
+        ParameterSweep.Point fastClock = sweep.run("2GHz", sim -> sim.getEnergyModel().setClockGhz(2.0));
+        ParameterSweep.Point cheapMemory = sweep.run("cheap-mem",
+                sim -> sim.getEnergyModel().setCost(EnergyModel.Event.MEMORY_ACCESS, 100));
+        System.out.println(sweep.toTable());
+
+        double memoryAccesses = baseline.energy.energyByEvent.get(EnergyModel.Event.MEMORY_ACCESS) / 1300.0;
+        boolean pass = baseline.finished && sweep.getPoints().size() == 3
+                && fastClock.cycles == baseline.cycles && cheapMemory.cycles == baseline.cycles
+                && fastClock.energy.totalEnergy == baseline.energy.totalEnergy
+                && Math.abs(fastClock.energy.getTimeNanos() * 2 - baseline.energy.getTimeNanos()) < 1e-9
+                && memoryAccesses > 0
+                && Math.abs(baseline.energy.totalEnergy - cheapMemory.energy.totalEnergy - memoryAccesses * 1200.0) < 1e-6
+                && baseline.energy.energyByEvent.get(EnergyModel.Event.LEAKAGE) == baseline.cycles * 10.0;
+        System.out.println();
+        return pass;
+    }
+}
@@ -0,0 +1,119 @@
+package guc.edu.sim.core;
+
+import java.util.*;
+
+/**
+ * Test for fused multiply-add: FMA.D and FMS.D run on the FP multiplier with their
+ * own latency and round once, so a dependent multiply-add chain is both shorter and
+ * at least as exact as separate multiplies and adds.
+ */
+public class FmaTest {
+
+    public static void main(String[] args) {
+        System.out.println("=== FMA Test ===\n");
+        SimLog.setEnabled(false);
+
+        boolean test1 = testFusedMultiplyAdd();
+        boolean test2 = testSingleRounding();
+
+        System.out.println("\n=== Test Summary ===");
+        System.out.println("Test 1 (Fused multiply-add): " + (test1 ? "PASS" : "FAIL"));
+        System.out.println("Test 2 (Single rounding): " + (test2 ? "PASS" : "FAIL"));
+
+        if (test1 && test2) {
+            System.out.println("\nAll tests PASSED!");
+            System.exit(0);
+        } else {
+            System.out.println("\nSome tests FAILED!");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * F0 = F2 * F4 + F6 and F8 = F0 * F2 - F4 with F2 = 3, F4 = 4, F6 = 1, once as FMA.D /
+     * FMS.D and once as separate multiplies and adds. The fused chain gives the same values
+     * with two dependent operations fewer.
+     */
+    private static boolean testFusedMultiplyAdd() {
+        System.out.println("Test 1: Fused Multiply-Add");
+        System.out.println("---");
+        SimulatorState fused = fmaProgram(Arrays.asList(
+            "FMA.D F0, F2, F4, F6",
+            "FMS.D F8, F0, F2, F4"));
+        SimulatorState separate = fmaProgram(Arrays.asList(
+            "MUL.D F10, F2, F4",
+            "ADD.D F0, F10, F6",
+            "MUL.D F12, F0, F2",
+            "SUB.D F8, F12, F4"));
+
+        RegisterFile f = fused.getRegFile();
+        RegisterFile s = separate.getRegFile();
+        System.out.println("Fused: F0=" + f.getValue("F0") + " F8=" + f.getValue("F8") + " in " + fused.getCycle() + " cycles");
+        System.out.println("Separate: F0=" + s.getValue("F0") + " F8=" + s.getValue("F8") + " in " + separate.getCycle() + " cycles");
+
+        // FMA.D executes for the configured 5 cycles
+        SimulatorState.InstructionStatus fma = status(fused, 2);
+        boolean pass = fused.isFinished() && separate.isFinished()
+                       && f.getValue("F0") == 13.0 && f.getValue("F8") == 35.0
+                       && s.getValue("F0") == 13.0 && s.getValue("F8") == 35.0
+                       && fused.getFmaIssuedCount() == 2 && separate.getFmaIssuedCount() == 0
+                       && fma.execEndCycle - fma.execStartCycle + 1 == 5
+                       && fused.getCycle() < separate.getCycle();
+        System.out.println();
+        return pass;
+    }
+
+    private static SimulatorState fmaProgram(List<String> body) {
+        List<String> lines = new ArrayList<>(Arrays.asList("L.D F2, 0(R1)", "L.D F4, 8(R1)"));
+        lines.addAll(body);
+        SimulatorState sim = new SimulatorState();
+        sim.loadProgramLines(lines);
+        Map<String, Double> regs = new HashMap<>();
+        regs.put("R1", 0.0);
+        regs.put("F6", 1.0);
+        sim.loadInitialRegisterValues(regs);
+        Map<Integer, Double> memory = new HashMap<>();
+        memory.put(0, 3.0);
+        memory.put(8, 4.0);
+        sim.loadInitialMemoryValues(memory);
+        sim.setFmaLatency(5);
+        while (!sim.isFinished() && sim.getCycle() < 1000) sim.step();
+        return sim;
+    }
+
+    private static SimulatorState.InstructionStatus status(SimulatorState sim, int programIndex) {
+        for (SimulatorState.InstructionStatus status : sim.getInstructionStatuses()) {
+            if (status.programIndex == programIndex) return status;
+        }
+        return null;
+    }
+
+    /**
+     * F0 = 0.1 * 10 - 1. Rounded after the multiply, 0.1 * 10 is exactly 1 and the result
+     * is 0; rounded once, the error of 0.1 survives as 2^-54.
+     */
+    private static boolean testSingleRounding() {
+        System.out.println("Test 2: Single Rounding");
+        System.out.println("---");
+        SimulatorState sim = new SimulatorState();
+        sim.loadProgramLines(Arrays.asList(
+            "FMS.D F0, F2, F4, F6",
+            "MUL.D F8, F2, F4",
+            "SUB.D F10, F8, F6"
+        ));
+        Map<String, Double> regs = new HashMap<>();
+        regs.put("F2", 0.1);
+        regs.put("F4", 10.0);
+        regs.put("F6", 1.0);
+        sim.loadInitialRegisterValues(regs);
+        while (!sim.isFinished() && sim.getCycle() < 1000) sim.step();
+
+        double fused = sim.getRegFile().getValue("F0");
+        double separate = sim.getRegFile().getValue("F10");
+        System.out.println("FMS.D: " + fused + ", MUL.D then SUB.D: " + separate);
+        boolean pass = sim.isFinished() && fused == Math.scalb(1.0, -54) && separate == 0.0
+                       && ALU.compute("FMA.D", 0.1, 10.0, -1.0) == fused;
+        System.out.println();
+        return pass;
+    }
+}
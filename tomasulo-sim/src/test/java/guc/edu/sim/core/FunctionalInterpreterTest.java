@@ -0,0 +1,156 @@
+package guc.edu.sim.core;
+
+import java.util.*;
+
+/**
+ * Test for the functional interpreter used as the architectural reference.
+ *
+ * Whatever the timing model does out of order, once the program has finished its
+ * registers and memory must equal those of an in-order execution of the same program.
+ */
+public class FunctionalInterpreterTest {
+
+    public static void main(String[] args) {
+        System.out.println("=== Functional Interpreter Test ===\n");
+        SimLog.setEnabled(false);
+
+        boolean test1 = testFinalStateMatchesTimingModel();
+        boolean test2 = testStepMatchesRun();
+        boolean test3 = testRegistersSyncedAtEnd();
+
+        System.out.println("\n=== Test Summary ===");
+        System.out.println("Test 1 (Final state matches timing model): " + (test1 ? "PASS" : "FAIL"));
+        System.out.println("Test 2 (Single steps match one run): " + (test2 ? "PASS" : "FAIL"));
+        System.out.println("Test 3 (Registers synced at the end): " + (test3 ? "PASS" : "FAIL"));
+
+        if (test1 && test2 && test3) {
+            System.out.println("\nAll tests PASSED!");
+            System.exit(0);
+        } else {
+            System.out.println("\nSome tests FAILED!");
+            System.exit(1);
+        }
+    }
+
+    private static WorkloadGenerator.Workload workload(long seed) {
+        WorkloadGenerator.Config config = new WorkloadGenerator.Config();
+        config.seed = seed;
+        config.loops = 2;
+        config.minTripCount = 20;
+        config.maxTripCount = 30;
+        config.iterationAdvanceBytes = 8;
+        config.branchFraction = seed % 3 == 0 ? 0.2 : 0.0;
+        config.intMulWeight = seed % 2 == 0 ? 0.1 : 0.0;
+        config.fpDivWeight = 0.05;
+        return new WorkloadGenerator(config).generate();
+    }
+
+    private static FunctionalInterpreter interpreter(SimulatorState sim, WorkloadGenerator.Workload w,
+                                                     RegisterFile regs) {
+        regs.loadInitialValues(w.registerValues);
+        Memory memory = new Memory();
+        memory.loadInitialData(w.memoryImage);
+        return new FunctionalInterpreter(sim.getProgram(), regs, memory);
+    }
+
+    private static boolean sameMemory(Memory a, Memory b) {
+        Map<Integer, byte[]> pagesA = a.checkpoint();
+        Map<Integer, byte[]> pagesB = b.checkpoint();
+        Set<Integer> pages = new HashSet<>(pagesA.keySet());
+        pages.addAll(pagesB.keySet());
+        byte[] zero = new byte[Memory.PAGE_SIZE];
+        for (int page : pages) {
+            if (!Arrays.equals(pagesA.getOrDefault(page, zero), pagesB.getOrDefault(page, zero))) return false;
+        }
+        return true;
+    }
+
+    private static boolean sameRegisters(Map<String, Double> a, Map<String, Double> b) {
+        for (String name : a.keySet()) {
+            if (Double.compare(a.get(name), b.getOrDefault(name, 0.0)) != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Generated workloads with dependent FP and integer arithmetic, divides, forward
+     * branches and loads/stores that alias across iterations, on two configurations.
+     */
+    private static boolean testFinalStateMatchesTimingModel() {
+        System.out.println("Test 1: Final State Matches Timing Model");
+        System.out.println("---");
+        boolean pass = true;
+        for (long seed = 1; seed <= 6; seed++) {
+            WorkloadGenerator.Workload w = workload(seed);
+            SimulatorState sim = new SimulatorState();
+            w.loadInto(sim);
+            if (seed % 2 == 1) {
+                sim.setConfigurationWithLatencies(3, 2, 2, 3, 3, 64, 16, 1, 10, 3, 10, 40, 1, 2, 2, 1);
+            }
+            while (!sim.isFinished() && sim.getCycle() < 200000) sim.step();
+
+            RegisterFile regs = new RegisterFile();
+            FunctionalInterpreter functional = interpreter(sim, w, regs);
+            long executed = functional.run();
+
+            boolean regsMatch = sameRegisters(regs.getAllValues(), sim.getRegFile().getAllValues());
+            boolean memoryMatches = sameMemory(functional.getMemory(), sim.getMemory());
+            System.out.println("Seed " + seed + ": " + executed + " instructions, " + sim.getCycle() + " cycles, " +
+                               "registers " + (regsMatch ? "match" : "DIFFER") +
+                               ", memory " + (memoryMatches ? "matches" : "DIFFERS"));
+            pass &= sim.isFinished() && regsMatch && memoryMatches;
+        }
+        System.out.println();
+        return pass;
+    }
+
+    private static boolean testStepMatchesRun() {
+        System.out.println("Test 2: Single Steps Match One Run");
+        System.out.println("---");
+        WorkloadGenerator.Workload w = workload(3);
+        SimulatorState sim = new SimulatorState();
+        w.loadInto(sim);
+
+        RegisterFile runRegs = new RegisterFile();
+        FunctionalInterpreter whole = interpreter(sim, w, runRegs);
+        long total = whole.run();
+
+        RegisterFile stepRegs = new RegisterFile();
+        FunctionalInterpreter stepped = interpreter(sim, w, stepRegs);
+        while (!stepped.isFinished()) stepped.step();
+
+        boolean pass = stepped.getExecutedCount() == total
+                       && sameRegisters(runRegs.getAllValues(), stepRegs.getAllValues())
+                       && sameMemory(whole.getMemory(), stepped.getMemory());
+        System.out.println("Executed " + total + " by run(), " + stepped.getExecutedCount() + " by step()");
+        System.out.println();
+        return pass;
+    }
+
+    /**
+     * Registers stay in the interpreter between steps; the register file is written once the
+     * program finishes, or when asked.
+     */
+    private static boolean testRegistersSyncedAtEnd() {
+        System.out.println("Test 3: Registers Synced At The End");
+        System.out.println("---");
+        SimulatorState sim = new SimulatorState();
+        sim.loadProgramLines(Arrays.asList(
+            "DADDI R1, R1, 5",
+            "DADDI R2, R1, 3",
+            "DADDI R3, R2, 1"
+        ));
+        RegisterFile regs = new RegisterFile();
+        FunctionalInterpreter functional = new FunctionalInterpreter(sim.getProgram(), regs, new Memory());
+
+        functional.step();
+        boolean pass = functional.getValue("R1") == 5 && regs.getValue("R1") == 0;
+        functional.syncRegisters();
+        pass &= regs.getValue("R1") == 5;
+        functional.run();
+        pass &= regs.getValue("R2") == 8 && regs.getValue("R3") == 9 && functional.getValue("R3") == 9;
+        System.out.println("R1=" + regs.getValue("R1") + ", R2=" + regs.getValue("R2") + ", R3=" + regs.getValue("R3"));
+        System.out.println();
+        return pass;
+    }
+}
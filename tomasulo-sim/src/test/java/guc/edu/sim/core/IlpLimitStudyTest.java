@@ -0,0 +1,120 @@
+package guc.edu.sim.core;
+
+import java.util.*;
+
+/**
+ * Test for the ideal-machine limit study.
+ *
+ * The ideal machine is only limited by register dataflow, store-to-load dependences and
+ * latencies, so its schedule can be worked out by hand: an instruction starts the cycle
+ * after its last operand is written back and writes back the cycle after it ends.
+ */
+public class IlpLimitStudyTest {
+
+    public static void main(String[] args) {
+        System.out.println("=== ILP Limit Study Test ===\n");
+        SimLog.setEnabled(false);
+
+        boolean test1 = testHandComputedCriticalPath();
+        boolean test2 = testStartsFromLoadedState();
+
+        System.out.println("\n=== Test Summary ===");
+        System.out.println("Test 1 (Hand-computed critical path and ILP): " + (test1 ? "PASS" : "FAIL"));
+        System.out.println("Test 2 (Starts from the loaded state): " + (test2 ? "PASS" : "FAIL"));
+
+        if (test1 && test2) {
+            System.out.println("\nAll tests PASSED!");
+            System.exit(0);
+        } else {
+            System.out.println("\nSome tests FAILED!");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Latencies: FP add 2, FP mul 4, load 2, store 2.
+     *
+     * Program                  start-end  written back
+     * 0. L.D F0, 0(R2)         2-3        4
+     * 1. MUL.D F2, F0, F4      5-8        9
+     * 2. ADD.D F6, F2, F8      10-11      12
+     * 3. S.D F6, 8(R2)         13-14      15   (memory word ready)
+     * 4. L.D F10, 8(R2)        16-17      18   (waits for the store)
+     * 5. ADD.D F12, F10, F8    19-20      21
+     * 6. ADD.D F14, F0, F8     5-6        7
+     * 7. ADD.D F16, F0, F8     5-6        7
+     *
+     * The critical path 0-1-2-3-4-5 ends in cycle 21, so IPC is 8/21. Cycles 5-6 run three
+     * instructions at once, and 18 instruction-cycles of execution give average parallelism 18/21.
+     */
+    private static boolean testHandComputedCriticalPath() {
+        System.out.println("Test 1: Hand-Computed Critical Path and ILP");
+        System.out.println("---");
+        SimulatorState sim = new SimulatorState();
+        sim.loadProgramLines(Arrays.asList(
+            "L.D F0, 0(R2)",
+            "MUL.D F2, F0, F4",
+            "ADD.D F6, F2, F8",
+            "S.D F6, 8(R2)",
+            "L.D F10, 8(R2)",
+            "ADD.D F12, F10, F8",
+            "ADD.D F14, F0, F8",
+            "ADD.D F16, F0, F8"
+        ));
+        sim.setConfigurationWithLatencies(3, 2, 2, 3, 3, 64, 16, 1, 10, 2, 4, 10, 1, 2, 2, 1);
+        Map<String, Double> regs = new HashMap<>();
+        regs.put("R2", 0.0);
+        regs.put("F4", 2.0);
+        regs.put("F8", 1.0);
+        sim.loadInitialRegisterValues(regs);
+
+        IlpLimitStudy.Report report = new IlpLimitStudy(sim).run();
+        System.out.print(report);
+
+        int[] expected = new int[22];
+        int[][] intervals = {{2, 3}, {5, 8}, {10, 11}, {13, 14}, {16, 17}, {19, 20}, {5, 6}, {5, 6}};
+        for (int[] interval : intervals) {
+            for (int c = interval[0]; c <= interval[1]; c++) expected[c]++;
+        }
+        boolean pass = report.instructions == 8 && report.cycles == 21
+                       && Arrays.equals(report.profile, expected)
+                       && report.getPeakParallelism() == 3
+                       && Math.abs(report.getIpc() - 8.0 / 21) < 1e-12
+                       && Math.abs(report.getAverageParallelism() - 18.0 / 21) < 1e-12;
+        System.out.println("Profile: " + Arrays.toString(report.profile));
+        System.out.println();
+        return pass;
+    }
+
+    /**
+     * Program:
+     * 0. LOOP: DSUBI R1, R1, 1
+     * 1. BNE R1, R0, LOOP
+     *
+     * With R1 = 3 the loop runs 6 dynamic instructions. After the detailed run R1 is 0, so a
+     * study that started from the current registers would count down from -1 instead.
+     */
+    private static boolean testStartsFromLoadedState() {
+        System.out.println("Test 2: Starts From The Loaded State");
+        System.out.println("---");
+        SimulatorState sim = new SimulatorState();
+        sim.loadProgramLines(Arrays.asList(
+            "LOOP: DSUBI R1, R1, 1",
+            "BNE R1, R0, LOOP"
+        ));
+        Map<String, Double> regs = new HashMap<>();
+        regs.put("R1", 3.0);
+        sim.loadInitialRegisterValues(regs);
+
+        IlpLimitStudy.Report before = new IlpLimitStudy(sim).run(1000);
+        while (!sim.isFinished() && sim.getCycle() < 1000) sim.step();
+        IlpLimitStudy.Report after = new IlpLimitStudy(sim).run(1000);
+
+        System.out.println("Before the run: " + before.instructions + " instructions in " + before.cycles + " cycles");
+        System.out.println("After the run:  " + after.instructions + " instructions in " + after.cycles + " cycles");
+        System.out.println("Detailed R1 = " + sim.getRegFile().getValue("R1"));
+        System.out.println();
+        return sim.isFinished() && sim.getRegFile().getValue("R1") == 0.0
+               && before.instructions == 6 && after.instructions == 6 && after.cycles == before.cycles;
+    }
+}
@@ -0,0 +1,131 @@
+package guc.edu.sim.core;
+
+import java.util.*;
+
+/**
+ * Test for the integer multiply/divide unit: DMUL is pipelined, DDIV runs on an
+ * iterative divider that blocks the unit unless configured as pipelined.
+ */
+public class IntMulDivTest {
+
+    public static void main(String[] args) {
+        System.out.println("=== Integer Multiply/Divide Test ===\n");
+        SimLog.setEnabled(false);
+
+        boolean test1 = testPipelinedMultiplier();
+        boolean test2 = testIntegerDivider();
+
+        System.out.println("\n=== Test Summary ===");
+        System.out.println("Test 1 (Pipelined multiplier): " + (test1 ? "PASS" : "FAIL"));
+        System.out.println("Test 2 (Blocking vs pipelined divider): " + (test2 ? "PASS" : "FAIL"));
+
+        if (test1 && test2) {
+            System.out.println("\nAll tests PASSED!");
+            System.exit(0);
+        } else {
+            System.out.println("\nSome tests FAILED!");
+            System.exit(1);
+        }
+    }
+
+    private static void runToEnd(SimulatorState sim) {
+        while (!sim.isFinished() && sim.getCycle() < 1000) sim.step();
+    }
+
+    private static SimulatorState.InstructionStatus status(SimulatorState sim, int programIndex) {
+        for (SimulatorState.InstructionStatus status : sim.getInstructionStatuses()) {
+            if (status.programIndex == programIndex) return status;
+        }
+        return null;
+    }
+
+    /**
+     * Program (R1 = 6, R2 = 3; multiply 4 cycles):
+     * 0. DMUL R3, R1, R2
+     * 1. DMUL R4, R1, R1
+     * 2. DMUL R5, R2, R2
+     *
+     * The multiplies are independent, so each starts one cycle after the previous one
+     * while the earlier ones are still in flight, and each takes the full 4 cycles.
+     */
+    private static boolean testPipelinedMultiplier() {
+        System.out.println("Test 1: Pipelined Multiplier");
+        System.out.println("---");
+        SimulatorState sim = new SimulatorState();
+        sim.loadProgramLines(Arrays.asList(
+            "DMUL R3, R1, R2",
+            "DMUL R4, R1, R1",
+            "DMUL R5, R2, R2"
+        ));
+        Map<String, Double> regs = new HashMap<>();
+        regs.put("R1", 6.0);
+        regs.put("R2", 3.0);
+        sim.loadInitialRegisterValues(regs);
+        sim.setIntMulDivConfiguration(3, 4, 12, false);
+        runToEnd(sim);
+
+        RegisterFile r = sim.getRegFile();
+        boolean pass = sim.isFinished() && r.getValue("R3") == 18.0 && r.getValue("R4") == 36.0
+                       && r.getValue("R5") == 9.0 && sim.getIntMulDivIssuedCount() == 3
+                       && sim.getIntDividerBlockedCycles() == 0;
+        for (int pc = 0; pc < 3; pc++) {
+            SimulatorState.InstructionStatus multiply = status(sim, pc);
+            System.out.println("DMUL " + pc + ": " + multiply.execStartCycle + "-" + multiply.execEndCycle);
+            pass &= multiply.execEndCycle - multiply.execStartCycle + 1 == 4
+                    && multiply.execStartCycle == status(sim, 0).execStartCycle + pc;
+        }
+        System.out.println();
+        return pass;
+    }
+
+    /**
+     * Program (R1 = 6, R2 = 3; multiply 4 cycles, divide 12):
+     * 0. DMUL R3, R1, R2
+     * 1. DMUL R4, R1, R1
+     * 2. DDIV R5, R3, R2
+     * 3. DMUL R6, R2, R2     - independent of the divide
+     * 4. DADDI R7, R6, 1
+     *
+     * A blocking divider holds the unit until the divide ends, so the last DMUL starts
+     * in the cycle the divide finishes; a pipelined divider lets it start right away.
+     */
+    private static boolean testIntegerDivider() {
+        System.out.println("Test 2: Blocking vs Pipelined Divider");
+        System.out.println("---");
+        boolean pass = true;
+        for (boolean pipelined : new boolean[] {false, true}) {
+            SimulatorState sim = new SimulatorState();
+            sim.loadProgramLines(Arrays.asList(
+                "DMUL R3, R1, R2",
+                "DMUL R4, R1, R1",
+                "DDIV R5, R3, R2",
+                "DMUL R6, R2, R2",
+                "DADDI R7, R6, 1"
+            ));
+            Map<String, Double> regs = new HashMap<>();
+            regs.put("R1", 6.0);
+            regs.put("R2", 3.0);
+            sim.loadInitialRegisterValues(regs);
+            sim.setIntMulDivConfiguration(3, 4, 12, pipelined);
+            runToEnd(sim);
+
+            RegisterFile r = sim.getRegFile();
+            SimulatorState.InstructionStatus divide = status(sim, 2);
+            SimulatorState.InstructionStatus multiply = status(sim, 3);
+            System.out.println((pipelined ? "Pipelined" : "Blocking") + " divider: DDIV " + divide.execStartCycle + "-" +
+                               divide.execEndCycle + ", DMUL R6 starts " + multiply.execStartCycle + ", " +
+                               sim.getCycle() + " cycles, blocked " + sim.getIntDividerBlockedCycles());
+
+            pass &= sim.isFinished() && r.getValue("R3") == 18.0 && r.getValue("R4") == 36.0 && r.getValue("R5") == 6.0
+                    && r.getValue("R6") == 9.0 && r.getValue("R7") == 10.0
+                    && divide.execEndCycle - divide.execStartCycle + 1 == 12 && sim.getIntMulDivIssuedCount() == 4;
+            if (pipelined) {
+                pass &= multiply.execStartCycle < divide.execEndCycle && sim.getIntDividerBlockedCycles() == 0;
+            } else {
+                pass &= multiply.execStartCycle == divide.execEndCycle && sim.getIntDividerBlockedCycles() > 0;
+            }
+        }
+        System.out.println();
+        return pass;
+    }
+}
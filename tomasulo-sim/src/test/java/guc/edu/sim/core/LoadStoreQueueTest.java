@@ -0,0 +1,183 @@
+package guc.edu.sim.core;
+
+import java.util.*;
+
+/**
+ * Test for the address-indexed load/store queue.
+ *
+ * Entries are reachable by resolved address and by (base register, offset), every list
+ * stays in age order however late an address resolves, and the ordering checks in the
+ * pipeline find an overlapping older store through the index.
+ */
+public class LoadStoreQueueTest {
+
+    public static void main(String[] args) {
+        System.out.println("=== Load/Store Queue Test ===\n");
+        SimLog.setEnabled(false);
+
+        boolean test1 = testIndexesInAgeOrder();
+        boolean test2 = testRemoval();
+        boolean test3 = testForwardingThroughIndex();
+
+        System.out.println("\n=== Test Summary ===");
+        System.out.println("Test 1 (Address and base/offset indexes in age order): " + (test1 ? "PASS" : "FAIL"));
+        System.out.println("Test 2 (Written-back entries leave every index): " + (test2 ? "PASS" : "FAIL"));
+        System.out.println("Test 3 (Forwarding only from an exact match): " + (test3 ? "PASS" : "FAIL"));
+
+        if (test1 && test2 && test3) {
+            System.out.println("\nAll tests PASSED!");
+            System.exit(0);
+        } else {
+            System.out.println("\nSome tests FAILED!");
+            System.exit(1);
+        }
+    }
+
+    private static final List<Instruction> PROGRAM = new ProgramLoader().loadFromLines(Arrays.asList(
+        "S.D F2, 8(R1)",
+        "L.D F4, 8(R1)",
+        "S.D F6, 0(R2)",
+        "L.D F8, 16(R1)",
+        "S.D F10, 8(R1)"
+    )).getInstructions();
+
+    private static LoadBuffer.LoadEntry load(String tag, int seq, int pc) {
+        LoadBuffer.LoadEntry entry = new LoadBuffer.LoadEntry(tag, PROGRAM.get(pc));
+        entry.seq = seq;
+        entry.baseReady = true;
+        return entry;
+    }
+
+    private static StoreBuffer.StoreEntry store(String tag, int seq, int pc) {
+        StoreBuffer.StoreEntry entry = new StoreBuffer.StoreEntry(tag, PROGRAM.get(pc));
+        entry.seq = seq;
+        entry.baseReady = true;
+        return entry;
+    }
+
+    private static List<String> tags(List<LoadStoreQueue.Entry> entries) {
+        List<String> tags = new ArrayList<>();
+        for (LoadStoreQueue.Entry entry : entries) tags.add(entry.tag);
+        return tags;
+    }
+
+    /**
+     * Queue (R1 = 0, R2 produced later by M1 as 8):
+     * S1  seq 1  S.D F2, 8(R1)     - address 8
+     * L1  seq 2  L.D F4, 8(R1)     - address 8
+     * S2  seq 3  S.D F6, 0(R2)     - address unknown until M1 broadcasts
+     * L2  seq 4  L.D F8, 16(R1)    - address 16
+     * S3  seq 5  S.D F10, 8(R1)    - address 8
+     *
+     * Once M1 broadcasts, S2 joins the stores at address 8 between S1 and S3 although it
+     * resolved last.
+     */
+    private static boolean testIndexesInAgeOrder() {
+        System.out.println("Test 1: Address and Base/Offset Indexes in Age Order");
+        System.out.println("---");
+        LoadStoreQueue lsq = new LoadStoreQueue();
+        StoreBuffer.StoreEntry s2 = store("S2", 3, 2);
+        s2.baseReady = false;
+        s2.baseProducer = "M1";
+        LoadBuffer.LoadEntry l1 = load("L1", 2, 1);
+        lsq.add(store("S1", 1, 0));
+        lsq.add(l1);
+        lsq.add(s2);
+        lsq.add(load("L2", 4, 3));
+        lsq.add(store("S3", 5, 4));
+
+        boolean pass = lsq.size() == 5
+                && lsq.findAtAddress(8, true).tag.equals("S1") && lsq.findAtAddress(8, false).tag.equals("L1")
+                && lsq.findAtAddress(16, false).tag.equals("L2") && lsq.findAtAddress(0, true) == null
+                && lsq.findByBaseOffset("R1", 8, false).tag.equals("L1")
+                && lsq.findUnresolvedByBaseOffset("R2", 0, true).tag.equals("S2")
+                && lsq.findUnresolvedByBaseOffset("R1", 8, true) == null
+                && lsq.getUnresolvedStores().iterator().next().tag.equals("S2")
+                && tags(lsq.getStoresAt(8)).equals(Arrays.asList("S1", "S3"))
+                && lsq.getStoresAt(16).isEmpty();
+        System.out.println("Stores at 8 before M1: " + tags(lsq.getStoresAt(8)));
+
+        s2.baseValue = 8;
+        s2.baseReady = true;
+        lsq.resolve("M1");
+        System.out.println("Stores at 8 after M1: " + tags(lsq.getStoresAt(8)));
+        pass &= tags(lsq.getStoresAt(8)).equals(Arrays.asList("S1", "S2", "S3"))
+                && !lsq.getUnresolvedStores().iterator().hasNext()
+                && lsq.findUnresolvedByBaseOffset("R2", 0, true) == null
+                && lsq.findByBaseOffset("R2", 0, true).tag.equals("S2");
+
+        // Only loads older than the asking op count, and only until they finish executing
+        pass &= lsq.hasOlderIncompleteLoadAt(8, 5) && !lsq.hasOlderIncompleteLoadAt(8, 2)
+                && !lsq.hasOlderIncompleteLoadAt(16, 4);
+        l1.completedExecution = true;
+        pass &= !lsq.hasOlderIncompleteLoadAt(8, 5);
+        System.out.println();
+        return pass;
+    }
+
+    /** Removing an entry drops it from the address, base/offset and unresolved indexes. */
+    private static boolean testRemoval() {
+        System.out.println("Test 2: Written-Back Entries Leave Every Index");
+        System.out.println("---");
+        LoadStoreQueue lsq = new LoadStoreQueue();
+        StoreBuffer.StoreEntry s2 = store("S2", 3, 2);
+        s2.baseReady = false;
+        s2.baseProducer = "M1";
+        lsq.add(store("S1", 1, 0));
+        lsq.add(load("L1", 2, 1));
+        lsq.add(s2);
+        lsq.add(store("S3", 5, 4));
+
+        lsq.remove("S1");
+        boolean pass = tags(lsq.getStoresAt(8)).equals(Arrays.asList("S3"))
+                && lsq.findAtAddress(8, true).tag.equals("L1");
+        lsq.remove("S2");
+        lsq.resolve("M1");  // the producer broadcasts after the store has gone
+        pass &= !lsq.getUnresolvedStores().iterator().hasNext() && lsq.findByBaseOffset("R2", 0, true) == null
+                && tags(lsq.getStoresAt(8)).equals(Arrays.asList("S3"));
+        lsq.remove("L1");
+        lsq.remove("S3");
+        lsq.remove("S3");
+        pass &= lsq.size() == 0 && lsq.getStoresAt(8).isEmpty() && lsq.findAtAddress(8, true) == null
+                && lsq.findByBaseOffset("R1", 8, true) == null;
+        System.out.println("Entries left: " + lsq.size());
+        System.out.println();
+        return pass;
+    }
+
+    /**
+     * Program (R1 = 0, F2 = 2.5, memory 0 holds 1.0, forwarding on):
+     * 0. S.D F2, 4(R1)
+     * 1. L.D F4, 0(R1)     - overlaps the store's first four bytes: waits for memory
+     * 2. L.D F6, 4(R1)     - same address as the store: forwarded
+     *
+     * The index finds the store four bytes above the first load, so that load reads the
+     * merged bytes from memory instead of the stale 1.0: memory is little-endian, and the
+     * low (zero) half of 2.5 replaces the high half of 1.0, giving 0.0.
+     */
+    private static boolean testForwardingThroughIndex() {
+        System.out.println("Test 3: Forwarding Only From an Exact Match");
+        System.out.println("---");
+        SimulatorState sim = new SimulatorState();
+        sim.loadProgramLines(Arrays.asList(
+            "S.D F2, 4(R1)",
+            "L.D F4, 0(R1)",
+            "L.D F6, 4(R1)"
+        ));
+        Map<String, Double> regs = new HashMap<>();
+        regs.put("R1", 0.0);
+        regs.put("F2", 2.5);
+        sim.loadInitialRegisterValues(regs);
+        sim.loadInitialMemoryValues(Collections.singletonMap(0, 1.0));
+        sim.setStoreForwarding(true, 1);
+        while (!sim.isFinished() && sim.getCycle() < 1000) sim.step();
+
+        double f4 = sim.getRegFile().getValue("F4");
+        double f6 = sim.getRegFile().getValue("F6");
+        System.out.println("F4 = " + f4 + ", F6 = " + f6 + ", forwarded loads = " + sim.getForwardedLoadCount());
+        boolean pass = sim.isFinished() && f4 == 0.0 && sim.getMemory().loadDouble(0) == 0.0
+                       && f6 == 2.5 && sim.getForwardedLoadCount() == 1;
+        System.out.println();
+        return pass;
+    }
+}
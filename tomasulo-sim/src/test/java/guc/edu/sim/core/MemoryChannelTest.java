@@ -0,0 +1,73 @@
+package guc.edu.sim.core;
+
+/**
+ * Test for the memory channel: finite bandwidth and a limit on requests in flight.
+ *
+ * Latencies are worked out by hand from the channel's documented timing.
+ */
+public class MemoryChannelTest {
+
+    public static void main(String[] args) {
+        System.out.println("=== Memory Channel Test ===\n");
+        SimLog.setEnabled(false);
+
+        boolean test1 = testBandwidthQueueing();
+        boolean test2 = testRequestsInFlight();
+
+        System.out.println("\n=== Test Summary ===");
+        System.out.println("Test 1 (Back-to-back transfers queue on the channel): " + (test1 ? "PASS" : "FAIL"));
+        System.out.println("Test 2 (Requests in flight limit): " + (test2 ? "PASS" : "FAIL"));
+
+        if (test1 && test2) {
+            System.out.println("\nAll tests PASSED!");
+            System.exit(0);
+        } else {
+            System.out.println("\nSome tests FAILED!");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 8 bytes per cycle and a 10-cycle access: a 64-byte block crosses the channel in 8
+     * cycles, so back-to-back reads complete 8 cycles apart, and a posted write delays
+     * the next read by its own transfer.
+     */
+    private static boolean testBandwidthQueueing() {
+        System.out.println("Test 1: Back-to-Back Transfers Queue on the Channel");
+        System.out.println("---");
+        boolean pass = true;
+        MemoryChannel channel = new MemoryChannel(8.0, 8, 10);
+        channel.advanceTo(0);
+        pass &= check("first read", channel.read(64), 18);
+        pass &= check("second read", channel.read(64), 26);
+        channel.write(64);
+        pass &= check("read behind a posted write", channel.read(64), 42);
+        pass &= channel.getBytesTransferred() == 256 && channel.getBusyCycles() == 32;
+        System.out.println();
+        return pass;
+    }
+
+    /**
+     * 64 bytes per cycle, a 10-cycle access and room for two requests: a third waits for
+     * the first to return, and an idle channel serves a read at the unloaded latency.
+     */
+    private static boolean testRequestsInFlight() {
+        System.out.println("Test 2: Requests in Flight Limit");
+        System.out.println("---");
+        boolean pass = true;
+        MemoryChannel limited = new MemoryChannel(64.0, 2, 10);
+        limited.advanceTo(0);
+        pass &= check("slot 1", limited.read(64), 11);
+        pass &= check("slot 2", limited.read(64), 12);
+        pass &= check("waits for slot 1", limited.read(64), 22);
+        limited.advanceTo(50);
+        pass &= check("idle channel again", limited.read(64), 11);
+        System.out.println();
+        return pass;
+    }
+
+    private static boolean check(String what, int latency, int expected) {
+        System.out.println(what + ": " + latency + " cycles (expected " + expected + ")");
+        return latency == expected;
+    }
+}
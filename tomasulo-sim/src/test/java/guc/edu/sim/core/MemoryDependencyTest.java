@@ -20,13 +20,19 @@ public class MemoryDependencyTest {
         boolean test1 = testLoadStoreMemoryDependency();
         boolean test2 = testStoreStoreMemoryDependency();
         boolean test3 = testDifferentAddressNoConflict();
+        boolean test4 = testStoreToLoadForwarding();
+        boolean test5 = testSpeculativeLoadReplay();
+        boolean test6 = testForwardingBeatsWaitingForMemory();
         
         System.out.println("\n=== Test Summary ===");
         System.out.println("Test 1 (Load-Store same address): " + (test1 ? "PASS" : "FAIL"));
         System.out.println("Test 2 (Store-Store same address): " + (test2 ? "PASS" : "FAIL"));
         System.out.println("Test 3 (Different addresses - no conflict): " + (test3 ? "PASS" : "FAIL"));
+        System.out.println("Test 4 (Store-to-load forwarding): " + (test4 ? "PASS" : "FAIL"));
+        System.out.println("Test 5 (Speculative load replay): " + (test5 ? "PASS" : "FAIL"));
+        System.out.println("Test 6 (Forwarding vs waiting for memory): " + (test6 ? "PASS" : "FAIL"));
         
-        if (test1 && test2 && test3) {
+        if (test1 && test2 && test3 && test4 && test5 && test6) {
             System.out.println("\nAll tests PASSED!");
             System.exit(0);
         } else {
@@ -313,4 +319,201 @@ public class MemoryDependencyTest {
         System.out.println();
         return passed;
     }
+    
+    /**
+     * Test that with store forwarding enabled a LOAD issues behind a STORE to the
+     * same address and receives the stored value from the store buffer.
+     * 
+     * Program:
+     * 0. S.D F2, 8(R1)     - Store 5.0 to address 8 (R1=0)
+     * 1. L.D F0, 8(R1)     - Load from the same address (should issue at once, value forwarded)
+     */
+    private static boolean testStoreToLoadForwarding() {
+        System.out.println("Test 4: Store-to-Load Forwarding");
+        System.out.println("Expected: L.D issues the cycle after S.D and gets 5.0 before S.D writes back");
+        System.out.println("---");
+        
+        SimulatorState sim = new SimulatorState();
+        
+        List<String> programLines = Arrays.asList(
+            "S.D F2, 8(R1)",
+            "L.D F0, 8(R1)"
+        );
+        
+        sim.loadProgramLines(programLines);
+        
+        Map<String, Double> regValues = new HashMap<>();
+        regValues.put("R1", 0.0);
+        regValues.put("F2", 5.0);
+        sim.loadInitialRegisterValues(regValues);
+        
+        Map<Integer, Double> memValues = new HashMap<>();
+        memValues.put(8, 3.0);
+        sim.loadInitialMemoryValues(memValues);
+        
+        sim.setConfigurationWithLatencies(3, 2, 2, 3, 3, 
+                64, 16, 1, 10, 
+                3, 10, 40, 1, 2, 2, 1);
+        sim.setStoreForwarding(true, 1);
+        
+        for (int i = 0; i < 50 && !sim.isFinished(); i++) {
+            sim.step();
+        }
+        
+        int storeIssueCycle = -1;
+        int storeWriteBackCycle = -1;
+        int loadIssueCycle = -1;
+        int loadWriteBackCycle = -1;
+        for (SimulatorState.InstructionStatus status : sim.getInstructionStatuses()) {
+            if (status.programIndex == 0) {
+                storeIssueCycle = status.issueCycle;
+                storeWriteBackCycle = status.writeBackCycle;
+            }
+            if (status.programIndex == 1) {
+                loadIssueCycle = status.issueCycle;
+                loadWriteBackCycle = status.writeBackCycle;
+            }
+        }
+        double f0 = sim.getRegFile().getValue("F0");
+        
+        System.out.println("Results:");
+        System.out.println("  S.D issued at cycle " + storeIssueCycle + ", write-back at cycle " + storeWriteBackCycle);
+        System.out.println("  L.D issued at cycle " + loadIssueCycle + ", write-back at cycle " + loadWriteBackCycle);
+        System.out.println("  F0 = " + f0 + ", forwarded loads = " + sim.getForwardedLoadCount());
+        
+        boolean passed = loadIssueCycle == storeIssueCycle + 1
+                && loadWriteBackCycle > 0 && loadWriteBackCycle <= storeWriteBackCycle
+                && f0 == 5.0
+                && sim.getForwardedLoadCount() == 1;
+        System.out.println(passed ? "✓ PASS" : "✗ FAIL");
+        System.out.println();
+        return passed;
+    }
+    
+    /**
+     * Test that in speculative mode loads pass a store whose address is unknown,
+     * and that a load which turns out to alias the store is replayed and reads the
+     * stored value, training the store-set predictor.
+     * 
+     * Program (R6=40, R5=200, integer latency 10):
+     * 0. DADDI R2, R6, 0   - Slow producer of the store's base (R2 = 40)
+     * 1. S.D F4, 0(R2)     - Store 7.5 to address 40 (address unknown for 10 cycles)
+     * 2. L.D F6, 16(R5)    - Independent load: executes ahead of the store
+     * 3. L.D F8, 0(R6)     - Aliases the store: violation, replay, must end with 7.5
+     */
+    private static boolean testSpeculativeLoadReplay() {
+        System.out.println("Test 5: Speculative Load Replay");
+        System.out.println("Expected: independent L.D starts before S.D; aliasing L.D is replayed and reads 7.5");
+        System.out.println("---");
+        
+        SimulatorState sim = new SimulatorState();
+        
+        List<String> programLines = Arrays.asList(
+            "DADDI R2, R6, 0",
+            "S.D F4, 0(R2)",
+            "L.D F6, 16(R5)",
+            "L.D F8, 0(R6)"
+        );
+        
+        sim.loadProgramLines(programLines);
+        
+        Map<String, Double> regValues = new HashMap<>();
+        regValues.put("R5", 200.0);
+        regValues.put("R6", 40.0);
+        regValues.put("F4", 7.5);
+        sim.loadInitialRegisterValues(regValues);
+        
+        Map<Integer, Double> memValues = new HashMap<>();
+        memValues.put(40, 1.0);
+        memValues.put(216, 2.0);
+        sim.loadInitialMemoryValues(memValues);
+        
+        sim.setConfigurationWithLatencies(3, 2, 2, 3, 3, 
+                64, 16, 1, 10, 
+                3, 10, 40, 10, 2, 2, 1);
+        sim.setSpeculativeLoads(true, 3);
+        
+        for (int i = 0; i < 100 && !sim.isFinished(); i++) {
+            sim.step();
+        }
+        
+        int storeExecStart = -1;
+        int independentLoadExecStart = -1;
+        for (SimulatorState.InstructionStatus status : sim.getInstructionStatuses()) {
+            if (status.programIndex == 1) storeExecStart = status.execStartCycle;
+            if (status.programIndex == 2) independentLoadExecStart = status.execStartCycle;
+        }
+        double f6 = sim.getRegFile().getValue("F6");
+        double f8 = sim.getRegFile().getValue("F8");
+        
+        System.out.println("Results:");
+        System.out.println("  S.D exec start: " + storeExecStart + ", independent L.D exec start: " + independentLoadExecStart);
+        System.out.println("  F6 = " + f6 + ", F8 = " + f8);
+        System.out.println("  speculative loads = " + sim.getSpeculativeLoadCount() +
+                           ", violations = " + sim.getMemoryOrderViolationCount());
+        
+        boolean passed = independentLoadExecStart > 0 && independentLoadExecStart < storeExecStart
+                && f6 == 2.0 && f8 == 7.5
+                && sim.getMemoryOrderViolationCount() == 1
+                && sim.getStoreSetPredictor().predictsDependence(3, 1);
+        System.out.println(passed ? "✓ PASS" : "✗ FAIL");
+        System.out.println();
+        return passed;
+    }
+    
+    /**
+     * Test that forwarding shortens the load's wait without changing any result.
+     * 
+     * Program (R1=0, F2=2.5):
+     * 0. S.D F2, 0(R1)
+     * 1. L.D F4, 0(R1)     - Reads the store's value
+     * 2. ADD.D F6, F4, F4
+     * 
+     * Without forwarding the load waits for the store to write memory; with it the
+     * load takes the value from the store buffer and writes back sooner.
+     */
+    private static boolean testForwardingBeatsWaitingForMemory() {
+        System.out.println("Test 6: Forwarding vs Waiting for Memory");
+        System.out.println("Expected: L.D writes back earlier with forwarding, F6 = 5.0 either way");
+        System.out.println("---");
+        
+        int plain = forwardedLoadWriteBack(false);
+        int forwarded = forwardedLoadWriteBack(true);
+        
+        System.out.println("Results:");
+        System.out.println("  L.D write-back at cycle " + plain + " without forwarding, " + forwarded + " with");
+        
+        boolean passed = plain > 0 && forwarded > 0 && forwarded < plain;
+        System.out.println(passed ? "✓ PASS" : "✗ FAIL");
+        System.out.println();
+        return passed;
+    }
+    
+    /** Write-back cycle of the load in test 6, or -1 if the run ends with wrong values. */
+    private static int forwardedLoadWriteBack(boolean forwarding) {
+        SimulatorState sim = new SimulatorState();
+        sim.loadProgramLines(Arrays.asList(
+            "S.D F2, 0(R1)",
+            "L.D F4, 0(R1)",
+            "ADD.D F6, F4, F4"
+        ));
+        
+        Map<String, Double> regValues = new HashMap<>();
+        regValues.put("R1", 0.0);
+        regValues.put("F2", 2.5);
+        sim.loadInitialRegisterValues(regValues);
+        sim.setStoreForwarding(forwarding, 1);
+        
+        for (int i = 0; i < 1000 && !sim.isFinished(); i++) {
+            sim.step();
+        }
+        
+        if (!sim.isFinished() || sim.getRegFile().getValue("F6") != 5.0 || sim.getMemory().loadDouble(0) != 2.5) {
+            return -1;
+        }
+        for (SimulatorState.InstructionStatus status : sim.getInstructionStatuses()) {
+            if (status.programIndex == 1) return status.writeBackCycle;
+        }
+        return -1;
+    }
 }
@@ -0,0 +1,168 @@
+package guc.edu.sim.core;
+
+import java.util.*;
+
+/**
+ * Test for the multicore: MESI coherence, shared memory between cores, and runs that do
+ * not depend on the number of host threads.
+ *
+ * Within a quantum each core works on the shared state as of the last synchronization;
+ * its stores and bus transactions are applied at the next one, core 0 first.
+ */
+public class MulticoreTest {
+
+    public static void main(String[] args) {
+        System.out.println("=== Multicore Test ===\n");
+        SimLog.setEnabled(false);
+
+        boolean test1 = testMesiTransitions();
+        boolean test2 = testCoreViewsPublishInOrder();
+        boolean test3 = testProducerConsumer();
+
+        System.out.println("\n=== Test Summary ===");
+        System.out.println("Test 1 (MESI transitions and counts): " + (test1 ? "PASS" : "FAIL"));
+        System.out.println("Test 2 (Core stores published in order): " + (test2 ? "PASS" : "FAIL"));
+        System.out.println("Test 3 (Producer/consumer on two cores): " + (test3 ? "PASS" : "FAIL"));
+
+        if (test1 && test2 && test3) {
+            System.out.println("\nAll tests PASSED!");
+            System.exit(0);
+        } else {
+            System.out.println("\nSome tests FAILED!");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Two cores, bus latency 5, cache-to-cache latency 10, block 0:
+     * core 0 reads (E), core 1 reads (S S), core 0 writes (M I, upgrade), core 1 reads
+     * (S S, supplied by core 0), core 1 writes (I M). Block 64 shows the silent E to M upgrade.
+     */
+    private static boolean testMesiTransitions() {
+        System.out.println("Test 1: MESI Transitions and Counts");
+        System.out.println("---");
+        CoherenceBus bus = new CoherenceBus(2, 5, 10);
+        CoherenceBus.State M = CoherenceBus.State.MODIFIED;
+        CoherenceBus.State E = CoherenceBus.State.EXCLUSIVE;
+        CoherenceBus.State S = CoherenceBus.State.SHARED;
+        CoherenceBus.State I = CoherenceBus.State.INVALID;
+        boolean pass = true;
+
+        pass &= check("core 0 read", bus.read(0, 0), 5);
+        // Queued until the synchronization point; core 0 already sees its own transaction
+        pass &= bus.getState(0, 0) == E && bus.getBusReads() == 0;
+        bus.synchronize();
+        pass &= states(bus, 0, E, I) && bus.getBusReads() == 1;
+
+        pass &= check("core 1 read", bus.read(1, 0), 5);
+        bus.synchronize();
+        pass &= states(bus, 0, S, S);
+
+        pass &= check("core 0 write", bus.write(0, 0), 5);
+        pass &= bus.getState(1, 0) == S;  // not invalidated before the synchronization
+        bus.synchronize();
+        pass &= states(bus, 0, M, I) && bus.getBusUpgrades() == 1 && bus.getInvalidations() == 1
+                && bus.getInvalidationsReceived(1) == 1;
+
+        pass &= check("core 1 read of a modified block", bus.read(1, 0), 15);
+        bus.synchronize();
+        pass &= states(bus, 0, S, S) && bus.getCacheToCacheTransfers() == 1 && bus.getWriteBacks() == 1;
+
+        pass &= check("core 1 write", bus.write(1, 0), 5);
+        bus.synchronize();
+        pass &= states(bus, 0, I, M) && bus.getInvalidationsReceived(0) == 1 && bus.getInvalidations() == 2;
+
+        pass &= check("core 0 read of block 64", bus.read(0, 64), 5);
+        bus.synchronize();
+        int transactions = bus.getTransactions();
+        pass &= check("core 0 write of an exclusive block", bus.write(0, 64), 0);
+        bus.synchronize();
+        pass &= states(bus, 64, M, I) && bus.getTransactions() == transactions;
+
+        System.out.println(bus);
+        pass &= bus.getBusReads() == 4 && bus.getBusReadExclusives() == 0 && bus.getBusUpgrades() == 2;
+        System.out.println();
+        return pass;
+    }
+
+    private static boolean check(String what, int latency, int expected) {
+        System.out.println(what + ": +" + latency + " cycles (expected " + expected + ")");
+        return latency == expected;
+    }
+
+    private static boolean states(CoherenceBus bus, int block, CoherenceBus.State core0, CoherenceBus.State core1) {
+        return bus.getState(0, block) == core0 && bus.getState(1, block) == core1;
+    }
+
+    private static boolean testCoreViewsPublishInOrder() {
+        System.out.println("Test 2: Core Stores Published In Order");
+        System.out.println("---");
+        Memory shared = new Memory();
+        shared.storeDouble(0, 1.0);
+        Memory core0 = Memory.coreView(shared);
+        Memory core1 = Memory.coreView(shared);
+        core1.watchWrites(new int[] {0}, new int[] {8});
+
+        core0.storeDouble(0, 2.0);
+        core1.storeDouble(0, 3.0);
+        core0.storeWord(16, 7);
+        boolean pass = core0.loadDouble(0) == 2.0 && core1.loadDouble(0) == 3.0 && shared.loadDouble(0) == 1.0
+                       && core1.loadWord(16) == 0;
+        // The watchpoint on core 1's view sees core 1's store only
+        pass &= core1.takeWatchedWrites() == 1L && core0.takeWatchedWrites() == 0L;
+
+        core0.publishWrites();
+        core1.publishWrites();
+        pass &= shared.loadDouble(0) == 3.0 && core0.loadDouble(0) == 3.0 && core1.loadWord(16) == 7;
+        System.out.println("Shared word at 0 after publishing: " + shared.loadDouble(0));
+        System.out.println();
+        return pass;
+    }
+
+    /**
+     * Core 0 counts down a delay loop, then stores 42 to address 0. Core 1 spins reading
+     * address 0 until it is non-zero, then adds 1. Core 1's cached copy is invalidated by
+     * core 0's write, and its next read is supplied by core 0.
+     */
+    private static boolean testProducerConsumer() {
+        System.out.println("Test 3: Producer/Consumer On Two Cores");
+        System.out.println("---");
+        Map<Integer, String> reference = new HashMap<>();  // first result for each quantum
+        boolean pass = true;
+        for (int hostThreads : new int[] {1, 2, 2}) {
+            for (int quantum : new int[] {1, 10}) {
+                MulticoreSimulator mc = new MulticoreSimulator(2, 5, 10);
+                mc.loadPrograms(Arrays.asList(
+                    Arrays.asList(
+                        "DADDI R5, R0, 20",
+                        "WAIT: DSUBI R5, R5, 1",
+                        "BNE R5, R0, WAIT",
+                        "DADDI R1, R0, 42",
+                        "SW R1, 0(R0)"),
+                    Arrays.asList(
+                        "SPIN: LW R2, 0(R0)",
+                        "BEQ R2, R0, SPIN",
+                        "DADDI R3, R2, 1")));
+                mc.setHostThreads(hostThreads);
+                mc.setQuantum(quantum);
+                int cycles = mc.run(20000);
+
+                SimulatorState consumer = mc.getCore(1);
+                CoherenceBus bus = mc.getCoherenceBus();
+                String result = "quantum " + quantum + ": " + cycles + " cycles, R3=" +
+                                consumer.getRegFile().getValue("R3") + ", " + bus +
+                                ", core 1 invalidated " + bus.getInvalidationsReceived(1) + " times";
+                System.out.println("host threads " + hostThreads + ", " + result);
+
+                pass &= mc.isFinished() && consumer.getRegFile().getValue("R3") == 43.0
+                        && mc.getMemory().loadWord(0) == 42
+                        && bus.getInvalidationsReceived(1) == 1 && bus.getCacheToCacheTransfers() >= 1
+                        && bus.getState(0, 0) == CoherenceBus.State.SHARED
+                        && bus.getState(1, 0) == CoherenceBus.State.SHARED;
+                pass &= result.equals(reference.computeIfAbsent(quantum, q -> result));
+            }
+        }
+        System.out.println();
+        return pass;
+    }
+}
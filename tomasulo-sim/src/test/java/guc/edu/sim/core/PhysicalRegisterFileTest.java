@@ -0,0 +1,113 @@
+package guc.edu.sim.core;
+
+import java.util.*;
+
+/**
+ * Test for explicit renaming with a physical register file: the free list, in-order
+ * freeing of replaced registers, and issue stalls when the file runs out.
+ */
+public class PhysicalRegisterFileTest {
+
+    public static void main(String[] args) {
+        System.out.println("=== Physical Register File Test ===\n");
+        SimLog.setEnabled(false);
+
+        boolean test1 = testFreeList();
+        boolean test2 = testSmallFileStallsIssue();
+
+        System.out.println("\n=== Test Summary ===");
+        System.out.println("Test 1 (Physical register free list): " + (test1 ? "PASS" : "FAIL"));
+        System.out.println("Test 2 (Small file stalls issue): " + (test2 ? "PASS" : "FAIL"));
+
+        if (test1 && test2) {
+            System.out.println("\nAll tests PASSED!");
+            System.exit(0);
+        } else {
+            System.out.println("\nSome tests FAILED!");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Two registers beyond the 64 architectural ones. Renaming F2 and F4 uses both; the
+     * register each one replaced is only freed once it and every older renaming instruction
+     * have written back, so finishing the younger one first frees nothing.
+     */
+    private static boolean testFreeList() {
+        System.out.println("Test 1: Physical Register Free List");
+        System.out.println("---");
+        RegisterFile arch = new RegisterFile();
+        arch.loadInitialValues(Collections.singletonMap("F2", 1.5));
+        PhysicalRegisterFile prf = new PhysicalRegisterFile(66, arch);
+        boolean pass = prf.getFreeCount() == 2 && prf.getInUseCount() == 64;
+        String oldF2 = prf.lookup("F2");
+        pass &= prf.getValue(Integer.parseInt(oldF2.substring(1))) == 1.5;
+
+        int f2 = prf.rename("F2", "A1");
+        int f4 = prf.rename("F4", "A2");
+        pass &= !prf.hasFree() && !prf.isReady(f2) && prf.lookup("F2").equals("P" + f2) && prf.getPeakInUse() == 66;
+        try {
+            prf.rename("F6", "A3");
+            pass = false;
+        } catch (IllegalStateException e) {
+            System.out.println("Rename with an empty free list: " + e.getMessage());
+        }
+
+        prf.writeBack("A2", 8.0);
+        pass &= prf.isReady(f4) && prf.getValue(f4) == 8.0 && prf.getFreeCount() == 0;
+        System.out.println("After the younger writes back: " + prf.getFreeCount() + " free");
+        prf.writeBack("A1", 3.0);
+        pass &= prf.getFreeCount() == 2 && prf.getValue(f2) == 3.0 && prf.lookup("F2").equals("P" + f2);
+        System.out.println("After the older writes back: " + prf.getFreeCount() + " free");
+
+        try {
+            new PhysicalRegisterFile(64, arch);
+            pass = false;
+        } catch (IllegalArgumentException e) {
+            System.out.println("64 registers rejected: " + e.getMessage());
+        }
+        System.out.println();
+        return pass;
+    }
+
+    /**
+     * Program (memory 0 holds 3):
+     * 0. L.D F2, 0(R1)
+     * 1. MUL.D F4, F2, F2
+     * 2. ADD.D F6, F4, F2
+     * 3. ADD.D F8, F2, F2
+     * 4. ADD.D F10, F2, F2
+     * 5. ADD.D F12, F6, F8
+     *
+     * With 66 physical registers issue stalls on the free list; with 96 it never does.
+     * Both compute F12 = 18.
+     */
+    private static boolean testSmallFileStallsIssue() {
+        System.out.println("Test 2: Small File Stalls Issue");
+        System.out.println("---");
+        int[] stalls = new int[2];
+        double[] results = new double[2];
+        int[] sizes = {66, 96};
+        for (int i = 0; i < 2; i++) {
+            SimulatorState sim = new SimulatorState();
+            sim.loadProgramLines(Arrays.asList(
+                "L.D F2, 0(R1)",
+                "MUL.D F4, F2, F2",
+                "ADD.D F6, F4, F2",
+                "ADD.D F8, F2, F2",
+                "ADD.D F10, F2, F2",
+                "ADD.D F12, F6, F8"
+            ));
+            sim.loadInitialMemoryValues(Collections.singletonMap(0, 3.0));
+            sim.setRenameScheme(SimulatorState.RenameScheme.PHYSICAL_REGISTERS, sizes[i]);
+            while (!sim.isFinished() && sim.getCycle() < 1000) sim.step();
+            stalls[i] = sim.getRegisterFreeStalls();
+            results[i] = sim.isFinished() ? sim.getRegFile().getValue("F12") : Double.NaN;
+            System.out.println(sizes[i] + " physical registers: F12=" + results[i] + ", " +
+                               sim.getRegisterFreeStalls() + " free-list stalls, peak " + sim.getPeakPhysicalRegistersInUse());
+        }
+        boolean pass = results[0] == 18.0 && results[1] == 18.0 && stalls[0] > 0 && stalls[1] == 0;
+        System.out.println();
+        return pass;
+    }
+}
@@ -0,0 +1,152 @@
+package guc.edu.sim.core;
+
+import java.util.*;
+
+/**
+ * Test for SMARTS-style sampled simulation: functional fast-forward between short
+ * detailed windows, and the confidence interval built from the windows' CPI.
+ */
+public class SampledSimulationTest {
+
+    public static void main(String[] args) {
+        System.out.println("=== Sampled Simulation Test ===\n");
+        SimLog.setEnabled(false);
+
+        boolean test1 = testSampledConfidenceInterval();
+        boolean test2 = testUnsupportedProgramsRejected();
+        boolean test3 = testSimulatorHandedBackAsLoaded();
+
+        System.out.println("\n=== Test Summary ===");
+        System.out.println("Test 1 (Sampled IPC interval holds the full-run IPC): " + (test1 ? "PASS" : "FAIL"));
+        System.out.println("Test 2 (Unsupported programs rejected): " + (test2 ? "PASS" : "FAIL"));
+        System.out.println("Test 3 (Simulator handed back as loaded): " + (test3 ? "PASS" : "FAIL"));
+
+        if (test1 && test2 && test3) {
+            System.out.println("\nAll tests PASSED!");
+            System.exit(0);
+        } else {
+            System.out.println("\nSome tests FAILED!");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * A 30-instruction loop run 400 times, measured in 100-instruction windows every 500
+     * instructions. The 95% interval around the sampled IPC should hold the IPC of the
+     * full detailed run, and the functional fast-forward must cover every instruction.
+     */
+    private static boolean testSampledConfidenceInterval() {
+        System.out.println("Test 1: Sampled IPC Interval Holds The Full-Run IPC");
+        System.out.println("---");
+        WorkloadGenerator.Config config = new WorkloadGenerator.Config();
+        config.seed = 3;
+        config.bodyLength = 30;
+        config.minTripCount = 400;
+        config.maxTripCount = 400;
+        config.iterationAdvanceBytes = 16;
+        config.footprintBytes = 256;
+        WorkloadGenerator.Workload workload = new WorkloadGenerator(config).generate();
+
+        SimulatorState full = new SimulatorState();
+        workload.loadInto(full);
+        while (!full.isFinished()) full.step();
+        double fullIpc = (double) full.getCompletedInstructionCount() / full.getCycle();
+
+        SimulatorState sampled = new SimulatorState();
+        workload.loadInto(sampled);
+        SampledSimulation.Config sampling = new SampledSimulation.Config();
+        sampling.fastForward = 500;
+        sampling.detailedWarmup = 100;
+        sampling.measurement = 100;
+        SampledSimulation.Report report = new SampledSimulation(sampled, sampling).run(Long.MAX_VALUE);
+
+        System.out.println(String.format("Full run: IPC %.4f over %d instructions", fullIpc, full.getCompletedInstructionCount()));
+        System.out.println("Sampled: " + report);
+        boolean pass = report.getSampleCount() >= 10
+                       && report.totalInstructions == full.getCompletedInstructionCount()
+                       && report.detailedInstructions < report.totalInstructions / 2
+                       && report.getIpcLow() <= fullIpc && fullIpc <= report.getIpcHigh()
+                       && report.getIpcLow() < report.getIpc() && report.getIpc() < report.getIpcHigh();
+        System.out.println();
+        return pass;
+    }
+
+    /** Sampling needs a loaded program with a single thread. */
+    private static boolean testUnsupportedProgramsRejected() {
+        System.out.println("Test 2: Unsupported Programs Rejected");
+        System.out.println("---");
+        boolean pass = true;
+        SimulatorState empty = new SimulatorState();
+        SimulatorState smt = new SimulatorState();
+        smt.loadProgramLines(Arrays.asList(
+            ".thread",
+            "ADD.D F0, F2, F4",
+            ".thread",
+            "ADD.D F0, F2, F4"
+        ));
+        for (SimulatorState sim : new SimulatorState[] {empty, smt}) {
+            try {
+                new SampledSimulation(sim, new SampledSimulation.Config());
+                pass = false;
+            } catch (IllegalArgumentException e) {
+                System.out.println("Rejected: " + e.getMessage());
+            }
+        }
+        System.out.println();
+        return pass;
+    }
+
+    /**
+     * The detailed windows restart the simulator from sampled states. Once sampling is done
+     * it starts from what it was loaded with again: run to the end, it matches a simulator
+     * that never sampled, and so does a run after a reset.
+     */
+    private static boolean testSimulatorHandedBackAsLoaded() {
+        System.out.println("Test 3: Simulator Handed Back As Loaded");
+        System.out.println("---");
+        WorkloadGenerator.Config config = new WorkloadGenerator.Config();
+        config.seed = 4;
+        config.minTripCount = 60;
+        config.maxTripCount = 60;
+        config.iterationAdvanceBytes = 8;
+        WorkloadGenerator.Workload workload = new WorkloadGenerator(config).generate();
+
+        SimulatorState plain = new SimulatorState();
+        workload.loadInto(plain);
+        while (!plain.isFinished()) plain.step();
+
+        SimulatorState sampled = new SimulatorState();
+        workload.loadInto(sampled);
+        SampledSimulation.Config sampling = new SampledSimulation.Config();
+        sampling.fastForward = 200;
+        sampling.detailedWarmup = 50;
+        sampling.measurement = 50;
+        SampledSimulation.Report report = new SampledSimulation(sampled, sampling).run(Long.MAX_VALUE);
+
+        boolean pass = report.getSampleCount() > 0 && sampled.getCycle() == 0
+                       && sampled.getInitialRegisterValues().equals(workload.registerValues)
+                       && sampled.getInitialMemoryValues().equals(workload.memoryImage);
+        for (int run = 0; run < 2; run++) {
+            while (!sampled.isFinished() && sampled.getCycle() < 100000) sampled.step();
+            System.out.println((run == 0 ? "After sampling: " : "After a reset: ") + sampled.getCycle() +
+                               " cycles (never sampled: " + plain.getCycle() + ")");
+            pass &= sampled.isFinished() && sampled.getCycle() == plain.getCycle()
+                    && sampled.getCompletedInstructionCount() == plain.getCompletedInstructionCount()
+                    && new TreeMap<>(sampled.getRegFile().getAllValues()).equals(new TreeMap<>(plain.getRegFile().getAllValues()))
+                    && sameContents(sampled.getMemory(), plain.getMemory());
+            sampled.reset();
+        }
+        System.out.println();
+        return pass;
+    }
+
+    private static boolean sameContents(Memory a, Memory b) {
+        Map<Integer, byte[]> pagesA = a.getPages();
+        Map<Integer, byte[]> pagesB = b.getPages();
+        if (!pagesA.keySet().equals(pagesB.keySet())) return false;
+        for (Map.Entry<Integer, byte[]> page : pagesA.entrySet()) {
+            if (!Arrays.equals(page.getValue(), pagesB.get(page.getKey()))) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,154 @@
+package guc.edu.sim.core;
+
+import java.util.*;
+
+/**
+ * Test for simultaneous multithreading.
+ *
+ * A listing split by {@code .thread} lines runs as several hardware threads. Each thread
+ * past the first gets its own architectural registers (R1 becomes R1.T1) and labels
+ * (LOOP becomes T1.LOOP), and the round-robin fetch policy takes turns between threads.
+ */
+public class SmtTest {
+
+    public static void main(String[] args) {
+        System.out.println("=== SMT Test ===\n");
+        SimLog.setEnabled(false);
+
+        boolean test1 = testThreadsKeepSeparateRegisters();
+        boolean test2 = testRoundRobinAlternates();
+        boolean test3 = testSnapshotListsThreadRegisters();
+
+        System.out.println("\n=== Test Summary ===");
+        System.out.println("Test 1 (Threads keep separate registers): " + (test1 ? "PASS" : "FAIL"));
+        System.out.println("Test 2 (Round-robin fetch alternates): " + (test2 ? "PASS" : "FAIL"));
+        System.out.println("Test 3 (Full refresh lists every thread's registers): " + (test3 ? "PASS" : "FAIL"));
+
+        if (test1 && test2 && test3) {
+            System.out.println("\nAll tests PASSED!");
+            System.exit(0);
+        } else {
+            System.out.println("\nSome tests FAILED!");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Both threads run a loop labelled LOOP that adds to R1 and counts down R4:
+     * thread 0 adds 5 twice, thread 1 adds 7 three times.
+     */
+    private static boolean testThreadsKeepSeparateRegisters() {
+        System.out.println("Test 1: Threads Keep Separate Registers");
+        System.out.println("---");
+        SimulatorState sim = new SimulatorState();
+        sim.loadProgramLines(Arrays.asList(
+            ".thread",
+            "DADDI R4, R0, 2",
+            "LOOP: DADDI R1, R1, 5",
+            "DSUBI R4, R4, 1",
+            "BNE R4, R0, LOOP",
+            ".thread",
+            "DADDI R4, R0, 3",
+            "LOOP: DADDI R1, R1, 7",
+            "DSUBI R4, R4, 1",
+            "BNE R4, R0, LOOP"
+        ));
+
+        Program program = sim.getProgram();
+        Instruction add = program.get(5);
+        boolean pass = program.getThreadCount() == 2
+                       && "R1.T1".equals(add.getDest()) && "R1.T1".equals(add.getSrc1()) && "5".equals(program.get(1).getSrc2())
+                       && program.getLabels().get("LOOP") == 1 && program.getLabels().get("T1.LOOP") == 5
+                       && "T1.LOOP".equals(program.get(7).getBranchTargetLabel());
+        System.out.println("Thread 1 instruction: " + add + ", labels " + program.getLabels());
+
+        while (!sim.isFinished() && sim.getCycle() < 1000) sim.step();
+
+        RegisterFile regs = sim.getRegFile();
+        System.out.println("R1=" + regs.getValue("R1") + ", R1.T1=" + regs.getValue("R1.T1") +
+                           ", R4=" + regs.getValue("R4") + ", R4.T1=" + regs.getValue("R4.T1"));
+        pass &= sim.isFinished()
+                && regs.getValue("R1") == 10.0 && regs.getValue("R1.T1") == 21.0
+                && regs.getValue("R4") == 0.0 && regs.getValue("R4.T1") == 0.0;
+        System.out.println();
+        return pass;
+    }
+
+    /**
+     * Two straight-line threads of independent integer adds, with enough stations that
+     * neither thread ever stalls: one instruction issues per cycle, from each thread in turn.
+     */
+    private static boolean testRoundRobinAlternates() {
+        System.out.println("Test 2: Round-Robin Fetch Alternates");
+        System.out.println("---");
+        SimulatorState sim = new SimulatorState();
+        sim.loadProgramLines(Arrays.asList(
+            ".thread",
+            "DADDI R1, R0, 1",
+            "DADDI R2, R0, 2",
+            "DADDI R3, R0, 3",
+            ".thread",
+            "DADDI R1, R0, 4",
+            "DADDI R2, R0, 5",
+            "DADDI R3, R0, 6"
+        ));
+        sim.setConfigurationWithLatencies(3, 2, 8, 3, 3, 64, 16, 1, 10, 3, 10, 40, 1, 2, 2, 1);
+        sim.setSmtFetchPolicy(SimulatorState.FetchPolicy.ROUND_ROBIN);
+        while (!sim.isFinished() && sim.getCycle() < 1000) sim.step();
+
+        List<SimulatorState.InstructionStatus> statuses = new ArrayList<>(sim.getInstructionStatuses());
+        statuses.sort(Comparator.comparingInt(status -> status.issueCycle));
+        StringBuilder order = new StringBuilder();
+        boolean pass = statuses.size() == 6;
+        for (int i = 0; i < statuses.size(); i++) {
+            SimulatorState.InstructionStatus status = statuses.get(i);
+            int thread = status.programIndex < 3 ? 0 : 1;
+            order.append("T").append(thread).append("@").append(status.issueCycle).append(' ');
+            pass &= thread == i % 2;
+            if (i > 0) pass &= status.issueCycle == statuses.get(i - 1).issueCycle + 1;
+        }
+        System.out.println("Issue order: " + order.toString().trim());
+
+        RegisterFile regs = sim.getRegFile();
+        pass &= regs.getValue("R1") == 1.0 && regs.getValue("R2") == 2.0 && regs.getValue("R3") == 3.0
+                && regs.getValue("R1.T1") == 4.0 && regs.getValue("R2.T1") == 5.0 && regs.getValue("R3.T1") == 6.0;
+        System.out.println();
+        return pass;
+    }
+
+    /**
+     * A full-refresh snapshot, as taken after a program load or a reset, holds a row for
+     * every architectural register: R0-R31 and F0-F31 of thread 0, then those of thread 1.
+     */
+    private static boolean testSnapshotListsThreadRegisters() {
+        System.out.println("Test 3: Full Refresh Lists Every Thread's Registers");
+        System.out.println("---");
+        SimulatorState sim = new SimulatorState();
+        sim.loadProgramLines(Arrays.asList(
+            ".thread",
+            "DADDI R1, R0, 1",
+            ".thread",
+            "DADDI R1, R0, 4"
+        ));
+        boolean pass = true;
+        for (int run = 0; run < 2; run++) {
+            SimulatorSnapshot snapshot = sim.captureSnapshot();
+            List<String> names = new ArrayList<>();
+            for (SimulatorSnapshot.RegisterRow row : snapshot.getRegisters()) names.add(row.name);
+            System.out.println((run == 0 ? "After load: " : "After reset: ") + names.size() + " registers, " +
+                               names.get(0) + ".." + names.get(names.size() - 1));
+            pass &= snapshot.isFullRefresh() && names.size() == 128
+                    && names.get(0).equals("R0") && names.get(31).equals("R31")
+                    && names.get(32).equals("F0") && names.get(63).equals("F31")
+                    && names.get(64).equals("R0.T1") && names.get(96).equals("F0.T1")
+                    && names.get(127).equals("F31.T1");
+
+            while (!sim.isFinished() && sim.getCycle() < 1000) sim.step();
+            sim.captureSnapshot();
+            pass &= sim.getRegFile().getValue("R1.T1") == 4.0;
+            sim.reset();
+        }
+        System.out.println();
+        return pass;
+    }
+}
@@ -0,0 +1,95 @@
+package guc.edu.sim.core;
+
+/**
+ * Test for address translation: DTLB and second-level TLB hits, page walks, and
+ * TLB geometry checks.
+ *
+ * A walk costs 4 levels x 20 cycles; the second-level TLB adds 7 cycles when checked.
+ */
+public class TlbTest {
+
+    public static void main(String[] args) {
+        System.out.println("=== TLB Test ===\n");
+        SimLog.setEnabled(false);
+
+        boolean test1 = testSingleLevel();
+        boolean test2 = testTwoLevels();
+        boolean test3 = testBadGeometryRejected();
+
+        System.out.println("\n=== Test Summary ===");
+        System.out.println("Test 1 (TLB hit, miss and page walk latency): " + (test1 ? "PASS" : "FAIL"));
+        System.out.println("Test 2 (Second-level TLB): " + (test2 ? "PASS" : "FAIL"));
+        System.out.println("Test 3 (Bad geometry rejected): " + (test3 ? "PASS" : "FAIL"));
+
+        if (test1 && test2 && test3) {
+            System.out.println("\nAll tests PASSED!");
+            System.exit(0);
+        } else {
+            System.out.println("\nSome tests FAILED!");
+            System.exit(1);
+        }
+    }
+
+    /** With only a DTLB, the first access to each page walks and the rest of the page hits. */
+    private static boolean testSingleLevel() {
+        System.out.println("Test 1: TLB Hit, Miss and Page Walk Latency");
+        System.out.println("---");
+        boolean pass = true;
+        Mmu single = new Mmu(new Mmu.Config());
+        pass &= check("first access to page 0", single.translate(0), 80);
+        pass &= check("same page", single.translate(4088), 0);
+        pass &= check("page 1", single.translate(4096), 80);
+        pass &= single.getPageWalks() == 2 && single.getWalkCycles() == 160
+                && single.getL1().getHits() == 1 && single.getL1().getMisses() == 2 && single.getL2() == null;
+        System.out.println();
+        return pass;
+    }
+
+    /**
+     * With a 4-entry DTLB and a 16-entry L2 TLB, touching pages 0-4 walks five times
+     * (7 + 80 each, the L2 TLB is checked first); page 0 then misses the DTLB and hits the
+     * L2 TLB (+7), and after that hits the DTLB (+0).
+     */
+    private static boolean testTwoLevels() {
+        System.out.println("Test 2: Second-Level TLB");
+        System.out.println("---");
+        boolean pass = true;
+        Mmu.Config config = new Mmu.Config();
+        config.l1Entries = 4;
+        config.l1Ways = 4;
+        config.l2Entries = 16;
+        config.l2Ways = 4;
+        Mmu twoLevel = new Mmu(config);
+        for (int page = 0; page < 5; page++) {
+            pass &= check("walk for page " + page, twoLevel.translate(page * 4096), 87);
+        }
+        pass &= check("page 0 from the L2 TLB", twoLevel.translate(0), 7);
+        pass &= check("page 0 from the DTLB", twoLevel.translate(16), 0);
+        System.out.println(twoLevel);
+        pass &= twoLevel.getTranslations() == 7 && twoLevel.getPageWalks() == 5
+                && twoLevel.getL2().getHits() == 1 && twoLevel.getL2().getMisses() == 5
+                && Math.abs(twoLevel.getAverageLatency() - (5 * 87 + 7) / 7.0) < 1e-12;
+        System.out.println();
+        return pass;
+    }
+
+    /** Entries must divide into whole sets. */
+    private static boolean testBadGeometryRejected() {
+        System.out.println("Test 3: Bad Geometry Rejected");
+        System.out.println("---");
+        boolean pass = true;
+        try {
+            new Tlb("bad", 6, 4);
+            pass = false;
+        } catch (IllegalArgumentException e) {
+            System.out.println("6 entries in 4-way sets rejected: " + e.getMessage());
+        }
+        System.out.println();
+        return pass;
+    }
+
+    private static boolean check(String what, int latency, int expected) {
+        System.out.println(what + ": " + latency + " cycles (expected " + expected + ")");
+        return latency == expected;
+    }
+}
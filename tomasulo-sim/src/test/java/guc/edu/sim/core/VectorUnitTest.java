@@ -0,0 +1,114 @@
+package guc.edu.sim.core;
+
+import java.util.*;
+
+/**
+ * Test for the vector extension: V registers, unit-stride and strided vector memory
+ * operations, scalar broadcast, and lane-parallel vector pipelines.
+ */
+public class VectorUnitTest {
+
+    public static void main(String[] args) {
+        System.out.println("=== Vector Unit Test ===\n");
+        SimLog.setEnabled(false);
+
+        boolean test1 = testVectorResults();
+        boolean test2 = testLanesShortenExecution();
+
+        System.out.println("\n=== Test Summary ===");
+        System.out.println("Test 1 (Vector loads, arithmetic and stores): " + (test1 ? "PASS" : "FAIL"));
+        System.out.println("Test 2 (More lanes, shorter execution): " + (test2 ? "PASS" : "FAIL"));
+
+        if (test1 && test2) {
+            System.out.println("\nAll tests PASSED!");
+            System.exit(0);
+        } else {
+            System.out.println("\nSome tests FAILED!");
+            System.exit(1);
+        }
+    }
+
+    private static void runToEnd(SimulatorState sim) {
+        while (!sim.isFinished() && sim.getCycle() < 1000) sim.step();
+    }
+
+    /**
+     * Program (memory 0-56 holds 0..7, memory 64-120 holds 100..107, F0 = 2, R3 = 16):
+     * 0. VL.D V1, 0(R1)
+     * 1. VMUL.D V2, V1, F0        - scalar operand broadcast to every element
+     * 2. VL.D V3, 0(R2)
+     * 3. VADD.D V4, V2, V3
+     * 4. VS.D V4, 0(R2)
+     * 5. VLS.D V5, 0(R1), R3      - every other double from 0, reaching into the stored vector
+     * 6. L.D F6, 8(R2)            - reads element 1 of the stored vector
+     */
+    private static boolean testVectorResults() {
+        System.out.println("Test 1: Vector Loads, Arithmetic and Stores");
+        System.out.println("---");
+        SimulatorState sim = new SimulatorState();
+        sim.loadProgramLines(Arrays.asList(
+            "VL.D V1, 0(R1)",
+            "VMUL.D V2, V1, F0",
+            "VL.D V3, 0(R2)",
+            "VADD.D V4, V2, V3",
+            "VS.D V4, 0(R2)",
+            "VLS.D V5, 0(R1), R3",
+            "L.D F6, 8(R2)"
+        ));
+        Map<String, Double> regs = new HashMap<>();
+        regs.put("R1", 0.0);
+        regs.put("R2", 64.0);
+        regs.put("R3", 16.0);
+        regs.put("F0", 2.0);
+        sim.loadInitialRegisterValues(regs);
+        Map<Integer, Double> memory = new HashMap<>();
+        for (int i = 0; i < 8; i++) {
+            memory.put(i * 8, (double) i);
+            memory.put(64 + i * 8, 100.0 + i);
+        }
+        sim.loadInitialMemoryValues(memory);
+        runToEnd(sim);
+
+        VectorRegisterFile vregs = sim.getVectorRegisterFile();
+        double[] v4 = new double[8];
+        for (int i = 0; i < 8; i++) v4[i] = 2.0 * i + 100.0 + i;
+        double[] v5 = {0, 2, 4, 6, v4[0], v4[2], v4[4], v4[6]};
+        for (int i = 1; i <= 5; i++) System.out.println("V" + i + " = " + Arrays.toString(vregs.getValue("V" + i)));
+        System.out.println("F6 = " + sim.getRegFile().getValue("F6") + ", vector instructions issued " + sim.getVectorIssuedCount());
+
+        boolean pass = sim.isFinished() && Arrays.equals(vregs.getValue("V4"), v4) && Arrays.equals(vregs.getValue("V5"), v5)
+                       && sim.getMemory().loadDouble(64 + 7 * 8) == v4[7]
+                       && sim.getRegFile().getValue("F6") == v4[1] && sim.getVectorIssuedCount() == 6;
+        System.out.println();
+        return pass;
+    }
+
+    /**
+     * VADD.D V2, V1, F0 over 8 elements (F0 = 1). Element i finishes at
+     * start + i / lanes + latency - 1, so one lane takes 7 cycles longer than eight
+     * lanes and both give every element 1.0.
+     */
+    private static boolean testLanesShortenExecution() {
+        System.out.println("Test 2: More Lanes, Shorter Execution");
+        System.out.println("---");
+        int[] spans = new int[2];
+        int[] lanes = {1, 8};
+        boolean pass = true;
+        for (int i = 0; i < 2; i++) {
+            SimulatorState sim = new SimulatorState();
+            sim.loadProgramLines(Collections.singletonList("VADD.D V2, V1, F0"));
+            sim.loadInitialRegisterValues(Collections.singletonMap("F0", 1.0));
+            sim.setVectorConfiguration(8, lanes[i], 2);
+            runToEnd(sim);
+            SimulatorState.InstructionStatus add = sim.getInstructionStatuses().get(0);
+            spans[i] = add.execEndCycle - add.execStartCycle + 1;
+            double[] expected = new double[8];
+            Arrays.fill(expected, 1.0);
+            pass &= sim.isFinished() && Arrays.equals(sim.getVectorRegisterFile().getValue("V2"), expected);
+            System.out.println(lanes[i] + " lane(s): executes for " + spans[i] + " cycles");
+        }
+        pass &= spans[0] - spans[1] == 7;
+        System.out.println();
+        return pass;
+    }
+}
@@ -0,0 +1,101 @@
+package guc.edu.sim.core;
+
+import java.util.*;
+
+/**
+ * Test for the seeded synthetic workload generator.
+ */
+public class WorkloadGeneratorTest {
+
+    public static void main(String[] args) {
+        System.out.println("=== Workload Generator Test ===\n");
+        SimLog.setEnabled(false);
+
+        boolean test1 = testGeneratorSeedDeterminism();
+        boolean test2 = testBadConfigRejected();
+
+        System.out.println("\n=== Test Summary ===");
+        System.out.println("Test 1 (Generator seed determinism): " + (test1 ? "PASS" : "FAIL"));
+        System.out.println("Test 2 (Bad settings rejected): " + (test2 ? "PASS" : "FAIL"));
+
+        if (test1 && test2) {
+            System.out.println("\nAll tests PASSED!");
+            System.exit(0);
+        } else {
+            System.out.println("\nSome tests FAILED!");
+            System.exit(1);
+        }
+    }
+
+    private static WorkloadGenerator.Config generatorConfig(long seed) {
+        WorkloadGenerator.Config config = new WorkloadGenerator.Config();
+        config.seed = seed;
+        config.loops = 2;
+        config.bodyLength = 12;
+        config.minTripCount = 3;
+        config.maxTripCount = 6;
+        config.branchFraction = 0.15;
+        config.intMulWeight = 0.05;
+        config.iterationAdvanceBytes = 32;
+        config.stridePattern = WorkloadGenerator.StridePattern.STRIDED;
+        return config;
+    }
+
+    /** The same config gives the same listing, registers, memory and timing; another seed does not. */
+    private static boolean testGeneratorSeedDeterminism() {
+        System.out.println("Test 1: Generator Seed Determinism");
+        System.out.println("---");
+        WorkloadGenerator.Workload first = new WorkloadGenerator(generatorConfig(42)).generate();
+        WorkloadGenerator.Workload again = new WorkloadGenerator(generatorConfig(42)).generate();
+        WorkloadGenerator.Workload other = new WorkloadGenerator(generatorConfig(43)).generate();
+
+        boolean pass = first.toListing().equals(again.toListing()) && first.lines.equals(again.lines)
+                       && first.registerValues.equals(again.registerValues)
+                       && first.memoryImage.equals(again.memoryImage)
+                       && !first.lines.equals(other.lines);
+
+        int[] cycles = new int[2];
+        WorkloadGenerator.Workload[] runs = {first, again};
+        for (int i = 0; i < 2; i++) {
+            SimulatorState sim = new SimulatorState();
+            runs[i].loadInto(sim);
+            while (!sim.isFinished() && sim.getCycle() < 100000) sim.step();
+            pass &= sim.isFinished();
+            cycles[i] = sim.getCycle();
+        }
+        System.out.println("Seed 42: " + first.lines.size() + " lines, " + first.memoryImage.size() +
+                           " memory words, " + cycles[0] + " and " + cycles[1] + " cycles");
+        pass &= cycles[0] == cycles[1];
+        System.out.println();
+        return pass;
+    }
+
+    /** An empty body, an inverted trip count range and a footprint smaller than a double are rejected. */
+    private static boolean testBadConfigRejected() {
+        System.out.println("Test 2: Bad Settings Rejected");
+        System.out.println("---");
+        List<WorkloadGenerator.Config> bad = new ArrayList<>();
+        WorkloadGenerator.Config config = generatorConfig(1);
+        config.bodyLength = 0;
+        bad.add(config);
+        config = generatorConfig(1);
+        config.minTripCount = 5;
+        config.maxTripCount = 4;
+        bad.add(config);
+        config = generatorConfig(1);
+        config.footprintBytes = 4;
+        bad.add(config);
+
+        boolean pass = true;
+        for (WorkloadGenerator.Config c : bad) {
+            try {
+                new WorkloadGenerator(c);
+                pass = false;
+            } catch (IllegalArgumentException e) {
+                System.out.println("Rejected: " + e.getMessage());
+            }
+        }
+        System.out.println();
+        return pass;
+    }
+}